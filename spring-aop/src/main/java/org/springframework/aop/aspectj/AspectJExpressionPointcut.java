@@ -18,10 +18,14 @@ package org.springframework.aop.aspectj;
 
 import java.io.IOException;
 import java.io.ObjectInputStream;
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.lang.reflect.Method;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.ConcurrentHashMap;
 
 import org.aopalliance.intercept.MethodInvocation;
@@ -99,6 +103,15 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private static final Log logger = LogFactory.getLog(AspectJExpressionPointcut.class);
 
+	/**
+	 * Parsed expressions and their shadow match results, shared between equal pointcuts
+	 * (same expression, declaration scope, parameters and ClassLoader) per BeanFactory.
+	 * Neither the BeanFactory nor the shared expressions are strongly held by this cache:
+	 * an expression remains available as long as any pointcut is using it.
+	 */
+	private static final Map<BeanFactory, Map<ExpressionKey, Reference<SharedPointcutExpression>>> sharedExpressionCache =
+			new WeakHashMap<BeanFactory, Map<ExpressionKey, Reference<SharedPointcutExpression>>>();
+
 	private Class<?> pointcutDeclarationScope;
 
 	private String[] pointcutParameterNames = new String[0];
@@ -113,6 +126,8 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 
 	private transient Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<Method, ShadowMatch>(32);
 
+	private transient ConcurrentHashMap<Method, Object> shadowMatchLocks = new ConcurrentHashMap<Method, Object>(16);
+
 
 	/**
 	 * Create a new default AspectJExpressionPointcut.
@@ -186,7 +201,53 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 			this.pointcutClassLoader = (this.beanFactory instanceof ConfigurableBeanFactory ?
 					((ConfigurableBeanFactory) this.beanFactory).getBeanClassLoader() :
 					ClassUtils.getDefaultClassLoader());
-			this.pointcutExpression = buildPointcutExpression(this.pointcutClassLoader);
+			SharedPointcutExpression sharedExpression = obtainSharedPointcutExpression(this.pointcutClassLoader);
+			this.shadowMatchCache = sharedExpression.shadowMatchCache;
+			this.shadowMatchLocks = sharedExpression.shadowMatchLocks;
+			this.pointcutExpression = sharedExpression.pointcutExpression;
+		}
+	}
+
+	/**
+	 * Obtain the parsed pointcut expression for the given ClassLoader, reusing the
+	 * parse and shadow match results of an equal pointcut in the same BeanFactory
+	 * where possible.
+	 * <p>Pointcuts without a BeanFactory do not participate in sharing, and neither do
+	 * subclasses, since they may customize matching through {@link #getCurrentProxiedBeanName()}.
+	 */
+	private SharedPointcutExpression obtainSharedPointcutExpression(ClassLoader classLoader) {
+		if (this.beanFactory == null || getClass() != AspectJExpressionPointcut.class) {
+			return new SharedPointcutExpression(buildPointcutExpression(classLoader));
+		}
+		ExpressionKey key = new ExpressionKey(getExpression(), this.pointcutDeclarationScope,
+				this.pointcutParameterNames, this.pointcutParameterTypes, classLoader);
+		SharedPointcutExpression sharedExpression = getSharedPointcutExpression(key);
+		if (sharedExpression == null) {
+			// Parse outside of the lock: at worst, an equal pointcut parses concurrently.
+			SharedPointcutExpression newExpression = new SharedPointcutExpression(buildPointcutExpression(classLoader));
+			synchronized (sharedExpressionCache) {
+				sharedExpression = getSharedPointcutExpression(key);
+				if (sharedExpression == null) {
+					Map<ExpressionKey, Reference<SharedPointcutExpression>> expressions =
+							sharedExpressionCache.get(this.beanFactory);
+					if (expressions == null) {
+						expressions = new HashMap<ExpressionKey, Reference<SharedPointcutExpression>>();
+						sharedExpressionCache.put(this.beanFactory, expressions);
+					}
+					expressions.put(key, new WeakReference<SharedPointcutExpression>(newExpression));
+					sharedExpression = newExpression;
+				}
+			}
+		}
+		return sharedExpression;
+	}
+
+	private SharedPointcutExpression getSharedPointcutExpression(ExpressionKey key) {
+		synchronized (sharedExpressionCache) {
+			Map<ExpressionKey, Reference<SharedPointcutExpression>> expressions =
+					sharedExpressionCache.get(this.beanFactory);
+			Reference<SharedPointcutExpression> ref = (expressions != null ? expressions.get(key) : null);
+			return (ref != null ? ref.get() : null);
 		}
 	}
 
@@ -386,7 +447,18 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// Avoid lock contention for known Methods through concurrent access...
 		ShadowMatch shadowMatch = this.shadowMatchCache.get(targetMethod);
 		if (shadowMatch == null) {
-			synchronized (this.shadowMatchCache) {
+			// Single-flight per Method: concurrent requests for the same Method wait for
+			// one computation (also across equal pointcuts sharing the cache), while
+			// different Methods get matched in parallel.
+			Object lock = this.shadowMatchLocks.get(targetMethod);
+			if (lock == null) {
+				Object newLock = new Object();
+				lock = this.shadowMatchLocks.putIfAbsent(targetMethod, newLock);
+				if (lock == null) {
+					lock = newLock;
+				}
+			}
+			synchronized (lock) {
 				// Not found - now check again with full lock...
 				PointcutExpression fallbackExpression = null;
 				Method methodToMatch = targetMethod;
@@ -437,6 +509,8 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 					this.shadowMatchCache.put(targetMethod, shadowMatch);
 				}
 			}
+			// Result is visible in the cache now - no need to keep the lock around
+			this.shadowMatchLocks.remove(targetMethod, lock);
 		}
 		return shadowMatch;
 	}
@@ -493,6 +567,77 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 	}
 
 
+	/**
+	 * Key for the shared expression cache within a BeanFactory,
+	 * identifying the ClassLoader by identity.
+	 */
+	private static final class ExpressionKey {
+
+		private final String expression;
+
+		private final Class<?> declarationScope;
+
+		private final String[] parameterNames;
+
+		private final Class<?>[] parameterTypes;
+
+		private final ClassLoader classLoader;
+
+		public ExpressionKey(String expression, Class<?> declarationScope, String[] parameterNames,
+				Class<?>[] parameterTypes, ClassLoader classLoader) {
+
+			this.expression = expression;
+			this.declarationScope = declarationScope;
+			this.parameterNames = parameterNames.clone();
+			this.parameterTypes = parameterTypes.clone();
+			this.classLoader = classLoader;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ExpressionKey)) {
+				return false;
+			}
+			ExpressionKey otherKey = (ExpressionKey) other;
+			return (this.expression.equals(otherKey.expression) &&
+					this.declarationScope == otherKey.declarationScope &&
+					ObjectUtils.nullSafeEquals(this.parameterNames, otherKey.parameterNames) &&
+					ObjectUtils.nullSafeEquals(this.parameterTypes, otherKey.parameterTypes) &&
+					this.classLoader == otherKey.classLoader);
+		}
+
+		@Override
+		public int hashCode() {
+			int hashCode = this.expression.hashCode();
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.declarationScope);
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.parameterNames);
+			hashCode = 31 * hashCode + ObjectUtils.nullSafeHashCode(this.parameterTypes);
+			hashCode = 31 * hashCode + System.identityHashCode(this.classLoader);
+			return hashCode;
+		}
+	}
+
+
+	/**
+	 * A parsed AspectJ pointcut expression together with its shadow match cache.
+	 */
+	private static final class SharedPointcutExpression {
+
+		private final PointcutExpression pointcutExpression;
+
+		private final Map<Method, ShadowMatch> shadowMatchCache = new ConcurrentHashMap<Method, ShadowMatch>(32);
+
+		private final ConcurrentHashMap<Method, Object> shadowMatchLocks = new ConcurrentHashMap<Method, Object>(16);
+
+		public SharedPointcutExpression(PointcutExpression pointcutExpression) {
+			this.pointcutExpression = pointcutExpression;
+		}
+	}
+
+
 	/**
 	 * Handler for the Spring-specific {@code bean()} pointcut designator
 	 * extension to AspectJ.
@@ -598,6 +743,7 @@ public class AspectJExpressionPointcut extends AbstractExpressionPointcut
 		// Initialize transient fields.
 		// pointcutExpression will be initialized lazily by checkReadyToMatch()
 		this.shadowMatchCache = new ConcurrentHashMap<Method, ShadowMatch>(32);
+		this.shadowMatchLocks = new ConcurrentHashMap<Method, Object>(16);
 	}
 
 
@@ -0,0 +1,161 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * {@link ReflectiveMethodInvocation} variant that invokes the target method through
+ * a generated CGLIB {@link FastClass} for the target class, i.e. through a regular
+ * virtual method call instead of through reflection. Falls back to reflection for
+ * target classes or methods that a {@code FastClass} cannot be generated for.
+ *
+ * <p>Used by {@link JdkDynamicAopProxy} if the proxy configuration has
+ * {@link ProxyConfig#setFastInvocation "fastInvocation"} turned on.
+ *
+ * @since 3.2.13
+ * @see #invokeTarget
+ */
+class FastMethodInvocation extends ReflectiveMethodInvocation {
+
+	private static final Log logger = LogFactory.getLog(FastMethodInvocation.class);
+
+	/** Invokers per target class */
+	private static final Map<Class<?>, TargetClassInvokers> invokersCache =
+			new ConcurrentReferenceHashMap<Class<?>, TargetClassInvokers>(64);
+
+
+	/**
+	 * Construct a new FastMethodInvocation with the given arguments.
+	 * @see ReflectiveMethodInvocation#ReflectiveMethodInvocation
+	 */
+	protected FastMethodInvocation(Object proxy, Object target, Method method, Object[] arguments,
+			Class<?> targetClass, List<Object> interceptorsAndDynamicMethodMatchers) {
+
+		super(proxy, target, method, arguments, targetClass, interceptorsAndDynamicMethodMatchers);
+	}
+
+
+	/**
+	 * Invoke the joinpoint through a generated invoker, if possible.
+	 */
+	@Override
+	protected Object invokeJoinpoint() throws Throwable {
+		return invokeTarget(this.target, this.method, this.arguments);
+	}
+
+
+	/**
+	 * Invoke the given method on the given target, through a generated
+	 * invoker if possible or through reflection otherwise.
+	 * @param target the target object
+	 * @param method the method to invoke
+	 * @param args the arguments for the method
+	 * @return the invocation result, if any
+	 * @throws Throwable if thrown by the target method
+	 * @see AopUtils#invokeJoinpointUsingReflection
+	 */
+	static Object invokeTarget(Object target, Method method, Object[] args) throws Throwable {
+		if (target != null) {
+			TargetClassInvokers invokers = getInvokers(target.getClass());
+			int index = invokers.getIndex(method);
+			if (index >= 0) {
+				try {
+					return invokers.fastClass.invoke(index, target, args);
+				}
+				catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+			}
+		}
+		return AopUtils.invokeJoinpointUsingReflection(target, method, args);
+	}
+
+	private static TargetClassInvokers getInvokers(Class<?> targetClass) {
+		TargetClassInvokers invokers = invokersCache.get(targetClass);
+		if (invokers == null) {
+			invokers = new TargetClassInvokers(createFastClass(targetClass));
+			invokersCache.put(targetClass, invokers);
+		}
+		return invokers;
+	}
+
+	private static FastClass createFastClass(Class<?> targetClass) {
+		if (!Modifier.isPublic(targetClass.getModifiers()) || targetClass.getClassLoader() == null ||
+				Proxy.isProxyClass(targetClass)) {
+			return null;
+		}
+		try {
+			return FastClass.create(targetClass);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate invoker class for [" + targetClass.getName() +
+						"] - falling back to reflection", ex);
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * Generated FastClass for a target class, along with the
+	 * resolved FastClass indexes of the methods invoked on it.
+	 */
+	private static class TargetClassInvokers {
+
+		private final FastClass fastClass;
+
+		private final Map<Method, Integer> indexCache = new ConcurrentHashMap<Method, Integer>(32);
+
+		public TargetClassInvokers(FastClass fastClass) {
+			this.fastClass = fastClass;
+		}
+
+		/**
+		 * Return the FastClass index of the given method, or -1 if it
+		 * needs to be invoked through reflection.
+		 */
+		public int getIndex(Method method) {
+			if (this.fastClass == null) {
+				return -1;
+			}
+			Integer index = this.indexCache.get(method);
+			if (index == null) {
+				index = (Modifier.isPublic(method.getModifiers()) &&
+						method.getDeclaringClass().isAssignableFrom(this.fastClass.getJavaClass()) ?
+						this.fastClass.getIndex(method.getName(), method.getParameterTypes()) : -1);
+				this.indexCache.put(method, index);
+			}
+			return index;
+		}
+	}
+
+}
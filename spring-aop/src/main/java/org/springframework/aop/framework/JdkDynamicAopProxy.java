@@ -200,12 +200,15 @@ final class JdkDynamicAopProxy implements AopProxy, InvocationHandler, Serializa
 				// We can skip creating a MethodInvocation: just invoke the target directly
 				// Note that the final invoker must be an InvokerInterceptor so we know it does
 				// nothing but a reflective operation on the target, and no hot swapping or fancy proxying.
-				retVal = AopUtils.invokeJoinpointUsingReflection(target, method, args);
+				retVal = (this.advised.fastInvocation ? FastMethodInvocation.invokeTarget(target, method, args) :
+						AopUtils.invokeJoinpointUsingReflection(target, method, args));
 			}
 			else {
 				// We need to create a method invocation...
 				//将拦截器封装在ReflectiveMethodInvocation以便于使用其proceed进行链接表用拦截器-》
-				invocation = new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain);
+				invocation = (this.advised.fastInvocation ?
+						new FastMethodInvocation(proxy, target, method, args, targetClass, chain) :
+						new ReflectiveMethodInvocation(proxy, target, method, args, targetClass, chain));
 				// Proceed to the joinpoint through the interceptor chain.
 				//执行拦截器链 -》
 				retVal = invocation.proceed();
@@ -42,6 +42,8 @@ public class ProxyConfig implements Serializable {
 
 	boolean exposeProxy = false;
 
+	boolean fastInvocation = false;
+
 	private boolean frozen = false;
 
 
@@ -129,6 +131,29 @@ public class ProxyConfig implements Serializable {
 		return this.exposeProxy;
 	}
 
+	/**
+	 * Set whether the proxy should invoke target methods through generated
+	 * invoker classes (one CGLIB {@code FastClass} per target class) instead
+	 * of through reflection. Default is "false".
+	 * <p>This is primarily meant for JDK dynamic proxies in front of frequently
+	 * called targets: CGLIB proxies invoke public target methods through their
+	 * generated method proxies anyway. Target classes that cannot be handled,
+	 * e.g. non-public classes, are invoked through reflection in any case.
+	 * @since 3.2.13
+	 */
+	public void setFastInvocation(boolean fastInvocation) {
+		this.fastInvocation = fastInvocation;
+	}
+
+	/**
+	 * Return whether the proxy invokes target methods through generated
+	 * invoker classes instead of through reflection.
+	 * @since 3.2.13
+	 */
+	public boolean isFastInvocation() {
+		return this.fastInvocation;
+	}
+
 	/**
 	 * Set whether this config should be frozen.
 	 * <p>When a config is frozen, no advice changes can be made. This is
@@ -156,6 +181,7 @@ public class ProxyConfig implements Serializable {
 		this.proxyTargetClass = other.proxyTargetClass;
 		this.optimize = other.optimize;
 		this.exposeProxy = other.exposeProxy;
+		this.fastInvocation = other.fastInvocation;
 		this.frozen = other.frozen;
 		this.opaque = other.opaque;
 	}
@@ -167,6 +193,7 @@ public class ProxyConfig implements Serializable {
 		sb.append("optimize=").append(this.optimize).append("; ");
 		sb.append("opaque=").append(this.opaque).append("; ");
 		sb.append("exposeProxy=").append(this.exposeProxy).append("; ");
+		sb.append("fastInvocation=").append(this.fastInvocation).append("; ");
 		sb.append("frozen=").append(this.frozen);
 		return sb.toString();
 	}
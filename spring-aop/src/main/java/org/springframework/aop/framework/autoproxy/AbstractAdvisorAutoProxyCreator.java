@@ -20,7 +20,6 @@ import java.util.List;
 
 import org.springframework.aop.Advisor;
 import org.springframework.aop.TargetSource;
-import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
 import org.springframework.core.OrderComparator;
@@ -49,6 +48,8 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 
 	private BeanFactoryAdvisorRetrievalHelper advisorRetrievalHelper;
 
+	private final AdvisorApplicabilityIndex advisorApplicabilityIndex = new AdvisorApplicabilityIndex();
+
 
 	@Override
 	public void setBeanFactory(BeanFactory beanFactory) {
@@ -119,7 +120,7 @@ public abstract class AbstractAdvisorAutoProxyCreator extends AbstractAutoProxyC
 		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
 		try {
 			// ->
-			return AopUtils.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
+			return this.advisorApplicabilityIndex.findAdvisorsThatCanApply(candidateAdvisors, beanClass);
 		}
 		finally {
 			ProxyCreationContext.setCurrentProxiedBeanName(null);
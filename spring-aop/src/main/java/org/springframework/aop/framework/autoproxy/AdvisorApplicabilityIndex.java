@@ -0,0 +1,377 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.IntroductionAdvisor;
+import org.springframework.aop.IntroductionAwareMethodMatcher;
+import org.springframework.aop.MethodMatcher;
+import org.springframework.aop.Pointcut;
+import org.springframework.aop.PointcutAdvisor;
+import org.springframework.aop.aspectj.AspectJExpressionPointcut;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.aop.support.annotation.AnnotationMethodMatcher;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ConcurrentReferenceHashMap;
+
+/**
+ * Index used by {@link AbstractAdvisorAutoProxyCreator} to determine the advisors
+ * that can apply to a given bean, with the same semantics as
+ * {@link AopUtils#findAdvisorsThatCanApply} but considerably less work per bean:
+ *
+ * <ul>
+ * <li>Every candidate advisor gets checked against its class-level {@link ClassFilter}
+ * first, rejecting most advisors for a given bean class (e.g. AspectJ pointcuts
+ * restricted to certain packages or types) without any method-level matching.
+ * <li>For method matchers which evaluate a method based on the method itself and the
+ * implementation it resolves to in the target class only (name matching, method
+ * annotations, static AspectJ expressions), method-level results are cached per
+ * method and implementation, i.e. per declaring class of the implementation.
+ * Subclasses and other implementors of an interface which inherit an implementation
+ * reuse the results for it, so distinct bean classes sharing base classes only go
+ * through method matching for the methods they declare themselves.
+ * <li>For any other method matcher, the outcome of method-level matching is cached
+ * per advisor and bean class.
+ * </ul>
+ *
+ * <p>Advisors whose method-level matching turns out to depend on the name of the bean
+ * being proxied, i.e. which call {@link ProxyCreationContext#getCurrentProxiedBeanName()}
+ * as done by AspectJ's {@code bean()} designator, are excluded from caching and
+ * evaluated for every bean. Class filters are evaluated for every bean anyway.
+ *
+ * @since 3.2.13
+ * @see AopUtils#findAdvisorsThatCanApply
+ * @see ProxyCreationContext#getCurrentProxiedBeanName()
+ */
+class AdvisorApplicabilityIndex {
+
+	private static final boolean aspectjPresent = ClassUtils.isPresent(
+			"org.aspectj.weaver.tools.PointcutParser", AdvisorApplicabilityIndex.class.getClassLoader());
+
+
+	/** Methods to match against, per target class */
+	private final Map<Class<?>, MethodCandidate[]> methodsCache =
+			new ConcurrentReferenceHashMap<Class<?>, MethodCandidate[]>(256);
+
+	/** Method-level results of target class independent matchers, per advisor, method and implementation */
+	private final Map<MethodMatchKey, Boolean> methodMatchCache =
+			new ConcurrentReferenceHashMap<MethodMatchKey, Boolean>(1024);
+
+	/** Method-level results of other matchers, per advisor and target class */
+	private final Map<ClassMatchKey, Boolean> classMatchCache =
+			new ConcurrentReferenceHashMap<ClassMatchKey, Boolean>(256);
+
+	/** Advisors whose method-level matching depends on the bean name, used as a Set */
+	private final Map<Advisor, Boolean> beanNameDependentAdvisors = new ConcurrentReferenceHashMap<Advisor, Boolean>(16);
+
+
+	/**
+	 * Determine the sublist of the {@code candidateAdvisors} list
+	 * that is applicable to the given class.
+	 * @param candidateAdvisors the Advisors to evaluate
+	 * @param clazz the target class
+	 * @return sublist of Advisors that can apply to an object of the given class
+	 * (may be the incoming List as-is)
+	 */
+	public List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidateAdvisors, Class<?> clazz) {
+		if (candidateAdvisors.isEmpty()) {
+			return candidateAdvisors;
+		}
+		List<Advisor> eligibleAdvisors = new LinkedList<Advisor>();
+		for (Advisor candidate : candidateAdvisors) {
+			if (candidate instanceof IntroductionAdvisor &&
+					((IntroductionAdvisor) candidate).getClassFilter().matches(clazz)) {
+				eligibleAdvisors.add(candidate);
+			}
+		}
+		boolean hasIntroductions = !eligibleAdvisors.isEmpty();
+		for (Advisor candidate : candidateAdvisors) {
+			if (candidate instanceof IntroductionAdvisor) {
+				// already processed
+				continue;
+			}
+			if (candidate instanceof PointcutAdvisor) {
+				Pointcut pc = ((PointcutAdvisor) candidate).getPointcut();
+				// Cheap class-level rejection before any method-level matching
+				if (pc.getClassFilter().matches(clazz) &&
+						matchesAnyMethod(candidate, pc.getMethodMatcher(), clazz, hasIntroductions)) {
+					eligibleAdvisors.add(candidate);
+				}
+			}
+			else {
+				// It doesn't have a pointcut so we assume it applies.
+				eligibleAdvisors.add(candidate);
+			}
+		}
+		return eligibleAdvisors;
+	}
+
+	/**
+	 * Method-level part of {@link AopUtils#canApply(Pointcut, Class, boolean)},
+	 * with the class filter having been checked already.
+	 */
+	private boolean matchesAnyMethod(Advisor advisor, MethodMatcher methodMatcher, Class<?> targetClass,
+			boolean hasIntroductions) {
+
+		if (this.beanNameDependentAdvisors.containsKey(advisor)) {
+			for (MethodCandidate candidate : getMethodCandidates(targetClass)) {
+				if (matches(methodMatcher, candidate.method, targetClass, hasIntroductions)) {
+					return true;
+				}
+			}
+			return false;
+		}
+		if (isTargetClassIndependent(methodMatcher)) {
+			return matchesAnyMethodPerImplementation(advisor, methodMatcher, targetClass, hasIntroductions);
+		}
+		ClassMatchKey key = new ClassMatchKey(advisor, targetClass, hasIntroductions);
+		Boolean matches = this.classMatchCache.get(key);
+		if (matches == null) {
+			boolean[] previousTracker = ProxyCreationContext.startBeanNameAccessTracking();
+			boolean beanNameAccessed;
+			try {
+				matches = false;
+				for (MethodCandidate candidate : getMethodCandidates(targetClass)) {
+					if (matches(methodMatcher, candidate.method, targetClass, hasIntroductions)) {
+						matches = true;
+						break;
+					}
+				}
+			}
+			finally {
+				beanNameAccessed = ProxyCreationContext.stopBeanNameAccessTracking(previousTracker);
+			}
+			if (beanNameAccessed) {
+				this.beanNameDependentAdvisors.put(advisor, Boolean.TRUE);
+			}
+			else {
+				this.classMatchCache.put(key, matches);
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Match the given target class independent method matcher against the methods of
+	 * the given target class, reusing the results for implementations matched before.
+	 */
+	private boolean matchesAnyMethodPerImplementation(Advisor advisor, MethodMatcher methodMatcher,
+			Class<?> targetClass, boolean hasIntroductions) {
+
+		Map<MethodMatchKey, Boolean> newResults = null;
+		boolean[] previousTracker = null;
+		boolean matches = false;
+		boolean beanNameAccessed = false;
+		try {
+			for (MethodCandidate candidate : getMethodCandidates(targetClass)) {
+				MethodMatchKey key = new MethodMatchKey(advisor, candidate, hasIntroductions);
+				Boolean methodMatches = this.methodMatchCache.get(key);
+				if (methodMatches == null) {
+					if (newResults == null) {
+						newResults = new HashMap<MethodMatchKey, Boolean>();
+						previousTracker = ProxyCreationContext.startBeanNameAccessTracking();
+					}
+					methodMatches = matches(methodMatcher, candidate.method, targetClass, hasIntroductions);
+					newResults.put(key, methodMatches);
+				}
+				if (methodMatches) {
+					matches = true;
+					break;
+				}
+			}
+		}
+		finally {
+			if (newResults != null) {
+				beanNameAccessed = ProxyCreationContext.stopBeanNameAccessTracking(previousTracker);
+			}
+		}
+		if (beanNameAccessed) {
+			this.beanNameDependentAdvisors.put(advisor, Boolean.TRUE);
+		}
+		else if (newResults != null) {
+			this.methodMatchCache.putAll(newResults);
+		}
+		return matches;
+	}
+
+	private boolean matches(MethodMatcher methodMatcher, Method method, Class<?> targetClass,
+			boolean hasIntroductions) {
+
+		return ((methodMatcher instanceof IntroductionAwareMethodMatcher &&
+				((IntroductionAwareMethodMatcher) methodMatcher).matches(method, targetClass, hasIntroductions)) ||
+				methodMatcher.matches(method, targetClass));
+	}
+
+	/**
+	 * Return the public methods of the given class and all of its interfaces,
+	 * in the order that {@link AopUtils#canApply} checks them, each along with
+	 * the implementation it resolves to in the given class.
+	 */
+	private MethodCandidate[] getMethodCandidates(Class<?> targetClass) {
+		MethodCandidate[] candidates = this.methodsCache.get(targetClass);
+		if (candidates == null) {
+			Set<Class> classes = new LinkedHashSet<Class>(ClassUtils.getAllInterfacesForClassAsSet(targetClass));
+			classes.add(targetClass);
+			Map<Method, MethodCandidate> candidateMap = new LinkedHashMap<Method, MethodCandidate>();
+			for (Class<?> clazz : classes) {
+				for (Method method : clazz.getMethods()) {
+					if (!candidateMap.containsKey(method)) {
+						candidateMap.put(method, new MethodCandidate(method, targetClass));
+					}
+				}
+			}
+			candidates = candidateMap.values().toArray(new MethodCandidate[candidateMap.size()]);
+			this.methodsCache.put(targetClass, candidates);
+		}
+		return candidates;
+	}
+
+	/**
+	 * Determine whether the given MethodMatcher evaluates a method based on the method
+	 * itself and the implementation it resolves to in the target class only, so that
+	 * its results can be shared across target classes resolving to the same implementation.
+	 * <p>Only applies to known matchers: others may consult the target class directly,
+	 * e.g. regular expressions against the target class name, or runtime matchers.
+	 */
+	private static boolean isTargetClassIndependent(MethodMatcher methodMatcher) {
+		if (methodMatcher == MethodMatcher.TRUE || methodMatcher instanceof NameMatchMethodPointcut ||
+				methodMatcher instanceof AnnotationMethodMatcher) {
+			return true;
+		}
+		return (aspectjPresent && AspectJMatcherInspector.isStaticExpressionPointcut(methodMatcher));
+	}
+
+
+	/**
+	 * Inner class to avoid a hard dependency on AspectJ at runtime.
+	 */
+	private static class AspectJMatcherInspector {
+
+		public static boolean isStaticExpressionPointcut(MethodMatcher methodMatcher) {
+			// Static AspectJ matching only depends on the most specific method, see its shadow match cache
+			return (methodMatcher instanceof AspectJExpressionPointcut && !methodMatcher.isRuntime());
+		}
+	}
+
+
+	/**
+	 * A method to match against, along with its implementation in the target class.
+	 */
+	private static final class MethodCandidate {
+
+		private final Method method;
+
+		private final Method implementation;
+
+		public MethodCandidate(Method method, Class<?> targetClass) {
+			this.method = method;
+			this.implementation = AopUtils.getMostSpecificMethod(method, targetClass);
+		}
+	}
+
+
+	/**
+	 * Cache key for method-level results per method and implementation.
+	 */
+	private static final class MethodMatchKey {
+
+		private final Advisor advisor;
+
+		private final Method method;
+
+		private final Method implementation;
+
+		private final boolean hasIntroductions;
+
+		public MethodMatchKey(Advisor advisor, MethodCandidate candidate, boolean hasIntroductions) {
+			this.advisor = advisor;
+			this.method = candidate.method;
+			this.implementation = candidate.implementation;
+			this.hasIntroductions = hasIntroductions;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof MethodMatchKey)) {
+				return false;
+			}
+			MethodMatchKey otherKey = (MethodMatchKey) other;
+			return (this.advisor == otherKey.advisor && this.method.equals(otherKey.method) &&
+					this.implementation.equals(otherKey.implementation) &&
+					this.hasIntroductions == otherKey.hasIntroductions);
+		}
+
+		@Override
+		public int hashCode() {
+			return ((System.identityHashCode(this.advisor) * 29 + this.method.hashCode()) * 29 +
+					this.implementation.hashCode()) * 29 + (this.hasIntroductions ? 1 : 0);
+		}
+	}
+
+
+	/**
+	 * Cache key for method-level results per target class.
+	 */
+	private static final class ClassMatchKey {
+
+		private final Advisor advisor;
+
+		private final Class<?> targetClass;
+
+		private final boolean hasIntroductions;
+
+		public ClassMatchKey(Advisor advisor, Class<?> targetClass, boolean hasIntroductions) {
+			this.advisor = advisor;
+			this.targetClass = targetClass;
+			this.hasIntroductions = hasIntroductions;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ClassMatchKey)) {
+				return false;
+			}
+			ClassMatchKey otherKey = (ClassMatchKey) other;
+			return (this.advisor == otherKey.advisor && this.targetClass == otherKey.targetClass &&
+					this.hasIntroductions == otherKey.hasIntroductions);
+		}
+
+		@Override
+		public int hashCode() {
+			return (System.identityHashCode(this.advisor) * 29 + this.targetClass.hashCode()) * 29 +
+					(this.hasIntroductions ? 1 : 0);
+		}
+	}
+
+}
@@ -32,12 +32,20 @@ public class ProxyCreationContext {
 	private static final ThreadLocal<String> currentProxiedBeanName =
 			new NamedThreadLocal<String>("Name of currently proxied bean");
 
+	/** ThreadLocal recording access to the current proxied bean name, if being tracked */
+	private static final ThreadLocal<boolean[]> beanNameAccessTracker =
+			new NamedThreadLocal<boolean[]>("Access to name of currently proxied bean");
+
 
 	/**
 	 * Return the name of the currently proxied bean instance.
 	 * @return the name of the bean, or {@code null} if none available
 	 */
 	public static String getCurrentProxiedBeanName() {
+		boolean[] tracker = beanNameAccessTracker.get();
+		if (tracker != null) {
+			tracker[0] = true;
+		}
 		return currentProxiedBeanName.get();
 	}
 
@@ -54,4 +62,32 @@ public class ProxyCreationContext {
 		}
 	}
 
+	/**
+	 * Start recording whether the current proxied bean name gets accessed on this thread.
+	 * @return the previously active tracker (may be {@code null}),
+	 * to be passed to {@link #stopBeanNameAccessTracking}
+	 */
+	static boolean[] startBeanNameAccessTracking() {
+		boolean[] previousTracker = beanNameAccessTracker.get();
+		beanNameAccessTracker.set(new boolean[1]);
+		return previousTracker;
+	}
+
+	/**
+	 * Stop recording access to the current proxied bean name, reinstating the given tracker.
+	 * @param previousTracker the tracker returned by {@link #startBeanNameAccessTracking}
+	 * @return whether the bean name has been accessed since tracking started
+	 */
+	static boolean stopBeanNameAccessTracking(boolean[] previousTracker) {
+		boolean accessed = beanNameAccessTracker.get()[0];
+		if (previousTracker != null) {
+			previousTracker[0] |= accessed;
+			beanNameAccessTracker.set(previousTracker);
+		}
+		else {
+			beanNameAccessTracker.remove();
+		}
+		return accessed;
+	}
+
 }
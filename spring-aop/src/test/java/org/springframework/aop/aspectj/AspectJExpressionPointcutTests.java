@@ -19,6 +19,9 @@ package org.springframework.aop.aspectj;
 import static org.junit.Assert.*;
 
 import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 import org.aopalliance.intercept.MethodInterceptor;
 import org.aopalliance.intercept.MethodInvocation;
@@ -32,6 +35,8 @@ import org.springframework.aop.MethodMatcher;
 import org.springframework.aop.Pointcut;
 import org.springframework.aop.framework.ProxyFactory;
 import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 
 import org.springframework.tests.sample.beans.IOther;
 import org.springframework.tests.sample.beans.ITestBean;
@@ -339,6 +344,89 @@ public final class AspectJExpressionPointcutTests {
 		assertEquals("execution(* *(..)) && args(String) && this(Object)",expr.getPointcutExpression());
 	}
 
+	@Test
+	public void testEqualPointcutsShareParsedExpression() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		AspectJExpressionPointcut pc1 = getPointcut(MATCH_ALL_METHODS, beanFactory);
+		AspectJExpressionPointcut pc2 = getPointcut(MATCH_ALL_METHODS, beanFactory);
+		assertSame(pc1.getPointcutExpression(), pc2.getPointcutExpression());
+		assertTrue(pc1.matches(getAge, TestBean.class));
+		assertTrue(pc2.matches(getAge, TestBean.class));
+
+		AspectJExpressionPointcut pc3 = getPointcut(MATCH_ALL_METHODS, beanFactory);
+		pc3.setPointcutDeclarationScope(TestBean.class);
+		assertNotSame(pc1.getPointcutExpression(), pc3.getPointcutExpression());
+
+		AspectJExpressionPointcut pc4 = new AspectJExpressionPointcut() {
+		};
+		pc4.setExpression(MATCH_ALL_METHODS);
+		pc4.setBeanFactory(beanFactory);
+		assertNotSame(pc1.getPointcutExpression(), pc4.getPointcutExpression());
+	}
+
+	@Test
+	public void testParsedExpressionNotSharedAcrossBeanFactories() {
+		AspectJExpressionPointcut pc1 = getPointcut(MATCH_ALL_METHODS, new DefaultListableBeanFactory());
+		AspectJExpressionPointcut pc2 = getPointcut(MATCH_ALL_METHODS, new DefaultListableBeanFactory());
+		assertNotSame(pc1.getPointcutExpression(), pc2.getPointcutExpression());
+
+		AspectJExpressionPointcut pc3 = (AspectJExpressionPointcut) getPointcut(MATCH_ALL_METHODS);
+		AspectJExpressionPointcut pc4 = (AspectJExpressionPointcut) getPointcut(MATCH_ALL_METHODS);
+		assertNotSame(pc3.getPointcutExpression(), pc4.getPointcutExpression());
+	}
+
+	@Test
+	public void testConcurrentMatchingOfSharedExpression() throws Exception {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		final AspectJExpressionPointcut pc1 = getPointcut(
+				"execution(int org.springframework.tests.sample.beans.TestBean.getAge())", beanFactory);
+		final AspectJExpressionPointcut pc2 = getPointcut(
+				"execution(int org.springframework.tests.sample.beans.TestBean.getAge())", beanFactory);
+		final Method[] methods = TestBean.class.getMethods();
+		final List<Throwable> failures = Collections.synchronizedList(new ArrayList<Throwable>());
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			final AspectJExpressionPointcut pc = (i % 2 == 0 ? pc1 : pc2);
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					try {
+						for (Method method : methods) {
+							assertEquals(method.equals(getAge), pc.matches(method, TestBean.class));
+						}
+					}
+					catch (Throwable ex) {
+						failures.add(ex);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+	}
+
+	@Test
+	public void testSharedExpressionKeepsMatchResultsPerPointcutExpression() {
+		AspectJExpressionPointcut pc1 = (AspectJExpressionPointcut)
+				getPointcut("execution(int org.springframework.tests.sample.beans.TestBean.getAge())");
+		AspectJExpressionPointcut pc2 = (AspectJExpressionPointcut)
+				getPointcut("execution(void org.springframework.tests.sample.beans.TestBean.setAge(int))");
+		assertTrue(pc1.matches(getAge, TestBean.class));
+		assertFalse(pc2.matches(getAge, TestBean.class));
+		assertFalse(pc1.matches(setAge, TestBean.class));
+		assertTrue(pc2.matches(setAge, TestBean.class));
+	}
+
+	private AspectJExpressionPointcut getPointcut(String expression, BeanFactory beanFactory) {
+		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
+		pointcut.setExpression(expression);
+		pointcut.setBeanFactory(beanFactory);
+		return pointcut;
+	}
+
 	private Pointcut getPointcut(String expression) {
 		AspectJExpressionPointcut pointcut = new AspectJExpressionPointcut();
 		pointcut.setExpression(expression);
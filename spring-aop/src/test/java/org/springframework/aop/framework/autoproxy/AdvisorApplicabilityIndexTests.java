@@ -0,0 +1,275 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework.autoproxy;
+
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.aop.Advisor;
+import org.springframework.aop.ClassFilter;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.aop.support.DefaultIntroductionAdvisor;
+import org.springframework.aop.support.DefaultPointcutAdvisor;
+import org.springframework.aop.support.DelegatingIntroductionInterceptor;
+import org.springframework.aop.support.NameMatchMethodPointcut;
+import org.springframework.aop.support.StaticMethodMatcherPointcut;
+import org.springframework.aop.support.annotation.AnnotationMatchingPointcut;
+import org.springframework.tests.aop.interceptor.NopInterceptor;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 3.2.13
+ */
+public class AdvisorApplicabilityIndexTests {
+
+	private final AdvisorApplicabilityIndex index = new AdvisorApplicabilityIndex();
+
+
+	@Test
+	public void sameResultAsAopUtils() {
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(new NameMatchingPointcut("getAge"), new NopInterceptor()));
+		candidates.add(new DefaultPointcutAdvisor(new NameMatchingPointcut("noSuchMethod"), new NopInterceptor()));
+		candidates.add(new DefaultIntroductionAdvisor(new DelegatingIntroductionInterceptor(new DefaultCounter())));
+		candidates.add(new DefaultPointcutAdvisor(new NopInterceptor()));
+		candidates.add(new DefaultPointcutAdvisor(new NameMatchingPointcut("hashCode"), new NopInterceptor()));
+
+		assertEquals(AopUtils.findAdvisorsThatCanApply(candidates, TestBean.class),
+				this.index.findAdvisorsThatCanApply(candidates, TestBean.class));
+		assertEquals(AopUtils.findAdvisorsThatCanApply(candidates, Object.class),
+				this.index.findAdvisorsThatCanApply(candidates, Object.class));
+		assertEquals(4, this.index.findAdvisorsThatCanApply(candidates, TestBean.class).size());
+	}
+
+	@Test
+	public void methodMatchingCachedPerClass() {
+		NameMatchingPointcut pointcut = new NameMatchingPointcut("getAge");
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(pointcut, new NopInterceptor()));
+
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "testBean").size());
+		int invocations = pointcut.invocations;
+		assertTrue(invocations > 0);
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "testBean").size());
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "otherBean").size());
+		assertEquals(invocations, pointcut.invocations);
+
+		assertTrue(findAdvisorsThatCanApply(candidates, Object.class, "object").isEmpty());
+		assertTrue(pointcut.invocations > invocations);
+	}
+
+	@Test
+	public void beanNameDependentClassFilterEvaluatedPerBean() {
+		NameMatchingPointcut pointcut = new NameMatchingPointcut("getAge");
+		pointcut.setClassFilter(new ClassFilter() {
+			@Override
+			public boolean matches(Class<?> clazz) {
+				return "testBean".equals(ProxyCreationContext.getCurrentProxiedBeanName());
+			}
+		});
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(pointcut, new NopInterceptor()));
+
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "testBean").size());
+		assertTrue(findAdvisorsThatCanApply(candidates, TestBean.class, "otherBean").isEmpty());
+		int invocations = pointcut.invocations;
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "testBean").size());
+		assertEquals(invocations, pointcut.invocations);
+	}
+
+	@Test
+	public void beanNameDependentMethodMatchingNotCached() {
+		NameMatchingPointcut pointcut = new NameMatchingPointcut("getAge") {
+			@Override
+			public boolean matches(Method method, Class<?> targetClass) {
+				return (super.matches(method, targetClass) &&
+						"testBean".equals(ProxyCreationContext.getCurrentProxiedBeanName()));
+			}
+		};
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(pointcut, new NopInterceptor()));
+
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "testBean").size());
+		assertTrue(findAdvisorsThatCanApply(candidates, TestBean.class, "otherBean").isEmpty());
+		int invocations = pointcut.invocations;
+		assertEquals(1, findAdvisorsThatCanApply(candidates, TestBean.class, "testBean").size());
+		assertTrue(pointcut.invocations > invocations);
+	}
+
+	@Test
+	public void methodMatchingSharedAcrossSubclasses() {
+		CountingNameMatchMethodPointcut matching = new CountingNameMatchMethodPointcut("doWork");
+		CountingNameMatchMethodPointcut nonMatching = new CountingNameMatchMethodPointcut("noSuchMethod");
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(matching, new NopInterceptor()));
+		candidates.add(new DefaultPointcutAdvisor(nonMatching, new NopInterceptor()));
+
+		assertEquals(1, this.index.findAdvisorsThatCanApply(candidates, FirstWorker.class).size());
+		int matchingInvocations = matching.invocations;
+		int nonMatchingInvocations = nonMatching.invocations;
+		assertTrue(nonMatchingInvocations > 0);
+
+		assertEquals(1, this.index.findAdvisorsThatCanApply(candidates, SecondWorker.class).size());
+		assertEquals(matchingInvocations, matching.invocations);
+		assertEquals(nonMatchingInvocations, nonMatching.invocations);
+	}
+
+	@Test
+	public void methodMatchingRespectsOverriddenMethods() {
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(
+				AnnotationMatchingPointcut.forMethodAnnotation(Marker.class), new NopInterceptor()));
+
+		assertEquals(1, this.index.findAdvisorsThatCanApply(candidates, FirstWorker.class).size());
+		assertEquals(AopUtils.findAdvisorsThatCanApply(candidates, UnmarkedWorker.class),
+				this.index.findAdvisorsThatCanApply(candidates, UnmarkedWorker.class));
+		assertTrue(this.index.findAdvisorsThatCanApply(candidates, UnmarkedWorker.class).isEmpty());
+	}
+
+	@Test
+	public void classFilterRejectsBeforeMethodMatching() {
+		NameMatchingPointcut pointcut = new NameMatchingPointcut("getAge");
+		pointcut.setClassFilter(new ClassFilter() {
+			@Override
+			public boolean matches(Class<?> clazz) {
+				return ITestBean.class.isAssignableFrom(clazz);
+			}
+		});
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		candidates.add(new DefaultPointcutAdvisor(pointcut, new NopInterceptor()));
+
+		assertTrue(this.index.findAdvisorsThatCanApply(candidates, Object.class).isEmpty());
+		assertEquals(0, pointcut.invocations);
+		assertEquals(1, this.index.findAdvisorsThatCanApply(candidates, TestBean.class).size());
+	}
+
+	@Test
+	public void emptyCandidates() {
+		List<Advisor> candidates = new ArrayList<Advisor>();
+		assertSame(candidates, this.index.findAdvisorsThatCanApply(candidates, TestBean.class));
+	}
+
+
+	private List<Advisor> findAdvisorsThatCanApply(List<Advisor> candidates, Class<?> beanClass, String beanName) {
+		ProxyCreationContext.setCurrentProxiedBeanName(beanName);
+		try {
+			return this.index.findAdvisorsThatCanApply(candidates, beanClass);
+		}
+		finally {
+			ProxyCreationContext.setCurrentProxiedBeanName(null);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class NameMatchingPointcut extends StaticMethodMatcherPointcut {
+
+		private final String methodName;
+
+		private int invocations;
+
+		public NameMatchingPointcut(String methodName) {
+			this.methodName = methodName;
+		}
+
+		@Override
+		public boolean matches(Method method, Class<?> targetClass) {
+			this.invocations++;
+			return method.getName().equals(this.methodName);
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class CountingNameMatchMethodPointcut extends NameMatchMethodPointcut {
+
+		private int invocations;
+
+		public CountingNameMatchMethodPointcut(String mappedName) {
+			setMappedName(mappedName);
+		}
+
+		@Override
+		protected boolean isMatch(String methodName, String mappedName) {
+			this.invocations++;
+			return super.isMatch(methodName, mappedName);
+		}
+	}
+
+
+	@Retention(RetentionPolicy.RUNTIME)
+	public @interface Marker {
+	}
+
+
+	public interface Worker {
+
+		void doWork();
+	}
+
+
+	public static class AbstractWorker implements Worker {
+
+		@Override
+		@Marker
+		public void doWork() {
+		}
+
+		public void rest() {
+		}
+	}
+
+
+	public static class FirstWorker extends AbstractWorker {
+	}
+
+
+	public static class SecondWorker extends AbstractWorker {
+	}
+
+
+	public static class UnmarkedWorker extends AbstractWorker {
+
+		@Override
+		public void doWork() {
+		}
+	}
+
+
+	public interface Counter {
+
+		int getCount();
+	}
+
+
+	public static class DefaultCounter implements Counter {
+
+		@Override
+		public int getCount() {
+			return 0;
+		}
+	}
+
+}
@@ -31,9 +31,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -91,6 +93,36 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 	 */
 	private static final Log logger = LogFactory.getLog(BeanWrapperImpl.class);
 
+	/** Maximum number of cached property names: 1024 */
+	private static final int PROPERTY_TOKEN_CACHE_LIMIT = 1024;
+
+	/**
+	 * Cache of parsed property names, shared across all BeanWrapper instances:
+	 * data binding typically applies the same property paths over and over again.
+	 * Fast access cache without a global lock.
+	 */
+	private static final Map<String, PropertyTokenHolder> propertyTokenAccessCache =
+			new ConcurrentHashMap<String, PropertyTokenHolder>(PROPERTY_TOKEN_CACHE_LIMIT);
+
+	/**
+	 * Map from property name to parsed tokens, synchronized when adding entries.
+	 * Bounded since property names may come from request parameters.
+	 */
+	@SuppressWarnings("serial")
+	private static final Map<String, PropertyTokenHolder> propertyTokenCreationCache =
+			new LinkedHashMap<String, PropertyTokenHolder>(PROPERTY_TOKEN_CACHE_LIMIT, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PropertyTokenHolder> eldest) {
+					if (size() > PROPERTY_TOKEN_CACHE_LIMIT) {
+						propertyTokenAccessCache.remove(eldest.getKey());
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+			};
+
 
 	/** The wrapped object */
 	private Object object;
@@ -649,11 +681,29 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 	}
 
 	/**
-	 * Parse the given property name into the corresponding property name tokens.
+	 * Obtain the property name tokens for the given property name,
+	 * parsing it only once and sharing the result across BeanWrappers.
 	 * @param propertyName the property name to parse
 	 * @return representation of the parsed property tokens
 	 */
 	private PropertyTokenHolder getPropertyNameTokens(String propertyName) {
+		PropertyTokenHolder tokens = propertyTokenAccessCache.get(propertyName);
+		if (tokens == null) {
+			tokens = parsePropertyNameTokens(propertyName);
+			synchronized (propertyTokenCreationCache) {
+				propertyTokenAccessCache.put(propertyName, tokens);
+				propertyTokenCreationCache.put(propertyName, tokens);
+			}
+		}
+		return tokens;
+	}
+
+	/**
+	 * Parse the given property name into the corresponding property name tokens.
+	 * @param propertyName the property name to parse
+	 * @return representation of the parsed property tokens
+	 */
+	private PropertyTokenHolder parsePropertyNameTokens(String propertyName) {
 		PropertyTokenHolder tokens = new PropertyTokenHolder();
 		String actualName = null;
 		List<String> keys = new ArrayList<String>(2);
@@ -738,7 +788,7 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 				}
 			}
 			else {
-				value = readMethod.invoke(object, (Object[]) null);
+				value = getCachedIntrospectionResults().invokeAccessor(readMethod, object);
 			}
 
 			if (tokens.keys != null) {
@@ -1132,7 +1182,7 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 					}
 				}
 				else {
-					writeMethod.invoke(this.object, value);
+					getCachedIntrospectionResults().invokeAccessor(writeMethod, this.object, value);
 				}
 			}
 			catch (TypeMismatchException ex) {
@@ -1174,6 +1224,10 @@ public class BeanWrapperImpl extends AbstractPropertyAccessor implements BeanWra
 	// Inner class for internal use
 	//---------------------------------------------------------------------
 
+	/**
+	 * Parsed representation of a property name. Instances obtained through
+	 * {@link #getPropertyNameTokens} are shared and must not be modified.
+	 */
 	private static class PropertyTokenHolder {
 
 		public String canonicalName;
@@ -28,6 +28,7 @@ import java.beans.PropertyDescriptor;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
@@ -113,25 +114,51 @@ class ExtendedBeanInfo implements BeanInfo {
 		}
 		MethodDescriptor[] methodDescriptors = delegate.getMethodDescriptors();
 		if (methodDescriptors != null) {
-			for (Method method : findCandidateWriteMethods(methodDescriptors)) {
-				try {
-					handleCandidateWriteMethod(method);
-				}
-				catch (IntrospectionException ex) {
-					// We're only trying to find candidates, can easily ignore extra ones here...
-					if (logger.isDebugEnabled()) {
-						logger.debug("Ignoring candidate write method [" + method + "]: " + ex.getMessage());
-					}
-				}
+			Method[] methods = new Method[methodDescriptors.length];
+			for (int i = 0; i < methodDescriptors.length; i++) {
+				methods[i] = methodDescriptors[i].getMethod();
 			}
+			handleCandidateWriteMethods(methods);
 		}
 	}
 
+	/**
+	 * Create a new {@code ExtendedBeanInfo} for the given pre-built property descriptors,
+	 * taking them over as-is rather than copying them, and search the given methods for
+	 * non-void returning write methods.
+	 * @param delegate the {@code BeanInfo} to delegate all non-property metadata to
+	 * @param propertyDescriptors the property descriptors derived for the bean class,
+	 * each a {@link SimplePropertyDescriptor} or {@link SimpleIndexedPropertyDescriptor}
+	 * @param methods the public methods of the bean class
+	 * @since 3.2.13
+	 * @see SimpleBeanInfoFactory
+	 */
+	ExtendedBeanInfo(BeanInfo delegate, Collection<? extends PropertyDescriptor> propertyDescriptors,
+			Method[] methods) {
+
+		this.delegate = delegate;
+		this.propertyDescriptors.addAll(propertyDescriptors);
+		handleCandidateWriteMethods(methods);
+	}
+
+
+	private void handleCandidateWriteMethods(Method[] methods) {
+		for (Method method : findCandidateWriteMethods(methods)) {
+			try {
+				handleCandidateWriteMethod(method);
+			}
+			catch (IntrospectionException ex) {
+				// We're only trying to find candidates, can easily ignore extra ones here...
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring candidate write method [" + method + "]: " + ex.getMessage());
+				}
+			}
+		}
+	}
 
-	private List<Method> findCandidateWriteMethods(MethodDescriptor[] methodDescriptors) {
+	private List<Method> findCandidateWriteMethods(Method[] methods) {
 		List<Method> matches = new ArrayList<Method>();
-		for (MethodDescriptor methodDescriptor : methodDescriptors) {
-			Method method = methodDescriptor.getMethod();
+		for (Method method : methods) {
 			if (isCandidateWriteMethod(method)) {
 				matches.add(method);
 			}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.BeanDescriptor;
+import java.beans.BeanInfo;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.beans.SimpleBeanInfo;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.core.Ordered;
+import org.springframework.core.SpringProperties;
+
+/**
+ * {@link BeanInfoFactory} implementation that derives bean property descriptors
+ * directly from the public methods of a bean class, bypassing the JDK's
+ * {@link Introspector} with its internal synchronization and its method and
+ * descriptor caches.
+ *
+ * <p>Follows the JavaBeans naming conventions for simple and indexed properties,
+ * including "is" read methods for {@code boolean} properties, and then applies
+ * the same handling of non-void returning and static setter methods as
+ * {@code ExtendedBeanInfo}. Overloaded setter methods are resolved against the
+ * type of the read method, if any, falling back to the most specific parameter type.
+ *
+ * <p>Since explicit {@code BeanInfo} classes are not taken into account here, this
+ * factory only kicks in if the {@link CachedIntrospectionResults#IGNORE_BEANINFO_PROPERTY_NAME
+ * "spring.beaninfo.ignore"} flag is set, in which case the {@code Introspector} would
+ * not consider such classes either. Ordered right before {@link ExtendedBeanInfoFactory}.
+ *
+ * @since 3.2.13
+ * @see BeanInfoFactory
+ * @see CachedIntrospectionResults
+ */
+public class SimpleBeanInfoFactory implements BeanInfoFactory, Ordered {
+
+	private static final Log logger = LogFactory.getLog(SimpleBeanInfoFactory.class);
+
+	private static final Comparator<Method> METHOD_COMPARATOR = new Comparator<Method>() {
+		public int compare(Method m1, Method m2) {
+			return m1.toString().compareTo(m2.toString());
+		}
+	};
+
+
+	/**
+	 * Return a method-derived {@link BeanInfo} for the given bean class,
+	 * if the JDK's {@code BeanInfo} class search is turned off.
+	 */
+	public BeanInfo getBeanInfo(Class<?> beanClass) throws IntrospectionException {
+		if (!SpringProperties.getFlag(CachedIntrospectionResults.IGNORE_BEANINFO_PROPERTY_NAME)) {
+			return null;
+		}
+		Method[] methods = beanClass.getMethods();
+		return new ExtendedBeanInfo(new BasicBeanInfo(beanClass), determineBasicProperties(methods), methods);
+	}
+
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE - 1;
+	}
+
+
+	/**
+	 * Determine the standard JavaBeans properties for the given public methods,
+	 * leaving non-void returning and static setter methods to {@code ExtendedBeanInfo}.
+	 */
+	static List<PropertyDescriptor> determineBasicProperties(Method[] methods) {
+		Map<String, PropertyMethods> methodsByProperty = new LinkedHashMap<String, PropertyMethods>();
+		for (Method method : methods) {
+			if (Modifier.isStatic(method.getModifiers()) || method.isBridge()) {
+				continue;
+			}
+			String methodName = method.getName();
+			Class<?>[] paramTypes = method.getParameterTypes();
+			Class<?> returnType = method.getReturnType();
+			if (methodName.length() > 3 && methodName.startsWith("get") && returnType != void.class) {
+				if (paramTypes.length == 0) {
+					getPropertyMethods(methodsByProperty, methodName.substring(3)).readMethod = method;
+				}
+				else if (paramTypes.length == 1 && paramTypes[0] == int.class) {
+					getPropertyMethods(methodsByProperty, methodName.substring(3)).indexedReadMethod = method;
+				}
+			}
+			else if (methodName.length() > 2 && methodName.startsWith("is") &&
+					returnType == boolean.class && paramTypes.length == 0) {
+				getPropertyMethods(methodsByProperty, methodName.substring(2)).booleanReadMethod = method;
+			}
+			else if (methodName.length() > 3 && methodName.startsWith("set") && returnType == void.class) {
+				if (paramTypes.length == 1) {
+					getPropertyMethods(methodsByProperty, methodName.substring(3)).writeMethods.add(method);
+				}
+				else if (paramTypes.length == 2 && paramTypes[0] == int.class) {
+					getPropertyMethods(methodsByProperty, methodName.substring(3)).indexedWriteMethods.add(method);
+				}
+			}
+		}
+
+		List<PropertyDescriptor> pds = new ArrayList<PropertyDescriptor>(methodsByProperty.size());
+		for (Map.Entry<String, PropertyMethods> entry : methodsByProperty.entrySet()) {
+			try {
+				PropertyDescriptor pd = entry.getValue().createPropertyDescriptor(entry.getKey());
+				if (pd != null) {
+					pds.add(pd);
+				}
+			}
+			catch (IntrospectionException ex) {
+				// Probably simply a method that wasn't meant to follow the JavaBeans pattern...
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring invalid bean property '" + entry.getKey() + "': " + ex.getMessage());
+				}
+			}
+		}
+		return pds;
+	}
+
+	private static PropertyMethods getPropertyMethods(Map<String, PropertyMethods> methodsByProperty, String name) {
+		String propertyName = Introspector.decapitalize(name);
+		PropertyMethods propertyMethods = methodsByProperty.get(propertyName);
+		if (propertyMethods == null) {
+			propertyMethods = new PropertyMethods();
+			methodsByProperty.put(propertyName, propertyMethods);
+		}
+		return propertyMethods;
+	}
+
+	/**
+	 * Select the write method matching the given property type, if any;
+	 * otherwise the one with the most specific parameter type.
+	 */
+	private static Method selectWriteMethod(List<Method> candidates, Class<?> propertyType, int paramIndex) {
+		if (candidates.isEmpty()) {
+			return null;
+		}
+		if (propertyType != null) {
+			for (Method candidate : candidates) {
+				if (candidate.getParameterTypes()[paramIndex] == propertyType) {
+					return candidate;
+				}
+			}
+			return null;
+		}
+		if (candidates.size() > 1) {
+			// Guard against the non-deterministic ordering of Class#getMethods
+			Collections.sort(candidates, METHOD_COMPARATOR);
+		}
+		Method match = null;
+		for (Method candidate : candidates) {
+			if (match == null ||
+					match.getParameterTypes()[paramIndex].isAssignableFrom(candidate.getParameterTypes()[paramIndex])) {
+				match = candidate;
+			}
+		}
+		return match;
+	}
+
+
+	/**
+	 * Holder for the candidate accessor methods of a single property.
+	 */
+	private static class PropertyMethods {
+
+		private Method readMethod;
+
+		private Method booleanReadMethod;
+
+		private Method indexedReadMethod;
+
+		private final List<Method> writeMethods = new ArrayList<Method>(1);
+
+		private final List<Method> indexedWriteMethods = new ArrayList<Method>(1);
+
+		public PropertyDescriptor createPropertyDescriptor(String propertyName) throws IntrospectionException {
+			// An "is" method takes precedence for boolean properties
+			Method read = this.readMethod;
+			if (this.booleanReadMethod != null && (read == null || read.getReturnType() == boolean.class)) {
+				read = this.booleanReadMethod;
+			}
+			Method write = selectWriteMethod(this.writeMethods, (read != null ? read.getReturnType() : null), 0);
+
+			if (this.indexedReadMethod == null && this.indexedWriteMethods.isEmpty()) {
+				if (read == null && write == null) {
+					return null;
+				}
+				return new SimplePropertyDescriptor(propertyName, read, write);
+			}
+
+			Method indexedWrite = selectWriteMethod(this.indexedWriteMethods,
+					(this.indexedReadMethod != null ? this.indexedReadMethod.getReturnType() : null), 1);
+			if (this.indexedReadMethod == null && indexedWrite == null) {
+				return null;
+			}
+			Class<?> indexedType = (this.indexedReadMethod != null ? this.indexedReadMethod.getReturnType() :
+					indexedWrite.getParameterTypes()[1]);
+			// Only keep non-indexed accessors that operate on an array of the indexed type
+			if (read != null && read.getReturnType().getComponentType() != indexedType) {
+				read = null;
+			}
+			if (write != null && write.getParameterTypes()[0].getComponentType() != indexedType) {
+				write = null;
+			}
+			return new SimpleIndexedPropertyDescriptor(propertyName, read, write, this.indexedReadMethod, indexedWrite);
+		}
+	}
+
+
+	/**
+	 * Minimal {@link BeanInfo} exposing the bean class, with all property
+	 * metadata being held by the {@code ExtendedBeanInfo} wrapper.
+	 */
+	private static class BasicBeanInfo extends SimpleBeanInfo {
+
+		private final BeanDescriptor beanDescriptor;
+
+		public BasicBeanInfo(Class<?> beanClass) {
+			this.beanDescriptor = new BeanDescriptor(beanClass);
+		}
+
+		@Override
+		public BeanDescriptor getBeanDescriptor() {
+			return this.beanDescriptor;
+		}
+	}
+
+}
@@ -133,6 +133,14 @@ public class QualifierAnnotationAutowireCandidateResolver implements AutowireCan
 		this.beanFactory = beanFactory;
 	}
 
+	/**
+	 * Return the BeanFactory that this resolver operates on, if any.
+	 * @since 3.2.13
+	 */
+	protected final BeanFactory getBeanFactory() {
+		return this.beanFactory;
+	}
+
 
 	/**
 	 * Determine whether the provided bean definition is an autowire candidate.
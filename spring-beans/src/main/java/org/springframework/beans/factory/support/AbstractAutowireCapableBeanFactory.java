@@ -74,6 +74,7 @@ import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.MethodParameter;
 import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.core.PriorityOrdered;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.ObjectUtils;
 import org.springframework.util.ReflectionUtils;
@@ -460,7 +461,14 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 
 		// 创建实例 ->
-		Object beanInstance = doCreateBean(beanName, mbd, args);
+		StartupStep creationStep = getApplicationStartup().start("spring.beans.create").tag("beanName", beanName);
+		Object beanInstance;
+		try {
+			beanInstance = doCreateBean(beanName, mbd, args);
+		}
+		finally {
+			creationStep.end();
+		}
 		if (logger.isDebugEnabled()) {
 			logger.debug("Finished creating instance of bean '" + beanName + "'");
 		}
@@ -490,7 +498,13 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		}
 		if (instanceWrapper == null) {
 			// 根据指定bean使用对应的策略创建新的实例，如：工厂方法、构造函数自动注入、简单初始化 ->
-			instanceWrapper = createBeanInstance(beanName, mbd, args);
+			StartupStep instantiationStep = getApplicationStartup().start("spring.beans.instantiate");
+			try {
+				instanceWrapper = createBeanInstance(beanName, mbd, args);
+			}
+			finally {
+				instantiationStep.end();
+			}
 		}
 		final Object bean = (instanceWrapper != null ? instanceWrapper.getWrappedInstance() : null);
 		Class<?> beanType = (instanceWrapper != null ? instanceWrapper.getWrappedClass() : null);
@@ -528,10 +542,22 @@ public abstract class AbstractAutowireCapableBeanFactory extends AbstractBeanFac
 		Object exposedObject = bean;
 		try {
 			// 对bean进行填充，将各个属性值注入，其中，可能存在依赖于其他bean的属性，则会递归初始依赖bean ->
-			populateBean(beanName, mbd, instanceWrapper);
+			StartupStep populationStep = getApplicationStartup().start("spring.beans.populate");
+			try {
+				populateBean(beanName, mbd, instanceWrapper);
+			}
+			finally {
+				populationStep.end();
+			}
 			if (exposedObject != null) {
 				// 调用初始化方法，比如init-method ->
-				exposedObject = initializeBean(beanName, exposedObject, mbd);
+				StartupStep initializationStep = getApplicationStartup().start("spring.beans.initialize");
+				try {
+					exposedObject = initializeBean(beanName, exposedObject, mbd);
+				}
+				finally {
+					initializationStep.end();
+				}
 			}
 		}
 		catch (Throwable ex) {
@@ -210,6 +210,9 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 	 * Set a custom autowire candidate resolver for this BeanFactory to use
 	 * when deciding whether a bean definition should be considered as a
 	 * candidate for autowiring.
+	 * <p>A {@link LazyResolutionAutowireCandidateResolver} is additionally consulted
+	 * before regular dependency resolution and may return a proxy for lazy resolution
+	 * of the actual dependency target.
 	 */
 	public void setAutowireCandidateResolver(final AutowireCandidateResolver autowireCandidateResolver) {
 		Assert.notNull(autowireCandidateResolver, "AutowireCandidateResolver must not be null");
@@ -786,8 +789,16 @@ public class DefaultListableBeanFactory extends AbstractAutowireCapableBeanFacto
 			return new DependencyProviderFactory().createDependencyProvider(descriptor, beanName);
 		}
 		else {
-			//通用处理逻辑 ->
-			return doResolveDependency(descriptor, descriptor.getDependencyType(), beanName, autowiredBeanNames, typeConverter);
+			Object result = null;
+			if (this.autowireCandidateResolver instanceof LazyResolutionAutowireCandidateResolver) {
+				result = ((LazyResolutionAutowireCandidateResolver) this.autowireCandidateResolver)
+						.getLazyResolutionProxyIfNecessary(descriptor, beanName);
+			}
+			if (result == null) {
+				//通用处理逻辑 ->
+				result = doResolveDependency(descriptor, descriptor.getDependencyType(), beanName, autowiredBeanNames, typeConverter);
+			}
+			return result;
 		}
 	}
 
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans.factory.support;
+
+import org.springframework.beans.factory.config.DependencyDescriptor;
+
+/**
+ * Extension of the {@link AutowireCandidateResolver} interface, adding a callback
+ * for serving an injection point with a proxy for lazy resolution of the actual
+ * dependency target.
+ *
+ * @since 3.2.13
+ * @see DefaultListableBeanFactory#resolveDependency
+ */
+public interface LazyResolutionAutowireCandidateResolver extends AutowireCandidateResolver {
+
+	/**
+	 * Build a proxy for lazy resolution of the actual dependency target,
+	 * if demanded by the injection point.
+	 * <p>Invoked before regular dependency resolution.
+	 * @param descriptor the descriptor for the target method parameter or field
+	 * @param beanName the name of the bean that contains the injection point
+	 * @return the lazy resolution proxy for the actual dependency target,
+	 * or {@code null} if straight resolution is to be performed
+	 */
+	Object getLazyResolutionProxyIfNecessary(DependencyDescriptor descriptor, String beanName);
+
+}
@@ -23,6 +23,7 @@ import java.util.ArrayList;
 import org.junit.Test;
 
 import org.springframework.core.OverridingClassLoader;
+import org.springframework.core.SpringProperties;
 import org.springframework.tests.sample.beans.TestBean;
 
 import static org.hamcrest.CoreMatchers.*;
@@ -93,4 +94,60 @@ public final class CachedIntrospectionResultsTests {
 				pd.getWriteMethod(), equalTo(C.class.getMethod("setFoo", String.class)));
 	}
 
+	@Test
+	public void generatedAccessors() throws Exception {
+		SpringProperties.setProperty(CachedIntrospectionResults.GENERATE_ACCESSORS_PROPERTY_NAME, "true");
+		try {
+			AccessorBean bean = new AccessorBean();
+			BeanWrapper bw = new BeanWrapperImpl(bean);
+			bw.setPropertyValue("name", "Juergen");
+			bw.setPropertyValue("age", "42");
+			assertEquals("Juergen", bean.getName());
+			assertEquals(42, bean.getAge());
+			assertEquals("Juergen", bw.getPropertyValue("name"));
+			assertEquals(42, bw.getPropertyValue("age"));
+			try {
+				bw.setPropertyValue("failing", "value");
+				fail("Should have thrown MethodInvocationException");
+			}
+			catch (MethodInvocationException ex) {
+				assertTrue(ex.getCause() instanceof IllegalStateException);
+				// the setter must have been called by the generated accessor, not through reflection
+				StackTraceElement caller = ex.getCause().getStackTrace()[1];
+				assertThat(caller.getClassName(), startsWith(AccessorBean.class.getName() + "$$FastClass"));
+			}
+		}
+		finally {
+			SpringProperties.setProperty(CachedIntrospectionResults.GENERATE_ACCESSORS_PROPERTY_NAME, null);
+		}
+	}
+
+
+	public static class AccessorBean {
+
+		private String name;
+
+		private int age;
+
+		public String getName() {
+			return this.name;
+		}
+
+		public void setName(String name) {
+			this.name = name;
+		}
+
+		public int getAge() {
+			return this.age;
+		}
+
+		public void setAge(int age) {
+			this.age = age;
+		}
+
+		public void setFailing(String failing) {
+			throw new IllegalStateException(failing);
+		}
+	}
+
 }
@@ -0,0 +1,273 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.beans;
+
+import java.beans.BeanInfo;
+import java.beans.IndexedPropertyDescriptor;
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.SpringProperties;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link SimpleBeanInfoFactory}, verifying that its method-derived
+ * property descriptors match those of {@link ExtendedBeanInfo} on top of the
+ * standard {@link Introspector}.
+ */
+public class SimpleBeanInfoFactoryTests {
+
+	private final SimpleBeanInfoFactory factory = new SimpleBeanInfoFactory();
+
+
+	@Before
+	public void ignoreBeanInfoClasses() {
+		SpringProperties.setProperty(CachedIntrospectionResults.IGNORE_BEANINFO_PROPERTY_NAME, "true");
+	}
+
+	@After
+	public void resetBeanInfoClasses() {
+		SpringProperties.setProperty(CachedIntrospectionResults.IGNORE_BEANINFO_PROPERTY_NAME, null);
+	}
+
+
+	@Test
+	public void notActiveUnlessBeanInfoClassesIgnored() throws IntrospectionException {
+		resetBeanInfoClasses();
+		assertNull(factory.getBeanInfo(TestBean.class));
+	}
+
+	@Test
+	public void beanDescriptor() throws IntrospectionException {
+		assertEquals(TestBean.class, factory.getBeanInfo(TestBean.class).getBeanDescriptor().getBeanClass());
+	}
+
+	@Test
+	public void standardBean() throws IntrospectionException {
+		assertSameProperties(TestBean.class);
+		assertSameProperties(Thread.class);
+	}
+
+	@Test
+	public void nonVoidReturningSetters() throws IntrospectionException {
+		assertSameProperties(FluentBean.class);
+		PropertyDescriptor pd = findPropertyDescriptor(FluentBean.class, "count");
+		assertNull(pd.getReadMethod());
+		assertEquals("setCount", pd.getWriteMethod().getName());
+	}
+
+	@Test
+	public void staticSetters() throws IntrospectionException {
+		assertSameProperties(StaticSetterBean.class);
+	}
+
+	@Test
+	public void overloadedSetters() throws IntrospectionException {
+		assertSameProperties(OverloadedSetterBean.class);
+		assertEquals(String.class,
+				findPropertyDescriptor(OverloadedSetterBean.class, "name").getWriteMethod().getParameterTypes()[0]);
+		assertSameProperties(MismatchedSetterBean.class);
+		assertNull(findPropertyDescriptor(MismatchedSetterBean.class, "name").getWriteMethod());
+	}
+
+	@Test
+	public void booleanProperties() throws IntrospectionException {
+		assertSameProperties(BooleanBean.class);
+		assertEquals("isActive", findPropertyDescriptor(BooleanBean.class, "active").getReadMethod().getName());
+		assertEquals("getWrapped", findPropertyDescriptor(BooleanBean.class, "wrapped").getReadMethod().getName());
+	}
+
+	@Test
+	public void indexedProperties() throws IntrospectionException {
+		assertSameProperties(IndexedBean.class);
+		PropertyDescriptor pd = findPropertyDescriptor(IndexedBean.class, "names");
+		assertTrue(pd instanceof IndexedPropertyDescriptor);
+		assertEquals(String.class, ((IndexedPropertyDescriptor) pd).getIndexedPropertyType());
+		assertEquals(String[].class, pd.getPropertyType());
+	}
+
+	@Test
+	public void genericProperties() throws IntrospectionException {
+		assertSameProperties(GenericBeanImpl.class);
+	}
+
+
+	private PropertyDescriptor findPropertyDescriptor(Class<?> beanClass, String name) throws IntrospectionException {
+		for (PropertyDescriptor pd : factory.getBeanInfo(beanClass).getPropertyDescriptors()) {
+			if (pd.getName().equals(name)) {
+				return pd;
+			}
+		}
+		fail("No property '" + name + "' found on " + beanClass);
+		return null;
+	}
+
+	private void assertSameProperties(Class<?> beanClass) throws IntrospectionException {
+		BeanInfo expected = new ExtendedBeanInfo(Introspector.getBeanInfo(beanClass, Introspector.IGNORE_ALL_BEANINFO));
+		BeanInfo actual = factory.getBeanInfo(beanClass);
+		assertEquals(describe(expected), describe(actual));
+	}
+
+	private Map<String, String> describe(BeanInfo beanInfo) {
+		Map<String, String> descriptions = new TreeMap<String, String>();
+		for (PropertyDescriptor pd : beanInfo.getPropertyDescriptors()) {
+			String description = "type=" + pd.getPropertyType() + ", read=" + pd.getReadMethod() +
+					", write=" + pd.getWriteMethod();
+			if (pd instanceof IndexedPropertyDescriptor) {
+				IndexedPropertyDescriptor ipd = (IndexedPropertyDescriptor) pd;
+				description += ", indexedType=" + ipd.getIndexedPropertyType() +
+						", indexedRead=" + ipd.getIndexedReadMethod() + ", indexedWrite=" + ipd.getIndexedWriteMethod();
+			}
+			descriptions.put(pd.getName(), description);
+		}
+		return descriptions;
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class FluentBean {
+
+		public String getName() {
+			return null;
+		}
+
+		public FluentBean setName(String name) {
+			return this;
+		}
+
+		public FluentBean setCount(int count) {
+			return this;
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class StaticSetterBean {
+
+		public static void setShared(String shared) {
+		}
+
+		public String getName() {
+			return null;
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class OverloadedSetterBean {
+
+		public String getName() {
+			return null;
+		}
+
+		public void setName(Object name) {
+		}
+
+		public void setName(String name) {
+		}
+
+		public void setName(Integer name) {
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class MismatchedSetterBean {
+
+		public String getName() {
+			return null;
+		}
+
+		public void setName(Integer name) {
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class BooleanBean {
+
+		public boolean isActive() {
+			return false;
+		}
+
+		public boolean getActive() {
+			return false;
+		}
+
+		public void setActive(boolean active) {
+		}
+
+		public Boolean getWrapped() {
+			return null;
+		}
+	}
+
+
+	@SuppressWarnings("unused")
+	public static class IndexedBean {
+
+		public String[] getNames() {
+			return null;
+		}
+
+		public void setNames(String[] names) {
+		}
+
+		public String getNames(int index) {
+			return null;
+		}
+
+		public void setNames(int index, String name) {
+		}
+
+		public void setValues(int index, Integer value) {
+		}
+
+		public Integer getCodes(int index) {
+			return null;
+		}
+	}
+
+
+	public interface GenericBean<T> {
+
+		T getValue();
+
+		void setValue(T value);
+	}
+
+
+	public static class GenericBeanImpl implements GenericBean<String> {
+
+		public String getValue() {
+			return null;
+		}
+
+		public void setValue(String value) {
+		}
+	}
+
+}
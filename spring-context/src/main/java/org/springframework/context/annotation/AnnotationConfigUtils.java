@@ -21,12 +21,17 @@ import java.util.Set;
 
 import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.annotation.AutowiredAnnotationBeanPostProcessor;
+import org.springframework.beans.factory.annotation.QualifierAnnotationAutowireCandidateResolver;
 import org.springframework.beans.factory.annotation.RequiredAnnotationBeanPostProcessor;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.beans.factory.support.SimpleAutowireCandidateResolver;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.context.support.LazyInitializationBeanFactoryPostProcessor;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.util.ClassUtils;
 
@@ -194,6 +199,16 @@ public class AnnotationConfigUtils {
 	public static Set<BeanDefinitionHolder> registerAnnotationConfigProcessors(
 			BeanDefinitionRegistry registry, Object source) {
 
+		DefaultListableBeanFactory beanFactory = unwrapDefaultListableBeanFactory(registry);
+		if (beanFactory != null) {
+			Class<?> resolverClass = beanFactory.getAutowireCandidateResolver().getClass();
+			if (QualifierAnnotationAutowireCandidateResolver.class.equals(resolverClass) ||
+					SimpleAutowireCandidateResolver.class.equals(resolverClass)) {
+				// Upgrade the standard resolver to support @Lazy injection points.
+				beanFactory.setAutowireCandidateResolver(new ContextAnnotationAutowireCandidateResolver());
+			}
+		}
+
 		Set<BeanDefinitionHolder> beanDefs = new LinkedHashSet<BeanDefinitionHolder>(4);
 
 		if (!registry.containsBeanDefinition(CONFIGURATION_ANNOTATION_PROCESSOR_BEAN_NAME)) {
@@ -239,6 +254,18 @@ public class AnnotationConfigUtils {
 		return beanDefs;
 	}
 
+	private static DefaultListableBeanFactory unwrapDefaultListableBeanFactory(BeanDefinitionRegistry registry) {
+		if (registry instanceof DefaultListableBeanFactory) {
+			return (DefaultListableBeanFactory) registry;
+		}
+		else if (registry instanceof GenericApplicationContext) {
+			return ((GenericApplicationContext) registry).getDefaultListableBeanFactory();
+		}
+		else {
+			return null;
+		}
+	}
+
 	private static BeanDefinitionHolder registerPostProcessor(
 			BeanDefinitionRegistry registry, RootBeanDefinition definition, String beanName) {
 
@@ -253,7 +280,11 @@ public class AnnotationConfigUtils {
 			abd.setPrimary(true);
 		}
 		if (metadata.isAnnotated(Lazy.class.getName())) {
-			abd.setLazyInit(MetadataUtils.attributesFor(metadata, Lazy.class).getBoolean("value"));
+			boolean lazyInit = MetadataUtils.attributesFor(metadata, Lazy.class).getBoolean("value");
+			abd.setLazyInit(lazyInit);
+			if (!lazyInit) {
+				abd.setAttribute(LazyInitializationBeanFactoryPostProcessor.EAGER_INIT_ATTRIBUTE, Boolean.TRUE);
+			}
 		}
 		if (metadata.isAnnotated(DependsOn.class.getName())) {
 			abd.setDependsOn(MetadataUtils.attributesFor(metadata, DependsOn.class).getStringArray("value"));
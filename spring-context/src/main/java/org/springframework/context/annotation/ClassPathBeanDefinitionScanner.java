@@ -23,14 +23,18 @@ import org.springframework.beans.factory.annotation.AnnotatedBeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinition;
 import org.springframework.beans.factory.config.BeanDefinitionHolder;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionDefaults;
 import org.springframework.beans.factory.support.BeanDefinitionReaderUtils;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
+import org.springframework.context.support.AbstractApplicationContext;
 import org.springframework.core.env.Environment;
 import org.springframework.core.env.EnvironmentCapable;
 import org.springframework.core.env.StandardEnvironment;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.Assert;
 import org.springframework.util.PatternMatchUtils;
 
@@ -238,8 +242,17 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
 	protected Set<BeanDefinitionHolder> doScan(String... basePackages) {
 		Assert.notEmpty(basePackages, "At least one base package must be specified");
 		Set<BeanDefinitionHolder> beanDefinitions = new LinkedHashSet<BeanDefinitionHolder>();
+		ApplicationStartup applicationStartup = getApplicationStartup();
 		for (String basePackage : basePackages) {
-			Set<BeanDefinition> candidates = findCandidateComponents(basePackage);
+			StartupStep scanStep = applicationStartup.start("spring.context.base-packages.scan")
+					.tag("packageName", basePackage);
+			Set<BeanDefinition> candidates;
+			try {
+				candidates = findCandidateComponents(basePackage);
+			}
+			finally {
+				scanStep.end();
+			}
 			for (BeanDefinition candidate : candidates) {
 				ScopeMetadata scopeMetadata = this.scopeMetadataResolver.resolveScopeMetadata(candidate);
 				candidate.setScope(scopeMetadata.getScopeName());
@@ -261,6 +274,20 @@ public class ClassPathBeanDefinitionScanner extends ClassPathScanningCandidateCo
 		return beanDefinitions;
 	}
 
+	/**
+	 * Determine the {@link ApplicationStartup} to record scanning steps against,
+	 * as exposed by the underlying registry if possible.
+	 */
+	private ApplicationStartup getApplicationStartup() {
+		if (this.registry instanceof AbstractApplicationContext) {
+			return ((AbstractApplicationContext) this.registry).getApplicationStartup();
+		}
+		if (this.registry instanceof AbstractBeanFactory) {
+			return ((AbstractBeanFactory) this.registry).getApplicationStartup();
+		}
+		return ApplicationStartup.DEFAULT;
+	}
+
 	/**
 	 * Apply further settings to the given bean definition,
 	 * beyond the contents retrieved from scanning the component class.
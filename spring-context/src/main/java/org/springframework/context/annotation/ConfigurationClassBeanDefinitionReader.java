@@ -42,6 +42,7 @@ import org.springframework.beans.factory.support.BeanDefinitionReader;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanNameGenerator;
 import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.LazyInitializationBeanFactoryPostProcessor;
 import org.springframework.core.annotation.AnnotationAttributes;
 import org.springframework.core.env.Environment;
 import org.springframework.core.io.Resource;
@@ -221,6 +222,11 @@ class ConfigurationClassBeanDefinitionReader {
 			AnnotationAttributes lazy = MetadataUtils.attributesFor(configClass.getMetadata(), Lazy.class);
 			beanDef.setLazyInit(lazy.getBoolean("value"));
 		}
+		if (!beanDef.isLazyInit() && (metadata.isAnnotated(Lazy.class.getName()) ||
+				configClass.getMetadata().isAnnotated(Lazy.class.getName()))) {
+			// explicitly marked as eager through @Lazy(false)
+			beanDef.setAttribute(LazyInitializationBeanFactoryPostProcessor.EAGER_INIT_ATTRIBUTE, Boolean.TRUE);
+		}
 
 		if (metadata.isAnnotated(DependsOn.class.getName())) {
 			AnnotationAttributes dependsOn = MetadataUtils.attributesFor(metadata, DependsOn.class);
@@ -16,8 +16,13 @@
 
 package org.springframework.context.annotation;
 
+import java.io.ByteArrayOutputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
 import java.lang.reflect.Method;
 import java.util.Arrays;
+import java.util.Properties;
 
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
@@ -29,6 +34,10 @@ import org.springframework.beans.factory.FactoryBean;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
 import org.springframework.beans.factory.support.SimpleInstantiationStrategy;
+import org.springframework.cglib.core.ClassGenerator;
+import org.springframework.cglib.core.DefaultGeneratorStrategy;
+import org.springframework.cglib.core.NamingPolicy;
+import org.springframework.cglib.core.Predicate;
 import org.springframework.cglib.core.SpringNamingPolicy;
 import org.springframework.cglib.proxy.Callback;
 import org.springframework.cglib.proxy.CallbackFilter;
@@ -37,7 +46,11 @@ import org.springframework.cglib.proxy.MethodInterceptor;
 import org.springframework.cglib.proxy.MethodProxy;
 import org.springframework.cglib.proxy.NoOp;
 import org.springframework.core.annotation.AnnotationUtils;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
 
 /**
  * Enhances {@link Configuration} classes by generating a CGLIB subclass which
@@ -48,11 +61,18 @@ import org.springframework.util.Assert;
  * instance. Otherwise, a call to such an {@code @Bean} method serves as a
  * reference back to the container, obtaining the corresponding bean by name.
  *
+ * <p>As of Spring 3.2.13, enhanced subclasses may also be generated ahead of time,
+ * e.g. as part of the application's build, under a deterministic class name
+ * (see {@link #getPregeneratedClassName}) and listed in an index file. Such
+ * pre-generated classes are loaded in favor of generating the subclass at runtime,
+ * provided that the configuration class has not changed since.
+ *
  * @author Chris Beams
  * @author Juergen Hoeller
  * @since 3.0
  * @see #enhance
  * @see ConfigurationClassPostProcessor
+ * @see EnhancedConfigurationClassWriter
  */
 class ConfigurationClassEnhancer {
 
@@ -63,10 +83,27 @@ class ConfigurationClassEnhancer {
 
 	private static final CallbackFilter CALLBACK_FILTER = new ConfigurationClassCallbackFilter();
 
+	/**
+	 * Suffix appended to the name of a configuration class in order to build
+	 * the deterministic name of its pre-generated enhanced subclass.
+	 */
+	static final String PREGENERATED_CLASS_NAME_SUFFIX = "$$EnhancerBySpringCGLIB$$Configuration";
+
+	/**
+	 * Location of the index of pre-generated enhanced subclasses, mapping the name of
+	 * each configuration class to the hash of the version it has been enhanced for.
+	 * May be present in multiple JAR files.
+	 */
+	static final String PREGENERATED_CLASS_INDEX_LOCATION = "META-INF/spring.enhanced-configurations";
+
 	private static final Log logger = LogFactory.getLog(ConfigurationClassEnhancer.class);
 
 	private final Callback[] callbackInstances;
 
+	private ClassLoader indexClassLoader;
+
+	private Properties pregeneratedClassIndex;
+
 
 	/**
 	 * Creates a new {@link ConfigurationClassEnhancer} instance.
@@ -84,6 +121,20 @@ class ConfigurationClassEnhancer {
 	 * @return the enhanced subclass
 	 */
 	public Class<?> enhance(Class<?> configClass) {
+		return enhance(configClass, configClass.getClassLoader());
+	}
+
+	/**
+	 * Loads the pre-generated CGLIB subclass of the specified class from the given
+	 * ClassLoader, if available and up to date, or otherwise generates a CGLIB subclass
+	 * of it equipped with container-aware callbacks capable of respecting scoping and
+	 * other bean semantics.
+	 * @param configClass the configuration class to enhance
+	 * @param classLoader the ClassLoader to look for a pre-generated subclass in
+	 * @return the enhanced subclass
+	 * @since 3.2.13
+	 */
+	public Class<?> enhance(Class<?> configClass, ClassLoader classLoader) {
 		if (EnhancedConfiguration.class.isAssignableFrom(configClass)) {
 			if (logger.isDebugEnabled()) {
 				logger.debug(String.format("Ignoring request to enhance %s as it has " +
@@ -95,7 +146,13 @@ class ConfigurationClassEnhancer {
 			}
 			return configClass;
 		}
-		Class<?> enhancedClass = createClass(newEnhancer(configClass));
+		Class<?> enhancedClass = loadPregeneratedClass(configClass, classLoader);
+		if (enhancedClass != null) {
+			Enhancer.registerStaticCallbacks(enhancedClass, this.callbackInstances);
+		}
+		else {
+			enhancedClass = createClass(newEnhancer(configClass));
+		}
 		if (logger.isDebugEnabled()) {
 			logger.debug(String.format("Successfully enhanced %s; enhanced class name is: %s",
 					configClass.getName(), enhancedClass.getName()));
@@ -103,6 +160,140 @@ class ConfigurationClassEnhancer {
 		return enhancedClass;
 	}
 
+	/**
+	 * Load the pre-generated enhanced subclass of the given configuration class,
+	 * if listed in the pre-generated class index of the given ClassLoader and
+	 * still matching the current version of the configuration class.
+	 * @return the pre-generated subclass, or {@code null} if none usable
+	 */
+	private Class<?> loadPregeneratedClass(Class<?> configClass, ClassLoader classLoader) {
+		String expectedHash = getPregeneratedClassIndex(classLoader).getProperty(configClass.getName());
+		if (expectedHash == null) {
+			return null;
+		}
+		String className = getPregeneratedClassName(configClass);
+		try {
+			if (!expectedHash.equals(getConfigurationClassHash(configClass))) {
+				logger.warn(String.format("Ignoring pre-generated class %s since it does not match the " +
+						"current version of %s - regenerate it as part of your build",
+						className, configClass.getName()));
+				return null;
+			}
+		}
+		catch (IOException ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not read class file of [" + configClass.getName() + "]: " + ex);
+			}
+			return null;
+		}
+		Class<?> enhancedClass;
+		try {
+			enhancedClass = ClassUtils.forName(className, classLoader);
+		}
+		catch (ClassNotFoundException ex) {
+			logger.warn(String.format("Pre-generated class %s listed in %s but not found",
+					className, PREGENERATED_CLASS_INDEX_LOCATION));
+			return null;
+		}
+		catch (LinkageError err) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not load pre-generated class [" + className + "]: " + err);
+			}
+			return null;
+		}
+		if (enhancedClass.getSuperclass() != configClass ||
+				!EnhancedConfiguration.class.isAssignableFrom(enhancedClass)) {
+			logger.warn(String.format("Ignoring pre-generated class %s since it is not an enhanced " +
+					"subclass of %s", className, configClass.getName()));
+			return null;
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug(String.format("Using pre-generated enhanced class %s", className));
+		}
+		return enhancedClass;
+	}
+
+	/**
+	 * Return the index of pre-generated classes available in the given ClassLoader,
+	 * loading it once per ClassLoader that this enhancer operates on.
+	 */
+	private Properties getPregeneratedClassIndex(ClassLoader classLoader) {
+		if (this.pregeneratedClassIndex == null || this.indexClassLoader != classLoader) {
+			Properties index;
+			try {
+				index = PropertiesLoaderUtils.loadAllProperties(PREGENERATED_CLASS_INDEX_LOCATION, classLoader);
+			}
+			catch (IOException ex) {
+				logger.warn("Could not load pre-generated class index from " + PREGENERATED_CLASS_INDEX_LOCATION, ex);
+				index = new Properties();
+			}
+			this.pregeneratedClassIndex = index;
+			this.indexClassLoader = classLoader;
+		}
+		return this.pregeneratedClassIndex;
+	}
+
+	/**
+	 * Compute a hash over the class files of the given configuration class and its
+	 * superclasses, identifying the version that an enhanced subclass was generated for.
+	 * @param configClass the configuration class
+	 * @return the hex-encoded hash
+	 * @throws IOException if a class file cannot be read
+	 * @since 3.2.13
+	 */
+	static String getConfigurationClassHash(Class<?> configClass) throws IOException {
+		ByteArrayOutputStream content = new ByteArrayOutputStream();
+		for (Class<?> clazz = configClass; clazz != null && clazz != Object.class; clazz = clazz.getSuperclass()) {
+			InputStream is = clazz.getResourceAsStream(ClassUtils.getClassFileName(clazz));
+			if (is == null) {
+				throw new FileNotFoundException("Class file of [" + clazz.getName() + "] not found");
+			}
+			content.write(FileCopyUtils.copyToByteArray(is));
+		}
+		return DigestUtils.md5DigestAsHex(content.toByteArray());
+	}
+
+	/**
+	 * Return the deterministic name for the pre-generated enhanced subclass
+	 * of the given configuration class.
+	 * @param configClass the configuration class
+	 * @return the fully qualified name of the enhanced subclass
+	 * @since 3.2.13
+	 */
+	public static String getPregeneratedClassName(Class<?> configClass) {
+		return configClass.getName() + PREGENERATED_CLASS_NAME_SUFFIX;
+	}
+
+	/**
+	 * Generate the bytecode of the enhanced subclass of the given configuration class,
+	 * to be stored under the name returned by {@link #getPregeneratedClassName}.
+	 * <p>The class gets defined in a throwaway ClassLoader only, leaving the
+	 * configuration class's own ClassLoader untouched.
+	 * @param configClass the configuration class to enhance
+	 * @return the bytecode of the enhanced subclass
+	 * @since 3.2.13
+	 */
+	static byte[] generatePregeneratedClass(Class<?> configClass) {
+		final String className = getPregeneratedClassName(configClass);
+		CapturingGeneratorStrategy strategy = new CapturingGeneratorStrategy();
+		Enhancer enhancer = new Enhancer();
+		enhancer.setSuperclass(configClass);
+		enhancer.setInterfaces(new Class<?>[] {EnhancedConfiguration.class});
+		enhancer.setUseFactory(false);
+		enhancer.setUseCache(false);
+		enhancer.setClassLoader(new ClassLoader(configClass.getClassLoader()) {});
+		enhancer.setNamingPolicy(new NamingPolicy() {
+			public String getClassName(String prefix, String source, Object key, Predicate names) {
+				return className;
+			}
+		});
+		enhancer.setStrategy(strategy);
+		enhancer.setCallbackFilter(CALLBACK_FILTER);
+		enhancer.setCallbackTypes(CALLBACK_TYPES);
+		enhancer.createClass();
+		return strategy.getBytecode();
+	}
+
 	/**
 	 * Creates a new CGLIB {@link Enhancer} instance.
 	 */
@@ -146,6 +337,25 @@ class ConfigurationClassEnhancer {
 	}
 
 
+	/**
+	 * CGLIB GeneratorStrategy that keeps hold of the generated bytecode.
+	 */
+	private static class CapturingGeneratorStrategy extends DefaultGeneratorStrategy {
+
+		private byte[] bytecode;
+
+		@Override
+		public byte[] generate(ClassGenerator cg) throws Exception {
+			this.bytecode = super.generate(cg);
+			return this.bytecode;
+		}
+
+		public byte[] getBytecode() {
+			return this.bytecode;
+		}
+	}
+
+
 	/**
 	 * CGLIB CallbackFilter implementation that points to BeanMethodInterceptor and
 	 * DisposableBeanMethodInterceptor.
@@ -42,6 +42,7 @@ import org.springframework.beans.factory.parsing.PassThroughSourceExtractor;
 import org.springframework.beans.factory.parsing.ProblemReporter;
 import org.springframework.beans.factory.parsing.SourceExtractor;
 import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.BeanNameGenerator;
@@ -57,6 +58,8 @@ import org.springframework.core.env.MutablePropertySources;
 import org.springframework.core.env.PropertySource;
 import org.springframework.core.io.DefaultResourceLoader;
 import org.springframework.core.io.ResourceLoader;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.core.type.AnnotationMetadata;
 import org.springframework.core.type.classreading.CachingMetadataReaderFactory;
 import org.springframework.core.type.classreading.MetadataReaderFactory;
@@ -241,7 +244,14 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			// Simply call processConfigurationClasses lazily at this point then.
 			processConfigBeanDefinitions((BeanDefinitionRegistry) beanFactory);
 		}
-		enhanceConfigurationClasses(beanFactory);
+		StartupStep enhanceStep = getApplicationStartup(beanFactory).start(
+				"spring.context.config-classes.enhance");
+		try {
+			enhanceConfigurationClasses(beanFactory);
+		}
+		finally {
+			enhanceStep.end();
+		}
 	}
 
 	/**
@@ -277,21 +287,28 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		ConfigurationClassParser parser = new ConfigurationClassParser(
 				this.metadataReaderFactory, this.problemReporter, this.environment,
 				this.resourceLoader, this.componentScanBeanNameGenerator, registry);
-		for (BeanDefinitionHolder holder : configCandidates) {
-			BeanDefinition bd = holder.getBeanDefinition();
-			try {
-				if (bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).hasBeanClass()) {
-					parser.parse(((AbstractBeanDefinition) bd).getBeanClass(), holder.getBeanName());
+		StartupStep parseStep = getApplicationStartup(registry).start("spring.context.config-classes.parse")
+				.tag("candidates", String.valueOf(configCandidates.size()));
+		try {
+			for (BeanDefinitionHolder holder : configCandidates) {
+				BeanDefinition bd = holder.getBeanDefinition();
+				try {
+					if (bd instanceof AbstractBeanDefinition && ((AbstractBeanDefinition) bd).hasBeanClass()) {
+						parser.parse(((AbstractBeanDefinition) bd).getBeanClass(), holder.getBeanName());
+					}
+					else {
+						parser.parse(bd.getBeanClassName(), holder.getBeanName());
+					}
 				}
-				else {
-					parser.parse(bd.getBeanClassName(), holder.getBeanName());
+				catch (IOException ex) {
+					throw new BeanDefinitionStoreException("Failed to load bean class: " + bd.getBeanClassName(), ex);
 				}
 			}
-			catch (IOException ex) {
-				throw new BeanDefinitionStoreException("Failed to load bean class: " + bd.getBeanClassName(), ex);
-			}
+			parser.validate();
+		}
+		finally {
+			parseStep.end();
 		}
-		parser.validate();
 
 		// Handle any @PropertySource annotations
 		Stack<PropertySource<?>> parsedPropertySources = parser.getPropertySources();
@@ -328,6 +345,15 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 		}
 	}
 
+	/**
+	 * Determine the {@link ApplicationStartup} to record configuration class
+	 * processing against, as exposed by the given bean factory if possible.
+	 */
+	private ApplicationStartup getApplicationStartup(Object beanFactory) {
+		return (beanFactory instanceof AbstractBeanFactory ?
+				((AbstractBeanFactory) beanFactory).getApplicationStartup() : ApplicationStartup.DEFAULT);
+	}
+
 	/**
 	 * Post-processes a BeanFactory in search of Configuration class BeanDefinitions;
 	 * any candidates are then enhanced by a {@link ConfigurationClassEnhancer}.
@@ -355,7 +381,7 @@ public class ConfigurationClassPostProcessor implements BeanDefinitionRegistryPo
 			AbstractBeanDefinition beanDef = entry.getValue();
 			try {
 				Class<?> configClass = beanDef.resolveBeanClass(this.beanClassLoader);
-				Class<?> enhancedClass = enhancer.enhance(configClass);
+				Class<?> enhancedClass = enhancer.enhance(configClass, this.beanClassLoader);
 				if (configClass != enhancedClass) {
 					if (logger.isDebugEnabled()) {
 						logger.debug(String.format("Replacing bean definition '%s' existing class name '%s' " +
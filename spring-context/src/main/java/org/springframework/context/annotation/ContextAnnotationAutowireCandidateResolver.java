@@ -0,0 +1,261 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.aop.TargetSource;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryUtils;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.ObjectFactory;
+import org.springframework.beans.factory.annotation.QualifierAnnotationAutowireCandidateResolver;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.config.DependencyDescriptor;
+import org.springframework.beans.factory.support.LazyResolutionAutowireCandidateResolver;
+import org.springframework.context.support.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.core.MethodParameter;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+
+/**
+ * Complete implementation of the
+ * {@link org.springframework.beans.factory.support.AutowireCandidateResolver} strategy
+ * interface, implementing {@link LazyResolutionAutowireCandidateResolver} and providing support for qualifier annotations as well as for lazy resolution
+ * driven by the {@link Lazy} annotation in the {@code context.annotation} package.
+ *
+ * <p>An injection point annotated with {@code @Lazy} receives a proxy which resolves
+ * the actual target bean on first invocation. Beyond that, this resolver can be switched
+ * to {@link #setLazyResolutionOfColdBeans "cold bean" mode}, in which any injection point
+ * whose candidate beans are all lazy-init singletons that have not been created yet is
+ * served with such a proxy as well, so that injecting a rarely used bean does not force
+ * its initialization. An injection point annotated with {@code @Lazy(false)} always
+ * receives the actual target.
+ *
+ * <p>Proxies for interface types are JDK dynamic proxies; proxies for class types are
+ * CGLIB proxies and therefore require a non-final class with a no-arg constructor.
+ * Injection points that cannot be proxied are resolved straight away.
+ *
+ * @since 3.2.13
+ * @see LazyInitializationBeanFactoryPostProcessor
+ */
+public class ContextAnnotationAutowireCandidateResolver extends QualifierAnnotationAutowireCandidateResolver
+		implements LazyResolutionAutowireCandidateResolver {
+
+	private volatile boolean lazyResolutionOfColdBeans = false;
+
+	private volatile boolean lazyResolutionOfMarkedBeans = false;
+
+
+	/**
+	 * Specify whether injection points that are only satisfied by lazy-init
+	 * singletons not created yet should be served with lazy resolution proxies.
+	 * <p>Default is "false": only {@code @Lazy} injection points get proxied.
+	 */
+	public void setLazyResolutionOfColdBeans(boolean lazyResolutionOfColdBeans) {
+		this.lazyResolutionOfColdBeans = lazyResolutionOfColdBeans;
+	}
+
+	/**
+	 * Return whether injection points for "cold" beans get lazy resolution proxies.
+	 */
+	public boolean isLazyResolutionOfColdBeans() {
+		return this.lazyResolutionOfColdBeans;
+	}
+
+	/**
+	 * Specify whether bean definitions marked with the
+	 * {@link LazyInitializationBeanFactoryPostProcessor#LAZY_RESOLUTION_ATTRIBUTE}
+	 * are present, to be served with lazy resolution proxies while not created yet.
+	 * <p>Default is "false". Switched on by {@link LazyInitializationBeanFactoryPostProcessor}
+	 * once it has marked bean definitions in the bean factory that this resolver is used in.
+	 */
+	public void setLazyResolutionOfMarkedBeans(boolean lazyResolutionOfMarkedBeans) {
+		this.lazyResolutionOfMarkedBeans = lazyResolutionOfMarkedBeans;
+	}
+
+	/**
+	 * Return whether injection points for marked beans get lazy resolution proxies.
+	 */
+	public boolean isLazyResolutionOfMarkedBeans() {
+		return this.lazyResolutionOfMarkedBeans;
+	}
+
+
+	public Object getLazyResolutionProxyIfNecessary(DependencyDescriptor descriptor, String beanName) {
+		if (descriptor instanceof TargetDependencyDescriptor || !isProxyable(descriptor.getDependencyType())) {
+			return null;
+		}
+		Boolean lazy = findLazyAnnotationValue(descriptor);
+		if (lazy != null ? lazy : isColdDependency(descriptor)) {
+			return buildLazyResolutionProxy(descriptor, beanName);
+		}
+		return null;
+	}
+
+	/**
+	 * Determine the value of a {@link Lazy} annotation at the given injection point.
+	 * @return the annotation value, or {@code null} if not annotated
+	 */
+	protected Boolean findLazyAnnotationValue(DependencyDescriptor descriptor) {
+		for (Annotation ann : descriptor.getAnnotations()) {
+			if (ann instanceof Lazy) {
+				return ((Lazy) ann).value();
+			}
+		}
+		MethodParameter methodParam = descriptor.getMethodParameter();
+		if (methodParam != null && (methodParam.getMethod() == null || void.class.equals(methodParam.getMethod().getReturnType()))) {
+			Lazy lazy = methodParam.getMethodAnnotation(Lazy.class);
+			if (lazy != null) {
+				return lazy.value();
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Determine whether the given dependency can only be satisfied by singletons
+	 * that are marked as lazy-init and have not been created yet, with each of them
+	 * being eligible for lazy resolution: either through "cold bean" mode or through
+	 * the {@link LazyInitializationBeanFactoryPostProcessor#LAZY_RESOLUTION_ATTRIBUTE}.
+	 * <p>Always returns {@code false} unless one of these lazy resolution modes is active.
+	 * @see #setLazyResolutionOfColdBeans
+	 * @see #setLazyResolutionOfMarkedBeans
+	 */
+	protected boolean isColdDependency(DependencyDescriptor descriptor) {
+		if (!this.lazyResolutionOfColdBeans && !this.lazyResolutionOfMarkedBeans) {
+			return false;
+		}
+		BeanFactory beanFactory = getBeanFactory();
+		if (!(beanFactory instanceof ConfigurableListableBeanFactory)) {
+			return false;
+		}
+		ConfigurableListableBeanFactory clbf = (ConfigurableListableBeanFactory) beanFactory;
+		String[] candidateNames = BeanFactoryUtils.beanNamesForTypeIncludingAncestors(
+				clbf, descriptor.getDependencyType(), true, false);
+		if (candidateNames.length == 0) {
+			return false;
+		}
+		for (String candidateName : candidateNames) {
+			if (clbf.containsSingleton(candidateName)) {
+				return false;
+			}
+			try {
+				BeanDefinition bd = clbf.getMergedBeanDefinition(candidateName);
+				if (!bd.isSingleton() || !bd.isLazyInit() || !(this.lazyResolutionOfColdBeans ||
+						Boolean.TRUE.equals(bd.getAttribute(LazyInitializationBeanFactoryPostProcessor.LAZY_RESOLUTION_ATTRIBUTE)))) {
+					return false;
+				}
+			}
+			catch (NoSuchBeanDefinitionException ex) {
+				// Defined in a parent factory that we cannot introspect...
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Build a proxy which resolves the actual target of the given dependency on
+	 * first invocation. A target that is backed by singleton beans only is cached
+	 * for subsequent invocations; any other target gets resolved on every invocation,
+	 * so that prototype and scoped beans retain their lifecycle semantics.
+	 */
+	protected Object buildLazyResolutionProxy(final DependencyDescriptor descriptor, final String beanName) {
+		Assert.state(getBeanFactory() instanceof ConfigurableListableBeanFactory,
+				"BeanFactory needs to be a ConfigurableListableBeanFactory");
+		final ConfigurableListableBeanFactory beanFactory = (ConfigurableListableBeanFactory) getBeanFactory();
+		final DependencyDescriptor targetDescriptor = new TargetDependencyDescriptor(descriptor);
+		TargetSource ts = new TargetSource() {
+			private volatile Object target;
+			public Class<?> getTargetClass() {
+				return descriptor.getDependencyType();
+			}
+			public boolean isStatic() {
+				return false;
+			}
+			public Object getTarget() {
+				Object target = this.target;
+				if (target == null) {
+					Set<String> autowiredBeanNames = new LinkedHashSet<String>(1);
+					target = beanFactory.resolveDependency(targetDescriptor, beanName, autowiredBeanNames, null);
+					if (target == null) {
+						throw new NoSuchBeanDefinitionException(descriptor.getDependencyType(),
+								"Optional dependency not present for lazy injection point");
+					}
+					if (isSingletonTarget(autowiredBeanNames)) {
+						this.target = target;
+					}
+				}
+				return target;
+			}
+			private boolean isSingletonTarget(Set<String> autowiredBeanNames) {
+				for (String autowiredBeanName : autowiredBeanNames) {
+					if (!beanFactory.containsBean(autowiredBeanName) || !beanFactory.isSingleton(autowiredBeanName)) {
+						return false;
+					}
+				}
+				return true;
+			}
+			public void releaseTarget(Object target) {
+			}
+		};
+		ProxyFactory pf = new ProxyFactory();
+		pf.setTargetSource(ts);
+		Class<?> dependencyType = descriptor.getDependencyType();
+		if (dependencyType.isInterface()) {
+			pf.addInterface(dependencyType);
+		}
+		else {
+			pf.setProxyTargetClass(true);
+		}
+		return pf.getProxy(beanFactory.getBeanClassLoader());
+	}
+
+	/**
+	 * Determine whether a lazy resolution proxy can be built for the given type.
+	 */
+	private boolean isProxyable(Class<?> type) {
+		if (type.isInterface()) {
+			return !(Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type) ||
+					ObjectFactory.class.equals(type));
+		}
+		return (!type.isArray() && !type.isPrimitive() && !Modifier.isFinal(type.getModifiers()) &&
+				!Object.class.equals(type) && ClassUtils.hasConstructor(type));
+	}
+
+
+	/**
+	 * DependencyDescriptor variant used for resolving the actual target
+	 * behind a lazy resolution proxy, bypassing further proxying.
+	 */
+	@SuppressWarnings("serial")
+	private static class TargetDependencyDescriptor extends DependencyDescriptor {
+
+		public TargetDependencyDescriptor(DependencyDescriptor original) {
+			super(original);
+		}
+	}
+
+}
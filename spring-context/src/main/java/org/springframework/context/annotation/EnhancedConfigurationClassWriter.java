@@ -0,0 +1,195 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Build-time utility that generates the CGLIB-enhanced subclasses of
+ * {@link Configuration @Configuration} classes ahead of time, writing them as
+ * regular class files under the deterministic names expected by the runtime
+ * lookup in {@code ConfigurationClassEnhancer}. Each class written is recorded in a
+ * {@code META-INF/spring.enhanced-configurations} index next to the class files,
+ * together with a hash of the configuration class it has been generated for.
+ * Applications shipping those files avoid the cost of generating and defining
+ * the subclasses on every startup.
+ *
+ * <p>Typically invoked through its {@link #main} method from the application's
+ * build, after compilation and with the application's runtime classpath,
+ * e.g. with a Gradle task along the following lines:
+ *
+ * <pre class="code">
+ * task enhanceConfigurationClasses(type: JavaExec, dependsOn: classes) {
+ *     classpath = sourceSets.main.runtimeClasspath
+ *     main = "org.springframework.context.annotation.EnhancedConfigurationClassWriter"
+ *     args = [sourceSets.main.output.classesDir, "com.example.config"]
+ * }
+ * jar.dependsOn enhanceConfigurationClasses</pre>
+ *
+ * With Maven, the {@code exec-maven-plugin}'s {@code java} goal bound to the
+ * {@code process-classes} phase serves the same purpose.
+ *
+ * <p>Pre-generated classes whose configuration class has changed since,
+ * e.g. after modifying a {@code @Bean} method without re-running this utility,
+ * are ignored at runtime, falling back to regular runtime generation.
+ *
+ * @since 3.2.13
+ * @see ConfigurationClassEnhancer#getPregeneratedClassName
+ */
+public class EnhancedConfigurationClassWriter {
+
+	private static final Log logger = LogFactory.getLog(EnhancedConfigurationClassWriter.class);
+
+	private final File outputDirectory;
+
+	private ClassLoader classLoader = ClassUtils.getDefaultClassLoader();
+
+
+	/**
+	 * Create a new EnhancedConfigurationClassWriter for the given output directory.
+	 * @param outputDirectory the root directory to write class files to,
+	 * typically the application's compiled classes directory
+	 */
+	public EnhancedConfigurationClassWriter(File outputDirectory) {
+		Assert.notNull(outputDirectory, "Output directory must not be null");
+		this.outputDirectory = outputDirectory;
+	}
+
+
+	/**
+	 * Set the ClassLoader to load configuration classes with.
+	 * <p>Default is the thread context ClassLoader.
+	 */
+	public void setClassLoader(ClassLoader classLoader) {
+		this.classLoader = classLoader;
+	}
+
+
+	/**
+	 * Generate the enhanced subclasses of all {@code @Configuration} classes
+	 * found in the given base packages and write them to the output directory.
+	 * @param basePackages the packages to scan for {@code @Configuration} classes
+	 * @return the names of the classes written
+	 * @throws IOException in case of I/O errors
+	 */
+	public List<String> write(String... basePackages) throws IOException {
+		ClassPathScanningCandidateComponentProvider scanner = new ClassPathScanningCandidateComponentProvider(false);
+		scanner.addIncludeFilter(new AnnotationTypeFilter(Configuration.class));
+		Set<String> configClassNames = new LinkedHashSet<String>();
+		for (String basePackage : basePackages) {
+			for (BeanDefinition candidate : scanner.findCandidateComponents(basePackage)) {
+				configClassNames.add(candidate.getBeanClassName());
+			}
+		}
+		List<String> written = new ArrayList<String>(configClassNames.size());
+		for (String configClassName : configClassNames) {
+			try {
+				written.add(write(ClassUtils.forName(configClassName, this.classLoader)));
+			}
+			catch (ClassNotFoundException ex) {
+				throw new IllegalStateException("Could not load configuration class [" + configClassName + "]", ex);
+			}
+		}
+		return written;
+	}
+
+	/**
+	 * Generate the enhanced subclass of the given {@code @Configuration} class
+	 * and write it to the output directory.
+	 * @param configClass the configuration class to enhance
+	 * @return the name of the class written
+	 * @throws IOException in case of I/O errors
+	 */
+	public String write(Class<?> configClass) throws IOException {
+		String className = ConfigurationClassEnhancer.getPregeneratedClassName(configClass);
+		File classFile = new File(this.outputDirectory, ClassUtils.convertClassNameToResourcePath(className) + ".class");
+		File parent = classFile.getParentFile();
+		if (!parent.isDirectory() && !parent.mkdirs()) {
+			throw new IOException("Could not create directory [" + parent + "]");
+		}
+		FileCopyUtils.copy(ConfigurationClassEnhancer.generatePregeneratedClass(configClass), classFile);
+		updateIndex(configClass.getName(), ConfigurationClassEnhancer.getConfigurationClassHash(configClass));
+		if (logger.isInfoEnabled()) {
+			logger.info("Wrote enhanced configuration class [" + className + "] to " + classFile);
+		}
+		return className;
+	}
+
+	/**
+	 * Record the given configuration class in the index of pre-generated classes,
+	 * keeping any entries written before.
+	 */
+	private void updateIndex(String configClassName, String hash) throws IOException {
+		File indexFile = new File(this.outputDirectory, ConfigurationClassEnhancer.PREGENERATED_CLASS_INDEX_LOCATION);
+		Properties index = new Properties();
+		if (indexFile.isFile()) {
+			InputStream is = new FileInputStream(indexFile);
+			try {
+				index.load(is);
+			}
+			finally {
+				is.close();
+			}
+		}
+		else if (!indexFile.getParentFile().isDirectory() && !indexFile.getParentFile().mkdirs()) {
+			throw new IOException("Could not create directory [" + indexFile.getParentFile() + "]");
+		}
+		index.setProperty(configClassName, hash);
+		OutputStream os = new FileOutputStream(indexFile);
+		try {
+			index.store(os, "Pre-generated @Configuration class enhancements");
+		}
+		finally {
+			os.close();
+		}
+	}
+
+
+	/**
+	 * Command-line entry point: expects the output directory as first argument,
+	 * followed by one or more base packages to scan for configuration classes.
+	 */
+	public static void main(String[] args) throws IOException {
+		if (args.length < 2) {
+			throw new IllegalArgumentException(
+					"Usage: EnhancedConfigurationClassWriter <outputDirectory> <basePackage>...");
+		}
+		String[] basePackages = new String[args.length - 1];
+		System.arraycopy(args, 1, basePackages, 0, basePackages.length);
+		new EnhancedConfigurationClassWriter(new File(args[0])).write(basePackages);
+	}
+
+}
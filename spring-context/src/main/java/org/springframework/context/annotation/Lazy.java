@@ -42,6 +42,14 @@ import java.lang.annotation.Target;
  * method within a {@code @Lazy}-annotated {@code @Configuration} class, this indicates
  * overriding the 'default lazy' behavior and that the bean should be eagerly initialized.
  *
+ * <p>In addition to its role for component initialization, this annotation may also be placed
+ * on injection points marked with {@link org.springframework.beans.factory.annotation.Autowired}
+ * or {@link javax.inject.Inject}: In that context, it leads to the creation of a lazy-resolution
+ * proxy for all affected dependencies, as an alternative to using
+ * {@link org.springframework.beans.factory.ObjectFactory} or {@link javax.inject.Provider}.
+ * Conversely, {@code @Lazy(false)} on an injection point enforces resolution of the actual
+ * target even if {@link ContextAnnotationAutowireCandidateResolver} runs in "cold bean" mode.
+ *
  * @author Chris Beams
  * @since 3.0
  * @see Primary
@@ -49,7 +57,7 @@ import java.lang.annotation.Target;
  * @see Configuration
  * @see org.springframework.stereotype.Component
  */
-@Target({ElementType.TYPE, ElementType.METHOD})
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.CONSTRUCTOR, ElementType.PARAMETER, ElementType.FIELD})
 @Retention(RetentionPolicy.RUNTIME)
 @Documented
 public @interface Lazy {
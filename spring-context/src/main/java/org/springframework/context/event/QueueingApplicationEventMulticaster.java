@@ -0,0 +1,612 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.NoSuchBeanDefinitionException;
+import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.support.TaskUtils;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ErrorHandler;
+import org.springframework.util.ObjectUtils;
+
+/**
+ * {@link SimpleApplicationEventMulticaster} variant for high event volumes.
+ *
+ * <p>Listener lookups go through an index of pre-filtered, pre-sorted listeners
+ * per event type and source type. The index is built without holding the
+ * registration lock and is simply invalidated on listener (de-)registration.
+ * Listener beans only participate in indexing if they are singletons; as soon as
+ * a non-singleton listener bean is registered, lookups fall back to the standard
+ * per-event retrieval in {@link AbstractApplicationEventMulticaster}.
+ *
+ * <p>If a {@link #setTaskExecutor TaskExecutor} is specified, every listener
+ * gets its own bounded queue of pending events instead of one task per listener
+ * per event. A queue is drained in batches of {@link #setBatchSize "batchSize"}
+ * events by a single task at a time, so each listener receives events in
+ * publication order. If a queue is full, the configured {@link OverflowPolicy}
+ * applies. Queue size, lag and discarded events can be monitored per listener.
+ * Queues are kept for registered listener instances and singleton listener beans
+ * only, identified by listener identity, and get released on listener removal.
+ * Instances obtained from non-singleton listener beans receive a single event
+ * each and are therefore simply invoked through a dedicated task.
+ *
+ * <p>To use this multicaster in an application context, define it as a bean
+ * named "applicationEventMulticaster".
+ *
+ * @since 3.2.13
+ * @see org.springframework.context.support.AbstractApplicationContext#APPLICATION_EVENT_MULTICASTER_BEAN_NAME
+ */
+public class QueueingApplicationEventMulticaster extends SimpleApplicationEventMulticaster {
+
+	/**
+	 * What to do with an event for a listener whose queue is full.
+	 */
+	public enum OverflowPolicy {
+
+		/**
+		 * Block the publishing thread until the queue has room again.
+		 * <p>If the event is published by the listener itself, i.e. from the thread
+		 * currently draining the listener's queue, waiting would never end: the event
+		 * is then delivered to the listener right away, ahead of its queued events.
+		 */
+		BLOCK,
+
+		/** Drop the event for that listener, counting it as discarded */
+		DISCARD,
+
+		/** Throw a {@link TaskRejectedException} to the publishing thread */
+		REJECT
+	}
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private final Map<ListenerIndexKey, ListenerIndexEntry> listenerIndex =
+			new ConcurrentHashMap<ListenerIndexKey, ListenerIndexEntry>(64);
+
+	private final AtomicInteger listenerGeneration = new AtomicInteger();
+
+	private final Set<String> listenerBeanNames = new CopyOnWriteArraySet<String>();
+
+	private final Map<ListenerKey, Boolean> registeredListeners = new ConcurrentHashMap<ListenerKey, Boolean>(64);
+
+	private final Map<ListenerKey, ListenerQueue> listenerQueues = new ConcurrentHashMap<ListenerKey, ListenerQueue>(64);
+
+	private ClassLoader beanClassLoader;
+
+	private BeanFactory beanFactory;
+
+	private int queueCapacity = 10000;
+
+	private int batchSize = 100;
+
+	private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+
+	private ErrorHandler errorHandler = TaskUtils.LOG_AND_SUPPRESS_ERROR_HANDLER;
+
+
+	/**
+	 * Create a new QueueingApplicationEventMulticaster.
+	 */
+	public QueueingApplicationEventMulticaster() {
+	}
+
+	/**
+	 * Create a new QueueingApplicationEventMulticaster for the given BeanFactory.
+	 */
+	public QueueingApplicationEventMulticaster(BeanFactory beanFactory) {
+		setBeanFactory(beanFactory);
+	}
+
+
+	/**
+	 * Set the maximum number of pending events per listener.
+	 * Default is 10000. Only applies to asynchronous dispatch.
+	 */
+	public void setQueueCapacity(int queueCapacity) {
+		Assert.isTrue(queueCapacity > 0, "'queueCapacity' must be greater than 0");
+		this.queueCapacity = queueCapacity;
+	}
+
+	/**
+	 * Set the maximum number of events that a listener gets handed in a single
+	 * task before the task is resubmitted to the executor, giving other listeners'
+	 * queues a chance to be drained. Default is 100.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "'batchSize' must be greater than 0");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Set the policy to apply when a listener's queue is full.
+	 * Default is {@link OverflowPolicy#BLOCK}.
+	 */
+	public void setOverflowPolicy(OverflowPolicy overflowPolicy) {
+		Assert.notNull(overflowPolicy, "OverflowPolicy must not be null");
+		this.overflowPolicy = overflowPolicy;
+	}
+
+	/**
+	 * Set the ErrorHandler to invoke in case of an exception thrown by a listener
+	 * during asynchronous dispatch. Default is to log the exception and to continue
+	 * with the listener's next event.
+	 */
+	public void setErrorHandler(ErrorHandler errorHandler) {
+		Assert.notNull(errorHandler, "ErrorHandler must not be null");
+		this.errorHandler = errorHandler;
+	}
+
+	@Override
+	public void setBeanClassLoader(ClassLoader classLoader) {
+		super.setBeanClassLoader(classLoader);
+		this.beanClassLoader = classLoader;
+	}
+
+	@Override
+	public void setBeanFactory(BeanFactory beanFactory) {
+		super.setBeanFactory(beanFactory);
+		this.beanFactory = beanFactory;
+		if (this.beanClassLoader == null && beanFactory instanceof ConfigurableBeanFactory) {
+			this.beanClassLoader = ((ConfigurableBeanFactory) beanFactory).getBeanClassLoader();
+		}
+	}
+
+
+	@Override
+	public void addApplicationListener(ApplicationListener listener) {
+		super.addApplicationListener(listener);
+		this.registeredListeners.put(new ListenerKey(listener), Boolean.TRUE);
+		invalidateListenerIndex();
+	}
+
+	@Override
+	public void addApplicationListenerBean(String listenerBeanName) {
+		super.addApplicationListenerBean(listenerBeanName);
+		this.listenerBeanNames.add(listenerBeanName);
+		invalidateListenerIndex();
+	}
+
+	@Override
+	public void removeApplicationListener(ApplicationListener listener) {
+		super.removeApplicationListener(listener);
+		this.registeredListeners.remove(new ListenerKey(listener));
+		invalidateListenerIndex();
+		pruneListenerQueues();
+	}
+
+	@Override
+	public void removeApplicationListenerBean(String listenerBeanName) {
+		super.removeApplicationListenerBean(listenerBeanName);
+		this.listenerBeanNames.remove(listenerBeanName);
+		invalidateListenerIndex();
+		pruneListenerQueues();
+	}
+
+	@Override
+	public void removeAllListeners() {
+		super.removeAllListeners();
+		this.registeredListeners.clear();
+		this.listenerBeanNames.clear();
+		invalidateListenerIndex();
+		synchronized (this.listenerQueues) {
+			this.listenerQueues.clear();
+		}
+	}
+
+	private void invalidateListenerIndex() {
+		this.listenerGeneration.incrementAndGet();
+		this.listenerIndex.clear();
+	}
+
+
+	/**
+	 * Return the indexed listeners for the given event, building the index
+	 * entry for the event's type and source type if necessary.
+	 */
+	@Override
+	protected Collection<ApplicationListener> getApplicationListeners(ApplicationEvent event) {
+		Class<? extends ApplicationEvent> eventType = event.getClass();
+		Object source = event.getSource();
+		Class<?> sourceType = (source != null ? source.getClass() : null);
+		ListenerIndexKey key = new ListenerIndexKey(eventType, sourceType);
+		int generation = this.listenerGeneration.get();
+
+		ListenerIndexEntry entry = this.listenerIndex.get(key);
+		if (entry != null && entry.generation == generation) {
+			return entry.listeners;
+		}
+
+		Collection<ApplicationListener> listeners = super.getApplicationListeners(event);
+		if (isIndexable(eventType, sourceType)) {
+			// A registration change in the meantime leads to a stale generation,
+			// which simply causes a rebuild on the next lookup.
+			listeners = Collections.unmodifiableList(new ArrayList<ApplicationListener>(listeners));
+			this.listenerIndex.put(key, new ListenerIndexEntry(generation, listeners));
+		}
+		return listeners;
+	}
+
+	private boolean isIndexable(Class<?> eventType, Class<?> sourceType) {
+		if (this.beanClassLoader != null && (!ClassUtils.isCacheSafe(eventType, this.beanClassLoader) ||
+				(sourceType != null && !ClassUtils.isCacheSafe(sourceType, this.beanClassLoader)))) {
+			return false;
+		}
+		for (String listenerBeanName : this.listenerBeanNames) {
+			if (this.beanFactory == null || !this.beanFactory.isSingleton(listenerBeanName)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public void multicastEvent(final ApplicationEvent event) {
+		Executor executor = getTaskExecutor();
+		for (final ApplicationListener listener : getApplicationListeners(event)) {
+			if (executor != null) {
+				ListenerQueue queue = getListenerQueue(listener);
+				if (queue != null) {
+					queue.enqueue(event, executor);
+				}
+				else {
+					executor.execute(new Runnable() {
+						public void run() {
+							try {
+								listener.onApplicationEvent(event);
+							}
+							catch (Throwable ex) {
+								errorHandler.handleError(ex);
+							}
+						}
+					});
+				}
+			}
+			else {
+				listener.onApplicationEvent(event);
+			}
+		}
+	}
+
+	/**
+	 * Return the queue for the given listener, creating it if necessary.
+	 * @return the queue, or {@code null} if the listener does not qualify
+	 * for a queue of its own (see {@link #isQueueable})
+	 */
+	private ListenerQueue getListenerQueue(ApplicationListener listener) {
+		ListenerKey key = new ListenerKey(listener);
+		ListenerQueue queue = this.listenerQueues.get(key);
+		if (queue == null) {
+			synchronized (this.listenerQueues) {
+				queue = this.listenerQueues.get(key);
+				if (queue == null && isQueueable(listener)) {
+					queue = new ListenerQueue(listener, this.queueCapacity);
+					this.listenerQueues.put(key, queue);
+				}
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * Determine whether the given listener qualifies for a queue of its own:
+	 * that is, whether it is a registered listener instance or a singleton
+	 * listener bean, as opposed to an instance of a non-singleton listener bean.
+	 */
+	private boolean isQueueable(ApplicationListener listener) {
+		if (this.registeredListeners.containsKey(new ListenerKey(listener))) {
+			return true;
+		}
+		if (this.beanFactory != null) {
+			for (String listenerBeanName : this.listenerBeanNames) {
+				try {
+					if (this.beanFactory.isSingleton(listenerBeanName) &&
+							this.beanFactory.getBean(listenerBeanName) == listener) {
+						return true;
+					}
+				}
+				catch (NoSuchBeanDefinitionException ex) {
+					// Singleton listener bean has been removed in the meantime...
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Release the queues of listeners which are not registered anymore.
+	 * Events still pending in such a queue get delivered nevertheless.
+	 */
+	private void pruneListenerQueues() {
+		synchronized (this.listenerQueues) {
+			for (Iterator<ListenerQueue> it = this.listenerQueues.values().iterator(); it.hasNext();) {
+				if (!isQueueable(it.next().listener)) {
+					it.remove();
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Return the number of events currently waiting to be delivered
+	 * to the given listener.
+	 */
+	public int getQueuedEventCount(ApplicationListener listener) {
+		ListenerQueue queue = this.listenerQueues.get(new ListenerKey(listener));
+		return (queue != null ? queue.pendingEvents.size() : 0);
+	}
+
+	/**
+	 * Return the lag of the given listener: the number of milliseconds that
+	 * its oldest pending event has been waiting for delivery, or 0 if the
+	 * listener is up to date.
+	 */
+	public long getListenerLag(ApplicationListener listener) {
+		ListenerQueue queue = this.listenerQueues.get(new ListenerKey(listener));
+		if (queue != null) {
+			QueuedEvent oldest = queue.pendingEvents.peek();
+			if (oldest != null) {
+				return Math.max(System.currentTimeMillis() - oldest.timestamp, 0);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * Return the number of events that have been discarded for the given
+	 * listener because of {@link OverflowPolicy#DISCARD}.
+	 */
+	public long getDiscardedEventCount(ApplicationListener listener) {
+		ListenerQueue queue = this.listenerQueues.get(new ListenerKey(listener));
+		return (queue != null ? queue.discardedEvents.get() : 0);
+	}
+
+	/**
+	 * Return the number of events that have been delivered to the given
+	 * listener through its queue.
+	 */
+	public long getDeliveredEventCount(ApplicationListener listener) {
+		ListenerQueue queue = this.listenerQueues.get(new ListenerKey(listener));
+		return (queue != null ? queue.deliveredEvents.get() : 0);
+	}
+
+
+	/**
+	 * Key for a listener, based on its identity.
+	 */
+	private static final class ListenerKey {
+
+		private final ApplicationListener listener;
+
+		public ListenerKey(ApplicationListener listener) {
+			this.listener = listener;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			return (other instanceof ListenerKey && this.listener == ((ListenerKey) other).listener);
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(this.listener);
+		}
+	}
+
+
+	/**
+	 * Index key, based on event type and source type.
+	 */
+	private static final class ListenerIndexKey {
+
+		private final Class<?> eventType;
+
+		private final Class<?> sourceType;
+
+		public ListenerIndexKey(Class<?> eventType, Class<?> sourceType) {
+			this.eventType = eventType;
+			this.sourceType = sourceType;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof ListenerIndexKey)) {
+				return false;
+			}
+			ListenerIndexKey otherKey = (ListenerIndexKey) other;
+			return (this.eventType == otherKey.eventType && this.sourceType == otherKey.sourceType);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.eventType.hashCode() * 29 + ObjectUtils.nullSafeHashCode(this.sourceType);
+		}
+	}
+
+
+	/**
+	 * Pre-sorted listeners for a specific event type and source type,
+	 * valid for a specific generation of listener registrations.
+	 */
+	private static final class ListenerIndexEntry {
+
+		private final int generation;
+
+		private final Collection<ApplicationListener> listeners;
+
+		public ListenerIndexEntry(int generation, Collection<ApplicationListener> listeners) {
+			this.generation = generation;
+			this.listeners = listeners;
+		}
+	}
+
+
+	/**
+	 * A pending event, along with the time it got queued.
+	 */
+	private static final class QueuedEvent {
+
+		private final ApplicationEvent event;
+
+		private final long timestamp = System.currentTimeMillis();
+
+		public QueuedEvent(ApplicationEvent event) {
+			this.event = event;
+		}
+	}
+
+
+	/**
+	 * Bounded queue of pending events for a single listener,
+	 * drained by at most one task at any time.
+	 */
+	private class ListenerQueue implements Runnable {
+
+		private final ApplicationListener listener;
+
+		private final BlockingQueue<QueuedEvent> pendingEvents;
+
+		private final AtomicBoolean scheduled = new AtomicBoolean();
+
+		private final AtomicLong deliveredEvents = new AtomicLong();
+
+		private final AtomicLong discardedEvents = new AtomicLong();
+
+		private volatile Executor executor;
+
+		private volatile Thread drainingThread;
+
+		public ListenerQueue(ApplicationListener listener, int capacity) {
+			this.listener = listener;
+			this.pendingEvents = (capacity < Integer.MAX_VALUE ?
+					new ArrayBlockingQueue<QueuedEvent>(capacity) : new LinkedBlockingQueue<QueuedEvent>());
+		}
+
+		public void enqueue(ApplicationEvent event, Executor executor) {
+			this.executor = executor;
+			QueuedEvent queuedEvent = new QueuedEvent(event);
+			if (!this.pendingEvents.offer(queuedEvent)) {
+				switch (overflowPolicy) {
+					case BLOCK:
+						if (Thread.currentThread() == this.drainingThread) {
+							// Published by the listener itself: its queue cannot drain while we wait.
+							deliver(queuedEvent);
+							return;
+						}
+						try {
+							this.pendingEvents.put(queuedEvent);
+						}
+						catch (InterruptedException ex) {
+							Thread.currentThread().interrupt();
+							throw new TaskRejectedException(
+									"Interrupted while waiting to queue event for listener [" + this.listener + "]", ex);
+						}
+						break;
+					case DISCARD:
+						this.discardedEvents.incrementAndGet();
+						if (logger.isDebugEnabled()) {
+							logger.debug("Discarding event " + event + " for listener [" + this.listener +
+									"] - queue capacity of " + queueCapacity + " reached");
+						}
+						return;
+					default:
+						throw new TaskRejectedException("Queue capacity of " + queueCapacity +
+								" reached for listener [" + this.listener + "] - rejecting event " + event);
+				}
+			}
+			schedule();
+		}
+
+		private void schedule() {
+			if (this.scheduled.compareAndSet(false, true)) {
+				try {
+					this.executor.execute(this);
+				}
+				catch (RuntimeException ex) {
+					// Pending events get picked up by the next successful scheduling attempt
+					this.scheduled.set(false);
+					throw ex;
+				}
+			}
+		}
+
+		public void run() {
+			this.drainingThread = Thread.currentThread();
+			try {
+				for (int i = 0; i < batchSize; i++) {
+					QueuedEvent queuedEvent = this.pendingEvents.poll();
+					if (queuedEvent == null) {
+						break;
+					}
+					deliver(queuedEvent);
+				}
+			}
+			finally {
+				this.drainingThread = null;
+				this.scheduled.set(false);
+				if (!this.pendingEvents.isEmpty()) {
+					schedule();
+				}
+			}
+		}
+
+		@SuppressWarnings("unchecked")
+		private void deliver(QueuedEvent queuedEvent) {
+			try {
+				this.listener.onApplicationEvent(queuedEvent.event);
+			}
+			catch (Throwable ex) {
+				errorHandler.handleError(ex);
+			}
+			this.deliveredEvents.incrementAndGet();
+		}
+	}
+
+}
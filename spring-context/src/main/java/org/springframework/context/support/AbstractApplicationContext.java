@@ -20,6 +20,7 @@ import java.io.IOException;
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
 import java.util.LinkedHashSet;
@@ -41,6 +42,7 @@ import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
 import org.springframework.beans.factory.config.BeanPostProcessor;
 import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanFactory;
 import org.springframework.beans.factory.support.BeanDefinitionRegistry;
 import org.springframework.beans.factory.support.BeanDefinitionRegistryPostProcessor;
 import org.springframework.beans.factory.support.MergedBeanDefinitionPostProcessor;
@@ -82,6 +84,8 @@ import org.springframework.core.io.Resource;
 import org.springframework.core.io.ResourceLoader;
 import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
 import org.springframework.core.io.support.ResourcePatternResolver;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.StartupStep;
 import org.springframework.util.Assert;
 import org.springframework.util.ObjectUtils;
 
@@ -152,6 +156,13 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 */
 	public static final String APPLICATION_EVENT_MULTICASTER_BEAN_NAME = "applicationEventMulticaster";
 
+	/**
+	 * Name of the LazyInitializationBeanFactoryPostProcessor singleton registered
+	 * in the factory if lazy initialization has been activated for this context.
+	 * @see #setLazyInitialization
+	 */
+	public static final String LAZY_INITIALIZATION_PROCESSOR_BEAN_NAME = "lazyInitializationProcessor";
+
 
 	static {
 		// Eagerly load the ContextClosedEvent class to avoid weird classloader issues
@@ -212,6 +223,15 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	/** Environment used by this context; initialized by {@link #createEnvironment()} */
 	private ConfigurableEnvironment environment;
 
+	/** Strategy for recording the steps of the refresh of this context */
+	private ApplicationStartup applicationStartup = ApplicationStartup.DEFAULT;
+
+	/** Whether to initialize singletons lazily by default */
+	private boolean lazyInitialization = false;
+
+	/** Names of beans to initialize eagerly even with lazy initialization */
+	private String[] eagerBeanNames;
+
 
 	/**
 	 * Create a new AbstractApplicationContext with no parent.
@@ -417,6 +437,66 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		return this.beanFactoryPostProcessors;
 	}
 
+	/**
+	 * Set the {@link ApplicationStartup} for this application context.
+	 * <p>This allows the application context to record metrics
+	 * during startup. To be invoked before {@link #refresh()}.
+	 * <p>The internal bean factory only records steps while the context
+	 * is being refreshed; beans created after the refresh has completed
+	 * (e.g. prototypes or scoped beans) are not recorded.
+	 * @param applicationStartup the startup recording strategy to use
+	 * @since 3.2.13
+	 * @see org.springframework.core.metrics.RecordingApplicationStartup
+	 */
+	public void setApplicationStartup(ApplicationStartup applicationStartup) {
+		Assert.notNull(applicationStartup, "ApplicationStartup must not be null");
+		this.applicationStartup = applicationStartup;
+	}
+
+	/**
+	 * Return the {@link ApplicationStartup} for this application context.
+	 * @since 3.2.13
+	 */
+	public ApplicationStartup getApplicationStartup() {
+		return this.applicationStartup;
+	}
+
+	/**
+	 * Set whether singleton beans should be initialized lazily by default,
+	 * i.e. on first request instead of on refresh. To be invoked before
+	 * {@link #refresh()}.
+	 * <p>Default is "false". If switched on, all singletons not explicitly marked
+	 * as eager get switched to lazy initialization after all BeanFactoryPostProcessors
+	 * have been applied, and injection points for beans that have not been created
+	 * yet receive lazy-resolution proxies. The applied
+	 * {@link LazyInitializationBeanFactoryPostProcessor} is available as a bean named
+	 * {@link #LAZY_INITIALIZATION_PROCESSOR_BEAN_NAME}, reporting the beans which
+	 * have not been used so far.
+	 * <p>For further customization, register a {@code LazyInitializationBeanFactoryPostProcessor}
+	 * as a bean or through {@link #addBeanFactoryPostProcessor} instead.
+	 * @see #setEagerBeanNames
+	 * @see LazyInitializationBeanFactoryPostProcessor
+	 */
+	public void setLazyInitialization(boolean lazyInitialization) {
+		this.lazyInitialization = lazyInitialization;
+	}
+
+	/**
+	 * Return whether singleton beans are initialized lazily by default.
+	 */
+	public boolean isLazyInitialization() {
+		return this.lazyInitialization;
+	}
+
+	/**
+	 * Specify the names of beans to initialize eagerly even if
+	 * {@link #setLazyInitialization lazy initialization} is active.
+	 * Supports "xxx*", "*xxx" and "*xxx*" patterns.
+	 */
+	public void setEagerBeanNames(String... eagerBeanNames) {
+		this.eagerBeanNames = eagerBeanNames;
+	}
+
 	public void addApplicationListener(ApplicationListener<?> listener) {
 		if (this.applicationEventMulticaster != null) {
 			this.applicationEventMulticaster.addApplicationListener(listener);
@@ -444,67 +524,85 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 
 	public void refresh() throws BeansException, IllegalStateException {
 		synchronized (this.startupShutdownMonitor) {
-			// Prepare this context for refreshing.
-			// 准备刷新的上下文环境 ->
-			prepareRefresh();
-
-			// Tell the subclass to refresh the internal bean factory.
-			// 初始化BeanFactory,并进行XML文件读取 ->
-			ConfigurableListableBeanFactory beanFactory = obtainFreshBeanFactory();
-
-			// Prepare the bean factory for use in this context.
-			// 对BeanFactory进行各种功能填充 如@Qualifier @Autowired ->
-			prepareBeanFactory(beanFactory);
-
+			StartupStep refreshStep = getApplicationStartup().start("spring.context.refresh");
+			ConfigurableListableBeanFactory beanFactory = null;
 			try {
-				// Allows post-processing of the bean factory in context subclasses.
-				// 子类覆盖方法做额外的处理 ->
-				postProcessBeanFactory(beanFactory);
+				// Prepare this context for refreshing.
+				// 准备刷新的上下文环境 ->
+				prepareRefresh();
 
-				// Invoke factory processors registered as beans in the context.
-				// 激活各种BeanFactory处理器 ->
-				invokeBeanFactoryPostProcessors(beanFactory);
+				// Tell the subclass to refresh the internal bean factory.
+				// 初始化BeanFactory,并进行XML文件读取 ->
+				beanFactory = obtainFreshBeanFactory();
 
-				// Register bean processors that intercept bean creation.
-				// 注册Bean创建的时候的后置处理器，这里只是注册，真正的调用是在getBean的时候
-				registerBeanPostProcessors(beanFactory);
+				// Prepare the bean factory for use in this context.
+				// 对BeanFactory进行各种功能填充 如@Qualifier @Autowired ->
+				prepareBeanFactory(beanFactory);
 
-				// Initialize message source for this context.
-				// 为上下文初始化Message源，即不同语言的消息体，国际化处理
-				initMessageSource();
+				try {
+					// Allows post-processing of the bean factory in context subclasses.
+					// 子类覆盖方法做额外的处理 ->
+					postProcessBeanFactory(beanFactory);
+
+					StartupStep postProcessStep = getApplicationStartup().start("spring.context.beans.post-process");
+					try {
+						// Invoke factory processors registered as beans in the context.
+						// 激活各种BeanFactory处理器 ->
+						invokeBeanFactoryPostProcessors(beanFactory);
+
+						// Register bean processors that intercept bean creation.
+						// 注册Bean创建的时候的后置处理器，这里只是注册，真正的调用是在getBean的时候
+						registerBeanPostProcessors(beanFactory);
+					}
+					finally {
+						postProcessStep.end();
+					}
 
-				// Initialize event multicaster for this context.
-				// 初始化应用消息广播器，并放入"applicationEvenMulticaster中
-				initApplicationEventMulticaster();
+					// Initialize message source for this context.
+					// 为上下文初始化Message源，即不同语言的消息体，国际化处理
+					initMessageSource();
 
-				// Initialize other special beans in specific context subclasses.
-				// 留给子类初始化其他的bean
-				onRefresh();
+					// Initialize event multicaster for this context.
+					// 初始化应用消息广播器，并放入"applicationEvenMulticaster中
+					initApplicationEventMulticaster();
 
-				// Check for listener beans and register them.
-				// 所有注册的bean中查找Listener bean,注册到消息广播器中
-				registerListeners();
+					// Initialize other special beans in specific context subclasses.
+					// 留给子类初始化其他的bean
+					onRefresh();
 
-				// Instantiate all remaining (non-lazy-init) singletons.
-				// 初始化剩下的单实例（非惰性的）->
-				finishBeanFactoryInitialization(beanFactory);
+					// Check for listener beans and register them.
+					// 所有注册的bean中查找Listener bean,注册到消息广播器中
+					registerListeners();
 
-				// Last step: publish corresponding event.
-				// 完成刷新过程，通知生命周期处理器lifecycleProcesser刷新过程，同时发出ContextRefreshEvent通知别人
-				finishRefresh();
-			}
+					// Instantiate all remaining (non-lazy-init) singletons.
+					// 初始化剩下的单实例（非惰性的）->
+					finishBeanFactoryInitialization(beanFactory);
+
+					// Last step: publish corresponding event.
+					// 完成刷新过程，通知生命周期处理器lifecycleProcesser刷新过程，同时发出ContextRefreshEvent通知别人
+					finishRefresh();
+				}
 
-			catch (BeansException ex) {
-				logger.warn("Exception encountered during context initialization - cancelling refresh attempt", ex);
+				catch (BeansException ex) {
+					logger.warn("Exception encountered during context initialization - cancelling refresh attempt", ex);
 
-				// Destroy already created singletons to avoid dangling resources.
-				destroyBeans();
+					// Destroy already created singletons to avoid dangling resources.
+					destroyBeans();
 
-				// Reset 'active' flag.
-				cancelRefresh(ex);
+					// Reset 'active' flag.
+					cancelRefresh(ex);
 
-				// Propagate exception to caller.
-				throw ex;
+					// Propagate exception to caller.
+					throw ex;
+				}
+			}
+			finally {
+				refreshStep.end();
+				// Beans created from now on are not part of the startup anymore:
+				// stop recording them in order to not accumulate steps at runtime.
+				if (beanFactory instanceof AbstractBeanFactory) {
+					((AbstractBeanFactory) beanFactory).setApplicationStartup(ApplicationStartup.DEFAULT);
+				}
 			}
 		}
 	}
@@ -551,7 +649,13 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 	 */
 	protected ConfigurableListableBeanFactory obtainFreshBeanFactory() {
 		//初始化BeanFactory,并进行XML文件读取，并将得到的BeanFactory记录在当前实体中的属性中 ->
-		refreshBeanFactory();
+		StartupStep obtainStep = getApplicationStartup().start("spring.context.bean-factory.obtain");
+		try {
+			refreshBeanFactory();
+		}
+		finally {
+			obtainStep.end();
+		}
 		//返回当前实体的beanFactory属性
 		ConfigurableListableBeanFactory beanFactory = getBeanFactory();
 		if (logger.isDebugEnabled()) {
@@ -569,6 +673,9 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// Tell the internal bean factory to use the context's class loader etc.
 		//设置beanFactory的ClassLoader为当前context的classLoader
 		beanFactory.setBeanClassLoader(getClassLoader());
+		if (beanFactory instanceof AbstractBeanFactory) {
+			((AbstractBeanFactory) beanFactory).setApplicationStartup(getApplicationStartup());
+		}
 		// 设置beanFactory的表达式语言处理器，spring3增强了表达式语言的支持
 		// 默认可以使用#{bean.xxx}的形式来调用相关属性值
 		beanFactory.setBeanExpressionResolver(new StandardBeanExpressionResolver());
@@ -644,7 +751,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 					BeanDefinitionRegistryPostProcessor registryPostProcessor =
 							(BeanDefinitionRegistryPostProcessor) postProcessor;
 					//对于BeanDefinitionRegistryPostProcessor类型，在BeanFactoryPostProcessor的基础上还有自己定义的方法，需要先调用
-					registryPostProcessor.postProcessBeanDefinitionRegistry(registry);
+					invokeBeanDefinitionRegistryPostProcessor(registryPostProcessor, registry);
 					registryPostProcessors.add(registryPostProcessor);
 				}
 				else {
@@ -660,7 +767,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			OrderComparator.sort(registryPostProcessorBeans);
 			for (BeanDefinitionRegistryPostProcessor postProcessor : registryPostProcessorBeans) {
 				//BeanDefinitionRegistryPostProcessor的特殊处理
-				postProcessor.postProcessBeanDefinitionRegistry(registry);
+				invokeBeanDefinitionRegistryPostProcessor(postProcessor, registry);
 			}
 			//激活postProcessorBeanFactory方法，之前激活的是postProcessBeanDefinitionRegistry
 			//硬编码设置的BeanDefinitionRegistryPostProcessor
@@ -725,6 +832,14 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			nonOrderedPostProcessors.add(getBean(postProcessorName, BeanFactoryPostProcessor.class));
 		}
 		invokeBeanFactoryPostProcessors(nonOrderedPostProcessors, beanFactory);
+
+		// Switch remaining singletons to lazy initialization, if demanded.
+		if (this.lazyInitialization && !beanFactory.containsLocalBean(LAZY_INITIALIZATION_PROCESSOR_BEAN_NAME)) {
+			LazyInitializationBeanFactoryPostProcessor lazyInitProcessor = new LazyInitializationBeanFactoryPostProcessor();
+			lazyInitProcessor.setEagerBeanNames(this.eagerBeanNames);
+			invokeBeanFactoryPostProcessors(Collections.singletonList(lazyInitProcessor), beanFactory);
+			beanFactory.registerSingleton(LAZY_INITIALIZATION_PROCESSOR_BEAN_NAME, lazyInitProcessor);
+		}
 	}
 
 	/**
@@ -734,7 +849,30 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 			Collection<? extends BeanFactoryPostProcessor> postProcessors, ConfigurableListableBeanFactory beanFactory) {
 
 		for (BeanFactoryPostProcessor postProcessor : postProcessors) {
-			postProcessor.postProcessBeanFactory(beanFactory);
+			StartupStep postProcessStep = getApplicationStartup().start("spring.context.bean-factory.post-process")
+					.tag("postProcessor", postProcessor.getClass().getName());
+			try {
+				postProcessor.postProcessBeanFactory(beanFactory);
+			}
+			finally {
+				postProcessStep.end();
+			}
+		}
+	}
+
+	/**
+	 * Invoke the given BeanDefinitionRegistryPostProcessor bean.
+	 */
+	private void invokeBeanDefinitionRegistryPostProcessor(
+			BeanDefinitionRegistryPostProcessor postProcessor, BeanDefinitionRegistry registry) {
+
+		StartupStep postProcessStep = getApplicationStartup().start("spring.context.beandef-registry.post-process")
+				.tag("postProcessor", postProcessor.getClass().getName());
+		try {
+			postProcessor.postProcessBeanDefinitionRegistry(registry);
+		}
+		finally {
+			postProcessStep.end();
 		}
 	}
 
@@ -768,7 +906,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		List<String> nonOrderedPostProcessorNames = new ArrayList<String>();
 		for (String ppName : postProcessorNames) {
 			if (isTypeMatch(ppName, PriorityOrdered.class)) {
-				BeanPostProcessor pp = beanFactory.getBean(ppName, BeanPostProcessor.class);
+				BeanPostProcessor pp = getBeanPostProcessor(beanFactory, ppName);
 				priorityOrderedPostProcessors.add(pp);
 				if (pp instanceof MergedBeanDefinitionPostProcessor) {
 					internalPostProcessors.add(pp);
@@ -789,7 +927,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// Next, register the BeanPostProcessors that implement Ordered.
 		List<BeanPostProcessor> orderedPostProcessors = new ArrayList<BeanPostProcessor>();
 		for (String ppName : orderedPostProcessorNames) {
-			BeanPostProcessor pp = beanFactory.getBean(ppName, BeanPostProcessor.class);
+			BeanPostProcessor pp = getBeanPostProcessor(beanFactory, ppName);
 			orderedPostProcessors.add(pp);
 			if (pp instanceof MergedBeanDefinitionPostProcessor) {
 				internalPostProcessors.add(pp);
@@ -801,7 +939,7 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		// Now, register all regular BeanPostProcessors.
 		List<BeanPostProcessor> nonOrderedPostProcessors = new ArrayList<BeanPostProcessor>();
 		for (String ppName : nonOrderedPostProcessorNames) {
-			BeanPostProcessor pp = beanFactory.getBean(ppName, BeanPostProcessor.class);
+			BeanPostProcessor pp = getBeanPostProcessor(beanFactory, ppName);
 			nonOrderedPostProcessors.add(pp);
 			if (pp instanceof MergedBeanDefinitionPostProcessor) {
 				internalPostProcessors.add(pp);
@@ -816,6 +954,21 @@ public abstract class AbstractApplicationContext extends DefaultResourceLoader
 		beanFactory.addBeanPostProcessor(new ApplicationListenerDetector());
 	}
 
+	/**
+	 * Obtain the given BeanPostProcessor bean for registration,
+	 * recording its instantiation as a startup step.
+	 */
+	private BeanPostProcessor getBeanPostProcessor(ConfigurableListableBeanFactory beanFactory, String ppName) {
+		StartupStep registrationStep = getApplicationStartup().start("spring.context.bean-post-processor.register")
+				.tag("beanName", ppName);
+		try {
+			return beanFactory.getBean(ppName, BeanPostProcessor.class);
+		}
+		finally {
+			registrationStep.end();
+		}
+	}
+
 	/**
 	 * Register the given BeanPostProcessor beans.
 	 */
@@ -0,0 +1,263 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Timer;
+import java.util.TimerTask;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.AbstractBeanDefinition;
+import org.springframework.beans.factory.support.AutowireCandidateResolver;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.context.Lifecycle;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.core.Conventions;
+import org.springframework.core.Ordered;
+import org.springframework.util.Assert;
+import org.springframework.util.ObjectUtils;
+import org.springframework.util.PatternMatchUtils;
+
+/**
+ * {@link BeanFactoryPostProcessor} that switches all eligible singleton bean
+ * definitions to lazy initialization, so that they only get created when first
+ * requested instead of during {@code preInstantiateSingletons()}.
+ *
+ * <p>A bean definition is left as-is if it is abstract, not a singleton, marked with
+ * the {@link #EAGER_INIT_ATTRIBUTE} (as done for {@code @Lazy(false)} components and
+ * {@code @Bean} methods), a framework infrastructure bean, a post-processor or
+ * {@link Lifecycle} bean, or if its name matches one of the configured
+ * {@link #setEagerBeanNames eager bean name patterns}.
+ *
+ * <p>Unless {@link #setLazyResolutionProxies switched off}, this post-processor also
+ * marks the affected bean definitions with the {@link #LAZY_RESOLUTION_ATTRIBUTE}, so
+ * that injection points which can only be satisfied by such beans that have not been
+ * created yet receive lazy-resolution proxies: The actual target bean is then only
+ * created once a method gets invoked on the proxy. This requires an autowire candidate
+ * resolver which supports lazy resolution, as registered by annotation config.
+ *
+ * <p>{@link #getUntouchedBeanNames()} reports the beans switched to lazy
+ * initialization that have never been created since. Such a report can also be
+ * {@link #setUntouchedBeanReportDelay logged} a given time after startup.
+ *
+ * <p>Typically activated through {@link AbstractApplicationContext#setLazyInitialization},
+ * in which case it runs after all other BeanFactoryPostProcessors. It may also be defined
+ * as a bean: As an {@link Ordered} post-processor with lowest precedence, it then runs after
+ * all {@link org.springframework.core.PriorityOrdered} and other {@code Ordered}
+ * BeanFactoryPostProcessors but before any unordered ones, so bean definitions registered
+ * by the latter are not switched to lazy initialization.
+ *
+ * @since 3.2.13
+ * @see org.springframework.beans.factory.config.BeanDefinition#setLazyInit
+ * @see org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver
+ */
+public class LazyInitializationBeanFactoryPostProcessor implements BeanFactoryPostProcessor, DisposableBean, Ordered {
+
+	/**
+	 * Bean definition attribute that marks a bean to be initialized eagerly
+	 * even if lazy initialization is applied to the bean factory by default.
+	 * The attribute value is expected to be {@link Boolean#TRUE}.
+	 */
+	public static final String EAGER_INIT_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(LazyInitializationBeanFactoryPostProcessor.class, "eagerInit");
+
+	/**
+	 * Bean definition attribute that marks a bean switched to lazy initialization
+	 * as eligible for lazy-resolution proxies at its injection points.
+	 * The attribute value is expected to be {@link Boolean#TRUE}.
+	 */
+	public static final String LAZY_RESOLUTION_ATTRIBUTE =
+			Conventions.getQualifiedAttributeName(LazyInitializationBeanFactoryPostProcessor.class, "lazyResolution");
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private String[] eagerBeanNames;
+
+	private boolean lazyResolutionProxies = true;
+
+	private long untouchedBeanReportDelay = -1;
+
+	private final Set<String> lazyBeanNames = Collections.synchronizedSet(new LinkedHashSet<String>());
+
+	private ConfigurableListableBeanFactory beanFactory;
+
+	private Timer reportTimer;
+
+
+	/**
+	 * Specify the names of beans which should be initialized eagerly
+	 * nevertheless. Supports "xxx*", "*xxx" and "*xxx*" patterns.
+	 * @see PatternMatchUtils#simpleMatch(String[], String)
+	 */
+	public void setEagerBeanNames(String... eagerBeanNames) {
+		this.eagerBeanNames = eagerBeanNames;
+	}
+
+	/**
+	 * Specify whether injection points for beans that have not been created yet should
+	 * receive lazy-resolution proxies, deferring the creation of the target bean until
+	 * its first use. Default is "true".
+	 * <p>Switch this off to only defer the creation of beans that are not referenced
+	 * by any eagerly initialized bean.
+	 */
+	public void setLazyResolutionProxies(boolean lazyResolutionProxies) {
+		this.lazyResolutionProxies = lazyResolutionProxies;
+	}
+
+	/**
+	 * Specify a delay (in milliseconds) after which the names of all beans switched to
+	 * lazy initialization which have not been created yet will be logged at info level.
+	 * <p>Default is none. The report runs on a daemon thread which gets cancelled
+	 * on shutdown of the bean factory.
+	 * @see #getUntouchedBeanNames()
+	 */
+	public void setUntouchedBeanReportDelay(long untouchedBeanReportDelay) {
+		this.untouchedBeanReportDelay = untouchedBeanReportDelay;
+	}
+
+	/**
+	 * Returns {@link Ordered#LOWEST_PRECEDENCE}, running this post-processor
+	 * last among the {@code Ordered} BeanFactoryPostProcessors (but still before
+	 * any BeanFactoryPostProcessors which do not implement {@code Ordered}).
+	 */
+	public int getOrder() {
+		return Ordered.LOWEST_PRECEDENCE;
+	}
+
+
+	public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+		for (String beanName : beanFactory.getBeanDefinitionNames()) {
+			BeanDefinition bd = beanFactory.getBeanDefinition(beanName);
+			if (isLazyInitCandidate(beanName, bd, beanFactory)) {
+				bd.setLazyInit(true);
+				if (this.lazyResolutionProxies) {
+					bd.setAttribute(LAZY_RESOLUTION_ATTRIBUTE, Boolean.TRUE);
+				}
+				this.lazyBeanNames.add(beanName);
+			}
+		}
+		if (this.lazyResolutionProxies && !this.lazyBeanNames.isEmpty() &&
+				beanFactory instanceof DefaultListableBeanFactory) {
+			AutowireCandidateResolver resolver = ((DefaultListableBeanFactory) beanFactory).getAutowireCandidateResolver();
+			if (resolver instanceof ContextAnnotationAutowireCandidateResolver) {
+				((ContextAnnotationAutowireCandidateResolver) resolver).setLazyResolutionOfMarkedBeans(true);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Switched " + this.lazyBeanNames.size() + " bean definitions to lazy initialization");
+		}
+		if (this.untouchedBeanReportDelay >= 0 && this.reportTimer == null) {
+			scheduleUntouchedBeanReport();
+		}
+	}
+
+	/**
+	 * Determine whether the given bean definition is to be switched to lazy initialization.
+	 * @param beanName the name of the bean
+	 * @param bd the bean definition (not merged yet)
+	 * @param beanFactory the bean factory the bean is defined in
+	 */
+	protected boolean isLazyInitCandidate(String beanName, BeanDefinition bd, ConfigurableListableBeanFactory beanFactory) {
+		if (bd.isAbstract() || bd.isLazyInit() || !bd.isSingleton() ||
+				bd.getRole() == BeanDefinition.ROLE_INFRASTRUCTURE ||
+				Boolean.TRUE.equals(bd.getAttribute(EAGER_INIT_ATTRIBUTE))) {
+			return false;
+		}
+		if (this.eagerBeanNames != null && PatternMatchUtils.simpleMatch(this.eagerBeanNames, beanName)) {
+			return false;
+		}
+		if (bd instanceof AbstractBeanDefinition && bd.getFactoryMethodName() == null) {
+			AbstractBeanDefinition abd = (AbstractBeanDefinition) bd;
+			if (abd.hasBeanClass()) {
+				Class<?> beanClass = abd.getBeanClass();
+				if (BeanFactoryPostProcessor.class.isAssignableFrom(beanClass) ||
+						BeanPostProcessor.class.isAssignableFrom(beanClass) ||
+						Lifecycle.class.isAssignableFrom(beanClass)) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	private void scheduleUntouchedBeanReport() {
+		this.reportTimer = new Timer(ObjectUtils.identityToString(this) + " report", true);
+		this.reportTimer.schedule(new TimerTask() {
+			@Override
+			public void run() {
+				List<String> untouched = getUntouchedBeanNames();
+				if (logger.isInfoEnabled()) {
+					logger.info(untouched.size() + " of " + lazyBeanNames.size() + " lazily initialized beans " +
+							"have not been used within " + untouchedBeanReportDelay + " ms: " + untouched);
+				}
+			}
+		}, this.untouchedBeanReportDelay);
+		if (this.beanFactory instanceof DefaultListableBeanFactory) {
+			((DefaultListableBeanFactory) this.beanFactory).registerDisposableBean(
+					ObjectUtils.identityToString(this), this);
+		}
+	}
+
+
+	/**
+	 * Return the names of all beans that have been switched to lazy initialization.
+	 */
+	public Set<String> getLazyBeanNames() {
+		synchronized (this.lazyBeanNames) {
+			return Collections.unmodifiableSet(new LinkedHashSet<String>(this.lazyBeanNames));
+		}
+	}
+
+	/**
+	 * Return the names of all beans that have been switched to lazy initialization
+	 * and have not been created so far.
+	 */
+	public List<String> getUntouchedBeanNames() {
+		Assert.state(this.beanFactory != null, "BeanFactory not post-processed yet");
+		List<String> untouched = new ArrayList<String>();
+		for (String beanName : getLazyBeanNames()) {
+			if (!this.beanFactory.containsSingleton(beanName)) {
+				untouched.add(beanName);
+			}
+		}
+		return untouched;
+	}
+
+	/**
+	 * Cancel a pending report of untouched beans, if any.
+	 */
+	public void destroy() {
+		if (this.reportTimer != null) {
+			this.reportTimer.cancel();
+		}
+	}
+
+}
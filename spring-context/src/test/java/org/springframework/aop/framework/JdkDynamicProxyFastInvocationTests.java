@@ -0,0 +1,116 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.aop.framework;
+
+import java.io.Serializable;
+
+import org.junit.Test;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.tests.Assume;
+import org.springframework.tests.TestGroup;
+import org.springframework.tests.aop.interceptor.NopInterceptor;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.StopWatch;
+
+import static org.junit.Assert.*;
+
+/**
+ * Runs the common AOP proxy tests against JDK dynamic proxies with
+ * {@link ProxyConfig#setFastInvocation "fastInvocation"} turned on,
+ * plus a performance comparison with the reflective and CGLIB variants.
+ */
+@SuppressWarnings("serial")
+public final class JdkDynamicProxyFastInvocationTests extends AbstractAopProxyTests implements Serializable {
+
+	@Override
+	protected Object createProxy(ProxyCreatorSupport as) {
+		assertFalse("Not forcible CGLIB", as.isProxyTargetClass());
+		as.setFastInvocation(true);
+		Object proxy = as.createAopProxy().getProxy();
+		assertTrue("Should be a JDK proxy: " + proxy.getClass(), AopUtils.isJdkDynamicProxy(proxy));
+		return proxy;
+	}
+
+	@Override
+	protected AopProxy createAopProxy(AdvisedSupport as) {
+		as.setFastInvocation(true);
+		return new JdkDynamicAopProxy(as);
+	}
+
+
+	@Test
+	public void targetExceptionIsUnwrapped() {
+		TestBean target = new TestBean();
+		ProxyFactory pf = new ProxyFactory(target);
+		pf.setFastInvocation(true);
+		ITestBean proxy = (ITestBean) pf.getProxy();
+		try {
+			proxy.exceptional(new IllegalStateException());
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		catch (Throwable ex) {
+			fail("Should have thrown IllegalStateException instead of " + ex);
+		}
+	}
+
+	@Test
+	public void invocationPerformance() {
+		Assume.group(TestGroup.PERFORMANCE);
+		int calls = 1000000;
+		StopWatch sw = new StopWatch("AOP proxy invocation");
+		ITestBean reflective = createAdvisedProxy(false, false);
+		ITestBean fast = createAdvisedProxy(false, true);
+		ITestBean cglib = createAdvisedProxy(true, false);
+		// Warm up all variants before measuring
+		invoke(reflective, calls);
+		invoke(fast, calls);
+		invoke(cglib, calls);
+		sw.start("JDK proxy, reflective invocation");
+		invoke(reflective, calls);
+		sw.stop();
+		sw.start("JDK proxy, fast invocation");
+		invoke(fast, calls);
+		sw.stop();
+		sw.start("CGLIB proxy");
+		invoke(cglib, calls);
+		sw.stop();
+		System.out.println(sw.prettyPrint());
+	}
+
+	private ITestBean createAdvisedProxy(boolean proxyTargetClass, boolean fastInvocation) {
+		ProxyFactory pf = new ProxyFactory(new TestBean());
+		pf.setProxyTargetClass(proxyTargetClass);
+		pf.setFastInvocation(fastInvocation);
+		pf.addAdvice(new NopInterceptor());
+		pf.addAdvice(new NopInterceptor());
+		pf.addAdvice(new NopInterceptor());
+		return (ITestBean) pf.getProxy();
+	}
+
+	private void invoke(ITestBean proxy, int calls) {
+		for (int i = 0; i < calls; i++) {
+			proxy.setAge(i);
+			assertEquals(i, proxy.getAge());
+		}
+	}
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.HashSet;
+import java.util.Properties;
+import java.util.Set;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.context.annotation.ConfigurationClassEnhancer.EnhancedConfiguration;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.tests.sample.beans.TestBean;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.FileSystemUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link EnhancedConfigurationClassWriter} and the corresponding
+ * runtime lookup of pre-generated classes in {@link ConfigurationClassEnhancer}.
+ */
+public class EnhancedConfigurationClassWriterTests {
+
+	private File outputDirectory;
+
+
+	@Before
+	public void createOutputDirectory() throws IOException {
+		this.outputDirectory = File.createTempFile("enhanced", "classes");
+		assertTrue(this.outputDirectory.delete());
+		assertTrue(this.outputDirectory.mkdir());
+	}
+
+	@After
+	public void deleteOutputDirectory() {
+		FileSystemUtils.deleteRecursively(this.outputDirectory);
+	}
+
+
+	@Test
+	public void writeEnhancedClass() throws Exception {
+		String className = new EnhancedConfigurationClassWriter(this.outputDirectory).write(SimpleConfig.class);
+		assertEquals(SimpleConfig.class.getName() + ConfigurationClassEnhancer.PREGENERATED_CLASS_NAME_SUFFIX, className);
+
+		Class<?> enhancedClass = createClassLoader().loadClass(className);
+		assertSame(SimpleConfig.class, enhancedClass.getSuperclass());
+		assertTrue(EnhancedConfiguration.class.isAssignableFrom(enhancedClass));
+		assertNotNull(enhancedClass.getDeclaredMethod("testBean"));
+
+		Properties index = PropertiesLoaderUtils.loadProperties(new FileSystemResource(
+				new File(this.outputDirectory, ConfigurationClassEnhancer.PREGENERATED_CLASS_INDEX_LOCATION)));
+		assertEquals(ConfigurationClassEnhancer.getConfigurationClassHash(SimpleConfig.class),
+				index.getProperty(SimpleConfig.class.getName()));
+	}
+
+	@Test
+	public void writeEnhancedClassesKeepsIndexEntries() throws Exception {
+		EnhancedConfigurationClassWriter writer = new EnhancedConfigurationClassWriter(this.outputDirectory);
+		writer.write(SimpleConfig.class);
+		writer.write(OtherConfig.class);
+
+		Properties index = PropertiesLoaderUtils.loadProperties(new FileSystemResource(
+				new File(this.outputDirectory, ConfigurationClassEnhancer.PREGENERATED_CLASS_INDEX_LOCATION)));
+		assertEquals(2, index.size());
+		assertFalse(index.getProperty(SimpleConfig.class.getName()).equals(index.getProperty(OtherConfig.class.getName())));
+	}
+
+	@Test
+	public void usePregeneratedClassAtRuntime() throws Exception {
+		String className = new EnhancedConfigurationClassWriter(this.outputDirectory).write(SimpleConfig.class);
+		RecordingClassLoader classLoader = createClassLoader();
+
+		SimpleConfig config = refreshContext(classLoader);
+		assertSame(classLoader.loadClass(className), config.getClass());
+		assertTrue(classLoader.requestedClassNames.contains(className));
+	}
+
+	@Test
+	public void ignoreOutdatedPregeneratedClass() throws Exception {
+		String className = new EnhancedConfigurationClassWriter(this.outputDirectory).write(SimpleConfig.class);
+		File indexFile = new File(this.outputDirectory, ConfigurationClassEnhancer.PREGENERATED_CLASS_INDEX_LOCATION);
+		FileCopyUtils.copy(SimpleConfig.class.getName() + "=outdated", new FileWriter(indexFile));
+		RecordingClassLoader classLoader = createClassLoader();
+
+		SimpleConfig config = refreshContext(classLoader);
+		assertTrue(EnhancedConfiguration.class.isInstance(config));
+		assertFalse(className.equals(config.getClass().getName()));
+		assertFalse(classLoader.requestedClassNames.contains(className));
+	}
+
+	@Test
+	public void noClassLookupWithoutIndex() throws Exception {
+		RecordingClassLoader classLoader = createClassLoader();
+
+		SimpleConfig config = refreshContext(classLoader);
+		assertTrue(EnhancedConfiguration.class.isInstance(config));
+		for (String requestedClassName : classLoader.requestedClassNames) {
+			assertFalse(requestedClassName.endsWith(ConfigurationClassEnhancer.PREGENERATED_CLASS_NAME_SUFFIX));
+		}
+	}
+
+
+	private RecordingClassLoader createClassLoader() throws IOException {
+		return new RecordingClassLoader(this.outputDirectory);
+	}
+
+	private SimpleConfig refreshContext(ClassLoader classLoader) {
+		AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+		ctx.setClassLoader(classLoader);
+		ctx.register(SimpleConfig.class);
+		ctx.refresh();
+		try {
+			SimpleConfig config = ctx.getBean(SimpleConfig.class);
+			assertSame(ctx.getBean("testBean"), config.testBean());
+			return config;
+		}
+		finally {
+			ctx.close();
+		}
+	}
+
+
+	@Configuration
+	public static class SimpleConfig {
+
+		@Bean
+		public TestBean testBean() {
+			return new TestBean();
+		}
+	}
+
+
+	@Configuration
+	public static class OtherConfig {
+
+		@Bean
+		public TestBean otherBean() {
+			return new TestBean();
+		}
+	}
+
+
+	private static class RecordingClassLoader extends URLClassLoader {
+
+		private final Set<String> requestedClassNames = new HashSet<String>();
+
+		public RecordingClassLoader(File classesDirectory) throws IOException {
+			super(new URL[] {classesDirectory.toURI().toURL()}, EnhancedConfigurationClassWriterTests.class.getClassLoader());
+		}
+
+		@Override
+		public Class<?> loadClass(String name) throws ClassNotFoundException {
+			this.requestedClassNames.add(name);
+			return super.loadClass(name);
+		}
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.annotation;
+
+import org.junit.Test;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.support.GenericApplicationContext;
+import org.springframework.context.support.LazyInitializationBeanFactoryPostProcessor;
+import org.springframework.tests.sample.beans.ITestBean;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link Lazy} injection points as supported by
+ * {@link ContextAnnotationAutowireCandidateResolver}.
+ */
+public class LazyAutowiredAnnotationBeanPostProcessorTests {
+
+	private GenericApplicationContext createContext(Class<?> beanClass) {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		ac.registerBeanDefinition("testBean", new RootBeanDefinition(beanClass));
+		RootBeanDefinition tbd = new RootBeanDefinition(TestBean.class);
+		tbd.setLazyInit(true);
+		ac.registerBeanDefinition("target", tbd);
+		ac.refresh();
+		return ac;
+	}
+
+	@Test
+	public void lazyFieldInjection() {
+		GenericApplicationContext ac = createContext(FieldResourceInjectionBean.class);
+		FieldResourceInjectionBean bean = ac.getBean("testBean", FieldResourceInjectionBean.class);
+		assertTrue(AopUtils.isAopProxy(bean.testBean));
+		assertFalse(ac.getBeanFactory().containsSingleton("target"));
+		bean.testBean.setName("tb");
+		assertTrue(ac.getBeanFactory().containsSingleton("target"));
+		assertEquals("tb", ac.getBean("target", TestBean.class).getName());
+	}
+
+	@Test
+	public void lazyMethodInjection() {
+		GenericApplicationContext ac = createContext(MethodResourceInjectionBean.class);
+		MethodResourceInjectionBean bean = ac.getBean("testBean", MethodResourceInjectionBean.class);
+		assertTrue(AopUtils.isAopProxy(bean.testBean));
+		assertFalse(ac.getBeanFactory().containsSingleton("target"));
+		assertNull(bean.testBean.getName());
+		assertTrue(ac.getBeanFactory().containsSingleton("target"));
+	}
+
+	@Test
+	public void lazyFieldInjectionOfPrototype() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		ac.registerBeanDefinition("testBean", new RootBeanDefinition(FieldResourceInjectionBean.class));
+		RootBeanDefinition tbd = new RootBeanDefinition(TestBean.class);
+		tbd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		ac.registerBeanDefinition("target", tbd);
+		ac.refresh();
+
+		FieldResourceInjectionBean bean = ac.getBean("testBean", FieldResourceInjectionBean.class);
+		assertTrue(AopUtils.isAopProxy(bean.testBean));
+		bean.testBean.setName("tb");
+		assertNull("Prototype target must be resolved on every invocation", bean.testBean.getName());
+	}
+
+	@Test
+	public void nonLazyFieldInjection() {
+		GenericApplicationContext ac = createContext(NonLazyFieldInjectionBean.class);
+		NonLazyFieldInjectionBean bean = ac.getBean("testBean", NonLazyFieldInjectionBean.class);
+		assertFalse(AopUtils.isAopProxy(bean.testBean));
+		assertSame(ac.getBean("target"), bean.testBean);
+	}
+
+	@Test
+	public void plainFieldInjectionOfMarkedBeanWithoutLazyResolutionMode() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		ac.registerBeanDefinition("testBean", new RootBeanDefinition(PlainFieldInjectionBean.class));
+		RootBeanDefinition tbd = new RootBeanDefinition(TestBean.class);
+		tbd.setLazyInit(true);
+		tbd.setAttribute(LazyInitializationBeanFactoryPostProcessor.LAZY_RESOLUTION_ATTRIBUTE, Boolean.TRUE);
+		ac.registerBeanDefinition("target", tbd);
+		ac.refresh();
+
+		ContextAnnotationAutowireCandidateResolver resolver = (ContextAnnotationAutowireCandidateResolver)
+				ac.getDefaultListableBeanFactory().getAutowireCandidateResolver();
+		assertFalse(resolver.isLazyResolutionOfColdBeans());
+		assertFalse(resolver.isLazyResolutionOfMarkedBeans());
+		PlainFieldInjectionBean bean = ac.getBean("testBean", PlainFieldInjectionBean.class);
+		assertFalse(AopUtils.isAopProxy(bean.testBean));
+		assertSame(ac.getBean("target"), bean.testBean);
+	}
+
+	@Test
+	public void plainFieldInjectionOfLazyInitBeanInColdBeanMode() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		((ContextAnnotationAutowireCandidateResolver) ac.getDefaultListableBeanFactory()
+				.getAutowireCandidateResolver()).setLazyResolutionOfColdBeans(true);
+		ac.registerBeanDefinition("testBean", new RootBeanDefinition(PlainFieldInjectionBean.class));
+		RootBeanDefinition tbd = new RootBeanDefinition(TestBean.class);
+		tbd.setLazyInit(true);
+		ac.registerBeanDefinition("target", tbd);
+		ac.refresh();
+
+		PlainFieldInjectionBean bean = ac.getBean("testBean", PlainFieldInjectionBean.class);
+		assertTrue(AopUtils.isAopProxy(bean.testBean));
+		assertFalse(ac.getBeanFactory().containsSingleton("target"));
+	}
+
+
+	public static class FieldResourceInjectionBean {
+
+		@Autowired @Lazy
+		private ITestBean testBean;
+	}
+
+
+	public static class MethodResourceInjectionBean {
+
+		private ITestBean testBean;
+
+		@Autowired @Lazy
+		public void setTestBean(ITestBean testBean) {
+			this.testBean = testBean;
+		}
+	}
+
+
+	public static class PlainFieldInjectionBean {
+
+		@Autowired
+		private ITestBean testBean;
+	}
+
+
+	public static class NonLazyFieldInjectionBean {
+
+		@Autowired @Lazy(false)
+		private ITestBean testBean;
+	}
+
+}
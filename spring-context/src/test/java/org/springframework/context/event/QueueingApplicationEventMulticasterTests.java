@@ -0,0 +1,313 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.event;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.ApplicationEvent;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.task.TaskRejectedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 3.2.13
+ */
+public class QueueingApplicationEventMulticasterTests {
+
+	@Test
+	public void synchronousDispatchThroughIndex() {
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		RecordingListener listener = new RecordingListener();
+		multicaster.addApplicationListener(listener);
+
+		multicaster.multicastEvent(new SequenceEvent(this, 1));
+		multicaster.multicastEvent(new OtherEvent(this));
+		assertEquals(1, listener.sequence.size());
+		assertSame(multicaster.getApplicationListeners(new SequenceEvent(this, 2)),
+				multicaster.getApplicationListeners(new SequenceEvent(this, 3)));
+
+		RecordingListener listener2 = new RecordingListener();
+		multicaster.addApplicationListener(listener2);
+		multicaster.multicastEvent(new SequenceEvent(this, 2));
+		assertEquals(2, listener.sequence.size());
+		assertEquals(1, listener2.sequence.size());
+
+		multicaster.removeApplicationListener(listener);
+		multicaster.multicastEvent(new SequenceEvent(this, 3));
+		assertEquals(2, listener.sequence.size());
+		assertEquals(2, listener2.sequence.size());
+	}
+
+	@Test
+	public void prototypeListenerBeanNotIndexed() {
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(RecordingListener.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanFactory.registerBeanDefinition("listener", bd);
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster(beanFactory);
+		multicaster.addApplicationListenerBean("listener");
+
+		Collection<ApplicationListener> listeners1 = multicaster.getApplicationListeners(new SequenceEvent(this, 1));
+		Collection<ApplicationListener> listeners2 = multicaster.getApplicationListeners(new SequenceEvent(this, 2));
+		assertEquals(1, listeners1.size());
+		assertNotSame(listeners1.iterator().next(), listeners2.iterator().next());
+	}
+
+	@Test
+	public void asynchronousDispatchKeepsOrderPerListener() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(4);
+		try {
+			QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+			multicaster.setTaskExecutor(executor);
+			multicaster.setBatchSize(7);
+			int eventCount = 1000;
+			RecordingListener listener1 = new RecordingListener(eventCount);
+			RecordingListener listener2 = new RecordingListener(eventCount);
+			multicaster.addApplicationListener(listener1);
+			multicaster.addApplicationListener(listener2);
+
+			for (int i = 0; i < eventCount; i++) {
+				multicaster.multicastEvent(new SequenceEvent(this, i));
+			}
+			assertTrue(listener1.latch.await(10, TimeUnit.SECONDS));
+			assertTrue(listener2.latch.await(10, TimeUnit.SECONDS));
+			for (int i = 0; i < eventCount; i++) {
+				assertEquals(Integer.valueOf(i), listener1.sequence.get(i));
+				assertEquals(Integer.valueOf(i), listener2.sequence.get(i));
+			}
+			assertEquals(eventCount, multicaster.getDeliveredEventCount(listener1));
+			assertEquals(0, multicaster.getQueuedEventCount(listener1));
+			assertEquals(0, multicaster.getListenerLag(listener1));
+		}
+		finally {
+			executor.shutdownNow();
+		}
+	}
+
+	@Test
+	public void discardOverflowPolicy() {
+		CollectingExecutor executor = new CollectingExecutor();
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		multicaster.setQueueCapacity(2);
+		multicaster.setOverflowPolicy(QueueingApplicationEventMulticaster.OverflowPolicy.DISCARD);
+		RecordingListener listener = new RecordingListener();
+		multicaster.addApplicationListener(listener);
+
+		for (int i = 0; i < 5; i++) {
+			multicaster.multicastEvent(new SequenceEvent(this, i));
+		}
+		assertEquals(1, executor.tasks.size());
+		assertEquals(2, multicaster.getQueuedEventCount(listener));
+		assertEquals(3, multicaster.getDiscardedEventCount(listener));
+		assertTrue(multicaster.getListenerLag(listener) >= 0);
+
+		executor.tasks.remove(0).run();
+		assertEquals(2, listener.sequence.size());
+		assertEquals(Integer.valueOf(0), listener.sequence.get(0));
+		assertEquals(Integer.valueOf(1), listener.sequence.get(1));
+		assertEquals(0, multicaster.getQueuedEventCount(listener));
+		assertTrue(executor.tasks.isEmpty());
+	}
+
+	@Test
+	public void rejectOverflowPolicy() {
+		CollectingExecutor executor = new CollectingExecutor();
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		multicaster.setQueueCapacity(1);
+		multicaster.setOverflowPolicy(QueueingApplicationEventMulticaster.OverflowPolicy.REJECT);
+		multicaster.addApplicationListener(new RecordingListener());
+
+		multicaster.multicastEvent(new SequenceEvent(this, 1));
+		try {
+			multicaster.multicastEvent(new SequenceEvent(this, 2));
+			fail("Should have thrown TaskRejectedException");
+		}
+		catch (TaskRejectedException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void listenerExceptionDoesNotStopQueue() {
+		CollectingExecutor executor = new CollectingExecutor();
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		RecordingListener listener = new RecordingListener() {
+			@Override
+			public void onApplicationEvent(SequenceEvent event) {
+				super.onApplicationEvent(event);
+				if (event.sequence == 0) {
+					throw new IllegalStateException("boom");
+				}
+			}
+		};
+		multicaster.addApplicationListener(listener);
+
+		multicaster.multicastEvent(new SequenceEvent(this, 0));
+		multicaster.multicastEvent(new SequenceEvent(this, 1));
+		executor.tasks.remove(0).run();
+		assertEquals(2, listener.sequence.size());
+	}
+
+
+	@Test
+	public void listenerQueueReleasedOnRemoval() {
+		CollectingExecutor executor = new CollectingExecutor();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		beanFactory.registerBeanDefinition("listener", new RootBeanDefinition(RecordingListener.class));
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster(beanFactory);
+		multicaster.setTaskExecutor(executor);
+		RecordingListener listener = new RecordingListener();
+		multicaster.addApplicationListener(listener);
+		multicaster.addApplicationListenerBean("listener");
+		RecordingListener beanListener = beanFactory.getBean("listener", RecordingListener.class);
+
+		multicaster.multicastEvent(new SequenceEvent(this, 1));
+		assertEquals(1, multicaster.getQueuedEventCount(listener));
+		assertEquals(1, multicaster.getQueuedEventCount(beanListener));
+
+		multicaster.removeApplicationListener(listener);
+		assertEquals(0, multicaster.getQueuedEventCount(listener));
+		assertEquals(1, multicaster.getQueuedEventCount(beanListener));
+		multicaster.removeApplicationListenerBean("listener");
+		assertEquals(0, multicaster.getQueuedEventCount(beanListener));
+
+		// Pending events still get delivered
+		for (Runnable task : executor.tasks) {
+			task.run();
+		}
+		assertEquals(1, listener.sequence.size());
+		assertEquals(1, beanListener.sequence.size());
+	}
+
+	@Test
+	public void prototypeListenerBeanWithoutQueue() {
+		CollectingExecutor executor = new CollectingExecutor();
+		DefaultListableBeanFactory beanFactory = new DefaultListableBeanFactory();
+		RootBeanDefinition bd = new RootBeanDefinition(RecordingListener.class);
+		bd.setScope(BeanDefinition.SCOPE_PROTOTYPE);
+		beanFactory.registerBeanDefinition("listener", bd);
+		QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster(beanFactory);
+		multicaster.setTaskExecutor(executor);
+		multicaster.addApplicationListenerBean("listener");
+
+		multicaster.multicastEvent(new SequenceEvent(this, 1));
+		multicaster.multicastEvent(new SequenceEvent(this, 2));
+		assertEquals(2, executor.tasks.size());
+		for (Runnable task : executor.tasks) {
+			task.run();
+		}
+		assertEquals(0, multicaster.getDeliveredEventCount(beanFactory.getBean("listener", RecordingListener.class)));
+	}
+
+	@Test
+	public void reentrantPublicationWithBlockOverflowPolicy() {
+		CollectingExecutor executor = new CollectingExecutor();
+		final QueueingApplicationEventMulticaster multicaster = new QueueingApplicationEventMulticaster();
+		multicaster.setTaskExecutor(executor);
+		multicaster.setQueueCapacity(1);
+		RecordingListener listener = new RecordingListener() {
+			@Override
+			public void onApplicationEvent(SequenceEvent event) {
+				super.onApplicationEvent(event);
+				if (event.sequence == 1) {
+					// Fills up the queue...
+					multicaster.multicastEvent(new SequenceEvent(this, 2));
+					// ... so this one needs to be delivered without waiting
+					multicaster.multicastEvent(new SequenceEvent(this, 3));
+				}
+			}
+		};
+		multicaster.addApplicationListener(listener);
+
+		multicaster.multicastEvent(new SequenceEvent(this, 1));
+		executor.tasks.remove(0).run();
+		assertEquals(3, listener.sequence.size());
+		assertEquals(Integer.valueOf(3), listener.sequence.get(1));
+		assertEquals(Integer.valueOf(2), listener.sequence.get(2));
+		assertEquals(3, multicaster.getDeliveredEventCount(listener));
+	}
+
+	@SuppressWarnings("serial")
+	public static class SequenceEvent extends ApplicationEvent {
+
+		private final int sequence;
+
+		public SequenceEvent(Object source, int sequence) {
+			super(source);
+			this.sequence = sequence;
+		}
+	}
+
+
+	@SuppressWarnings("serial")
+	public static class OtherEvent extends ApplicationEvent {
+
+		public OtherEvent(Object source) {
+			super(source);
+		}
+	}
+
+
+	public static class RecordingListener implements ApplicationListener<SequenceEvent> {
+
+		private final List<Integer> sequence = new ArrayList<Integer>();
+
+		private final CountDownLatch latch;
+
+		public RecordingListener() {
+			this(0);
+		}
+
+		public RecordingListener(int expectedEvents) {
+			this.latch = new CountDownLatch(expectedEvents);
+		}
+
+		@Override
+		public void onApplicationEvent(SequenceEvent event) {
+			this.sequence.add(event.sequence);
+			this.latch.countDown();
+		}
+	}
+
+
+	private static class CollectingExecutor implements Executor {
+
+		private final List<Runnable> tasks = new ArrayList<Runnable>();
+
+		@Override
+		public void execute(Runnable task) {
+			this.tasks.add(task);
+		}
+	}
+
+}
@@ -0,0 +1,188 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.config.BeanFactoryPostProcessor;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.metrics.ApplicationStartup;
+import org.springframework.core.metrics.RecordingApplicationStartup;
+import org.springframework.core.metrics.RecordingApplicationStartup.RecordedStep;
+import org.springframework.tests.sample.beans.TestBean;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for recording the refresh of an application context
+ * through a {@link RecordingApplicationStartup}.
+ */
+public class ApplicationContextStartupTests {
+
+	@Test
+	public void refreshStepsAreRecorded() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.setApplicationStartup(startup);
+		ac.registerBeanDefinition("bfpp", new RootBeanDefinition(NoOpBeanFactoryPostProcessor.class));
+		ac.registerBeanDefinition("bpp", new RootBeanDefinition(NoOpBeanPostProcessor.class));
+		ac.registerBeanDefinition("testBean", new RootBeanDefinition(TestBean.class));
+		ac.refresh();
+
+		List<RecordedStep> steps = startup.getRecordedSteps();
+		RecordedStep refresh = findStep(steps, "spring.context.refresh", null);
+		assertNotNull(refresh);
+		assertNull(refresh.getParentId());
+
+		RecordedStep postProcess = findStep(steps, "spring.context.bean-factory.post-process",
+				NoOpBeanFactoryPostProcessor.class.getName());
+		assertNotNull(postProcess);
+		RecordedStep registration = findStep(steps, "spring.context.bean-post-processor.register", "bpp");
+		assertNotNull(registration);
+
+		RecordedStep creation = findStep(steps, "spring.beans.create", "testBean");
+		assertNotNull(creation);
+		assertEquals(Long.valueOf(refresh.getId()), creation.getParentId());
+		List<String> phases = new ArrayList<String>();
+		for (RecordedStep step : steps) {
+			if (Long.valueOf(creation.getId()).equals(step.getParentId())) {
+				phases.add(step.getName());
+			}
+		}
+		assertEquals(3, phases.size());
+		assertEquals("spring.beans.instantiate", phases.get(0));
+		assertEquals("spring.beans.populate", phases.get(1));
+		assertEquals("spring.beans.initialize", phases.get(2));
+		ac.close();
+	}
+
+	@Test
+	public void configurationClassStepsAreRecorded() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+		ac.setApplicationStartup(startup);
+		ac.register(Config.class);
+		ac.refresh();
+
+		List<RecordedStep> steps = startup.getRecordedSteps();
+		assertNotNull(findStep(steps, "spring.context.config-classes.parse", null));
+		assertNotNull(findStep(steps, "spring.context.config-classes.enhance", null));
+		assertNotNull(findStep(steps, "spring.beans.create", "testBean"));
+		ac.close();
+	}
+
+	@Test
+	public void componentScanIsRecorded() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+		ac.setApplicationStartup(startup);
+		ac.scan("org.springframework.context.annotation6");
+		ac.refresh();
+
+		assertNotNull(findStep(startup.getRecordedSteps(), "spring.context.base-packages.scan",
+				"org.springframework.context.annotation6"));
+		ac.close();
+	}
+
+	@Test
+	public void runtimeBeanCreationIsNotRecorded() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.setApplicationStartup(startup);
+		RootBeanDefinition bd = new RootBeanDefinition(TestBean.class);
+		bd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		ac.registerBeanDefinition("prototype", bd);
+		ac.refresh();
+
+		assertSame(ApplicationStartup.DEFAULT, ac.getDefaultListableBeanFactory().getApplicationStartup());
+		int recorded = startup.getRecordedSteps().size();
+		ac.getBean("prototype");
+		ac.getBean("prototype");
+		assertEquals(recorded, startup.getRecordedSteps().size());
+		assertNull(findStep(startup.getRecordedSteps(), "spring.beans.create", "prototype"));
+		ac.close();
+	}
+
+	@Test
+	public void refreshStepIsEndedOnFailure() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.refresh();
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		ac.setApplicationStartup(startup);
+		try {
+			// GenericApplicationContext does not support multiple refresh attempts
+			ac.refresh();
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+
+		assertNotNull(findStep(startup.getRecordedSteps(), "spring.context.refresh", null));
+		assertNotNull(findStep(startup.getRecordedSteps(), "spring.context.bean-factory.obtain", null));
+		ac.close();
+	}
+
+
+	private static RecordedStep findStep(List<RecordedStep> steps, String name, String tagValue) {
+		for (RecordedStep step : steps) {
+			if (step.getName().equals(name) && (tagValue == null || step.getTags().containsValue(tagValue))) {
+				return step;
+			}
+		}
+		return null;
+	}
+
+
+	public static class NoOpBeanFactoryPostProcessor implements BeanFactoryPostProcessor {
+
+		public void postProcessBeanFactory(ConfigurableListableBeanFactory beanFactory) {
+		}
+	}
+
+
+	public static class NoOpBeanPostProcessor implements BeanPostProcessor {
+
+		public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+			return bean;
+		}
+
+		public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+			return bean;
+		}
+	}
+
+
+	@Configuration
+	static class Config {
+
+		@Bean
+		public TestBean testBean() {
+			return new TestBean();
+		}
+	}
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.context.support;
+
+import org.junit.Test;
+
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.support.RootBeanDefinition;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.context.annotation.AnnotationConfigUtils;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ContextAnnotationAutowireCandidateResolver;
+import org.springframework.context.annotation.Lazy;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LazyInitializationBeanFactoryPostProcessor} and the
+ * lazy initialization mode of {@link AbstractApplicationContext}.
+ */
+public class LazyInitializationBeanFactoryPostProcessorTests {
+
+	@Test
+	public void singletonsAreNotCreatedOnRefresh() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.setLazyInitialization(true);
+		ac.registerBeanDefinition("cold", new RootBeanDefinition(ColdServiceImpl.class));
+		ac.registerBeanDefinition("prototype", prototype(ColdServiceImpl.class));
+		ac.refresh();
+
+		assertFalse(ac.getBeanFactory().containsSingleton("cold"));
+		LazyInitializationBeanFactoryPostProcessor processor = ac.getBean(
+				AbstractApplicationContext.LAZY_INITIALIZATION_PROCESSOR_BEAN_NAME,
+				LazyInitializationBeanFactoryPostProcessor.class);
+		assertTrue(processor.getLazyBeanNames().contains("cold"));
+		assertFalse(processor.getLazyBeanNames().contains("prototype"));
+		assertTrue(processor.getUntouchedBeanNames().contains("cold"));
+
+		ac.getBean("cold");
+		assertTrue(ac.getBeanFactory().containsSingleton("cold"));
+		assertFalse(processor.getUntouchedBeanNames().contains("cold"));
+		ac.close();
+	}
+
+	@Test
+	public void eagerBeanNamesAreRespected() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		ac.setLazyInitialization(true);
+		ac.setEagerBeanNames("eager*");
+		ac.registerBeanDefinition("eagerService", new RootBeanDefinition(ColdServiceImpl.class));
+		ac.registerBeanDefinition("cold", new RootBeanDefinition(ColdServiceImpl.class));
+		ac.refresh();
+
+		assertTrue(ac.getBeanFactory().containsSingleton("eagerService"));
+		assertFalse(ac.getBeanFactory().containsSingleton("cold"));
+		ac.close();
+	}
+
+	@Test
+	public void explicitlyEagerBeansAreRespected() {
+		AnnotationConfigApplicationContext ac = new AnnotationConfigApplicationContext();
+		ac.setLazyInitialization(true);
+		ac.register(Config.class);
+		ac.refresh();
+
+		assertTrue(ac.getBeanFactory().containsSingleton("eagerService"));
+		assertFalse(ac.getBeanFactory().containsSingleton("coldService"));
+		ac.close();
+	}
+
+	@Test
+	public void injectionPointsReceiveLazyResolutionProxies() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		ac.setLazyInitialization(true);
+		ac.setEagerBeanNames("client");
+		ac.registerBeanDefinition("client", new RootBeanDefinition(Client.class));
+		ac.registerBeanDefinition("cold", new RootBeanDefinition(ColdServiceImpl.class));
+		ac.refresh();
+
+		assertTrue(((ContextAnnotationAutowireCandidateResolver) ac.getDefaultListableBeanFactory()
+				.getAutowireCandidateResolver()).isLazyResolutionOfMarkedBeans());
+		Client client = ac.getBean("client", Client.class);
+		assertTrue(AopUtils.isAopProxy(client.service));
+		assertFalse(ac.getBeanFactory().containsSingleton("cold"));
+
+		assertEquals("cold", client.service.getName());
+		assertTrue(ac.getBeanFactory().containsSingleton("cold"));
+		assertSame(ac.getBean("cold"), ac.getBean("cold"));
+		ac.close();
+	}
+
+	@Test
+	public void injectionPointsForCreatedBeansReceiveTargets() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		ac.setLazyInitialization(true);
+		ac.setEagerBeanNames("client", "cold");
+		ac.registerBeanDefinition("client", new RootBeanDefinition(Client.class));
+		ac.registerBeanDefinition("cold", new RootBeanDefinition(ColdServiceImpl.class));
+		ac.refresh();
+
+		Client client = ac.getBean("client", Client.class);
+		assertFalse(AopUtils.isAopProxy(client.service));
+		assertSame(ac.getBean("cold"), client.service);
+		ac.close();
+	}
+
+	@Test
+	public void lazyResolutionProxiesCanBeSwitchedOff() {
+		GenericApplicationContext ac = new GenericApplicationContext();
+		AnnotationConfigUtils.registerAnnotationConfigProcessors(ac);
+		LazyInitializationBeanFactoryPostProcessor processor = new LazyInitializationBeanFactoryPostProcessor();
+		processor.setEagerBeanNames("client");
+		processor.setLazyResolutionProxies(false);
+		ac.addBeanFactoryPostProcessor(processor);
+		ac.registerBeanDefinition("client", new RootBeanDefinition(Client.class));
+		ac.registerBeanDefinition("cold", new RootBeanDefinition(ColdServiceImpl.class));
+		ac.refresh();
+
+		assertFalse(((ContextAnnotationAutowireCandidateResolver) ac.getDefaultListableBeanFactory()
+				.getAutowireCandidateResolver()).isLazyResolutionOfMarkedBeans());
+		Client client = ac.getBean("client", Client.class);
+		assertFalse(AopUtils.isAopProxy(client.service));
+		assertTrue(processor.getUntouchedBeanNames().isEmpty());
+		ac.close();
+	}
+
+
+	private static RootBeanDefinition prototype(Class<?> beanClass) {
+		RootBeanDefinition bd = new RootBeanDefinition(beanClass);
+		bd.setScope(RootBeanDefinition.SCOPE_PROTOTYPE);
+		return bd;
+	}
+
+
+	public interface ColdService {
+
+		String getName();
+	}
+
+
+	public static class ColdServiceImpl implements ColdService {
+
+		public String getName() {
+			return "cold";
+		}
+	}
+
+
+	public static class Client {
+
+		@Autowired
+		private ColdService service;
+	}
+
+
+	@Configuration
+	static class Config {
+
+		@Bean
+		@Lazy(false)
+		public ColdService eagerService() {
+			return new ColdServiceImpl();
+		}
+
+		@Bean
+		public ColdService coldService() {
+			return new ColdServiceImpl();
+		}
+	}
+
+}
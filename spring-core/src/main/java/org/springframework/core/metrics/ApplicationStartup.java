@@ -0,0 +1,54 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+/**
+ * Strategy interface for recording the startup steps of an application,
+ * e.g. the individual phases of an application context refresh.
+ *
+ * <p>Steps are started through {@link #start(String)} and must be ended
+ * by the caller, typically in a {@code finally} block. Steps started on
+ * the same thread while another step is still running are considered as
+ * nested within that step.
+ *
+ * <p>The {@link #DEFAULT} instance does not record anything and is designed
+ * to have near-zero overhead, so that instrumented code paths can always
+ * call into this interface without any further checks.
+ *
+ * @since 3.2.13
+ * @see StartupStep
+ * @see RecordingApplicationStartup
+ */
+public interface ApplicationStartup {
+
+	/**
+	 * Default "no op" {@code ApplicationStartup} implementation.
+	 */
+	ApplicationStartup DEFAULT = new DefaultApplicationStartup();
+
+
+	/**
+	 * Create a new step and mark its beginning.
+	 * <p>A step name describes the current action or phase. This technical
+	 * name should be "." namespaced and can be reused to describe other
+	 * instances of the same step during application startup.
+	 * @param name the step name
+	 * @return the started step (never {@code null})
+	 */
+	StartupStep start(String name);
+
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.util.Assert;
+
+/**
+ * {@link ApplicationStartup} implementation that keeps all recorded steps
+ * in memory, in order to expose a timeline of the application startup
+ * once it has completed.
+ *
+ * <p>Steps are nested according to the thread they have been started on:
+ * a step started while another step is running on the same thread becomes
+ * a child of the running step. The recorded timeline can be exported as
+ * JSON through {@link #writeJson} or in the "folded stacks" format understood
+ * by common flame graph tools through {@link #writeFoldedStacks}.
+ *
+ * <p>Typical usage:
+ *
+ * <pre class="code">
+ * RecordingApplicationStartup startup = new RecordingApplicationStartup();
+ * AnnotationConfigApplicationContext ctx = new AnnotationConfigApplicationContext();
+ * ctx.setApplicationStartup(startup);
+ * ctx.register(AppConfig.class);
+ * ctx.refresh();
+ * startup.writeJson(writer);</pre>
+ *
+ * <p>The number of retained steps is bounded by {@link #setCapacity capacity};
+ * steps ended once the capacity has been reached are counted but discarded.
+ *
+ * @since 3.2.13
+ * @see #getRecordedSteps()
+ */
+public class RecordingApplicationStartup implements ApplicationStartup {
+
+	/** Default maximum number of steps to retain */
+	public static final int DEFAULT_CAPACITY = 10000;
+
+
+	private final long startNanos = System.nanoTime();
+
+	private final long startTimeMillis = System.currentTimeMillis();
+
+	private final AtomicLong idSequence = new AtomicLong();
+
+	private final ThreadLocal<RecordedStep> currentStep =
+			new NamedThreadLocal<RecordedStep>("Current startup step");
+
+	private final List<RecordedStep> recordedSteps = new ArrayList<RecordedStep>();
+
+	private final AtomicLong discardedSteps = new AtomicLong();
+
+	private volatile int capacity = DEFAULT_CAPACITY;
+
+
+	/**
+	 * Set the maximum number of steps to retain.
+	 * Default is {@link #DEFAULT_CAPACITY}.
+	 */
+	public void setCapacity(int capacity) {
+		Assert.isTrue(capacity > 0, "Capacity must be greater than 0");
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Return the maximum number of steps to retain.
+	 */
+	public int getCapacity() {
+		return this.capacity;
+	}
+
+	/**
+	 * Return the system time in milliseconds when this recorder was created.
+	 */
+	public long getStartTimeMillis() {
+		return this.startTimeMillis;
+	}
+
+
+	public StartupStep start(String name) {
+		Assert.notNull(name, "Step name must not be null");
+		RecordedStep parent = this.currentStep.get();
+		RecordedStep step = new RecordedStep(name, this.idSequence.incrementAndGet(), parent,
+				Thread.currentThread().getName(), System.nanoTime() - this.startNanos);
+		this.currentStep.set(step);
+		return step;
+	}
+
+	private void stepEnded(RecordedStep step) {
+		if (this.currentStep.get() == step) {
+			if (step.parent != null) {
+				this.currentStep.set(step.parent);
+			}
+			else {
+				this.currentStep.remove();
+			}
+		}
+		synchronized (this.recordedSteps) {
+			if (this.recordedSteps.size() < this.capacity) {
+				this.recordedSteps.add(step);
+				return;
+			}
+		}
+		this.discardedSteps.incrementAndGet();
+	}
+
+	/**
+	 * Return all steps recorded so far, in the order they have been started.
+	 * <p>Steps that have not been ended yet are not included.
+	 */
+	public List<RecordedStep> getRecordedSteps() {
+		List<RecordedStep> steps;
+		synchronized (this.recordedSteps) {
+			steps = new ArrayList<RecordedStep>(this.recordedSteps);
+		}
+		Collections.sort(steps, new Comparator<RecordedStep>() {
+			public int compare(RecordedStep step1, RecordedStep step2) {
+				return (step1.getId() < step2.getId() ? -1 : (step1.getId() == step2.getId() ? 0 : 1));
+			}
+		});
+		return steps;
+	}
+
+	/**
+	 * Return the number of steps discarded because the capacity was reached.
+	 */
+	public long getDiscardedStepCount() {
+		return this.discardedSteps.get();
+	}
+
+	/**
+	 * Discard all recorded steps.
+	 */
+	public void clear() {
+		synchronized (this.recordedSteps) {
+			this.recordedSteps.clear();
+		}
+		this.discardedSteps.set(0);
+	}
+
+
+	/**
+	 * Write the recorded steps as a JSON array to the given Writer.
+	 * <p>Each step is rendered as an object with its "id", "parentId", "name",
+	 * "thread", "startTime" (microseconds since this recorder was created),
+	 * "duration" (microseconds) and "tags".
+	 * @param writer the Writer to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeJson(Writer writer) throws IOException {
+		writer.write('[');
+		boolean first = true;
+		for (RecordedStep step : getRecordedSteps()) {
+			if (!first) {
+				writer.write(',');
+			}
+			first = false;
+			writer.write("{\"id\":");
+			writer.write(Long.toString(step.getId()));
+			writer.write(",\"parentId\":");
+			writer.write(step.getParentId() != null ? step.getParentId().toString() : "null");
+			writer.write(",\"name\":");
+			writeJsonString(writer, step.getName());
+			writer.write(",\"thread\":");
+			writeJsonString(writer, step.getThreadName());
+			writer.write(",\"startTime\":");
+			writer.write(Long.toString(step.getStartTime(TimeUnit.MICROSECONDS)));
+			writer.write(",\"duration\":");
+			writer.write(Long.toString(step.getDuration(TimeUnit.MICROSECONDS)));
+			writer.write(",\"tags\":{");
+			boolean firstTag = true;
+			for (Map.Entry<String, String> tag : step.getTags().entrySet()) {
+				if (!firstTag) {
+					writer.write(',');
+				}
+				firstTag = false;
+				writeJsonString(writer, tag.getKey());
+				writer.write(':');
+				writeJsonString(writer, tag.getValue());
+			}
+			writer.write("}}");
+		}
+		writer.write(']');
+		writer.flush();
+	}
+
+	/**
+	 * Return the recorded steps as a JSON array.
+	 * @see #writeJson(Writer)
+	 */
+	public String toJson() {
+		StringWriter writer = new StringWriter();
+		try {
+			writeJson(writer);
+		}
+		catch (IOException ex) {
+			throw new IllegalStateException("Cannot happen with a StringWriter", ex);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Write the recorded steps in "folded stacks" format to the given Writer.
+	 * <p>Every line consists of the semicolon-separated path of nested steps,
+	 * followed by a space and the self time of the innermost step in microseconds,
+	 * as consumed by {@code flamegraph.pl} and compatible flame graph viewers.
+	 * Identical paths are aggregated.
+	 * @param writer the Writer to write to (not closed by this method)
+	 * @throws IOException in case of I/O errors
+	 */
+	public void writeFoldedStacks(Writer writer) throws IOException {
+		Map<String, Long> stacks = new LinkedHashMap<String, Long>();
+		for (RecordedStep step : getRecordedSteps()) {
+			StringBuilder path = new StringBuilder();
+			for (RecordedStep current = step; current != null; current = current.parent) {
+				if (path.length() > 0) {
+					path.insert(0, ';');
+				}
+				path.insert(0, current.getFrameName());
+			}
+			String key = path.toString();
+			Long selfTime = stacks.get(key);
+			long value = step.getSelfTime(TimeUnit.MICROSECONDS);
+			stacks.put(key, (selfTime != null ? selfTime + value : value));
+		}
+		for (Map.Entry<String, Long> entry : stacks.entrySet()) {
+			writer.write(entry.getKey());
+			writer.write(' ');
+			writer.write(entry.getValue().toString());
+			writer.write('\n');
+		}
+		writer.flush();
+	}
+
+	private static void writeJsonString(Writer writer, String value) throws IOException {
+		if (value == null) {
+			writer.write("null");
+			return;
+		}
+		writer.write('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+				case '"': writer.write("\\\""); break;
+				case '\\': writer.write("\\\\"); break;
+				case '\n': writer.write("\\n"); break;
+				case '\r': writer.write("\\r"); break;
+				case '\t': writer.write("\\t"); break;
+				default:
+					if (c < 0x20) {
+						String hex = Integer.toHexString(c);
+						writer.write("\\u");
+						for (int j = hex.length(); j < 4; j++) {
+							writer.write('0');
+						}
+						writer.write(hex);
+					}
+					else {
+						writer.write(c);
+					}
+			}
+		}
+		writer.write('"');
+	}
+
+
+	/**
+	 * {@link StartupStep} recorded by a {@link RecordingApplicationStartup}.
+	 */
+	public class RecordedStep implements StartupStep {
+
+		private final String name;
+
+		private final long id;
+
+		private final RecordedStep parent;
+
+		private final String threadName;
+
+		private final long startTime;
+
+		private final Map<String, String> tags = new LinkedHashMap<String, String>(4);
+
+		private volatile long duration = -1;
+
+		private final AtomicLong childDuration = new AtomicLong();
+
+		RecordedStep(String name, long id, RecordedStep parent, String threadName, long startTime) {
+			this.name = name;
+			this.id = id;
+			this.parent = parent;
+			this.threadName = threadName;
+			this.startTime = startTime;
+		}
+
+		public String getName() {
+			return this.name;
+		}
+
+		public long getId() {
+			return this.id;
+		}
+
+		public Long getParentId() {
+			return (this.parent != null ? this.parent.getId() : null);
+		}
+
+		/**
+		 * Return the name of the thread that started this step.
+		 */
+		public String getThreadName() {
+			return this.threadName;
+		}
+
+		public StartupStep tag(String key, String value) {
+			Assert.state(!isEnded(), "StartupStep has already ended");
+			synchronized (this.tags) {
+				this.tags.put(key, value);
+			}
+			return this;
+		}
+
+		public Map<String, String> getTags() {
+			synchronized (this.tags) {
+				return Collections.unmodifiableMap(new LinkedHashMap<String, String>(this.tags));
+			}
+		}
+
+		/**
+		 * Return the time this step has been started at,
+		 * relative to the creation of the recorder.
+		 */
+		public long getStartTime(TimeUnit unit) {
+			return unit.convert(this.startTime, TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Return the total duration of this step, including nested steps.
+		 */
+		public long getDuration(TimeUnit unit) {
+			return unit.convert(Math.max(this.duration, 0), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Return the duration of this step minus the duration of its nested steps.
+		 */
+		public long getSelfTime(TimeUnit unit) {
+			return unit.convert(Math.max(this.duration - this.childDuration.get(), 0), TimeUnit.NANOSECONDS);
+		}
+
+		/**
+		 * Return whether this step has been ended already.
+		 */
+		public boolean isEnded() {
+			return (this.duration >= 0);
+		}
+
+		public void end() {
+			Assert.state(!isEnded(), "StartupStep has already ended");
+			this.duration = System.nanoTime() - startNanos - this.startTime;
+			if (this.parent != null) {
+				this.parent.childDuration.addAndGet(this.duration);
+			}
+			stepEnded(this);
+		}
+
+		String getFrameName() {
+			StringBuilder frame = new StringBuilder(this.name);
+			Map<String, String> tags = getTags();
+			if (!tags.isEmpty()) {
+				frame.append('(');
+				boolean first = true;
+				for (Map.Entry<String, String> tag : tags.entrySet()) {
+					if (!first) {
+						frame.append(',');
+					}
+					first = false;
+					frame.append(tag.getKey()).append('=').append(tag.getValue());
+				}
+				frame.append(')');
+			}
+			return frame.toString().replace(';', '_').replace(' ', '_');
+		}
+
+		@Override
+		public String toString() {
+			return "StartupStep '" + this.name + "' [id=" + this.id + ", tags=" + getTags() + "]";
+		}
+	}
+
+}
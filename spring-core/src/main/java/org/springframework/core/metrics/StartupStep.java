@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.util.Map;
+
+/**
+ * Step recording metrics about a particular phase or action
+ * happening during an {@link ApplicationStartup}.
+ *
+ * <p>A step is created and started through {@link ApplicationStartup#start},
+ * can be enriched with tags (e.g. the bean name or the post-processor type)
+ * and must eventually be {@link #end() ended}.
+ *
+ * @since 3.2.13
+ * @see ApplicationStartup
+ */
+public interface StartupStep {
+
+	/**
+	 * Return the name of the startup step.
+	 */
+	String getName();
+
+	/**
+	 * Return the unique id for this step within the application startup.
+	 */
+	long getId();
+
+	/**
+	 * Return the id of the enclosing step, if available.
+	 * @return the parent step id, or {@code null} for a top-level step
+	 */
+	Long getParentId();
+
+	/**
+	 * Add a tag to this step.
+	 * @param key the tag key
+	 * @param value the tag value
+	 * @return this step, for chained calls
+	 */
+	StartupStep tag(String key, String value);
+
+	/**
+	 * Return an unmodifiable view of the tags attached to this step.
+	 */
+	Map<String, String> getTags();
+
+	/**
+	 * Record the state of the step and possibly other metrics like execution time.
+	 * <p>Once ended, changes on the step state are not allowed.
+	 */
+	void end();
+
+}
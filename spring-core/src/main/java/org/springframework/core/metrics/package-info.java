@@ -0,0 +1,10 @@
+
+/**
+ *
+ * Support for recording the startup steps of an application context,
+ * with a no-op default and an in-memory recorder that can export its
+ * timeline as JSON or in flame graph format.
+ *
+ */
+package org.springframework.core.metrics;
+
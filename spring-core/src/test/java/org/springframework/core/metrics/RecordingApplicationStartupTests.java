@@ -0,0 +1,144 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.core.metrics;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import org.springframework.core.metrics.RecordingApplicationStartup.RecordedStep;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link RecordingApplicationStartup} and the default
+ * {@link ApplicationStartup}.
+ */
+public class RecordingApplicationStartupTests {
+
+	@Test
+	public void defaultStartupDoesNotRecord() {
+		StartupStep step = ApplicationStartup.DEFAULT.start("test").tag("key", "value");
+		assertSame(step, ApplicationStartup.DEFAULT.start("other"));
+		assertTrue(step.getTags().isEmpty());
+		assertNull(step.getParentId());
+		step.end();
+		step.end();
+	}
+
+	@Test
+	public void nestedStepsOnSameThread() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		StartupStep outer = startup.start("outer");
+		StartupStep inner = startup.start("inner").tag("beanName", "myBean");
+		inner.end();
+		StartupStep sibling = startup.start("sibling");
+		sibling.end();
+		outer.end();
+		StartupStep next = startup.start("next");
+		next.end();
+
+		List<RecordedStep> steps = startup.getRecordedSteps();
+		assertEquals(4, steps.size());
+		assertEquals("outer", steps.get(0).getName());
+		assertNull(steps.get(0).getParentId());
+		assertEquals("inner", steps.get(1).getName());
+		assertEquals(Long.valueOf(outer.getId()), steps.get(1).getParentId());
+		assertEquals("myBean", steps.get(1).getTags().get("beanName"));
+		assertEquals(Long.valueOf(outer.getId()), steps.get(2).getParentId());
+		assertNull(steps.get(3).getParentId());
+
+		RecordedStep recordedOuter = steps.get(0);
+		assertTrue(recordedOuter.getDuration(TimeUnit.NANOSECONDS) >=
+				steps.get(1).getDuration(TimeUnit.NANOSECONDS) + steps.get(2).getDuration(TimeUnit.NANOSECONDS));
+		assertTrue(recordedOuter.getSelfTime(TimeUnit.NANOSECONDS) <= recordedOuter.getDuration(TimeUnit.NANOSECONDS));
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cannotEndTwice() {
+		StartupStep step = new RecordingApplicationStartup().start("test");
+		step.end();
+		step.end();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void cannotTagEndedStep() {
+		StartupStep step = new RecordingApplicationStartup().start("test");
+		step.end();
+		step.tag("key", "value");
+	}
+
+	@Test
+	public void capacityLimitsRetainedSteps() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		startup.setCapacity(2);
+		for (int i = 0; i < 5; i++) {
+			startup.start("step" + i).end();
+		}
+		assertEquals(2, startup.getRecordedSteps().size());
+		assertEquals(3, startup.getDiscardedStepCount());
+		startup.clear();
+		assertEquals(0, startup.getRecordedSteps().size());
+		assertEquals(0, startup.getDiscardedStepCount());
+	}
+
+	@Test
+	public void capacityIsBoundedByDefault() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		assertEquals(RecordingApplicationStartup.DEFAULT_CAPACITY, startup.getCapacity());
+		for (int i = 0; i <= RecordingApplicationStartup.DEFAULT_CAPACITY; i++) {
+			startup.start("step").end();
+		}
+		assertEquals(RecordingApplicationStartup.DEFAULT_CAPACITY, startup.getRecordedSteps().size());
+		assertEquals(1, startup.getDiscardedStepCount());
+	}
+
+	@Test
+	public void jsonExport() {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		StartupStep outer = startup.start("outer");
+		startup.start("inner").tag("beanName", "my\"Bean").end();
+		outer.end();
+
+		String json = startup.toJson();
+		assertTrue(json.startsWith("[{\"id\":1,\"parentId\":null,\"name\":\"outer\""));
+		assertTrue(json.contains("\"id\":2,\"parentId\":1,\"name\":\"inner\""));
+		assertTrue(json.contains("\"tags\":{\"beanName\":\"my\\\"Bean\"}"));
+		assertTrue(json.endsWith("}]"));
+	}
+
+	@Test
+	public void foldedStacksExport() throws Exception {
+		RecordingApplicationStartup startup = new RecordingApplicationStartup();
+		StartupStep outer = startup.start("outer");
+		startup.start("inner").tag("beanName", "a").end();
+		startup.start("inner").tag("beanName", "a").end();
+		startup.start("inner").tag("beanName", "b c").end();
+		outer.end();
+
+		StringWriter writer = new StringWriter();
+		startup.writeFoldedStacks(writer);
+		String[] lines = writer.toString().split("\n");
+		assertEquals(3, lines.length);
+		assertTrue(lines[0].matches("outer \\d+"));
+		assertTrue(lines[1].matches("outer;inner\\(beanName=a\\) \\d+"));
+		assertTrue(lines[2].matches("outer;inner\\(beanName=b_c\\) \\d+"));
+	}
+
+}
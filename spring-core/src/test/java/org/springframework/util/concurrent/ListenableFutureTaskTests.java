@@ -0,0 +1,146 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.util.concurrent;
+
+import java.io.IOException;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class ListenableFutureTaskTests {
+
+	@Test
+	public void success() throws ExecutionException, InterruptedException {
+		final String s = "Hello World";
+		Callable<String> callable = new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				return s;
+			}
+		};
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(callable);
+		RecordingCallback<String> callback = new RecordingCallback<String>();
+		task.addCallback(callback);
+		task.run();
+
+		assertEquals(s, callback.result);
+		assertNull(callback.failure);
+		assertEquals(s, task.get());
+	}
+
+	@Test
+	public void failure() throws InterruptedException {
+		final String s = "Hello World";
+		Callable<String> callable = new Callable<String>() {
+			@Override
+			public String call() throws Exception {
+				throw new IOException(s);
+			}
+		};
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(callable);
+		RecordingCallback<String> callback = new RecordingCallback<String>();
+		task.addCallback(callback);
+		task.run();
+
+		assertTrue(callback.failure instanceof IOException);
+		assertEquals(s, callback.failure.getMessage());
+		try {
+			task.get();
+			fail("ExecutionException expected");
+		}
+		catch (ExecutionException ex) {
+			assertSame(callback.failure, ex.getCause());
+		}
+	}
+
+	@Test
+	public void callbackAddedAfterCompletion() {
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}, "done");
+		task.run();
+		RecordingCallback<String> callback = new RecordingCallback<String>();
+		task.addCallback(callback);
+
+		assertEquals("done", callback.result);
+	}
+
+	@Test
+	public void cancel() {
+		ListenableFutureTask<String> task = new ListenableFutureTask<String>(new Runnable() {
+			@Override
+			public void run() {
+			}
+		}, "done");
+		RecordingCallback<String> callback = new RecordingCallback<String>();
+		task.addCallback(callback);
+		task.cancel(true);
+
+		assertNull(callback.result);
+		assertNotNull(callback.failure);
+	}
+
+	@Test
+	public void adapter() throws ExecutionException, InterruptedException {
+		ListenableFutureTask<Integer> task = new ListenableFutureTask<Integer>(new Callable<Integer>() {
+			private int count = 0;
+			@Override
+			public Integer call() throws Exception {
+				return ++this.count;
+			}
+		});
+		final int[] adaptCount = new int[1];
+		ListenableFuture<String> adapted = new ListenableFutureAdapter<String, Integer>(task) {
+			@Override
+			protected String adapt(Integer result) {
+				adaptCount[0]++;
+				return "#" + result;
+			}
+		};
+		RecordingCallback<String> callback = new RecordingCallback<String>();
+		adapted.addCallback(callback);
+		task.run();
+
+		assertEquals("#1", callback.result);
+		assertEquals("#1", adapted.get());
+		assertEquals("Result must be adapted only once", 1, adaptCount[0]);
+	}
+
+
+	private static class RecordingCallback<T> implements ListenableFutureCallback<T> {
+
+		private T result;
+
+		private Throwable failure;
+
+		@Override
+		public void onSuccess(T result) {
+			this.result = result;
+		}
+
+		@Override
+		public void onFailure(Throwable ex) {
+			this.failure = ex;
+		}
+	}
+
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import org.springframework.jdbc.support.rowset.ColumnarSqlRowSet;
+import org.springframework.jdbc.support.rowset.SqlRowSet;
+
+/**
+ * {@link SqlRowSetResultSetExtractor} variant that represents each given
+ * {@link ResultSet} as a {@link ColumnarSqlRowSet} instead of a CachedRowSet,
+ * storing the values column by column in primitive arrays where possible.
+ * This does not require JDBC RowSet support at runtime, and is particularly
+ * suitable for large result sets.
+ *
+ * <p>Typical usage with a {@link JdbcTemplate}:
+ *
+ * <pre class="code">
+ * SqlRowSet rowSet = jdbcTemplate.query(sql, new ColumnarSqlRowSetResultSetExtractor());</pre>
+ *
+ * @since 3.2.13
+ * @see org.springframework.jdbc.support.rowset.ColumnarSqlRowSet
+ */
+public class ColumnarSqlRowSetResultSetExtractor extends SqlRowSetResultSetExtractor {
+
+	/**
+	 * Create a ColumnarSqlRowSet that holds the data of the given ResultSet.
+	 * @param rs the original ResultSet (connected)
+	 * @return the disconnected SqlRowSet
+	 * @throws SQLException if thrown by JDBC methods
+	 */
+	@Override
+	protected SqlRowSet createSqlRowSet(ResultSet rs) throws SQLException {
+		return new ColumnarSqlRowSet(rs);
+	}
+
+}
@@ -73,6 +73,9 @@ import org.springframework.transaction.support.TransactionSynchronizationManager
  * without any JDBC statements executed. A LazyConnectionDataSourceProxy will not fetch
  * an actual JDBC Connection from the target DataSource until a Statement gets executed,
  * lazily applying the specified transaction settings to the target Connection.
+ * Once fetched, the proxy keeps track of the Connection's auto-commit, read-only
+ * and isolation state, so that settings which do not actually change the state
+ * (e.g. resetting read-only to "false") are not sent to the database at all.
  *
  * <p>This transaction manager supports nested transactions via the JDBC 3.0
  * {@link java.sql.Savepoint} mechanism. The
@@ -211,6 +214,7 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 
 			Integer previousIsolationLevel = DataSourceUtils.prepareConnectionForTransaction(con, definition);
 			txObject.setPreviousIsolationLevel(previousIsolationLevel);
+			txObject.setMustResetReadOnly(definition.isReadOnly());
 
 			// Switch to manual commit if necessary. This is very expensive in some JDBC drivers,
 			// so we don't want to do it unnecessarily (for example if we've explicitly
@@ -314,7 +318,8 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 			if (txObject.isMustRestoreAutoCommit()) {
 				con.setAutoCommit(true);
 			}
-			DataSourceUtils.resetConnectionAfterTransaction(con, txObject.getPreviousIsolationLevel());
+			DataSourceUtils.resetConnectionAfterTransaction(
+					con, txObject.getPreviousIsolationLevel(), txObject.isMustResetReadOnly());
 		}
 		catch (Throwable ex) {
 			logger.debug("Could not reset JDBC Connection after transaction", ex);
@@ -341,6 +346,8 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 
 		private boolean mustRestoreAutoCommit;
 
+		private boolean mustResetReadOnly;
+
 		public void setConnectionHolder(ConnectionHolder connectionHolder, boolean newConnectionHolder) {
 			super.setConnectionHolder(connectionHolder);
 			this.newConnectionHolder = newConnectionHolder;
@@ -358,6 +365,14 @@ public class DataSourceTransactionManager extends AbstractPlatformTransactionMan
 			return this.mustRestoreAutoCommit;
 		}
 
+		public void setMustResetReadOnly(boolean mustResetReadOnly) {
+			this.mustResetReadOnly = mustResetReadOnly;
+		}
+
+		public boolean isMustResetReadOnly() {
+			return this.mustResetReadOnly;
+		}
+
 		public void setRollbackOnly() {
 			getConnectionHolder().setRollbackOnly();
 		}
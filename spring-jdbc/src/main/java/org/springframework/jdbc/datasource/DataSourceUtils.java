@@ -229,6 +229,46 @@ public abstract class DataSourceUtils {
 		}
 	}
 
+	/**
+	 * Reset the given Connection after a transaction,
+	 * regarding read-only flag and isolation level.
+	 * <p>In contrast to {@link #resetConnectionAfterTransaction(Connection, Integer)},
+	 * this variant does not ask the Connection for its current read-only flag but
+	 * relies on the caller's knowledge about whether the flag has been set for the
+	 * transaction, saving a potential round trip to the database on some drivers.
+	 * @param con the Connection to reset
+	 * @param previousIsolationLevel the isolation level to restore, if any
+	 * @param resetReadOnly whether to reset the Connection's read-only flag
+	 * @since 3.2.13
+	 * @see #prepareConnectionForTransaction
+	 */
+	public static void resetConnectionAfterTransaction(
+			Connection con, Integer previousIsolationLevel, boolean resetReadOnly) {
+
+		Assert.notNull(con, "No Connection specified");
+		try {
+			// Reset transaction isolation to previous value, if changed for the transaction.
+			if (previousIsolationLevel != null) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Resetting isolation level of JDBC Connection [" +
+							con + "] to " + previousIsolationLevel);
+				}
+				con.setTransactionIsolation(previousIsolationLevel);
+			}
+
+			// Reset read-only flag.
+			if (resetReadOnly) {
+				if (logger.isDebugEnabled()) {
+					logger.debug("Resetting read-only flag of JDBC Connection [" + con + "]");
+				}
+				con.setReadOnly(false);
+			}
+		}
+		catch (Throwable ex) {
+			logger.debug("Could not reset JDBC Connection after transaction", ex);
+		}
+	}
+
 	/**
 	 * Determine whether the given JDBC Connection is transactional, that is,
 	 * bound to the current thread by Spring's transaction facilities.
@@ -37,6 +37,16 @@ import org.springframework.core.Constants;
  * actual Connection is fetched (if ever). Consequently, commit and rollback
  * calls will be ignored if no Statements have been created.
  *
+ * <p>Once an actual Connection has been fetched, the Connection handle keeps
+ * track of the auto-commit mode, transaction isolation and read-only mode
+ * of the target Connection: settings which would not change the current state
+ * will not be passed on to the target Connection, and the current state will be
+ * exposed without asking the target Connection again. This avoids redundant
+ * round trips to the database on JDBC drivers which do not optimize such calls
+ * themselves. Tracking starts over whenever the target Connection gets exposed
+ * through {@link ConnectionProxy#getTargetConnection()}, since application code
+ * might change its state directly.
+ *
  * <p>This DataSource proxy allows to avoid fetching JDBC Connections from
  * a pool unless actually necessary. JDBC transaction control can happen
  * without fetching a Connection from the pool or communicating with the
@@ -262,6 +272,12 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 
 		private Connection target;
 
+		private Boolean targetReadOnly;
+
+		private Integer targetTransactionIsolation;
+
+		private Boolean targetAutoCommit;
+
 		public LazyConnectionInvocationHandler() {
 			this.autoCommit = defaultAutoCommit();
 			this.transactionIsolation = defaultTransactionIsolation();
@@ -299,7 +315,10 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 			}
 			else if (method.getName().equals("getTargetConnection")) {
 				// Handle getTargetConnection method: return underlying connection.
-				return getTargetConnection(method);
+				// Its state might get changed directly from now on: stop relying on it.
+				Connection target = getTargetConnection(method);
+				resetTargetState();
+				return target;
 			}
 
 			if (!hasTargetConnection()) {
@@ -368,17 +387,104 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 				}
 			}
 
+			else {
+				// Physical target Connection kept ->
+				// avoid round trips for state that we know already.
+
+				if (method.getName().equals("isReadOnly")) {
+					if (this.targetReadOnly != null) {
+						return this.targetReadOnly;
+					}
+				}
+				else if (method.getName().equals("setReadOnly")) {
+					if (args[0].equals(this.targetReadOnly)) {
+						return null;
+					}
+				}
+				else if (method.getName().equals("getTransactionIsolation")) {
+					if (this.targetTransactionIsolation != null) {
+						return this.targetTransactionIsolation;
+					}
+				}
+				else if (method.getName().equals("setTransactionIsolation")) {
+					if (args[0].equals(this.targetTransactionIsolation)) {
+						return null;
+					}
+				}
+				else if (method.getName().equals("getAutoCommit")) {
+					if (this.targetAutoCommit != null) {
+						return this.targetAutoCommit;
+					}
+				}
+				else if (method.getName().equals("setAutoCommit")) {
+					if (args[0].equals(this.targetAutoCommit)) {
+						return null;
+					}
+				}
+			}
+
 			// Target Connection already fetched,
 			// or target Connection necessary for current operation ->
 			// invoke method on target connection.
 			try {
-				return method.invoke(getTargetConnection(method), args);
+				Object retVal = method.invoke(getTargetConnection(method), args);
+				trackTargetState(method, args, retVal, true);
+				return retVal;
 			}
 			catch (InvocationTargetException ex) {
+				trackTargetState(method, args, null, false);
 				throw ex.getTargetException();
 			}
 		}
 
+		/**
+		 * Keep track of the target Connection's state after the given operation.
+		 * @param method the operation invoked on the target Connection
+		 * @param args the arguments of the operation
+		 * @param retVal the value returned from the operation
+		 * @param success whether the operation completed without exception
+		 */
+		private void trackTargetState(Method method, Object[] args, Object retVal, boolean success) {
+			// A failed setter leaves the state undetermined; a failed getter doesn't change it.
+			if (method.getName().equals("isReadOnly")) {
+				if (success) {
+					this.targetReadOnly = (Boolean) retVal;
+				}
+			}
+			else if (method.getName().equals("setReadOnly")) {
+				this.targetReadOnly = (success ? (Boolean) args[0] : null);
+			}
+			else if (method.getName().equals("getTransactionIsolation")) {
+				if (success) {
+					this.targetTransactionIsolation = (Integer) retVal;
+				}
+			}
+			else if (method.getName().equals("setTransactionIsolation")) {
+				this.targetTransactionIsolation = (success ? (Integer) args[0] : null);
+			}
+			else if (method.getName().equals("getAutoCommit")) {
+				if (success) {
+					this.targetAutoCommit = (Boolean) retVal;
+				}
+			}
+			else if (method.getName().equals("setAutoCommit")) {
+				this.targetAutoCommit = (success ? (Boolean) args[0] : null);
+			}
+			else if (method.getName().equals("close")) {
+				resetTargetState();
+			}
+		}
+
+		/**
+		 * Forget about the target Connection's state, asking the target Connection
+		 * itself again on next access.
+		 */
+		private void resetTargetState() {
+			this.targetReadOnly = null;
+			this.targetTransactionIsolation = null;
+			this.targetAutoCommit = null;
+		}
+
 		/**
 		 * Return whether the proxy currently holds a target Connection.
 		 */
@@ -408,6 +514,7 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 				if (this.readOnly) {
 					try {
 						this.target.setReadOnly(this.readOnly);
+						this.targetReadOnly = this.readOnly;
 					}
 					catch (Exception ex) {
 						// "read-only not supported" -> ignore, it's just a hint anyway
@@ -417,9 +524,14 @@ public class LazyConnectionDataSourceProxy extends DelegatingDataSource {
 				if (this.transactionIsolation != null &&
 						!this.transactionIsolation.equals(defaultTransactionIsolation())) {
 					this.target.setTransactionIsolation(this.transactionIsolation);
+					this.targetTransactionIsolation = this.transactionIsolation;
 				}
-				if (this.autoCommit != null && this.autoCommit != this.target.getAutoCommit()) {
-					this.target.setAutoCommit(this.autoCommit);
+				if (this.autoCommit != null) {
+					this.targetAutoCommit = this.target.getAutoCommit();
+					if (!this.autoCommit.equals(this.targetAutoCommit)) {
+						this.target.setAutoCommit(this.autoCommit);
+						this.targetAutoCommit = this.autoCommit;
+					}
 				}
 			}
 
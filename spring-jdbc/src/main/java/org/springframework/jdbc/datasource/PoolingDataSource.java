@@ -0,0 +1,939 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.ref.WeakReference;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.util.Assert;
+
+/**
+ * Lightweight connection pool in front of a target DataSource which provides
+ * the physical JDBC Connections, typically a {@link SimpleDriverDataSource}.
+ * Each call to {@link #getConnection()} returns a Connection handle which hands
+ * its physical Connection back to the pool when closed.
+ *
+ * <p>Pooled Connections are kept in a lock-free bag: a borrowing thread first
+ * tries the Connection it used last, then scans the shared list of Connections,
+ * claiming an idle one through a compare-and-set on its state. Only if none is
+ * available and the pool is at its {@link #setMaxPoolSize maximum size}, the
+ * thread waits for a Connection to be handed over by a returning thread, up to
+ * the configured {@link #setConnectionTimeout connection timeout}.
+ *
+ * <p>A Connection which has been idle for longer than the
+ * {@link #setValidationInterval validation interval} gets validated before it
+ * is handed out, either through JDBC 4's {@code Connection.isValid} or through
+ * a specified {@link #setValidationQuery validation query}. A background timer
+ * validates idle Connections, retires Connections beyond their
+ * {@link #setIdleTimeout idle timeout} or {@link #setMaxLifetime maximum lifetime},
+ * keeps {@link #setMinIdle minimum idle} Connections available, and reports
+ * Connections held longer than the {@link #setLeakDetectionThreshold leak detection
+ * threshold}, including the stack trace of the code that obtained them.
+ *
+ * <p>Connection handles keep track of the auto-commit mode, read-only flag,
+ * transaction isolation and catalog set on them; only changed settings are
+ * restored when the Connection is returned to the pool. Connections left in
+ * manual commit mode get rolled back on return. Connections which reported
+ * a connection-level failure (SQL state class "08") are discarded on return.
+ * Statements are expected to be closed by the application, as done by
+ * {@link org.springframework.jdbc.core.JdbcTemplate}.
+ *
+ * <p>This class implements the {@link PoolingDataSourceMBean} management
+ * interface: it can be registered with an MBeanServer as-is, exposing its pool
+ * metrics. The pool is shut down on {@link #destroy()}, which a bean factory
+ * will invoke automatically for a singleton bean.
+ *
+ * <p>Like any Connection pool, this DataSource does not support a custom
+ * username and password per Connection: configure the credentials on the
+ * target DataSource instead.
+ *
+ * @since 3.2.13
+ * @see #getConnection()
+ * @see SimpleDriverDataSource
+ * @see StatementCachingDataSourceProxy
+ * @see org.springframework.jdbc.datasource.embedded.PoolingDataSourceFactory
+ */
+public class PoolingDataSource extends DelegatingDataSource implements DisposableBean, PoolingDataSourceMBean {
+
+	private static final int STATE_IDLE = 0;
+
+	private static final int STATE_IN_USE = 1;
+
+	private static final int STATE_RESERVED = 2;
+
+	private static final int STATE_REMOVED = -1;
+
+	/** Maximum time to wait for a handover before scanning the pool again */
+	private static final long HANDOFF_POLL_INTERVAL = 10;
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private int minIdle = 0;
+
+	private int maxPoolSize = 10;
+
+	private long connectionTimeout = 30000;
+
+	private long idleTimeout = 600000;
+
+	private long maxLifetime = 1800000;
+
+	private long validationInterval = 500;
+
+	private int validationTimeout = 5;
+
+	private String validationQuery;
+
+	private long leakDetectionThreshold = 0;
+
+	private long housekeepingPeriod = 30000;
+
+	private final CopyOnWriteArrayList<PoolEntry> entries = new CopyOnWriteArrayList<PoolEntry>();
+
+	private final ThreadLocal<WeakReference<PoolEntry>> lastUsedEntry =
+			new NamedThreadLocal<WeakReference<PoolEntry>>("Last used pooled Connection");
+
+	private final SynchronousQueue<PoolEntry> handoffQueue = new SynchronousQueue<PoolEntry>(true);
+
+	private final AtomicInteger waiters = new AtomicInteger();
+
+	private final AtomicInteger totalConnections = new AtomicInteger();
+
+	private final AtomicLong createdConnectionCount = new AtomicLong();
+
+	private final AtomicLong closedConnectionCount = new AtomicLong();
+
+	private final AtomicLong connectionTimeoutCount = new AtomicLong();
+
+	private final AtomicLong leakedConnectionCount = new AtomicLong();
+
+	/** Whether the driver turned out to lack JDBC 4's Connection.isValid */
+	private final AtomicBoolean isValidUnsupported = new AtomicBoolean();
+
+	private final Object lifecycleMonitor = new Object();
+
+	private volatile boolean active;
+
+	private volatile boolean shutdown;
+
+	private Timer housekeepingTimer;
+
+
+	/**
+	 * Create a new PoolingDataSource.
+	 * @see #setTargetDataSource
+	 */
+	public PoolingDataSource() {
+	}
+
+	/**
+	 * Create a new PoolingDataSource.
+	 * @param targetDataSource the target DataSource providing physical Connections
+	 */
+	public PoolingDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Set the minimum number of idle Connections to keep in the pool.
+	 * Default is 0, establishing Connections on demand only.
+	 */
+	public void setMinIdle(int minIdle) {
+		Assert.isTrue(minIdle >= 0, "'minIdle' must not be negative");
+		this.minIdle = minIdle;
+	}
+
+	public int getMinIdle() {
+		return this.minIdle;
+	}
+
+	/**
+	 * Set the maximum number of Connections to hold in the pool,
+	 * both idle and in use. Default is 10.
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		Assert.isTrue(maxPoolSize > 0, "'maxPoolSize' must be greater than 0");
+		this.maxPoolSize = maxPoolSize;
+	}
+
+	public int getMaxPoolSize() {
+		return this.maxPoolSize;
+	}
+
+	/**
+	 * Set the maximum time (in milliseconds) to wait for a Connection
+	 * when the pool is exhausted. Default is 30000 ms.
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		Assert.isTrue(connectionTimeout > 0, "'connectionTimeout' must be greater than 0");
+		this.connectionTimeout = connectionTimeout;
+	}
+
+	/**
+	 * Return the maximum time (in milliseconds) to wait for a Connection.
+	 */
+	public long getConnectionTimeout() {
+		return this.connectionTimeout;
+	}
+
+	/**
+	 * Set the time (in milliseconds) after which an idle Connection beyond the
+	 * {@link #setMinIdle minimum idle} Connections gets closed. Default is
+	 * 600000 ms (10 minutes); 0 means that idle Connections are never closed.
+	 */
+	public void setIdleTimeout(long idleTimeout) {
+		this.idleTimeout = idleTimeout;
+	}
+
+	/**
+	 * Return the time (in milliseconds) after which an idle Connection gets closed.
+	 */
+	public long getIdleTimeout() {
+		return this.idleTimeout;
+	}
+
+	/**
+	 * Set the maximum lifetime (in milliseconds) of a physical Connection,
+	 * after which it gets retired as soon as it is not in use. Default is
+	 * 1800000 ms (30 minutes); 0 means no maximum lifetime.
+	 * <p>This should be shorter than any connection time limit imposed
+	 * by the database or the network infrastructure.
+	 */
+	public void setMaxLifetime(long maxLifetime) {
+		this.maxLifetime = maxLifetime;
+	}
+
+	/**
+	 * Return the maximum lifetime (in milliseconds) of a physical Connection.
+	 */
+	public long getMaxLifetime() {
+		return this.maxLifetime;
+	}
+
+	/**
+	 * Set the time (in milliseconds) that a Connection may have been idle
+	 * before it gets validated on its way out of the pool. Default is 500 ms,
+	 * avoiding validation round trips for Connections in constant use;
+	 * 0 means that Connections are validated every time.
+	 * @see #setValidationQuery
+	 */
+	public void setValidationInterval(long validationInterval) {
+		this.validationInterval = validationInterval;
+	}
+
+	/**
+	 * Return the time (in milliseconds) that a Connection may have been idle
+	 * before it gets validated.
+	 */
+	public long getValidationInterval() {
+		return this.validationInterval;
+	}
+
+	/**
+	 * Set the timeout (in seconds) for validating a Connection. Default is 5.
+	 */
+	public void setValidationTimeout(int validationTimeout) {
+		this.validationTimeout = validationTimeout;
+	}
+
+	/**
+	 * Return the timeout (in seconds) for validating a Connection.
+	 */
+	public int getValidationTimeout() {
+		return this.validationTimeout;
+	}
+
+	/**
+	 * Set a SQL query to validate Connections with, e.g. "SELECT 1".
+	 * <p>Default is none, validating Connections through JDBC 4's
+	 * {@link Connection#isValid} instead, which is preferable for any
+	 * JDBC 4 compliant driver. Pooled Connections from a pre-JDBC-4 driver
+	 * will not get validated at all without a validation query.
+	 */
+	public void setValidationQuery(String validationQuery) {
+		this.validationQuery = validationQuery;
+	}
+
+	/**
+	 * Return the SQL query to validate Connections with, if any.
+	 */
+	public String getValidationQuery() {
+		return this.validationQuery;
+	}
+
+	/**
+	 * Set the time (in milliseconds) that a Connection may be held by an
+	 * application before it is reported as a potential leak, including the
+	 * stack trace of the code that obtained the Connection.
+	 * <p>Default is 0, not performing any leak detection. Note that leak
+	 * detection captures a stack trace for each Connection request.
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.leakDetectionThreshold = leakDetectionThreshold;
+	}
+
+	/**
+	 * Return the time (in milliseconds) after which a held Connection gets
+	 * reported as a potential leak.
+	 */
+	public long getLeakDetectionThreshold() {
+		return this.leakDetectionThreshold;
+	}
+
+	/**
+	 * Set the period (in milliseconds) of the background housekeeping task,
+	 * which validates and retires idle Connections, keeps the minimum idle
+	 * Connections available and performs leak detection. Default is 30000 ms.
+	 */
+	public void setHousekeepingPeriod(long housekeepingPeriod) {
+		Assert.isTrue(housekeepingPeriod > 0, "'housekeepingPeriod' must be greater than 0");
+		this.housekeepingPeriod = housekeepingPeriod;
+	}
+
+	/**
+	 * Return the period (in milliseconds) of the background housekeeping task.
+	 */
+	public long getHousekeepingPeriod() {
+		return this.housekeepingPeriod;
+	}
+
+
+	/**
+	 * Start the pool: schedules the housekeeping task and establishes
+	 * the {@link #setMinIdle minimum idle} Connections.
+	 * <p>The pool will also be started on first access if this method
+	 * hasn't been called before.
+	 */
+	@Override
+	public void afterPropertiesSet() {
+		super.afterPropertiesSet();
+		start();
+	}
+
+	private void start() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.active) {
+				return;
+			}
+			if (this.shutdown) {
+				throw new IllegalStateException("PoolingDataSource has been shut down already");
+			}
+			Assert.state(getTargetDataSource() != null, "Property 'targetDataSource' is required");
+			Assert.state(this.minIdle <= this.maxPoolSize, "'minIdle' must not be greater than 'maxPoolSize'");
+			this.housekeepingTimer = new Timer("PoolingDataSource housekeeper", true);
+			this.housekeepingTimer.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					housekeep();
+				}
+			}, 0, this.housekeepingPeriod);
+			this.active = true;
+		}
+	}
+
+	/**
+	 * Shut down the pool, closing all idle Connections. Connections currently
+	 * in use will be closed when the application hands them back.
+	 */
+	public void destroy() {
+		synchronized (this.lifecycleMonitor) {
+			if (this.shutdown) {
+				return;
+			}
+			this.shutdown = true;
+			this.active = false;
+			if (this.housekeepingTimer != null) {
+				this.housekeepingTimer.cancel();
+				this.housekeepingTimer = null;
+			}
+		}
+		for (PoolEntry entry : this.entries) {
+			if (entry.compareAndSetState(STATE_IDLE, STATE_REMOVED)) {
+				removeEntry(entry);
+			}
+		}
+		if (logger.isDebugEnabled()) {
+			logger.debug("Shut down PoolingDataSource with " + getActiveConnections() + " Connections still in use");
+		}
+	}
+
+
+	/**
+	 * Obtain a Connection from the pool, establishing a new physical
+	 * Connection if necessary and allowed by the maximum pool size.
+	 * @return a Connection handle which returns the Connection to the pool on close
+	 * @throws SQLException if no Connection could be obtained within the
+	 * {@link #setConnectionTimeout connection timeout}
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (!this.active) {
+			if (this.shutdown) {
+				throw new SQLException("PoolingDataSource has been shut down");
+			}
+			start();
+		}
+		long startTime = System.currentTimeMillis();
+		while (true) {
+			PoolEntry entry = borrowEntry(startTime);
+			if (entry.isFresh() || (!isExpired(entry) && isAlive(entry))) {
+				entry.borrowed(this.leakDetectionThreshold > 0);
+				return (Connection) Proxy.newProxyInstance(
+						ConnectionProxy.class.getClassLoader(),
+						new Class[] {ConnectionProxy.class},
+						new PooledConnectionInvocationHandler(entry));
+			}
+			entry.setState(STATE_REMOVED);
+			removeEntry(entry);
+		}
+	}
+
+	/**
+	 * Custom credentials are not supported by a pool of uniform Connections.
+	 * @throws SQLException always
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		throw new SQLException("PoolingDataSource does not support custom username and password");
+	}
+
+	/**
+	 * Claim a pool entry: the entry last used by the current thread, any idle
+	 * entry in the pool, a newly created entry, or an entry handed over by a
+	 * returning thread - in that order.
+	 */
+	private PoolEntry borrowEntry(long startTime) throws SQLException {
+		WeakReference<PoolEntry> lastUsed = this.lastUsedEntry.get();
+		if (lastUsed != null) {
+			PoolEntry entry = lastUsed.get();
+			if (entry != null && entry.compareAndSetState(STATE_IDLE, STATE_IN_USE)) {
+				return entry;
+			}
+		}
+
+		this.waiters.incrementAndGet();
+		try {
+			long remaining = this.connectionTimeout;
+			do {
+				for (PoolEntry entry : this.entries) {
+					if (entry.compareAndSetState(STATE_IDLE, STATE_IN_USE)) {
+						return entry;
+					}
+				}
+				PoolEntry entry = createEntry(STATE_IN_USE);
+				if (entry != null) {
+					return entry;
+				}
+				entry = this.handoffQueue.poll(Math.min(remaining, HANDOFF_POLL_INTERVAL), TimeUnit.MILLISECONDS);
+				if (entry != null && entry.compareAndSetState(STATE_IDLE, STATE_IN_USE)) {
+					return entry;
+				}
+				remaining = this.connectionTimeout - (System.currentTimeMillis() - startTime);
+			}
+			while (remaining > 0 && !this.shutdown);
+		}
+		catch (InterruptedException ex) {
+			Thread.currentThread().interrupt();
+			throw new SQLException("Interrupted while waiting for a pooled Connection");
+		}
+		finally {
+			this.waiters.decrementAndGet();
+		}
+
+		if (this.shutdown) {
+			throw new SQLException("PoolingDataSource has been shut down");
+		}
+		this.connectionTimeoutCount.incrementAndGet();
+		throw new SQLException("Connection is not available, request timed out after " +
+				(System.currentTimeMillis() - startTime) + " ms (" + getActiveConnections() + " active, " +
+				getThreadsAwaitingConnection() + " waiting, maximum pool size " + this.maxPoolSize + ")");
+	}
+
+	/**
+	 * Establish a new physical Connection in the given state,
+	 * unless the pool has reached its maximum size.
+	 * @return the new pool entry, or {@code null} if the pool is full
+	 */
+	private PoolEntry createEntry(int initialState) throws SQLException {
+		while (true) {
+			int total = this.totalConnections.get();
+			if (total >= this.maxPoolSize || this.shutdown) {
+				return null;
+			}
+			if (this.totalConnections.compareAndSet(total, total + 1)) {
+				break;
+			}
+		}
+		boolean created = false;
+		try {
+			Connection con = getTargetDataSource().getConnection();
+			try {
+				PoolEntry entry = new PoolEntry(con, initialState);
+				this.entries.add(entry);
+				this.createdConnectionCount.incrementAndGet();
+				created = true;
+				if (logger.isDebugEnabled()) {
+					logger.debug("Added Connection [" + con + "] to pool");
+				}
+				return entry;
+			}
+			finally {
+				if (!created) {
+					closeConnection(con);
+				}
+			}
+		}
+		finally {
+			if (!created) {
+				this.totalConnections.decrementAndGet();
+			}
+		}
+	}
+
+	/**
+	 * Return the given entry to the pool, handing it over to a waiting thread
+	 * if there is any, or discard it if it is not fit for reuse.
+	 */
+	private void returnEntry(PoolEntry entry) {
+		if (this.shutdown || entry.isEvicted() || isExpired(entry)) {
+			entry.setState(STATE_REMOVED);
+			removeEntry(entry);
+			return;
+		}
+		entry.returned();
+		this.lastUsedEntry.set(entry.reference);
+		for (int i = 0; i < 32 && this.waiters.get() > 0; i++) {
+			if (entry.getState() != STATE_IDLE || this.handoffQueue.offer(entry)) {
+				return;
+			}
+			Thread.yield();
+		}
+		// Any remaining waiter will find the idle entry on its next scan.
+	}
+
+	/**
+	 * Remove the given entry, which must be in {@code STATE_REMOVED}
+	 * already, from the pool and close its physical Connection.
+	 */
+	private void removeEntry(PoolEntry entry) {
+		if (this.entries.remove(entry)) {
+			this.totalConnections.decrementAndGet();
+			closeConnection(entry.connection);
+			this.closedConnectionCount.incrementAndGet();
+			if (logger.isDebugEnabled()) {
+				logger.debug("Removed Connection [" + entry.connection + "] from pool");
+			}
+		}
+	}
+
+	private boolean isExpired(PoolEntry entry) {
+		return (this.maxLifetime > 0 && System.currentTimeMillis() - entry.creationTime > this.maxLifetime);
+	}
+
+	/**
+	 * Check whether the given entry's Connection is still usable, validating
+	 * it if it has been idle for longer than the validation interval.
+	 */
+	private boolean isAlive(PoolEntry entry) {
+		if (System.currentTimeMillis() - entry.lastAccessTime < this.validationInterval) {
+			return true;
+		}
+		try {
+			if (this.validationQuery != null) {
+				Statement stmt = entry.connection.createStatement();
+				try {
+					stmt.setQueryTimeout(this.validationTimeout);
+					stmt.execute(this.validationQuery);
+				}
+				finally {
+					stmt.close();
+				}
+				if (!entry.defaultAutoCommit) {
+					entry.connection.rollback();
+				}
+				return true;
+			}
+			else if (!this.isValidUnsupported.get()) {
+				try {
+					return entry.connection.isValid(this.validationTimeout);
+				}
+				catch (LinkageError err) {
+					// Pre-JDBC-4 driver: AbstractMethodError or the like
+					if (this.isValidUnsupported.compareAndSet(false, true)) {
+						logger.warn("JDBC driver does not support JDBC 4's Connection.isValid - " +
+								"not validating pooled Connections; specify a 'validationQuery' instead", err);
+					}
+				}
+			}
+			return true;
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Validation of pooled Connection [" + entry.connection + "] failed", ex);
+			}
+			return false;
+		}
+	}
+
+	private void closeConnection(Connection con) {
+		try {
+			con.close();
+		}
+		catch (Throwable ex) {
+			logger.debug("Could not close pooled JDBC Connection", ex);
+		}
+	}
+
+	/**
+	 * Periodic housekeeping: report potential leaks, validate and retire
+	 * idle Connections, and establish the minimum idle Connections.
+	 */
+	private void housekeep() {
+		try {
+			long now = System.currentTimeMillis();
+			int idleCount = getIdleConnections();
+			for (PoolEntry entry : this.entries) {
+				if (this.leakDetectionThreshold > 0 && entry.getState() == STATE_IN_USE) {
+					entry.checkLeak(now);
+				}
+				else if (entry.compareAndSetState(STATE_IDLE, STATE_RESERVED)) {
+					boolean idleTimedOut = (this.idleTimeout > 0 && idleCount > this.minIdle &&
+							now - entry.lastAccessTime > this.idleTimeout);
+					if (idleTimedOut || isExpired(entry) || !isAlive(entry)) {
+						entry.setState(STATE_REMOVED);
+						removeEntry(entry);
+						idleCount--;
+					}
+					else {
+						entry.setState(STATE_IDLE);
+					}
+				}
+			}
+			while (!this.shutdown && getIdleConnections() < this.minIdle) {
+				PoolEntry entry = createEntry(STATE_IDLE);
+				if (entry == null) {
+					break;
+				}
+			}
+		}
+		catch (Throwable ex) {
+			logger.warn("Housekeeping of Connection pool failed", ex);
+		}
+	}
+
+
+	public int getActiveConnections() {
+		return countEntries(STATE_IN_USE);
+	}
+
+	public int getIdleConnections() {
+		return countEntries(STATE_IDLE);
+	}
+
+	public int getTotalConnections() {
+		return this.totalConnections.get();
+	}
+
+	public int getThreadsAwaitingConnection() {
+		return this.waiters.get();
+	}
+
+	public long getCreatedConnectionCount() {
+		return this.createdConnectionCount.get();
+	}
+
+	public long getClosedConnectionCount() {
+		return this.closedConnectionCount.get();
+	}
+
+	public long getConnectionTimeoutCount() {
+		return this.connectionTimeoutCount.get();
+	}
+
+	public long getLeakedConnectionCount() {
+		return this.leakedConnectionCount.get();
+	}
+
+	public void evictIdleConnections() {
+		for (PoolEntry entry : this.entries) {
+			if (entry.compareAndSetState(STATE_IDLE, STATE_REMOVED)) {
+				removeEntry(entry);
+			}
+		}
+	}
+
+	private int countEntries(int state) {
+		int count = 0;
+		for (PoolEntry entry : this.entries) {
+			if (entry.getState() == state) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	/**
+	 * A physical Connection held by the pool, along with its pool state.
+	 */
+	private class PoolEntry {
+
+		private final Connection connection;
+
+		private final AtomicInteger state;
+
+		private final WeakReference<PoolEntry> reference = new WeakReference<PoolEntry>(this);
+
+		private final long creationTime = System.currentTimeMillis();
+
+		private final boolean defaultAutoCommit;
+
+		private final boolean defaultReadOnly;
+
+		private final int defaultTransactionIsolation;
+
+		private final String defaultCatalog;
+
+		private volatile long lastAccessTime;
+
+		private volatile boolean fresh = true;
+
+		private volatile boolean evicted;
+
+		private volatile long borrowTime;
+
+		private volatile Throwable borrowStackTrace;
+
+		private volatile boolean leakReported;
+
+		public PoolEntry(Connection connection, int initialState) throws SQLException {
+			this.connection = connection;
+			this.state = new AtomicInteger(initialState);
+			this.defaultAutoCommit = connection.getAutoCommit();
+			this.defaultReadOnly = connection.isReadOnly();
+			this.defaultTransactionIsolation = connection.getTransactionIsolation();
+			this.defaultCatalog = connection.getCatalog();
+			this.lastAccessTime = this.creationTime;
+		}
+
+		public int getState() {
+			return this.state.get();
+		}
+
+		public void setState(int state) {
+			this.state.set(state);
+		}
+
+		public boolean compareAndSetState(int expectedState, int newState) {
+			return this.state.compareAndSet(expectedState, newState);
+		}
+
+		public boolean isFresh() {
+			return this.fresh;
+		}
+
+		public void evict() {
+			this.evicted = true;
+		}
+
+		public boolean isEvicted() {
+			return this.evicted;
+		}
+
+		public void borrowed(boolean captureStackTrace) {
+			this.fresh = false;
+			this.borrowTime = System.currentTimeMillis();
+			this.leakReported = false;
+			this.borrowStackTrace = (captureStackTrace ? new Throwable("Connection obtained here") : null);
+		}
+
+		public void returned() {
+			this.borrowStackTrace = null;
+			this.lastAccessTime = System.currentTimeMillis();
+			setState(STATE_IDLE);
+		}
+
+		public void checkLeak(long now) {
+			if (!this.leakReported && now - this.borrowTime > leakDetectionThreshold) {
+				this.leakReported = true;
+				leakedConnectionCount.incrementAndGet();
+				logger.warn("Connection [" + this.connection + "] has been in use for " +
+						(now - this.borrowTime) + " ms, possibly leaked", this.borrowStackTrace);
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation handler for Connection handles: returns the pooled Connection
+	 * to the pool on close, restoring any changed Connection settings.
+	 */
+	private class PooledConnectionInvocationHandler implements InvocationHandler {
+
+		private final PoolEntry entry;
+
+		private Boolean autoCommit;
+
+		private Boolean readOnly;
+
+		private Integer transactionIsolation;
+
+		private String catalog;
+
+		private boolean catalogChanged;
+
+		private boolean closed;
+
+		public PooledConnectionInvocationHandler(PoolEntry entry) {
+			this.entry = entry;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of Connection proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Pooled Connection handle for [" + this.entry.connection + "]";
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("close")) {
+				// Handle close method: return the Connection to the pool.
+				if (!this.closed) {
+					this.closed = true;
+					resetConnection();
+					returnEntry(this.entry);
+				}
+				return null;
+			}
+			else if (method.getName().equals("isClosed")) {
+				if (this.closed) {
+					return true;
+				}
+			}
+
+			if (this.closed) {
+				throw new SQLException("Connection handle has been closed already");
+			}
+			if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.entry.connection;
+			}
+
+			// Invoke method on target Connection.
+			try {
+				Object retVal = method.invoke(this.entry.connection, args);
+				if (method.getName().equals("setAutoCommit")) {
+					this.autoCommit = (Boolean) args[0];
+				}
+				else if (method.getName().equals("setReadOnly")) {
+					this.readOnly = (Boolean) args[0];
+				}
+				else if (method.getName().equals("setTransactionIsolation")) {
+					this.transactionIsolation = (Integer) args[0];
+				}
+				else if (method.getName().equals("setCatalog")) {
+					this.catalog = (String) args[0];
+					this.catalogChanged = true;
+				}
+				return retVal;
+			}
+			catch (InvocationTargetException ex) {
+				Throwable targetEx = ex.getTargetException();
+				if (targetEx instanceof SQLException) {
+					String sqlState = ((SQLException) targetEx).getSQLState();
+					if (sqlState != null && sqlState.startsWith("08")) {
+						// Connection exception: don't reuse this Connection.
+						this.entry.evict();
+					}
+				}
+				throw targetEx;
+			}
+		}
+
+		/**
+		 * Restore the Connection settings changed through this handle,
+		 * rolling back a transaction that may still be in progress.
+		 */
+		private void resetConnection() {
+			PoolEntry entry = this.entry;
+			Connection con = entry.connection;
+			try {
+				boolean currentAutoCommit = (this.autoCommit != null ? this.autoCommit : entry.defaultAutoCommit);
+				if (!currentAutoCommit) {
+					con.rollback();
+				}
+				if (currentAutoCommit != entry.defaultAutoCommit) {
+					con.setAutoCommit(entry.defaultAutoCommit);
+				}
+				if (this.readOnly != null && this.readOnly != entry.defaultReadOnly) {
+					con.setReadOnly(entry.defaultReadOnly);
+				}
+				if (this.transactionIsolation != null &&
+						this.transactionIsolation != entry.defaultTransactionIsolation) {
+					con.setTransactionIsolation(entry.defaultTransactionIsolation);
+				}
+				if (this.catalogChanged && (entry.defaultCatalog != null ?
+						!entry.defaultCatalog.equals(this.catalog) : this.catalog != null)) {
+					con.setCatalog(entry.defaultCatalog);
+				}
+			}
+			catch (Throwable ex) {
+				logger.debug("Could not reset pooled JDBC Connection - discarding it", ex);
+				entry.evict();
+			}
+		}
+	}
+
+}
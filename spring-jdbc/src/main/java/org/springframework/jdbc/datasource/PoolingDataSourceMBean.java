@@ -0,0 +1,87 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+/**
+ * Management interface for a {@link PoolingDataSource}, following the JMX
+ * Standard MBean naming convention. A PoolingDataSource can therefore be
+ * registered with an MBeanServer as-is, for example through Spring's
+ * {@code MBeanExporter}, exposing its pool metrics as read-only attributes.
+ *
+ * @since 3.2.13
+ * @see PoolingDataSource
+ */
+public interface PoolingDataSourceMBean {
+
+	/**
+	 * Return the minimum number of idle Connections that the pool maintains.
+	 */
+	int getMinIdle();
+
+	/**
+	 * Return the maximum number of Connections that the pool holds.
+	 */
+	int getMaxPoolSize();
+
+	/**
+	 * Return the number of Connections currently handed out to applications.
+	 */
+	int getActiveConnections();
+
+	/**
+	 * Return the number of Connections currently idle in the pool.
+	 */
+	int getIdleConnections();
+
+	/**
+	 * Return the total number of physical Connections held by the pool,
+	 * including Connections currently being established.
+	 */
+	int getTotalConnections();
+
+	/**
+	 * Return the number of threads currently waiting for a Connection.
+	 */
+	int getThreadsAwaitingConnection();
+
+	/**
+	 * Return the number of physical Connections established so far.
+	 */
+	long getCreatedConnectionCount();
+
+	/**
+	 * Return the number of physical Connections closed so far.
+	 */
+	long getClosedConnectionCount();
+
+	/**
+	 * Return the number of Connection requests which timed out so far.
+	 */
+	long getConnectionTimeoutCount();
+
+	/**
+	 * Return the number of Connections reported as potentially leaked so far.
+	 */
+	long getLeakedConnectionCount();
+
+	/**
+	 * Close all currently idle Connections, leaving it to the pool
+	 * to establish new Connections on demand.
+	 */
+	void evictIdleConnections();
+
+}
@@ -0,0 +1,517 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.util.Assert;
+
+/**
+ * Proxy for a target DataSource, caching {@link PreparedStatement PreparedStatements}
+ * (and {@link CallableStatement CallableStatements}) per Connection. Closing a
+ * statement returns it to the cache of its Connection, from where it will be
+ * reused for the next request for the same SQL with the same result set type,
+ * concurrency, holdability and generated keys settings - saving the driver from
+ * parsing the SQL and the database from preparing the statement again.
+ *
+ * <p>Each Connection keeps a bounded LRU cache of idle statements, closing the
+ * least recently used statement when the {@link #setCacheSize cache size} would
+ * be exceeded. All cached statements get closed along with their Connection.
+ * Statement settings such as query timeout, maximum rows and fetch size are
+ * restored, and parameters are cleared, before a statement is reused.
+ *
+ * <p>Since the cache lives as long as the Connection that this proxy returns,
+ * <b>this proxy is meant to sit between a connection pool and the physical
+ * Connections</b>, e.g. as target DataSource of a {@link PoolingDataSource}
+ * which in turn wraps a {@link SimpleDriverDataSource}. On top of a pool, it
+ * would only cache statements for the duration of each Connection handle.
+ *
+ * <p>Cache hits, misses and evictions are counted across all Connections;
+ * {@link #getHitRatio()} and the related getters can be exported as JMX
+ * attributes, e.g. through Spring's {@code MBeanExporter}.
+ *
+ * <p><b>NOTE:</b> This DataSource proxy needs to return wrapped Connections and
+ * statements. The returned Connections implement the {@link ConnectionProxy}
+ * interface; the physical statements can be retrieved through JDBC 4's
+ * {@link java.sql.Wrapper#unwrap} method.
+ *
+ * @since 3.2.13
+ * @see PoolingDataSource
+ * @see java.sql.Connection#prepareStatement
+ * @see java.sql.Connection#prepareCall
+ */
+public class StatementCachingDataSourceProxy extends DelegatingDataSource {
+
+	private static final Log logger = LogFactory.getLog(StatementCachingDataSourceProxy.class);
+
+	/** Statement setters whose effect must not leak into the next use of a cached statement */
+	private static final Map<String, String> resettableSettings = new HashMap<String, String>(8);
+
+	static {
+		resettableSettings.put("setQueryTimeout", "getQueryTimeout");
+		resettableSettings.put("setMaxRows", "getMaxRows");
+		resettableSettings.put("setMaxFieldSize", "getMaxFieldSize");
+		resettableSettings.put("setFetchSize", "getFetchSize");
+		resettableSettings.put("setFetchDirection", "getFetchDirection");
+	}
+
+
+	private int cacheSize = 50;
+
+	private final AtomicLong hitCount = new AtomicLong();
+
+	private final AtomicLong missCount = new AtomicLong();
+
+	private final AtomicLong evictionCount = new AtomicLong();
+
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @see #setTargetDataSource
+	 */
+	public StatementCachingDataSourceProxy() {
+	}
+
+	/**
+	 * Create a new StatementCachingDataSourceProxy.
+	 * @param targetDataSource the target DataSource
+	 */
+	public StatementCachingDataSourceProxy(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+
+	/**
+	 * Set the maximum number of idle statements to cache per Connection.
+	 * Default is 50.
+	 */
+	public void setCacheSize(int cacheSize) {
+		Assert.isTrue(cacheSize > 0, "'cacheSize' must be greater than 0");
+		this.cacheSize = cacheSize;
+	}
+
+	/**
+	 * Return the maximum number of idle statements to cache per Connection.
+	 */
+	public int getCacheSize() {
+		return this.cacheSize;
+	}
+
+	/**
+	 * Return the number of statement requests served from a cache.
+	 */
+	public long getHitCount() {
+		return this.hitCount.get();
+	}
+
+	/**
+	 * Return the number of statement requests which required a new statement.
+	 */
+	public long getMissCount() {
+		return this.missCount.get();
+	}
+
+	/**
+	 * Return the number of statements closed to make room in a full cache.
+	 */
+	public long getEvictionCount() {
+		return this.evictionCount.get();
+	}
+
+	/**
+	 * Return the ratio of statement requests served from a cache,
+	 * between 0.0 and 1.0, or 0.0 if no statement has been requested yet.
+	 */
+	public double getHitRatio() {
+		long hits = this.hitCount.get();
+		long total = hits + this.missCount.get();
+		return (total > 0 ? (double) hits / total : 0.0);
+	}
+
+
+	/**
+	 * Return a Connection handle that caches the statements prepared on it.
+	 * @see #getStatementCachingConnectionProxy
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		return getStatementCachingConnectionProxy(getTargetDataSource().getConnection());
+	}
+
+	/**
+	 * Return a Connection handle that caches the statements prepared on it.
+	 * @see #getStatementCachingConnectionProxy
+	 */
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getStatementCachingConnectionProxy(getTargetDataSource().getConnection(username, password));
+	}
+
+	/**
+	 * Wrap the given Connection with a proxy that caches its prepared statements.
+	 * @param target the original Connection to wrap
+	 * @return the wrapped Connection
+	 */
+	protected Connection getStatementCachingConnectionProxy(Connection target) {
+		return (Connection) Proxy.newProxyInstance(
+				ConnectionProxy.class.getClassLoader(),
+				new Class[] {ConnectionProxy.class},
+				new StatementCachingInvocationHandler(target));
+	}
+
+
+	/**
+	 * Invocation handler that caches prepared statements for a JDBC Connection.
+	 */
+	private class StatementCachingInvocationHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		private final LinkedHashMap<StatementKey, CachedStatementInvocationHandler> cache =
+				new LinkedHashMap<StatementKey, CachedStatementInvocationHandler>(16, 0.75f, true);
+
+		private boolean closed;
+
+		public StatementCachingInvocationHandler(Connection target) {
+			this.target = target;
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on ConnectionProxy interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of Connection proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Statement-caching proxy for target Connection [" + this.target + "]";
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("getTargetConnection")) {
+				// Handle getTargetConnection method: return underlying Connection.
+				return this.target;
+			}
+			else if (method.getName().equals("prepareStatement") || method.getName().equals("prepareCall")) {
+				return getStatement((Connection) proxy, method, args);
+			}
+			else if (method.getName().equals("close")) {
+				closeCachedStatements();
+			}
+
+			// Invoke method on target Connection.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		/**
+		 * Obtain a cached statement for the given preparation request,
+		 * or prepare a new statement on the target Connection.
+		 */
+		private Object getStatement(Connection proxy, Method method, Object[] args) throws Throwable {
+			StatementKey key = new StatementKey(method.getName(), args);
+			CachedStatementInvocationHandler handler;
+			synchronized (this.cache) {
+				handler = this.cache.remove(key);
+			}
+			if (handler != null) {
+				hitCount.incrementAndGet();
+			}
+			else {
+				missCount.incrementAndGet();
+				PreparedStatement statement;
+				try {
+					statement = (PreparedStatement) method.invoke(this.target, args);
+				}
+				catch (InvocationTargetException ex) {
+					throw ex.getTargetException();
+				}
+				handler = new CachedStatementInvocationHandler(this, proxy, key, statement);
+			}
+			return handler.checkOut();
+		}
+
+		/**
+		 * Return the given statement to the cache, unless the Connection has been
+		 * closed or the cache already holds an equivalent statement.
+		 * @return whether the statement has been cached
+		 */
+		public boolean returnToCache(CachedStatementInvocationHandler handler) {
+			PreparedStatement evicted = null;
+			synchronized (this.cache) {
+				if (this.closed || this.cache.containsKey(handler.key)) {
+					return false;
+				}
+				this.cache.put(handler.key, handler);
+				if (this.cache.size() > cacheSize) {
+					Iterator<CachedStatementInvocationHandler> it = this.cache.values().iterator();
+					evicted = it.next().target;
+					it.remove();
+				}
+			}
+			if (evicted != null) {
+				evictionCount.incrementAndGet();
+				closeStatement(evicted);
+			}
+			return true;
+		}
+
+		private void closeCachedStatements() {
+			synchronized (this.cache) {
+				this.closed = true;
+				for (CachedStatementInvocationHandler handler : this.cache.values()) {
+					closeStatement(handler.target);
+				}
+				this.cache.clear();
+			}
+		}
+	}
+
+
+	/**
+	 * Invocation handler for a cached statement: returns the statement to the
+	 * cache on close, restoring any changed settings.
+	 */
+	private static class CachedStatementInvocationHandler implements InvocationHandler {
+
+		private final StatementCachingInvocationHandler connectionHandler;
+
+		private final Connection connectionProxy;
+
+		private final StatementKey key;
+
+		private final PreparedStatement target;
+
+		private final Map<String, Object> defaultSettings = new HashMap<String, Object>(8);
+
+		private Map<String, Object> changedSettings;
+
+		private boolean batched;
+
+		private boolean closed = true;
+
+		public CachedStatementInvocationHandler(StatementCachingInvocationHandler connectionHandler,
+				Connection connectionProxy, StatementKey key, PreparedStatement target) {
+
+			this.connectionHandler = connectionHandler;
+			this.connectionProxy = connectionProxy;
+			this.key = key;
+			this.target = target;
+		}
+
+		/**
+		 * Hand out a new statement proxy for this cached statement.
+		 */
+		public PreparedStatement checkOut() {
+			this.closed = false;
+			Class<?> statementType = (this.target instanceof CallableStatement ?
+					CallableStatement.class : PreparedStatement.class);
+			return (PreparedStatement) Proxy.newProxyInstance(
+					getClass().getClassLoader(), new Class[] {statementType}, this);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			// Invocation on PreparedStatement interface coming in...
+
+			if (method.getName().equals("equals")) {
+				// Only consider equal when proxies are identical.
+				return (proxy == args[0]);
+			}
+			else if (method.getName().equals("hashCode")) {
+				// Use hashCode of statement proxy.
+				return System.identityHashCode(proxy);
+			}
+			else if (method.getName().equals("toString")) {
+				return "Cached statement proxy for target statement [" + this.target + "]";
+			}
+			else if (method.getName().equals("close")) {
+				if (!this.closed) {
+					this.closed = true;
+					returnToCache();
+				}
+				return null;
+			}
+			else if (method.getName().equals("isClosed")) {
+				if (this.closed) {
+					return true;
+				}
+			}
+
+			if (this.closed) {
+				throw new SQLException("Statement has been closed already");
+			}
+			if (method.getName().equals("getConnection")) {
+				return this.connectionProxy;
+			}
+			else if (method.getName().equals("unwrap")) {
+				if (((Class) args[0]).isInstance(proxy)) {
+					return proxy;
+				}
+			}
+			else if (method.getName().equals("isWrapperFor")) {
+				if (((Class) args[0]).isInstance(proxy)) {
+					return true;
+				}
+			}
+			else if (method.getName().equals("addBatch")) {
+				this.batched = true;
+			}
+			else if (resettableSettings.containsKey(method.getName())) {
+				rememberDefaultSetting(method.getName());
+			}
+
+			// Invoke method on target statement.
+			try {
+				return method.invoke(this.target, args);
+			}
+			catch (InvocationTargetException ex) {
+				throw ex.getTargetException();
+			}
+		}
+
+		/**
+		 * Remember the statement's original value for the given setting,
+		 * to be restored before the statement gets reused.
+		 */
+		private void rememberDefaultSetting(String setterName) throws Throwable {
+			if (this.changedSettings == null) {
+				this.changedSettings = new HashMap<String, Object>(4);
+			}
+			if (!this.changedSettings.containsKey(setterName)) {
+				Object defaultValue = this.defaultSettings.get(setterName);
+				if (defaultValue == null) {
+					String getterName = resettableSettings.get(setterName);
+					try {
+						defaultValue = PreparedStatement.class.getMethod(getterName).invoke(this.target);
+					}
+					catch (InvocationTargetException ex) {
+						throw ex.getTargetException();
+					}
+					this.defaultSettings.put(setterName, defaultValue);
+				}
+				this.changedSettings.put(setterName, defaultValue);
+			}
+		}
+
+		/**
+		 * Reset this statement for its next use and return it to the cache,
+		 * closing it if it cannot be reused.
+		 */
+		private void returnToCache() {
+			try {
+				this.target.clearParameters();
+				if (this.batched) {
+					this.target.clearBatch();
+					this.batched = false;
+				}
+				if (this.changedSettings != null) {
+					for (Map.Entry<String, Object> setting : this.changedSettings.entrySet()) {
+						PreparedStatement.class.getMethod(setting.getKey(), int.class).invoke(
+								this.target, setting.getValue());
+					}
+					this.changedSettings = null;
+				}
+				if (this.connectionHandler.returnToCache(this)) {
+					return;
+				}
+			}
+			catch (Throwable ex) {
+				logger.debug("Could not reset JDBC statement for reuse - closing it", ex);
+			}
+			closeStatement(this.target);
+		}
+	}
+
+
+	/**
+	 * Cache key for a statement: the preparation method and its arguments,
+	 * i.e. the SQL along with result set and generated keys settings.
+	 */
+	private static class StatementKey {
+
+		private final String methodName;
+
+		private final Object[] args;
+
+		public StatementKey(String methodName, Object[] args) {
+			this.methodName = methodName;
+			this.args = args;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof StatementKey)) {
+				return false;
+			}
+			StatementKey otherKey = (StatementKey) other;
+			return (this.methodName.equals(otherKey.methodName) &&
+					Arrays.deepEquals(this.args, otherKey.args));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.methodName.hashCode() * 29 + Arrays.deepHashCode(this.args);
+		}
+	}
+
+
+	private static void closeStatement(PreparedStatement statement) {
+		try {
+			statement.close();
+		}
+		catch (Throwable ex) {
+			logger.debug("Could not close cached JDBC statement", ex);
+		}
+	}
+
+}
@@ -86,6 +86,21 @@ public class EmbeddedDatabaseBuilder {
 		return this;
 	}
 
+	/**
+	 * Set the factory to use to create the DataSource instance that
+	 * connects to the embedded database.
+	 * <p>Defaults to a factory for a non-pooling {@code SimpleDriverDataSource};
+	 * specify a {@link PoolingDataSourceFactory} to access the embedded
+	 * database through a Connection pool.
+	 * @param dataSourceFactory the DataSource factory to use
+	 * @return this, to facilitate method chaining
+	 * @since 3.2.13
+	 */
+	public EmbeddedDatabaseBuilder setDataSourceFactory(DataSourceFactory dataSourceFactory) {
+		this.databaseFactory.setDataSourceFactory(dataSourceFactory);
+		return this;
+	}
+
 	/**
 	 * Add a SQL script to execute to populate the database.
 	 * @param sqlResource the sql resource location
@@ -25,6 +25,7 @@ import javax.sql.DataSource;
 import org.apache.commons.logging.Log;
 import org.apache.commons.logging.LogFactory;
 
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.jdbc.datasource.init.DatabasePopulator;
 import org.springframework.jdbc.datasource.init.DatabasePopulatorUtils;
 import org.springframework.util.Assert;
@@ -45,7 +46,8 @@ import org.springframework.util.Assert;
  * <li>Call {@link #setDatabasePopulator(DatabasePopulator)} to change the
  * algorithm used to populate the database.
  * <li>Call {@link #setDataSourceFactory(DataSourceFactory)} to change the type
- * of {@link DataSource} used to connect to the database.
+ * of {@link DataSource} used to connect to the database, e.g. to a
+ * {@link PoolingDataSourceFactory} for pooled access.
  * </ul>
  *
  * <p>Call {@link #getDatabase()} to get the {@link EmbeddedDatabase} instance.
@@ -175,6 +177,15 @@ public class EmbeddedDatabaseFactory {
 	protected void shutdownDatabase() {
 		if (this.dataSource != null) {
 			this.databaseConfigurer.shutdown(this.dataSource, this.databaseName);
+			if (this.dataSource instanceof DisposableBean) {
+				// e.g. a Connection pool: release its resources as well
+				try {
+					((DisposableBean) this.dataSource).destroy();
+				}
+				catch (Exception ex) {
+					logger.warn("Could not destroy DataSource for embedded database", ex);
+				}
+			}
 			this.dataSource = null;
 		}
 	}
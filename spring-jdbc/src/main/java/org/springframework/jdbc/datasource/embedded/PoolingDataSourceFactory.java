@@ -0,0 +1,94 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.embedded;
+
+import java.sql.Driver;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.PoolingDataSource;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+
+/**
+ * Creates a {@link PoolingDataSource} on top of a {@link SimpleDriverDataSource},
+ * letting an embedded database be accessed through a Connection pool just like
+ * a production database would be.
+ *
+ * <p>The pool gets shut down along with the embedded database.
+ *
+ * @since 3.2.13
+ * @see EmbeddedDatabaseFactory#setDataSourceFactory
+ * @see EmbeddedDatabaseBuilder#setDataSourceFactory
+ */
+public class PoolingDataSourceFactory implements DataSourceFactory {
+
+	private final SimpleDriverDataSource targetDataSource = new SimpleDriverDataSource();
+
+	private final PoolingDataSource dataSource = new PoolingDataSource(this.targetDataSource);
+
+
+	/**
+	 * Set the maximum number of Connections to hold in the pool. Default is 10.
+	 * @see PoolingDataSource#setMaxPoolSize
+	 */
+	public void setMaxPoolSize(int maxPoolSize) {
+		this.dataSource.setMaxPoolSize(maxPoolSize);
+	}
+
+	/**
+	 * Set the maximum time (in milliseconds) to wait for a Connection
+	 * when the pool is exhausted. Default is 30000 ms.
+	 * @see PoolingDataSource#setConnectionTimeout
+	 */
+	public void setConnectionTimeout(long connectionTimeout) {
+		this.dataSource.setConnectionTimeout(connectionTimeout);
+	}
+
+	/**
+	 * Set the time (in milliseconds) that a Connection may be held before
+	 * it is reported as a potential leak. Default is 0 (no leak detection).
+	 * @see PoolingDataSource#setLeakDetectionThreshold
+	 */
+	public void setLeakDetectionThreshold(long leakDetectionThreshold) {
+		this.dataSource.setLeakDetectionThreshold(leakDetectionThreshold);
+	}
+
+
+	public ConnectionProperties getConnectionProperties() {
+		return new ConnectionProperties() {
+			public void setDriverClass(Class<? extends Driver> driverClass) {
+				targetDataSource.setDriverClass(driverClass);
+			}
+
+			public void setUrl(String url) {
+				targetDataSource.setUrl(url);
+			}
+
+			public void setUsername(String username) {
+				targetDataSource.setUsername(username);
+			}
+
+			public void setPassword(String password) {
+				targetDataSource.setPassword(password);
+			}
+		};
+	}
+
+	public DataSource getDataSource() {
+		return this.dataSource;
+	}
+
+}
@@ -0,0 +1,285 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.core.NamedThreadLocal;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * DataSource that routes connections for read-only transactions to one of several
+ * replica DataSources and all other connections to a primary (write) DataSource.
+ * A transaction counts as read-only as indicated by
+ * {@link TransactionSynchronizationManager#isCurrentTransactionReadOnly()}.
+ *
+ * <p>Replicas are used in round-robin fashion. A replica that fails to provide
+ * a connection gets ejected for the configured {@link #setEjectionPeriod "ejectionPeriod"},
+ * with the connection request moving on to the next replica. If no replica is
+ * available, the primary DataSource serves read-only transactions as well,
+ * unless {@link #setFallbackToWriteDataSource "fallbackToWriteDataSource"}
+ * is switched off.
+ *
+ * <p>Optionally, a thread that has obtained a connection for writing can be kept
+ * on the primary DataSource for a configurable {@link #setWriteStickinessPeriod period},
+ * so that it reads its own writes despite replication lag. Call
+ * {@link #resetWriteStickiness()} at the end of a unit of work such as a web
+ * request in order to release the current thread early.
+ *
+ * <p><b>NOTE:</b> {@link org.springframework.jdbc.datasource.DataSourceTransactionManager}
+ * obtains its Connection before the transaction's read-only flag is exposed.
+ * Wrap this router with a {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}
+ * for the routing decision to happen on first actual use of the Connection:
+ *
+ * <pre>
+ * &lt;bean id="dataSource" class="org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy"&gt;
+ *   &lt;property name="targetDataSource"&gt;
+ *     &lt;bean class="org.springframework.jdbc.datasource.lookup.ReadWriteRoutingDataSource"&gt;
+ *       &lt;property name="writeDataSource" ref="primaryDataSource"/&gt;
+ *       &lt;property name="readDataSources"&gt;
+ *         &lt;list&gt;
+ *           &lt;ref bean="replicaDataSource1"/&gt;
+ *           &lt;ref bean="replicaDataSource2"/&gt;
+ *         &lt;/list&gt;
+ *       &lt;/property&gt;
+ *     &lt;/bean&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * @since 3.2.13
+ * @see IsolationLevelDataSourceRouter
+ * @see org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy
+ */
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements InitializingBean {
+
+	private DataSource writeDataSource;
+
+	private List<DataSource> readDataSources;
+
+	private long ejectionPeriod = 30000;
+
+	private boolean fallbackToWriteDataSource = true;
+
+	private long writeStickinessPeriod = 0;
+
+	private Replica[] replicas;
+
+	private final AtomicInteger replicaCounter = new AtomicInteger();
+
+	private final ThreadLocal<Long> lastWriteTime =
+			new NamedThreadLocal<Long>("Last write connection obtained from ReadWriteRoutingDataSource");
+
+
+	/**
+	 * Set the primary DataSource, serving all connections
+	 * outside of read-only transactions.
+	 */
+	public void setWriteDataSource(DataSource writeDataSource) {
+		this.writeDataSource = writeDataSource;
+	}
+
+	/**
+	 * Set the replica DataSources to balance read-only transactions across.
+	 */
+	public void setReadDataSources(List<DataSource> readDataSources) {
+		this.readDataSources = readDataSources;
+	}
+
+	/**
+	 * Set the number of milliseconds that a replica is left out of rotation
+	 * after it failed to provide a connection. Default is 30000.
+	 */
+	public void setEjectionPeriod(long ejectionPeriod) {
+		this.ejectionPeriod = ejectionPeriod;
+	}
+
+	/**
+	 * Set whether read-only transactions should be served by the primary
+	 * DataSource if no replica is able to provide a connection.
+	 * Default is "true". If switched off, the last replica exception
+	 * will be thrown instead.
+	 */
+	public void setFallbackToWriteDataSource(boolean fallbackToWriteDataSource) {
+		this.fallbackToWriteDataSource = fallbackToWriteDataSource;
+	}
+
+	/**
+	 * Set the number of milliseconds that a thread keeps being routed to the
+	 * primary DataSource, even for read-only transactions, after it obtained a
+	 * connection for writing. Default is 0, i.e. no stickiness.
+	 * <p>Any connection handed out outside of a read-only transaction counts as
+	 * a potential write here.
+	 * @see #resetWriteStickiness()
+	 */
+	public void setWriteStickinessPeriod(long writeStickinessPeriod) {
+		this.writeStickinessPeriod = writeStickinessPeriod;
+	}
+
+	public void afterPropertiesSet() {
+		if (this.writeDataSource == null) {
+			throw new IllegalArgumentException("Property 'writeDataSource' is required");
+		}
+		if (this.readDataSources == null || this.readDataSources.isEmpty()) {
+			throw new IllegalArgumentException("Property 'readDataSources' must contain at least one DataSource");
+		}
+		this.replicas = new Replica[this.readDataSources.size()];
+		for (int i = 0; i < this.replicas.length; i++) {
+			this.replicas[i] = new Replica(this.readDataSources.get(i));
+		}
+	}
+
+
+	public Connection getConnection() throws SQLException {
+		return getConnection(null, null, false);
+	}
+
+	public Connection getConnection(String username, String password) throws SQLException {
+		return getConnection(username, password, true);
+	}
+
+	@Override
+	@SuppressWarnings("unchecked")
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return (T) this;
+		}
+		return this.writeDataSource.unwrap(iface);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return (iface.isInstance(this) || this.writeDataSource.isWrapperFor(iface));
+	}
+
+	/**
+	 * Release the current thread from routing to the primary DataSource
+	 * after a write, e.g. at the end of a web request.
+	 * @see #setWriteStickinessPeriod
+	 */
+	public void resetWriteStickiness() {
+		this.lastWriteTime.remove();
+	}
+
+	/**
+	 * Return the number of replicas currently in rotation.
+	 */
+	public int getAvailableReplicaCount() {
+		Assert.notNull(this.replicas, "ReadWriteRoutingDataSource not initialized");
+		long now = System.currentTimeMillis();
+		int count = 0;
+		for (Replica replica : this.replicas) {
+			if (replica.isAvailable(now)) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+
+	private Connection getConnection(String username, String password, boolean withCredentials)
+			throws SQLException {
+
+		Assert.notNull(this.replicas, "ReadWriteRoutingDataSource not initialized");
+		if (isReadOnlyRoute()) {
+			SQLException lastEx = null;
+			long now = System.currentTimeMillis();
+			int start = (this.replicaCounter.getAndIncrement() & Integer.MAX_VALUE) % this.replicas.length;
+			for (int i = 0; i < this.replicas.length; i++) {
+				Replica replica = this.replicas[(start + i) % this.replicas.length];
+				if (replica.isAvailable(now)) {
+					try {
+						return getConnection(replica.dataSource, username, password, withCredentials);
+					}
+					catch (SQLException ex) {
+						replica.eject(now + this.ejectionPeriod);
+						if (logger.isWarnEnabled()) {
+							logger.warn("Ejecting replica DataSource [" + replica.dataSource + "] for " +
+									this.ejectionPeriod + " ms: " + ex.getMessage());
+						}
+						lastEx = ex;
+					}
+				}
+			}
+			if (!this.fallbackToWriteDataSource) {
+				if (lastEx != null) {
+					throw lastEx;
+				}
+				throw new SQLException("No replica DataSource available for read-only transaction");
+			}
+			if (logger.isDebugEnabled()) {
+				logger.debug("No replica DataSource available - using write DataSource for read-only transaction");
+			}
+		}
+		else if (this.writeStickinessPeriod > 0) {
+			this.lastWriteTime.set(System.currentTimeMillis());
+		}
+		return getConnection(this.writeDataSource, username, password, withCredentials);
+	}
+
+	private boolean isReadOnlyRoute() {
+		if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+			return false;
+		}
+		if (this.writeStickinessPeriod > 0) {
+			Long lastWrite = this.lastWriteTime.get();
+			if (lastWrite != null) {
+				if (System.currentTimeMillis() - lastWrite < this.writeStickinessPeriod) {
+					return false;
+				}
+				this.lastWriteTime.remove();
+			}
+		}
+		return true;
+	}
+
+	private Connection getConnection(DataSource dataSource, String username, String password,
+			boolean withCredentials) throws SQLException {
+
+		return (withCredentials ? dataSource.getConnection(username, password) : dataSource.getConnection());
+	}
+
+
+	/**
+	 * Replica DataSource along with its ejection state.
+	 */
+	private static class Replica {
+
+		private final DataSource dataSource;
+
+		private volatile long ejectedUntil;
+
+		public Replica(DataSource dataSource) {
+			this.dataSource = dataSource;
+		}
+
+		public boolean isAvailable(long now) {
+			return (now >= this.ejectedUntil);
+		}
+
+		public void eject(long until) {
+			this.ejectedUntil = until;
+		}
+	}
+
+}
@@ -0,0 +1,1226 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.rowset.serial.SerialBlob;
+import javax.sql.rowset.serial.SerialClob;
+
+import org.springframework.jdbc.InvalidResultSetAccessException;
+
+/**
+ * {@link SqlRowSet} implementation holding a disconnected copy of
+ * {@link ResultSet} data in columnar form, as an alternative to wrapping a
+ * {@code javax.sql.rowset.CachedRowSet} in a {@link ResultSetWrappingSqlRowSet}.
+ *
+ * <p>Each column is stored in a single array typed according to the column's
+ * {@link ResultSetMetaData#getColumnClassName class name}: {@code int[]} for
+ * Integer, Short, Byte and Boolean columns, {@code long[]} for Long columns,
+ * {@code double[]} for Double and Float columns, {@code long[]} millisecond
+ * values for Timestamp, Date and Time columns, and dictionary-encoded
+ * {@code int[]} codes for String columns, sharing a single instance for each
+ * distinct value. Any other values are kept as returned by
+ * {@link ResultSet#getObject(int)}, with Clob and Blob values turned into
+ * their serializable {@code javax.sql.rowset.serial} counterparts. Null values
+ * are tracked in a bitmap per column. This takes considerably less memory than
+ * a CachedRowSet's boxed values per row, and is considerably faster to build.
+ *
+ * <p>Values are exposed with CachedRowSet semantics: {@code getObject} returns
+ * a value of the column's class, and the typed getters convert between numbers,
+ * strings, booleans and date/time values where sensible, throwing an
+ * {@link InvalidResultSetAccessException} otherwise. Column labels are resolved
+ * as by {@link ResultSetWrappingSqlRowSet}, falling back to a case-insensitive
+ * match. Type maps passed to {@code getObject} are ignored, since the values
+ * have been materialized already.
+ *
+ * <p>An instance is not thread-safe with respect to its cursor, but its data
+ * is immutable: consider one instance per thread for a shared data set,
+ * or use {@link #copy()} to obtain an independent cursor over the same data.
+ *
+ * @since 3.2.13
+ * @see org.springframework.jdbc.core.ColumnarSqlRowSetResultSetExtractor
+ */
+public class ColumnarSqlRowSet implements SqlRowSet {
+
+	private static final long serialVersionUID = 1L;
+
+	private static final int INITIAL_CAPACITY = 64;
+
+
+	private final SqlRowSetMetaData metaData;
+
+	private final Map<String, Integer> columnLabelMap;
+
+	private final Column[] columns;
+
+	private final int rowCount;
+
+	/** 1-based cursor position: 0 before the first row, rowCount + 1 after the last row */
+	private int cursor;
+
+	private boolean wasNull;
+
+
+	/**
+	 * Create a new ColumnarSqlRowSet, reading all remaining rows from the given ResultSet.
+	 * <p>The ResultSet will not be closed by this constructor.
+	 * @param resultSet the ResultSet to read (connected)
+	 * @throws InvalidResultSetAccessException if reading the ResultSet failed
+	 */
+	public ColumnarSqlRowSet(ResultSet resultSet) throws InvalidResultSetAccessException {
+		try {
+			ResultSetMetaData rsmd = resultSet.getMetaData();
+			this.metaData = new MetaDataSnapshot(rsmd);
+			int columnCount = rsmd.getColumnCount();
+			this.columnLabelMap = new HashMap<String, Integer>(columnCount);
+			this.columns = new Column[columnCount];
+			for (int i = 1; i <= columnCount; i++) {
+				String key = rsmd.getColumnLabel(i);
+				// Make sure to preserve first matching column for any given name,
+				// as defined in ResultSet's type-level javadoc (lines 81 to 83).
+				if (!this.columnLabelMap.containsKey(key)) {
+					this.columnLabelMap.put(key, i);
+				}
+				this.columns[i - 1] = createColumn(rsmd.getColumnClassName(i));
+			}
+			int capacity = INITIAL_CAPACITY;
+			for (Column column : this.columns) {
+				column.grow(capacity);
+			}
+			int row = 0;
+			while (resultSet.next()) {
+				if (row == capacity) {
+					capacity = capacity * 2;
+					for (Column column : this.columns) {
+						column.grow(capacity);
+					}
+				}
+				for (int i = 0; i < columnCount; i++) {
+					this.columns[i].read(resultSet, i + 1, row);
+				}
+				row++;
+			}
+			for (Column column : this.columns) {
+				column.complete(row);
+			}
+			this.rowCount = row;
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+	}
+
+	/**
+	 * Copy constructor, sharing the given row set's data.
+	 */
+	private ColumnarSqlRowSet(ColumnarSqlRowSet original) {
+		this.metaData = original.metaData;
+		this.columnLabelMap = original.columnLabelMap;
+		this.columns = original.columns;
+		this.rowCount = original.rowCount;
+	}
+
+	/**
+	 * Return a new row set with its own cursor, positioned before the first row,
+	 * sharing this row set's (immutable) data.
+	 */
+	public ColumnarSqlRowSet copy() {
+		return new ColumnarSqlRowSet(this);
+	}
+
+	/**
+	 * Return the number of rows in this row set.
+	 */
+	public int getRowCount() {
+		return this.rowCount;
+	}
+
+	/**
+	 * Determine the storage for a column with the given value class.
+	 */
+	private static Column createColumn(String className) {
+		if (Integer.class.getName().equals(className)) {
+			return new IntColumn(IntColumn.INTEGER);
+		}
+		else if (Short.class.getName().equals(className)) {
+			return new IntColumn(IntColumn.SHORT);
+		}
+		else if (Byte.class.getName().equals(className)) {
+			return new IntColumn(IntColumn.BYTE);
+		}
+		else if (Boolean.class.getName().equals(className)) {
+			return new IntColumn(IntColumn.BOOLEAN);
+		}
+		else if (Long.class.getName().equals(className)) {
+			return new LongColumn();
+		}
+		else if (Double.class.getName().equals(className)) {
+			return new DoubleColumn(false);
+		}
+		else if (Float.class.getName().equals(className)) {
+			return new DoubleColumn(true);
+		}
+		else if (String.class.getName().equals(className)) {
+			return new StringColumn();
+		}
+		else if (Timestamp.class.getName().equals(className)) {
+			return new TemporalColumn(TemporalColumn.TIMESTAMP);
+		}
+		else if (Date.class.getName().equals(className)) {
+			return new TemporalColumn(TemporalColumn.DATE);
+		}
+		else if (Time.class.getName().equals(className)) {
+			return new TemporalColumn(TemporalColumn.TIME);
+		}
+		else {
+			return new ObjectColumn();
+		}
+	}
+
+
+	public SqlRowSetMetaData getMetaData() {
+		return this.metaData;
+	}
+
+	/**
+	 * @see java.sql.ResultSet#findColumn(String)
+	 */
+	public int findColumn(String columnLabel) throws InvalidResultSetAccessException {
+		Integer columnIndex = this.columnLabelMap.get(columnLabel);
+		if (columnIndex != null) {
+			return columnIndex;
+		}
+		for (int i = 1; i <= this.columns.length; i++) {
+			if (this.metaData.getColumnLabel(i).equalsIgnoreCase(columnLabel)) {
+				return i;
+			}
+		}
+		throw new InvalidResultSetAccessException(new SQLException("Invalid column label: " + columnLabel));
+	}
+
+
+	// RowSet methods for extracting data values
+
+	public BigDecimal getBigDecimal(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		if (column == null) {
+			return null;
+		}
+		try {
+			return column.getBigDecimal(this.cursor - 1);
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+	}
+
+	public BigDecimal getBigDecimal(String columnLabel) throws InvalidResultSetAccessException {
+		return getBigDecimal(findColumn(columnLabel));
+	}
+
+	public boolean getBoolean(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		if (column == null) {
+			return false;
+		}
+		try {
+			return column.getBoolean(this.cursor - 1);
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+	}
+
+	public boolean getBoolean(String columnLabel) throws InvalidResultSetAccessException {
+		return getBoolean(findColumn(columnLabel));
+	}
+
+	public byte getByte(int columnIndex) throws InvalidResultSetAccessException {
+		return (byte) getInt(columnIndex);
+	}
+
+	public byte getByte(String columnLabel) throws InvalidResultSetAccessException {
+		return getByte(findColumn(columnLabel));
+	}
+
+	public Date getDate(int columnIndex) throws InvalidResultSetAccessException {
+		Long millis = getMillis(columnIndex, null);
+		return (millis != null ? new Date(millis) : null);
+	}
+
+	public Date getDate(String columnLabel) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnLabel));
+	}
+
+	public Date getDate(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Long millis = getMillis(columnIndex, cal);
+		return (millis != null ? new Date(millis) : null);
+	}
+
+	public Date getDate(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getDate(findColumn(columnLabel), cal);
+	}
+
+	public double getDouble(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		if (column == null) {
+			return 0;
+		}
+		try {
+			return column.getDouble(this.cursor - 1);
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+	}
+
+	public double getDouble(String columnLabel) throws InvalidResultSetAccessException {
+		return getDouble(findColumn(columnLabel));
+	}
+
+	public float getFloat(int columnIndex) throws InvalidResultSetAccessException {
+		return (float) getDouble(columnIndex);
+	}
+
+	public float getFloat(String columnLabel) throws InvalidResultSetAccessException {
+		return getFloat(findColumn(columnLabel));
+	}
+
+	public int getInt(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		if (column == null) {
+			return 0;
+		}
+		try {
+			return column.getInt(this.cursor - 1);
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+	}
+
+	public int getInt(String columnLabel) throws InvalidResultSetAccessException {
+		return getInt(findColumn(columnLabel));
+	}
+
+	public long getLong(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		if (column == null) {
+			return 0;
+		}
+		try {
+			return column.getLong(this.cursor - 1);
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+	}
+
+	public long getLong(String columnLabel) throws InvalidResultSetAccessException {
+		return getLong(findColumn(columnLabel));
+	}
+
+	public Object getObject(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		return (column != null ? column.getObject(this.cursor - 1) : null);
+	}
+
+	public Object getObject(String columnLabel) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	public Object getObject(int columnIndex, Map<String, Class<?>> map) throws InvalidResultSetAccessException {
+		return getObject(columnIndex);
+	}
+
+	public Object getObject(String columnLabel, Map<String, Class<?>> map) throws InvalidResultSetAccessException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	public short getShort(int columnIndex) throws InvalidResultSetAccessException {
+		return (short) getInt(columnIndex);
+	}
+
+	public short getShort(String columnLabel) throws InvalidResultSetAccessException {
+		return getShort(findColumn(columnLabel));
+	}
+
+	public String getString(int columnIndex) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		return (column != null ? column.getString(this.cursor - 1) : null);
+	}
+
+	public String getString(String columnLabel) throws InvalidResultSetAccessException {
+		return getString(findColumn(columnLabel));
+	}
+
+	public Time getTime(int columnIndex) throws InvalidResultSetAccessException {
+		Long millis = getMillis(columnIndex, null);
+		return (millis != null ? new Time(millis) : null);
+	}
+
+	public Time getTime(String columnLabel) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnLabel));
+	}
+
+	public Time getTime(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Long millis = getMillis(columnIndex, cal);
+		return (millis != null ? new Time(millis) : null);
+	}
+
+	public Time getTime(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getTime(findColumn(columnLabel), cal);
+	}
+
+	public Timestamp getTimestamp(int columnIndex) throws InvalidResultSetAccessException {
+		return getTimestamp(columnIndex, null);
+	}
+
+	public Timestamp getTimestamp(String columnLabel) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnLabel));
+	}
+
+	public Timestamp getTimestamp(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Long millis = getMillis(columnIndex, cal);
+		if (millis == null) {
+			return null;
+		}
+		Timestamp timestamp = new Timestamp(millis);
+		Column column = this.columns[columnIndex - 1];
+		if (column instanceof TemporalColumn) {
+			timestamp.setNanos(((TemporalColumn) column).getNanos(this.cursor - 1));
+		}
+		return timestamp;
+	}
+
+	public Timestamp getTimestamp(String columnLabel, Calendar cal) throws InvalidResultSetAccessException {
+		return getTimestamp(findColumn(columnLabel), cal);
+	}
+
+	/**
+	 * Return the given column if the current row has a value for it,
+	 * or {@code null} if the value is SQL {@code NULL}.
+	 */
+	private Column getValueColumn(int columnIndex) throws InvalidResultSetAccessException {
+		if (columnIndex < 1 || columnIndex > this.columns.length) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid column index: " + columnIndex));
+		}
+		if (this.cursor < 1 || this.cursor > this.rowCount) {
+			throw new InvalidResultSetAccessException(new SQLException("Invalid cursor position"));
+		}
+		Column column = this.columns[columnIndex - 1];
+		this.wasNull = column.isNull(this.cursor - 1);
+		return (this.wasNull ? null : column);
+	}
+
+	/**
+	 * Return the date/time value of the given column in milliseconds,
+	 * interpreting its date and time fields in the given Calendar's time zone if specified.
+	 */
+	private Long getMillis(int columnIndex, Calendar cal) throws InvalidResultSetAccessException {
+		Column column = getValueColumn(columnIndex);
+		if (column == null) {
+			return null;
+		}
+		long millis;
+		try {
+			millis = column.getMillis(this.cursor - 1);
+		}
+		catch (SQLException se) {
+			throw new InvalidResultSetAccessException(se);
+		}
+		if (cal == null) {
+			return millis;
+		}
+		Calendar defaultCal = Calendar.getInstance();
+		defaultCal.setTimeInMillis(millis);
+		Calendar targetCal = (Calendar) cal.clone();
+		targetCal.clear();
+		targetCal.set(defaultCal.get(Calendar.YEAR), defaultCal.get(Calendar.MONTH), defaultCal.get(Calendar.DATE),
+				defaultCal.get(Calendar.HOUR_OF_DAY), defaultCal.get(Calendar.MINUTE), defaultCal.get(Calendar.SECOND));
+		targetCal.set(Calendar.MILLISECOND, defaultCal.get(Calendar.MILLISECOND));
+		return targetCal.getTimeInMillis();
+	}
+
+
+	// RowSet navigation methods
+
+	public boolean absolute(int row) throws InvalidResultSetAccessException {
+		if (row >= 0) {
+			this.cursor = Math.min(row, this.rowCount + 1);
+		}
+		else {
+			this.cursor = Math.max(this.rowCount + 1 + row, 0);
+		}
+		return isOnRow();
+	}
+
+	public void afterLast() throws InvalidResultSetAccessException {
+		this.cursor = this.rowCount + 1;
+	}
+
+	public void beforeFirst() throws InvalidResultSetAccessException {
+		this.cursor = 0;
+	}
+
+	public boolean first() throws InvalidResultSetAccessException {
+		return absolute(1);
+	}
+
+	public int getRow() throws InvalidResultSetAccessException {
+		return (isOnRow() ? this.cursor : 0);
+	}
+
+	public boolean isAfterLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor > this.rowCount);
+	}
+
+	public boolean isBeforeFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor < 1);
+	}
+
+	public boolean isFirst() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == 1);
+	}
+
+	public boolean isLast() throws InvalidResultSetAccessException {
+		return (this.rowCount > 0 && this.cursor == this.rowCount);
+	}
+
+	public boolean last() throws InvalidResultSetAccessException {
+		return absolute(-1);
+	}
+
+	public boolean next() throws InvalidResultSetAccessException {
+		if (this.cursor <= this.rowCount) {
+			this.cursor++;
+		}
+		return isOnRow();
+	}
+
+	public boolean previous() throws InvalidResultSetAccessException {
+		if (this.cursor > 0) {
+			this.cursor--;
+		}
+		return isOnRow();
+	}
+
+	public boolean relative(int rows) throws InvalidResultSetAccessException {
+		this.cursor = (int) Math.max(0, Math.min((long) this.cursor + rows, this.rowCount + 1));
+		return isOnRow();
+	}
+
+	public boolean wasNull() throws InvalidResultSetAccessException {
+		return this.wasNull;
+	}
+
+	private boolean isOnRow() {
+		return (this.cursor >= 1 && this.cursor <= this.rowCount);
+	}
+
+
+	/**
+	 * Storage for the values of a single column, along with a null bitmap.
+	 * Provides CachedRowSet-style conversions based on the column's value
+	 * objects, to be optimized by subclasses for their specific storage.
+	 */
+	@SuppressWarnings("serial")
+	private abstract static class Column implements Serializable {
+
+		private long[] nulls;
+
+		protected final void setNull(int row) {
+			if (this.nulls == null) {
+				this.nulls = new long[(row >> 6) + 1];
+			}
+			else if (this.nulls.length <= (row >> 6)) {
+				long[] newNulls = new long[Math.max(this.nulls.length * 2, (row >> 6) + 1)];
+				System.arraycopy(this.nulls, 0, newNulls, 0, this.nulls.length);
+				this.nulls = newNulls;
+			}
+			this.nulls[row >> 6] |= (1L << row);
+		}
+
+		public final boolean isNull(int row) {
+			return (this.nulls != null && (row >> 6) < this.nulls.length && (this.nulls[row >> 6] & (1L << row)) != 0);
+		}
+
+		/**
+		 * Grow the storage to hold the given number of rows.
+		 */
+		public abstract void grow(int capacity);
+
+		/**
+		 * Read the value for the given row from the current row of the given ResultSet.
+		 */
+		public abstract void read(ResultSet rs, int columnIndex, int row) throws SQLException;
+
+		/**
+		 * Trim the storage to the given number of rows, once all rows have been read.
+		 */
+		public abstract void complete(int rowCount);
+
+		/**
+		 * Return the value for the given (non-null) row as an object of the column's class.
+		 */
+		public abstract Object getObject(int row);
+
+		public String getString(int row) {
+			return getObject(row).toString();
+		}
+
+		public int getInt(int row) throws SQLException {
+			return getNumber(row).intValue();
+		}
+
+		public long getLong(int row) throws SQLException {
+			return getNumber(row).longValue();
+		}
+
+		public double getDouble(int row) throws SQLException {
+			return getNumber(row).doubleValue();
+		}
+
+		public BigDecimal getBigDecimal(int row) throws SQLException {
+			Object value = getObject(row);
+			if (value instanceof BigDecimal) {
+				return (BigDecimal) value;
+			}
+			if (value instanceof BigInteger) {
+				return new BigDecimal((BigInteger) value);
+			}
+			Number number = getNumber(row);
+			if (number instanceof Integer || number instanceof Long ||
+					number instanceof Short || number instanceof Byte) {
+				return BigDecimal.valueOf(number.longValue());
+			}
+			return new BigDecimal(number.toString());
+		}
+
+		public boolean getBoolean(int row) throws SQLException {
+			Object value = getObject(row);
+			if (value instanceof Boolean) {
+				return (Boolean) value;
+			}
+			if (value instanceof Number) {
+				return (((Number) value).doubleValue() != 0);
+			}
+			String str = value.toString().trim();
+			return (str.equalsIgnoreCase("true") || str.equals("1"));
+		}
+
+		public long getMillis(int row) throws SQLException {
+			Object value = getObject(row);
+			if (value instanceof java.util.Date) {
+				return ((java.util.Date) value).getTime();
+			}
+			String str = value.toString().trim();
+			try {
+				if (str.indexOf('-') == -1) {
+					return Time.valueOf(str).getTime();
+				}
+				return (str.indexOf(':') == -1 ? Date.valueOf(str).getTime() : Timestamp.valueOf(str).getTime());
+			}
+			catch (IllegalArgumentException ex) {
+				throw new SQLException("Cannot convert value [" + str + "] to a date/time value");
+			}
+		}
+
+		private Number getNumber(int row) throws SQLException {
+			Object value = getObject(row);
+			if (value instanceof Number) {
+				return (Number) value;
+			}
+			if (value instanceof Boolean) {
+				return ((Boolean) value ? 1 : 0);
+			}
+			try {
+				return new BigDecimal(value.toString().trim());
+			}
+			catch (NumberFormatException ex) {
+				throw new SQLException("Cannot convert value [" + value + "] to a number");
+			}
+		}
+	}
+
+
+	/**
+	 * Column of Integer, Short, Byte or Boolean values, stored as {@code int[]}.
+	 */
+	@SuppressWarnings("serial")
+	private static class IntColumn extends Column {
+
+		static final int INTEGER = 0;
+
+		static final int SHORT = 1;
+
+		static final int BYTE = 2;
+
+		static final int BOOLEAN = 3;
+
+		private final int valueType;
+
+		private int[] values;
+
+		public IntColumn(int valueType) {
+			this.valueType = valueType;
+		}
+
+		@Override
+		public void grow(int capacity) {
+			this.values = resize(this.values, capacity);
+		}
+
+		@Override
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			int value = (this.valueType == BOOLEAN ? (rs.getBoolean(columnIndex) ? 1 : 0) : rs.getInt(columnIndex));
+			if (rs.wasNull()) {
+				setNull(row);
+			}
+			this.values[row] = value;
+		}
+
+		@Override
+		public void complete(int rowCount) {
+			this.values = resize(this.values, rowCount);
+		}
+
+		@Override
+		public Object getObject(int row) {
+			int value = this.values[row];
+			switch (this.valueType) {
+				case SHORT: return (short) value;
+				case BYTE: return (byte) value;
+				case BOOLEAN: return (value != 0);
+				default: return value;
+			}
+		}
+
+		@Override
+		public int getInt(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public long getLong(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public BigDecimal getBigDecimal(int row) {
+			return BigDecimal.valueOf(this.values[row]);
+		}
+
+		@Override
+		public boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+
+		private static int[] resize(int[] values, int length) {
+			int[] newValues = new int[length];
+			if (values != null) {
+				System.arraycopy(values, 0, newValues, 0, Math.min(values.length, length));
+			}
+			return newValues;
+		}
+	}
+
+
+	/**
+	 * Column of Long values, stored as {@code long[]}.
+	 */
+	@SuppressWarnings("serial")
+	private static class LongColumn extends Column {
+
+		private long[] values;
+
+		@Override
+		public void grow(int capacity) {
+			this.values = resize(this.values, capacity);
+		}
+
+		@Override
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			long value = rs.getLong(columnIndex);
+			if (rs.wasNull()) {
+				setNull(row);
+			}
+			this.values[row] = value;
+		}
+
+		@Override
+		public void complete(int rowCount) {
+			this.values = resize(this.values, rowCount);
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public int getInt(int row) {
+			return (int) this.values[row];
+		}
+
+		@Override
+		public long getLong(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public BigDecimal getBigDecimal(int row) {
+			return BigDecimal.valueOf(this.values[row]);
+		}
+
+		@Override
+		public boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+	}
+
+
+	/**
+	 * Column of Double or Float values, stored as {@code double[]}.
+	 */
+	@SuppressWarnings("serial")
+	private static class DoubleColumn extends Column {
+
+		private final boolean floatValues;
+
+		private double[] values;
+
+		public DoubleColumn(boolean floatValues) {
+			this.floatValues = floatValues;
+		}
+
+		@Override
+		public void grow(int capacity) {
+			this.values = resize(this.values, capacity);
+		}
+
+		@Override
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			double value = (this.floatValues ? rs.getFloat(columnIndex) : rs.getDouble(columnIndex));
+			if (rs.wasNull()) {
+				setNull(row);
+			}
+			this.values[row] = value;
+		}
+
+		@Override
+		public void complete(int rowCount) {
+			this.values = resize(this.values, rowCount);
+		}
+
+		@Override
+		public Object getObject(int row) {
+			double value = this.values[row];
+			return (this.floatValues ? (Object) (float) value : (Object) value);
+		}
+
+		@Override
+		public int getInt(int row) {
+			return (int) this.values[row];
+		}
+
+		@Override
+		public long getLong(int row) {
+			return (long) this.values[row];
+		}
+
+		@Override
+		public double getDouble(int row) {
+			return this.values[row];
+		}
+
+		@Override
+		public boolean getBoolean(int row) {
+			return (this.values[row] != 0);
+		}
+
+		private static double[] resize(double[] values, int length) {
+			double[] newValues = new double[length];
+			if (values != null) {
+				System.arraycopy(values, 0, newValues, 0, Math.min(values.length, length));
+			}
+			return newValues;
+		}
+	}
+
+
+	/**
+	 * Column of String values, stored as {@code int[]} codes into a dictionary
+	 * of distinct values.
+	 */
+	@SuppressWarnings("serial")
+	private static class StringColumn extends Column {
+
+		private int[] codes;
+
+		private String[] dictionary;
+
+		private transient Map<String, Integer> codesByValue = new HashMap<String, Integer>();
+
+		private transient List<String> values = new ArrayList<String>();
+
+		@Override
+		public void grow(int capacity) {
+			this.codes = IntColumn.resize(this.codes, capacity);
+		}
+
+		@Override
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			String value = rs.getString(columnIndex);
+			if (value == null) {
+				setNull(row);
+				return;
+			}
+			Integer code = this.codesByValue.get(value);
+			if (code == null) {
+				code = this.values.size();
+				this.values.add(value);
+				this.codesByValue.put(value, code);
+			}
+			this.codes[row] = code;
+		}
+
+		@Override
+		public void complete(int rowCount) {
+			this.codes = IntColumn.resize(this.codes, rowCount);
+			this.dictionary = this.values.toArray(new String[this.values.size()]);
+			this.codesByValue = null;
+			this.values = null;
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.dictionary[this.codes[row]];
+		}
+
+		@Override
+		public String getString(int row) {
+			return this.dictionary[this.codes[row]];
+		}
+	}
+
+
+	/**
+	 * Column of Timestamp, Date or Time values, stored as {@code long[]}
+	 * milliseconds, plus {@code int[]} nanoseconds for Timestamp values.
+	 */
+	@SuppressWarnings("serial")
+	private static class TemporalColumn extends Column {
+
+		static final int TIMESTAMP = 0;
+
+		static final int DATE = 1;
+
+		static final int TIME = 2;
+
+		private final int valueType;
+
+		private long[] millis;
+
+		private int[] nanos;
+
+		public TemporalColumn(int valueType) {
+			this.valueType = valueType;
+		}
+
+		@Override
+		public void grow(int capacity) {
+			this.millis = resize(this.millis, capacity);
+			if (this.valueType == TIMESTAMP) {
+				this.nanos = IntColumn.resize(this.nanos, capacity);
+			}
+		}
+
+		@Override
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			java.util.Date value;
+			switch (this.valueType) {
+				case DATE: value = rs.getDate(columnIndex); break;
+				case TIME: value = rs.getTime(columnIndex); break;
+				default: value = rs.getTimestamp(columnIndex);
+			}
+			if (value == null) {
+				setNull(row);
+				return;
+			}
+			this.millis[row] = value.getTime();
+			if (this.valueType == TIMESTAMP) {
+				this.nanos[row] = ((Timestamp) value).getNanos();
+			}
+		}
+
+		@Override
+		public void complete(int rowCount) {
+			this.millis = resize(this.millis, rowCount);
+			if (this.valueType == TIMESTAMP) {
+				this.nanos = IntColumn.resize(this.nanos, rowCount);
+			}
+		}
+
+		@Override
+		public Object getObject(int row) {
+			switch (this.valueType) {
+				case DATE: return new Date(this.millis[row]);
+				case TIME: return new Time(this.millis[row]);
+				default:
+					Timestamp timestamp = new Timestamp(this.millis[row]);
+					timestamp.setNanos(this.nanos[row]);
+					return timestamp;
+			}
+		}
+
+		@Override
+		public long getMillis(int row) {
+			return this.millis[row];
+		}
+
+		public int getNanos(int row) {
+			return (this.valueType == TIMESTAMP ? this.nanos[row] : (int) ((this.millis[row] % 1000 + 1000) % 1000) * 1000000);
+		}
+	}
+
+
+	/**
+	 * Column of arbitrary values, stored as returned by {@link ResultSet#getObject(int)}.
+	 */
+	@SuppressWarnings("serial")
+	private static class ObjectColumn extends Column {
+
+		private Object[] values;
+
+		@Override
+		public void grow(int capacity) {
+			this.values = resize(this.values, capacity);
+		}
+
+		@Override
+		public void read(ResultSet rs, int columnIndex, int row) throws SQLException {
+			Object value = rs.getObject(columnIndex);
+			if (value == null) {
+				setNull(row);
+				return;
+			}
+			if (value instanceof Clob) {
+				value = new SerialClob((Clob) value);
+			}
+			else if (value instanceof Blob) {
+				value = new SerialBlob((Blob) value);
+			}
+			this.values[row] = value;
+		}
+
+		@Override
+		public void complete(int rowCount) {
+			this.values = resize(this.values, rowCount);
+		}
+
+		@Override
+		public Object getObject(int row) {
+			return this.values[row];
+		}
+
+		private static Object[] resize(Object[] values, int length) {
+			Object[] newValues = new Object[length];
+			if (values != null) {
+				System.arraycopy(values, 0, newValues, 0, Math.min(values.length, length));
+			}
+			return newValues;
+		}
+	}
+
+
+	private static long[] resize(long[] values, int length) {
+		long[] newValues = new long[length];
+		if (values != null) {
+			System.arraycopy(values, 0, newValues, 0, Math.min(values.length, length));
+		}
+		return newValues;
+	}
+
+
+	/**
+	 * Disconnected copy of the meta data of a ResultSet.
+	 */
+	@SuppressWarnings("serial")
+	private static class MetaDataSnapshot implements SqlRowSetMetaData, Serializable {
+
+		private final String[] catalogNames;
+
+		private final String[] columnClassNames;
+
+		private final int[] columnDisplaySizes;
+
+		private final String[] columnLabels;
+
+		private final String[] columnNames;
+
+		private final int[] columnTypes;
+
+		private final String[] columnTypeNames;
+
+		private final int[] precisions;
+
+		private final int[] scales;
+
+		private final String[] schemaNames;
+
+		private final String[] tableNames;
+
+		private final boolean[] caseSensitive;
+
+		private final boolean[] currency;
+
+		private final boolean[] signed;
+
+		public MetaDataSnapshot(ResultSetMetaData rsmd) throws SQLException {
+			int columnCount = rsmd.getColumnCount();
+			this.catalogNames = new String[columnCount];
+			this.columnClassNames = new String[columnCount];
+			this.columnDisplaySizes = new int[columnCount];
+			this.columnLabels = new String[columnCount];
+			this.columnNames = new String[columnCount];
+			this.columnTypes = new int[columnCount];
+			this.columnTypeNames = new String[columnCount];
+			this.precisions = new int[columnCount];
+			this.scales = new int[columnCount];
+			this.schemaNames = new String[columnCount];
+			this.tableNames = new String[columnCount];
+			this.caseSensitive = new boolean[columnCount];
+			this.currency = new boolean[columnCount];
+			this.signed = new boolean[columnCount];
+			for (int i = 0; i < columnCount; i++) {
+				int column = i + 1;
+				this.catalogNames[i] = rsmd.getCatalogName(column);
+				this.columnClassNames[i] = rsmd.getColumnClassName(column);
+				this.columnDisplaySizes[i] = rsmd.getColumnDisplaySize(column);
+				this.columnLabels[i] = rsmd.getColumnLabel(column);
+				this.columnNames[i] = rsmd.getColumnName(column);
+				this.columnTypes[i] = rsmd.getColumnType(column);
+				this.columnTypeNames[i] = rsmd.getColumnTypeName(column);
+				this.precisions[i] = rsmd.getPrecision(column);
+				this.scales[i] = rsmd.getScale(column);
+				this.schemaNames[i] = rsmd.getSchemaName(column);
+				this.tableNames[i] = rsmd.getTableName(column);
+				this.caseSensitive[i] = rsmd.isCaseSensitive(column);
+				this.currency[i] = rsmd.isCurrency(column);
+				this.signed[i] = rsmd.isSigned(column);
+			}
+		}
+
+		public String getCatalogName(int column) {
+			return this.catalogNames[index(column)];
+		}
+
+		public String getColumnClassName(int column) {
+			return this.columnClassNames[index(column)];
+		}
+
+		public int getColumnCount() {
+			return this.columnNames.length;
+		}
+
+		public String[] getColumnNames() {
+			return this.columnNames.clone();
+		}
+
+		public int getColumnDisplaySize(int column) {
+			return this.columnDisplaySizes[index(column)];
+		}
+
+		public String getColumnLabel(int column) {
+			return this.columnLabels[index(column)];
+		}
+
+		public String getColumnName(int column) {
+			return this.columnNames[index(column)];
+		}
+
+		public int getColumnType(int column) {
+			return this.columnTypes[index(column)];
+		}
+
+		public String getColumnTypeName(int column) {
+			return this.columnTypeNames[index(column)];
+		}
+
+		public int getPrecision(int column) {
+			return this.precisions[index(column)];
+		}
+
+		public int getScale(int column) {
+			return this.scales[index(column)];
+		}
+
+		public String getSchemaName(int column) {
+			return this.schemaNames[index(column)];
+		}
+
+		public String getTableName(int column) {
+			return this.tableNames[index(column)];
+		}
+
+		public boolean isCaseSensitive(int column) {
+			return this.caseSensitive[index(column)];
+		}
+
+		public boolean isCurrency(int column) {
+			return this.currency[index(column)];
+		}
+
+		public boolean isSigned(int column) {
+			return this.signed[index(column)];
+		}
+
+		private int index(int column) {
+			if (column < 1 || column > this.columnNames.length) {
+				throw new InvalidResultSetAccessException(new SQLException("Invalid column index: " + column));
+			}
+			return column - 1;
+		}
+	}
+
+}
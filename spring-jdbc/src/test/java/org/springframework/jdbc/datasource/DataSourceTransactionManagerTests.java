@@ -828,6 +828,8 @@ public class DataSourceTransactionManagerTests  {
 		ordered.verify(con).commit();
 		ordered.verify(con).setAutoCommit(true);
 		ordered.verify(con).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		ordered.verify(con).setReadOnly(false);
+		verify(con, never()).isReadOnly();
 		verify(con).close();
 	}
 
@@ -1291,7 +1293,7 @@ public class DataSourceTransactionManagerTests  {
 		assertTrue("Hasn't thread connection", !TransactionSynchronizationManager.hasResource(ds));
 		verify(con).rollback(sp);
 		verify(con).commit();
-		verify(con).isReadOnly();
+		verify(con, never()).isReadOnly();
 		verify(con).close();
 	}
 
@@ -0,0 +1,159 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.mockito.BDDMockito.*;
+
+/**
+ * Unit tests for {@link LazyConnectionDataSourceProxy}.
+ */
+public class LazyConnectionDataSourceProxyTests {
+
+	private Connection target;
+
+	private DataSource targetDataSource;
+
+	private LazyConnectionDataSourceProxy proxy;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.target = mock(Connection.class);
+		this.targetDataSource = mock(DataSource.class);
+		given(this.targetDataSource.getConnection()).willReturn(this.target);
+		given(this.target.getAutoCommit()).willReturn(true);
+
+		this.proxy = new LazyConnectionDataSourceProxy();
+		this.proxy.setTargetDataSource(this.targetDataSource);
+		this.proxy.setDefaultAutoCommit(true);
+		this.proxy.setDefaultTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		this.proxy.afterPropertiesSet();
+	}
+
+
+	@Test
+	public void noTargetConnectionWithoutStatement() throws Exception {
+		Connection con = this.proxy.getConnection();
+		con.setReadOnly(true);
+		con.setAutoCommit(false);
+		con.commit();
+		con.setAutoCommit(true);
+		con.setReadOnly(false);
+		con.close();
+
+		verify(this.targetDataSource, never()).getConnection();
+	}
+
+	@Test
+	public void autoCommitTrackedAfterTargetFetched() throws Exception {
+		Connection con = this.proxy.getConnection();
+		con.setAutoCommit(false);
+		con.createStatement();
+
+		assertFalse(con.getAutoCommit());
+		con.setAutoCommit(false);
+		con.commit();
+		con.setAutoCommit(true);
+		assertTrue(con.getAutoCommit());
+		con.setAutoCommit(true);
+		con.close();
+
+		verify(this.target).getAutoCommit();
+		verify(this.target).setAutoCommit(false);
+		verify(this.target).setAutoCommit(true);
+		verify(this.target).commit();
+		verify(this.target).close();
+	}
+
+	@Test
+	public void readOnlyTrackedAfterTargetFetched() throws Exception {
+		Connection con = this.proxy.getConnection();
+		con.setReadOnly(true);
+		con.createStatement();
+
+		assertTrue(con.isReadOnly());
+		con.setReadOnly(true);
+		con.setReadOnly(false);
+		assertFalse(con.isReadOnly());
+		con.close();
+
+		verify(this.target).setReadOnly(true);
+		verify(this.target).setReadOnly(false);
+		verify(this.target, never()).isReadOnly();
+	}
+
+	@Test
+	public void transactionIsolationTrackedAfterTargetFetched() throws Exception {
+		Connection con = this.proxy.getConnection();
+		con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		con.createStatement();
+
+		assertEquals(Connection.TRANSACTION_SERIALIZABLE, con.getTransactionIsolation());
+		con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		con.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		assertEquals(Connection.TRANSACTION_READ_COMMITTED, con.getTransactionIsolation());
+		con.close();
+
+		verify(this.target).setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		verify(this.target).setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+		verify(this.target, never()).getTransactionIsolation();
+	}
+
+	@Test
+	public void failedSetterLeavesStateUndetermined() throws Exception {
+		willThrow(new SQLException("read-only not supported")).given(this.target).setReadOnly(true);
+		given(this.target.isReadOnly()).willReturn(false);
+		Connection con = this.proxy.getConnection();
+		con.createStatement();
+
+		try {
+			con.setReadOnly(true);
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			// expected
+		}
+		assertFalse(con.isReadOnly());
+		con.close();
+
+		verify(this.target).isReadOnly();
+	}
+
+	@Test
+	public void stateNoLongerTrackedOnceTargetConnectionExposed() throws Exception {
+		given(this.target.getTransactionIsolation()).willReturn(Connection.TRANSACTION_REPEATABLE_READ);
+		Connection con = this.proxy.getConnection();
+		con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		con.createStatement();
+
+		Connection exposed = ((ConnectionProxy) con).getTargetConnection();
+		assertSame(this.target, exposed);
+		assertEquals(Connection.TRANSACTION_REPEATABLE_READ, con.getTransactionIsolation());
+		con.close();
+
+		verify(this.target).getTransactionIsolation();
+	}
+
+}
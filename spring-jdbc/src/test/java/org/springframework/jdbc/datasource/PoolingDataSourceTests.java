@@ -0,0 +1,381 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link PoolingDataSource}.
+ */
+public class PoolingDataSourceTests {
+
+	private final List<StubConnection> physicalConnections =
+			Collections.synchronizedList(new ArrayList<StubConnection>());
+
+	private PoolingDataSource dataSource;
+
+
+	@Before
+	public void setUp() {
+		this.dataSource = new PoolingDataSource(new AbstractDataSource() {
+			public Connection getConnection() {
+				StubConnection stub = new StubConnection();
+				physicalConnections.add(stub);
+				return stub.proxy;
+			}
+			public Connection getConnection(String username, String password) {
+				throw new UnsupportedOperationException();
+			}
+		});
+		this.dataSource.setConnectionTimeout(100);
+	}
+
+	@After
+	public void tearDown() {
+		this.dataSource.destroy();
+	}
+
+
+	@Test
+	public void reusesPhysicalConnection() throws Exception {
+		this.dataSource.afterPropertiesSet();
+		Connection con = this.dataSource.getConnection();
+		Connection target = ((ConnectionProxy) con).getTargetConnection();
+		assertEquals(1, this.dataSource.getActiveConnections());
+		con.close();
+		assertTrue(con.isClosed());
+		assertEquals(0, this.dataSource.getActiveConnections());
+		assertEquals(1, this.dataSource.getIdleConnections());
+
+		con = this.dataSource.getConnection();
+		assertSame(target, ((ConnectionProxy) con).getTargetConnection());
+		con.close();
+		assertEquals(1, this.dataSource.getCreatedConnectionCount());
+		assertEquals(1, this.physicalConnections.size());
+		assertFalse(this.physicalConnections.get(0).closed);
+	}
+
+	@Test
+	public void closedHandleRejectsFurtherUse() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		con.close();
+		con.close();
+		try {
+			con.createStatement();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			// expected
+		}
+		assertEquals(1, this.dataSource.getIdleConnections());
+	}
+
+	@Test
+	public void timesOutWhenExhausted() throws Exception {
+		this.dataSource.setMaxPoolSize(1);
+		Connection con = this.dataSource.getConnection();
+		try {
+			this.dataSource.getConnection();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			assertTrue(ex.getMessage().contains("timed out"));
+		}
+		assertEquals(1, this.dataSource.getConnectionTimeoutCount());
+		assertEquals(1, this.dataSource.getTotalConnections());
+		con.close();
+	}
+
+	@Test
+	public void handsOverReturnedConnectionToWaitingThread() throws Exception {
+		this.dataSource.setMaxPoolSize(1);
+		this.dataSource.setConnectionTimeout(5000);
+		final Connection con = this.dataSource.getConnection();
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		final CountDownLatch done = new CountDownLatch(1);
+		new Thread() {
+			@Override
+			public void run() {
+				try {
+					Connection con2 = dataSource.getConnection();
+					con2.close();
+				}
+				catch (Throwable ex) {
+					failure.set(ex);
+				}
+				finally {
+					done.countDown();
+				}
+			}
+		}.start();
+		while (this.dataSource.getThreadsAwaitingConnection() == 0) {
+			Thread.sleep(5);
+		}
+		con.close();
+		done.await();
+		assertNull(failure.get());
+		assertEquals(1, this.dataSource.getCreatedConnectionCount());
+	}
+
+	@Test
+	public void concurrentBorrowingStaysWithinMaxPoolSize() throws Exception {
+		this.dataSource.setMaxPoolSize(3);
+		this.dataSource.setConnectionTimeout(10000);
+		final AtomicInteger failures = new AtomicInteger();
+		final AtomicInteger maxActive = new AtomicInteger();
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 500; j++) {
+						try {
+							Connection con = dataSource.getConnection();
+							int active = dataSource.getActiveConnections();
+							if (active > maxActive.get()) {
+								maxActive.set(active);
+							}
+							con.close();
+						}
+						catch (Throwable ex) {
+							failures.incrementAndGet();
+						}
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(0, failures.get());
+		assertTrue(maxActive.get() <= 3);
+		assertTrue(this.dataSource.getCreatedConnectionCount() <= 3);
+		assertEquals(0, this.dataSource.getActiveConnections());
+	}
+
+	@Test
+	public void restoresChangedSettingsOnReturn() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		con.setAutoCommit(false);
+		con.setReadOnly(true);
+		con.setTransactionIsolation(Connection.TRANSACTION_SERIALIZABLE);
+		con.close();
+
+		StubConnection stub = this.physicalConnections.get(0);
+		assertEquals(1, stub.rollbacks);
+		assertTrue(stub.autoCommit);
+		assertFalse(stub.readOnly);
+		assertEquals(Connection.TRANSACTION_READ_COMMITTED, stub.transactionIsolation);
+	}
+
+	@Test
+	public void leavesUnchangedSettingsAlone() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		StubConnection stub = this.physicalConnections.get(0);
+		con.setAutoCommit(false);
+		con.commit();
+		con.setAutoCommit(true);
+		int calls = stub.calls.get();
+		con.close();
+		assertEquals(calls, stub.calls.get());
+		assertEquals(0, stub.rollbacks);
+	}
+
+	@Test
+	public void discardsConnectionFailingValidation() throws Exception {
+		this.dataSource.setValidationInterval(0);
+		Connection con = this.dataSource.getConnection();
+		con.close();
+		this.physicalConnections.get(0).valid = false;
+
+		con = this.dataSource.getConnection();
+		con.close();
+		assertEquals(2, this.physicalConnections.size());
+		assertTrue(this.physicalConnections.get(0).closed);
+		assertEquals(1, this.dataSource.getClosedConnectionCount());
+	}
+
+	@Test
+	public void keepsConnectionOfPreJdbc4Driver() throws Exception {
+		this.dataSource.setValidationInterval(0);
+		Connection con = this.dataSource.getConnection();
+		con.close();
+		this.physicalConnections.get(0).jdbc3 = true;
+
+		for (int i = 0; i < 3; i++) {
+			con = this.dataSource.getConnection();
+			con.close();
+		}
+		assertEquals(1, this.physicalConnections.size());
+		assertFalse(this.physicalConnections.get(0).closed);
+		assertEquals(0, this.dataSource.getClosedConnectionCount());
+	}
+
+	@Test
+	public void discardsConnectionAfterConnectionFailure() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		this.physicalConnections.get(0).failure = new SQLException("Connection reset", "08S01");
+		try {
+			con.createStatement();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			assertEquals("08S01", ex.getSQLState());
+		}
+		con.close();
+		assertTrue(this.physicalConnections.get(0).closed);
+		assertEquals(0, this.dataSource.getTotalConnections());
+	}
+
+	@Test
+	public void establishesMinimumIdleConnections() throws Exception {
+		this.dataSource.setMinIdle(2);
+		this.dataSource.afterPropertiesSet();
+		for (int i = 0; i < 100 && this.dataSource.getIdleConnections() < 2; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(2, this.dataSource.getIdleConnections());
+	}
+
+	@Test
+	public void reportsLeakedConnection() throws Exception {
+		this.dataSource.setLeakDetectionThreshold(1);
+		this.dataSource.setHousekeepingPeriod(10);
+		Connection con = this.dataSource.getConnection();
+		for (int i = 0; i < 100 && this.dataSource.getLeakedConnectionCount() == 0; i++) {
+			Thread.sleep(10);
+		}
+		assertEquals(1, this.dataSource.getLeakedConnectionCount());
+		con.close();
+	}
+
+	@Test
+	public void shutdownClosesIdleConnections() throws Exception {
+		Connection con1 = this.dataSource.getConnection();
+		Connection con2 = this.dataSource.getConnection();
+		con1.close();
+		this.dataSource.destroy();
+		assertTrue(this.physicalConnections.get(0).closed);
+		assertFalse(this.physicalConnections.get(1).closed);
+
+		con2.close();
+		assertTrue(this.physicalConnections.get(1).closed);
+		try {
+			this.dataSource.getConnection();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			// expected
+		}
+	}
+
+	@Test(expected = SQLException.class)
+	public void customCredentialsNotSupported() throws Exception {
+		this.dataSource.getConnection("user", "password");
+	}
+
+
+	private static class StubConnection implements InvocationHandler {
+
+		final Connection proxy = (Connection) Proxy.newProxyInstance(
+				getClass().getClassLoader(), new Class[] {Connection.class}, this);
+
+		final AtomicInteger calls = new AtomicInteger();
+
+		volatile boolean autoCommit = true;
+
+		volatile boolean readOnly;
+
+		volatile int transactionIsolation = Connection.TRANSACTION_READ_COMMITTED;
+
+		volatile boolean valid = true;
+
+		volatile boolean jdbc3;
+
+		volatile boolean closed;
+
+		volatile int rollbacks;
+
+		volatile SQLException failure;
+
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			this.calls.incrementAndGet();
+			String name = method.getName();
+			if (this.failure != null && !name.equals("close")) {
+				throw this.failure;
+			}
+			if (name.equals("getAutoCommit")) {
+				return this.autoCommit;
+			}
+			else if (name.equals("setAutoCommit")) {
+				this.autoCommit = (Boolean) args[0];
+			}
+			else if (name.equals("isReadOnly")) {
+				return this.readOnly;
+			}
+			else if (name.equals("setReadOnly")) {
+				this.readOnly = (Boolean) args[0];
+			}
+			else if (name.equals("getTransactionIsolation")) {
+				return this.transactionIsolation;
+			}
+			else if (name.equals("setTransactionIsolation")) {
+				this.transactionIsolation = (Integer) args[0];
+			}
+			else if (name.equals("isValid")) {
+				if (this.jdbc3) {
+					throw new AbstractMethodError(name);
+				}
+				return this.valid;
+			}
+			else if (name.equals("isClosed")) {
+				return this.closed;
+			}
+			else if (name.equals("close")) {
+				this.closed = true;
+			}
+			else if (name.equals("rollback")) {
+				this.rollbacks++;
+			}
+			else if (name.equals("hashCode")) {
+				return System.identityHashCode(proxy);
+			}
+			else if (name.equals("equals")) {
+				return (proxy == args[0]);
+			}
+			return null;
+		}
+	}
+
+}
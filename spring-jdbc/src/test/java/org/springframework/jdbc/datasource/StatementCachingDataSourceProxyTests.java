@@ -0,0 +1,238 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link StatementCachingDataSourceProxy}.
+ */
+public class StatementCachingDataSourceProxyTests {
+
+	private final List<StubStatement> preparedStatements = new ArrayList<StubStatement>();
+
+	private boolean connectionClosed;
+
+	private StatementCachingDataSourceProxy dataSource;
+
+
+	@Before
+	public void setUp() {
+		final Connection target = (Connection) Proxy.newProxyInstance(getClass().getClassLoader(),
+				new Class[] {Connection.class}, new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						if (method.getName().equals("prepareStatement") || method.getName().equals("prepareCall")) {
+							StubStatement stub = new StubStatement(method.getName().equals("prepareCall"));
+							preparedStatements.add(stub);
+							return stub.proxy;
+						}
+						else if (method.getName().equals("close")) {
+							connectionClosed = true;
+						}
+						return null;
+					}
+				});
+		this.dataSource = new StatementCachingDataSourceProxy(new AbstractDataSource() {
+			public Connection getConnection() {
+				return target;
+			}
+			public Connection getConnection(String username, String password) {
+				return target;
+			}
+		});
+	}
+
+
+	@Test
+	public void reusesClosedStatement() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		PreparedStatement ps = con.prepareStatement("select 1");
+		ps.setInt(1, 1);
+		ps.close();
+		assertTrue(ps.isClosed());
+		PreparedStatement ps2 = con.prepareStatement("select 1");
+		assertFalse(ps2.isClosed());
+		assertSame(con, ps2.getConnection());
+		ps2.close();
+
+		assertEquals(1, this.preparedStatements.size());
+		StubStatement stub = this.preparedStatements.get(0);
+		assertFalse(stub.closed);
+		assertEquals(2, stub.clearParametersCount);
+		assertEquals(1, this.dataSource.getHitCount());
+		assertEquals(1, this.dataSource.getMissCount());
+		assertEquals(0.5, this.dataSource.getHitRatio(), 0.001);
+	}
+
+	@Test
+	public void distinguishesPreparationSettings() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		con.prepareStatement("select 1").close();
+		con.prepareStatement("select 1", ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_READ_ONLY).close();
+		con.prepareStatement("select 1", Statement.RETURN_GENERATED_KEYS).close();
+		con.prepareStatement("select 1", new String[] {"id"}).close();
+		con.prepareStatement("select 1", new String[] {"id"}).close();
+		con.prepareStatement("select 2").close();
+		CallableStatement cs = con.prepareCall("select 1");
+		cs.close();
+
+		assertEquals(6, this.preparedStatements.size());
+		assertTrue(this.preparedStatements.get(5).callable);
+		assertEquals(1, this.dataSource.getHitCount());
+	}
+
+	@Test
+	public void evictsLeastRecentlyUsedStatement() throws Exception {
+		this.dataSource.setCacheSize(2);
+		Connection con = this.dataSource.getConnection();
+		con.prepareStatement("select 1").close();
+		con.prepareStatement("select 2").close();
+		con.prepareStatement("select 1").close();
+		con.prepareStatement("select 3").close();
+
+		assertEquals(3, this.preparedStatements.size());
+		assertFalse(this.preparedStatements.get(0).closed);
+		assertTrue(this.preparedStatements.get(1).closed);
+		assertFalse(this.preparedStatements.get(2).closed);
+		assertEquals(1, this.dataSource.getEvictionCount());
+	}
+
+	@Test
+	public void concurrentlyUsedStatementsAreSeparate() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		PreparedStatement ps1 = con.prepareStatement("select 1");
+		PreparedStatement ps2 = con.prepareStatement("select 1");
+		ps1.close();
+		ps2.close();
+
+		assertEquals(2, this.preparedStatements.size());
+		assertFalse(this.preparedStatements.get(0).closed);
+		assertTrue(this.preparedStatements.get(1).closed);
+	}
+
+	@Test
+	public void restoresChangedSettings() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		PreparedStatement ps = con.prepareStatement("select 1");
+		ps.setQueryTimeout(10);
+		ps.setMaxRows(100);
+		ps.addBatch();
+		ps.close();
+
+		StubStatement stub = this.preparedStatements.get(0);
+		assertEquals(0, stub.queryTimeout);
+		assertEquals(0, stub.maxRows);
+		assertEquals(1, stub.clearBatchCount);
+	}
+
+	@Test
+	public void closedStatementRejectsFurtherUse() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		PreparedStatement ps = con.prepareStatement("select 1");
+		ps.close();
+		try {
+			ps.executeQuery();
+			fail("Should have thrown SQLException");
+		}
+		catch (SQLException ex) {
+			// expected
+		}
+	}
+
+	@Test
+	public void closingConnectionClosesCachedStatements() throws Exception {
+		Connection con = this.dataSource.getConnection();
+		con.prepareStatement("select 1").close();
+		PreparedStatement ps = con.prepareStatement("select 2");
+		con.close();
+		assertTrue(this.connectionClosed);
+		assertTrue(this.preparedStatements.get(0).closed);
+		assertFalse(this.preparedStatements.get(1).closed);
+
+		ps.close();
+		assertTrue(this.preparedStatements.get(1).closed);
+	}
+
+
+	private static class StubStatement implements InvocationHandler {
+
+		final boolean callable;
+
+		final PreparedStatement proxy;
+
+		boolean closed;
+
+		int queryTimeout;
+
+		int maxRows;
+
+		int clearParametersCount;
+
+		int clearBatchCount;
+
+		public StubStatement(boolean callable) {
+			this.callable = callable;
+			this.proxy = (PreparedStatement) Proxy.newProxyInstance(getClass().getClassLoader(),
+					new Class[] {callable ? CallableStatement.class : PreparedStatement.class}, this);
+		}
+
+		public Object invoke(Object proxy, Method method, Object[] args) {
+			String name = method.getName();
+			if (name.equals("close")) {
+				this.closed = true;
+			}
+			else if (name.equals("isClosed")) {
+				return this.closed;
+			}
+			else if (name.equals("setQueryTimeout")) {
+				this.queryTimeout = (Integer) args[0];
+			}
+			else if (name.equals("getQueryTimeout")) {
+				return this.queryTimeout;
+			}
+			else if (name.equals("setMaxRows")) {
+				this.maxRows = (Integer) args[0];
+			}
+			else if (name.equals("getMaxRows")) {
+				return this.maxRows;
+			}
+			else if (name.equals("clearParameters")) {
+				this.clearParametersCount++;
+			}
+			else if (name.equals("clearBatch")) {
+				this.clearBatchCount++;
+			}
+			return null;
+		}
+	}
+
+}
@@ -20,6 +20,7 @@ import org.junit.Test;
 import org.springframework.core.io.ClassRelativeResourceLoader;
 import org.springframework.dao.DataAccessResourceFailureException;
 import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.PoolingDataSource;
 import org.springframework.jdbc.datasource.init.CannotReadScriptException;
 import org.springframework.tests.Assume;
 import org.springframework.tests.TestGroup;
@@ -68,6 +69,15 @@ public class EmbeddedDatabaseBuilderTests {
 		assertDatabaseCreatedAndShutdown(db);
 	}
 
+	@Test
+	public void testBuildWithPoolingDataSource() throws Exception {
+		EmbeddedDatabaseBuilder builder = new EmbeddedDatabaseBuilder(new ClassRelativeResourceLoader(getClass()));
+		EmbeddedDatabase db = builder.setDataSourceFactory(new PoolingDataSourceFactory())
+				.addScript("db-schema.sql").addScript("db-test-data.sql").build();
+		assertTrue(db.isWrapperFor(PoolingDataSource.class));
+		assertDatabaseCreatedAndShutdown(db);
+	}
+
 	@Test
 	public void testBuildNoSuchScript() {
 		try {
@@ -0,0 +1,151 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.datasource.lookup;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import javax.sql.DataSource;
+
+import org.junit.After;
+import org.junit.Test;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.Assert.*;
+
+/**
+ * @since 3.2.13
+ */
+public class ReadWriteRoutingDataSourceTests {
+
+	private final List<EmbeddedDatabase> databases = new ArrayList<EmbeddedDatabase>();
+
+	private ReadWriteRoutingDataSource router;
+
+	private JdbcTemplate jdbcTemplate;
+
+	private TransactionTemplate transactionTemplate;
+
+
+	@After
+	public void shutdownDatabases() {
+		for (EmbeddedDatabase database : this.databases) {
+			database.shutdown();
+		}
+	}
+
+	@Test
+	public void routesReadOnlyTransactionsAcrossReplicas() {
+		setUpRouter(createDatabase("primary"), createDatabase("replica1"), createDatabase("replica2"));
+
+		assertEquals("primary", queryName(false));
+		Set<String> readNames = new HashSet<String>();
+		for (int i = 0; i < 4; i++) {
+			readNames.add(queryName(true));
+		}
+		assertEquals(new HashSet<String>(Arrays.asList("replica1", "replica2")), readNames);
+		assertEquals("primary", queryName(false));
+	}
+
+	@Test
+	public void ejectsFailingReplica() {
+		setUpRouter(createDatabase("primary"), new FailingDataSource(), createDatabase("replica"));
+
+		for (int i = 0; i < 3; i++) {
+			assertEquals("replica", queryName(true));
+		}
+		assertEquals(1, this.router.getAvailableReplicaCount());
+	}
+
+	@Test
+	public void fallsBackToWriteDataSource() {
+		setUpRouter(createDatabase("primary"), new FailingDataSource());
+
+		assertEquals("primary", queryName(true));
+		assertEquals(0, this.router.getAvailableReplicaCount());
+	}
+
+	@Test
+	public void stickinessAfterWrite() {
+		setUpRouter(createDatabase("primary"), createDatabase("replica"));
+		this.router.setWriteStickinessPeriod(60000);
+
+		assertEquals("replica", queryName(true));
+		assertEquals("primary", queryName(false));
+		assertEquals("primary", queryName(true));
+		this.router.resetWriteStickiness();
+		assertEquals("replica", queryName(true));
+	}
+
+
+	private EmbeddedDatabase createDatabase(String name) {
+		EmbeddedDatabase database = new EmbeddedDatabaseBuilder().setName(name).build();
+		this.databases.add(database);
+		JdbcTemplate template = new JdbcTemplate(database);
+		template.execute("create table T_TEST (NAME varchar(50) not null)");
+		template.update("insert into T_TEST (NAME) values (?)", name);
+		return database;
+	}
+
+	private void setUpRouter(DataSource writeDataSource, DataSource... readDataSources) {
+		this.router = new ReadWriteRoutingDataSource();
+		this.router.setWriteDataSource(writeDataSource);
+		this.router.setReadDataSources(Arrays.asList(readDataSources));
+		this.router.afterPropertiesSet();
+		DataSource dataSource = new LazyConnectionDataSourceProxy(this.router);
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+		this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+	}
+
+	private String queryName(boolean readOnly) {
+		this.transactionTemplate.setReadOnly(readOnly);
+		return this.transactionTemplate.execute(new TransactionCallback<String>() {
+			@Override
+			public String doInTransaction(TransactionStatus status) {
+				return jdbcTemplate.queryForObject("select NAME from T_TEST", String.class);
+			}
+		});
+	}
+
+
+	private static class FailingDataSource extends AbstractDataSource {
+
+		@Override
+		public Connection getConnection() throws SQLException {
+			throw new SQLException("Replica down");
+		}
+
+		@Override
+		public Connection getConnection(String username, String password) throws SQLException {
+			throw new SQLException("Replica down");
+		}
+	}
+
+}
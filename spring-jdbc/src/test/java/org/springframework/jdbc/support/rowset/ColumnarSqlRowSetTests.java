@@ -0,0 +1,268 @@
+/*
+ * Copyright 2002-2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.jdbc.support.rowset;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.InvalidResultSetAccessException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ColumnarSqlRowSet}.
+ */
+public class ColumnarSqlRowSetTests {
+
+	private static final String[] LABELS = new String[] {"ID", "AMOUNT", "PRICE", "NAME", "ACTIVE", "CREATED", "TOTAL"};
+
+	private static final Class<?>[] CLASSES = new Class<?>[] {Integer.class, Long.class, Double.class,
+			String.class, Boolean.class, Timestamp.class, BigDecimal.class};
+
+	private Timestamp created;
+
+	private ColumnarSqlRowSet rowSet;
+
+
+	@Before
+	public void setUp() throws Exception {
+		created = Timestamp.valueOf("2014-12-30 10:15:30.123456789");
+		Object[][] rows = new Object[100][];
+		for (int i = 0; i < rows.length; i++) {
+			rows[i] = new Object[] {i + 1, (long) i * 1000000000L, i * 0.5d, (i % 2 == 0 ? "even" : "odd"),
+					(i % 3 == 0), created, new BigDecimal("12.34")};
+		}
+		rows[1] = new Object[] {2, null, null, null, null, null, null};
+		rowSet = new ColumnarSqlRowSet(createResultSet(rows));
+	}
+
+
+	@Test
+	public void navigation() {
+		assertEquals(100, rowSet.getRowCount());
+		assertTrue(rowSet.isBeforeFirst());
+		assertEquals(0, rowSet.getRow());
+		assertTrue(rowSet.next());
+		assertTrue(rowSet.isFirst());
+		assertEquals(1, rowSet.getRow());
+		assertTrue(rowSet.last());
+		assertTrue(rowSet.isLast());
+		assertEquals(100, rowSet.getInt("ID"));
+		assertFalse(rowSet.next());
+		assertTrue(rowSet.isAfterLast());
+		assertTrue(rowSet.previous());
+		assertEquals(100, rowSet.getRow());
+		assertTrue(rowSet.absolute(-2));
+		assertEquals(99, rowSet.getRow());
+		assertTrue(rowSet.relative(-9));
+		assertEquals(90, rowSet.getRow());
+		assertFalse(rowSet.relative(20));
+		assertTrue(rowSet.isAfterLast());
+		assertFalse(rowSet.absolute(0));
+		assertTrue(rowSet.isBeforeFirst());
+		rowSet.afterLast();
+		int count = 0;
+		while (rowSet.previous()) {
+			count++;
+		}
+		assertEquals(100, count);
+	}
+
+	@Test
+	public void primitiveValues() {
+		rowSet.absolute(5);
+		assertEquals(5, rowSet.getInt(1));
+		assertEquals(Integer.valueOf(5), rowSet.getObject("ID"));
+		assertEquals(4000000000L, rowSet.getLong("AMOUNT"));
+		assertEquals(Long.valueOf(4000000000L), rowSet.getObject("AMOUNT"));
+		assertEquals(2.0d, rowSet.getDouble("PRICE"), 0);
+		assertEquals(2, rowSet.getInt("PRICE"));
+		assertEquals(new BigDecimal("5"), rowSet.getBigDecimal("ID"));
+		assertEquals("5", rowSet.getString("ID"));
+		assertFalse(rowSet.wasNull());
+	}
+
+	@Test
+	public void stringValues() {
+		rowSet.absolute(1);
+		String even = rowSet.getString("NAME");
+		assertEquals("even", even);
+		rowSet.absolute(3);
+		assertSame(even, rowSet.getString("name"));
+		assertSame(even, rowSet.getObject(4));
+		rowSet.absolute(4);
+		assertEquals("odd", rowSet.getString(4));
+	}
+
+	@Test
+	public void booleanValues() {
+		rowSet.absolute(4);
+		assertTrue(rowSet.getBoolean("ACTIVE"));
+		assertEquals(Boolean.TRUE, rowSet.getObject("ACTIVE"));
+		assertEquals(1, rowSet.getInt("ACTIVE"));
+		rowSet.absolute(5);
+		assertFalse(rowSet.getBoolean("ACTIVE"));
+		assertTrue(rowSet.getBoolean("ID"));
+	}
+
+	@Test
+	public void temporalValues() {
+		rowSet.first();
+		assertEquals(created, rowSet.getTimestamp("CREATED"));
+		assertEquals(created, rowSet.getObject("CREATED"));
+		assertEquals(123456789, rowSet.getTimestamp("CREATED").getNanos());
+		assertEquals(created.getTime(), rowSet.getDate("CREATED").getTime());
+	}
+
+	@Test
+	public void objectValues() {
+		rowSet.first();
+		assertEquals(new BigDecimal("12.34"), rowSet.getBigDecimal("TOTAL"));
+		assertEquals(12.34d, rowSet.getDouble("TOTAL"), 0);
+		assertEquals(12, rowSet.getInt("TOTAL"));
+	}
+
+	@Test
+	public void nullValues() {
+		rowSet.absolute(2);
+		assertEquals(2, rowSet.getInt("ID"));
+		assertFalse(rowSet.wasNull());
+		assertEquals(0, rowSet.getLong("AMOUNT"));
+		assertTrue(rowSet.wasNull());
+		assertNull(rowSet.getObject("AMOUNT"));
+		assertEquals(0, rowSet.getDouble("PRICE"), 0);
+		assertTrue(rowSet.wasNull());
+		assertNull(rowSet.getString("NAME"));
+		assertFalse(rowSet.getBoolean("ACTIVE"));
+		assertTrue(rowSet.wasNull());
+		assertNull(rowSet.getTimestamp("CREATED"));
+		assertNull(rowSet.getBigDecimal("TOTAL"));
+		rowSet.absolute(3);
+		assertEquals("even", rowSet.getString("NAME"));
+		assertFalse(rowSet.wasNull());
+	}
+
+	@Test
+	public void metaData() {
+		SqlRowSetMetaData metaData = rowSet.getMetaData();
+		assertEquals(7, metaData.getColumnCount());
+		assertEquals("NAME", metaData.getColumnLabel(4));
+		assertEquals(String.class.getName(), metaData.getColumnClassName(4));
+		assertEquals(Types.OTHER, metaData.getColumnType(1));
+		assertEquals(LABELS.length, metaData.getColumnNames().length);
+	}
+
+	@Test
+	public void copySharesData() {
+		ColumnarSqlRowSet copy = rowSet.copy();
+		rowSet.absolute(10);
+		assertTrue(copy.isBeforeFirst());
+		assertTrue(copy.absolute(10));
+		assertEquals(rowSet.getString("NAME"), copy.getString("NAME"));
+	}
+
+	@Test(expected = InvalidResultSetAccessException.class)
+	public void invalidCursorPosition() {
+		rowSet.getInt(1);
+	}
+
+	@Test(expected = InvalidResultSetAccessException.class)
+	public void invalidColumnIndex() {
+		rowSet.first();
+		rowSet.getInt(8);
+	}
+
+	@Test(expected = InvalidResultSetAccessException.class)
+	public void invalidColumnLabel() {
+		rowSet.first();
+		rowSet.getInt("UNKNOWN");
+	}
+
+	@Test(expected = InvalidResultSetAccessException.class)
+	public void invalidConversion() {
+		rowSet.first();
+		rowSet.getInt("NAME");
+	}
+
+
+	private static ResultSet createResultSet(final Object[][] rows) {
+		final ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+				ColumnarSqlRowSetTests.class.getClassLoader(), new Class<?>[] {ResultSetMetaData.class},
+				new InvocationHandler() {
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						String name = method.getName();
+						if (name.equals("getColumnCount")) {
+							return LABELS.length;
+						}
+						if (name.equals("getColumnClassName")) {
+							return CLASSES[(Integer) args[0] - 1].getName();
+						}
+						if (name.equals("getColumnLabel") || name.equals("getColumnName")) {
+							return LABELS[(Integer) args[0] - 1];
+						}
+						if (name.equals("getColumnType")) {
+							return Types.OTHER;
+						}
+						Class<?> returnType = method.getReturnType();
+						return (returnType == int.class ? 0 : returnType == boolean.class ? false : null);
+					}
+				});
+		return (ResultSet) Proxy.newProxyInstance(
+				ColumnarSqlRowSetTests.class.getClassLoader(), new Class<?>[] {ResultSet.class},
+				new InvocationHandler() {
+					private int row = -1;
+					private Object lastValue;
+					public Object invoke(Object proxy, Method method, Object[] args) {
+						String name = method.getName();
+						if (name.equals("getMetaData")) {
+							return metaData;
+						}
+						if (name.equals("next")) {
+							return (++this.row < rows.length);
+						}
+						if (name.equals("wasNull")) {
+							return (this.lastValue == null);
+						}
+						Object value = rows[this.row][(Integer) args[0] - 1];
+						this.lastValue = value;
+						Class<?> returnType = method.getReturnType();
+						if (returnType == int.class) {
+							return (value != null ? ((Number) value).intValue() : 0);
+						}
+						if (returnType == long.class) {
+							return (value != null ? ((Number) value).longValue() : 0L);
+						}
+						if (returnType == double.class) {
+							return (value != null ? ((Number) value).doubleValue() : 0d);
+						}
+						if (returnType == boolean.class) {
+							return (value != null && (Boolean) value);
+						}
+						return value;
+					}
+				});
+	}
+
+}
@@ -126,6 +126,8 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 
 	private boolean rollbackOnCommitFailure = false;
 
+	private transient TransactionObserver transactionObserver;
+
 
 	/**
 	 * Set the transaction synchronization by the name of the corresponding constant
@@ -319,6 +321,25 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		return this.rollbackOnCommitFailure;
 	}
 
+	/**
+	 * Set a TransactionObserver to be notified about the begin, suspension
+	 * and completion of the transactions that this manager drives,
+	 * for example a {@link MetricsTransactionObserver}.
+	 * <p>Default is none. Note that the observer will not be retained
+	 * when serializing this transaction manager.
+	 * @see TransactionObserver
+	 */
+	public final void setTransactionObserver(TransactionObserver transactionObserver) {
+		this.transactionObserver = transactionObserver;
+	}
+
+	/**
+	 * Return the TransactionObserver to notify, if any.
+	 */
+	public final TransactionObserver getTransactionObserver() {
+		return this.transactionObserver;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Implementation of PlatformTransactionManager
@@ -369,7 +390,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				boolean newSynchronization = (getTransactionSynchronization() != SYNCHRONIZATION_NEVER);
 				DefaultTransactionStatus status = newTransactionStatus(
 						definition, transaction, true, newSynchronization, debugEnabled, suspendedResources);
-				doBegin(transaction, definition);
+				beginTransaction(status, transaction, definition);
 				prepareSynchronization(status, definition);
 				return status;
 			}
@@ -389,6 +410,48 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		}
 	}
 
+	/**
+	 * Invoke {@code doBegin} for a new transaction,
+	 * notifying the TransactionObserver (if any).
+	 */
+	private void beginTransaction(DefaultTransactionStatus status, Object transaction, TransactionDefinition definition) {
+		TransactionObserver observer = this.transactionObserver;
+		if (observer == null) {
+			doBegin(transaction, definition);
+			return;
+		}
+		long startTime = System.nanoTime();
+		try {
+			doBegin(transaction, definition);
+		}
+		catch (RuntimeException ex) {
+			observeBeginFailure(observer, definition, ex, startTime);
+			throw ex;
+		}
+		catch (Error err) {
+			observeBeginFailure(observer, definition, err, startTime);
+			throw err;
+		}
+		status.setObservationStart(definition, startTime);
+		try {
+			observer.transactionBegun(definition, status, System.nanoTime() - startTime);
+		}
+		catch (Throwable ex) {
+			logger.error("TransactionObserver threw exception on transaction begin", ex);
+		}
+	}
+
+	private void observeBeginFailure(
+			TransactionObserver observer, TransactionDefinition definition, Throwable beginEx, long startTime) {
+
+		try {
+			observer.transactionBeginFailed(definition, beginEx, System.nanoTime() - startTime);
+		}
+		catch (Throwable ex) {
+			logger.error("TransactionObserver threw exception on transaction begin failure", ex);
+		}
+	}
+
 	/**
 	 * Create a TransactionStatus for an existing transaction.
 	 */
@@ -421,7 +484,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				boolean newSynchronization = (getTransactionSynchronization() != SYNCHRONIZATION_NEVER);
 				DefaultTransactionStatus status = newTransactionStatus(
 						definition, transaction, true, newSynchronization, debugEnabled, suspendedResources);
-				doBegin(transaction, definition);
+				beginTransaction(status, transaction, definition);
 				prepareSynchronization(status, definition);
 				return status;
 			}
@@ -460,7 +523,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				boolean newSynchronization = (getTransactionSynchronization() != SYNCHRONIZATION_NEVER);
 				DefaultTransactionStatus status = newTransactionStatus(
 						definition, transaction, true, newSynchronization, debugEnabled, null);
-				doBegin(transaction, definition);
+				beginTransaction(status, transaction, definition);
 				prepareSynchronization(status, definition);
 				return status;
 			}
@@ -572,6 +635,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				Object suspendedResources = null;
 				if (transaction != null) {
 					suspendedResources = doSuspend(transaction);
+					observeSuspension(true);
 				}
 				String name = TransactionSynchronizationManager.getCurrentTransactionName();
 				TransactionSynchronizationManager.setCurrentTransactionName(null);
@@ -598,6 +662,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		else if (transaction != null) {
 			// Transaction active but no synchronization active.
 			Object suspendedResources = doSuspend(transaction);
+			observeSuspension(true);
 			return new SuspendedResourcesHolder(suspendedResources);
 		}
 		else {
@@ -623,6 +688,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 			Object suspendedResources = resourcesHolder.suspendedResources;
 			if (suspendedResources != null) {
 				doResume(transaction, suspendedResources);
+				observeSuspension(false);
 			}
 			List<TransactionSynchronization> suspendedSynchronizations = resourcesHolder.suspendedSynchronizations;
 			if (suspendedSynchronizations != null) {
@@ -635,6 +701,26 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		}
 	}
 
+	/**
+	 * Notify the TransactionObserver (if any) about a suspension or resumption.
+	 */
+	private void observeSuspension(boolean suspended) {
+		TransactionObserver observer = this.transactionObserver;
+		if (observer != null) {
+			try {
+				if (suspended) {
+					observer.transactionSuspended();
+				}
+				else {
+					observer.transactionResumed();
+				}
+			}
+			catch (Throwable ex) {
+				logger.error("TransactionObserver threw exception on transaction suspension/resumption", ex);
+			}
+		}
+	}
+
 	/**
 	 * Resume outer transaction after inner transaction begin failed.
 	 */
@@ -752,7 +838,11 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 					if (status.isDebug()) {
 						logger.debug("Initiating transaction commit");
 					}
+					long commitStartTime = System.nanoTime();
 					doCommit(status);
+					if (!globalRollbackOnly) {
+						observeCompletion(status, true, commitStartTime, null);
+					}
 				}
 				// Throw UnexpectedRollbackException if we have a global rollback-only
 				// marker but still didn't get a corresponding exception from commit.
@@ -763,6 +853,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 			}
 			catch (UnexpectedRollbackException ex) {
 				// can only be caused by doCommit
+				observeCompletion(status, false, System.nanoTime(), ex);
 				triggerAfterCompletion(status, TransactionSynchronization.STATUS_ROLLED_BACK);
 				throw ex;
 			}
@@ -772,6 +863,7 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 					doRollbackOnCommitException(status, ex);
 				}
 				else {
+					observeCompletion(status, false, System.nanoTime(), ex);
 					triggerAfterCompletion(status, TransactionSynchronization.STATUS_UNKNOWN);
 				}
 				throw ex;
@@ -843,7 +935,9 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 					if (status.isDebug()) {
 						logger.debug("Initiating transaction rollback");
 					}
+					long rollbackStartTime = System.nanoTime();
 					doRollback(status);
+					observeCompletion(status, false, rollbackStartTime, null);
 				}
 				else if (status.hasTransaction()) {
 					if (status.isLocalRollbackOnly() || isGlobalRollbackOnParticipationFailure()) {
@@ -863,10 +957,12 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				}
 			}
 			catch (RuntimeException ex) {
+				observeCompletion(status, false, System.nanoTime(), ex);
 				triggerAfterCompletion(status, TransactionSynchronization.STATUS_UNKNOWN);
 				throw ex;
 			}
 			catch (Error err) {
+				observeCompletion(status, false, System.nanoTime(), err);
 				triggerAfterCompletion(status, TransactionSynchronization.STATUS_UNKNOWN);
 				throw err;
 			}
@@ -890,7 +986,9 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 				if (status.isDebug()) {
 					logger.debug("Initiating transaction rollback after commit exception", ex);
 				}
+				long rollbackStartTime = System.nanoTime();
 				doRollback(status);
+				observeCompletion(status, false, rollbackStartTime, ex);
 			}
 			else if (status.hasTransaction() && isGlobalRollbackOnParticipationFailure()) {
 				if (status.isDebug()) {
@@ -901,11 +999,13 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		}
 		catch (RuntimeException rbex) {
 			logger.error("Commit exception overridden by rollback exception", ex);
+			observeCompletion(status, false, System.nanoTime(), rbex);
 			triggerAfterCompletion(status, TransactionSynchronization.STATUS_UNKNOWN);
 			throw rbex;
 		}
 		catch (Error rberr) {
 			logger.error("Commit exception overridden by rollback exception", ex);
+			observeCompletion(status, false, System.nanoTime(), rberr);
 			triggerAfterCompletion(status, TransactionSynchronization.STATUS_UNKNOWN);
 			throw rberr;
 		}
@@ -994,6 +1094,41 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 		TransactionSynchronizationUtils.invokeAfterCompletion(synchronizations, completionStatus);
 	}
 
+	/**
+	 * Notify the TransactionObserver (if any) about the completion of an observed
+	 * transaction. Only the first notification per transaction gets through.
+	 * @param status object representing the transaction
+	 * @param committed whether the transaction has been committed
+	 * @param completionStartTime the start time of the actual commit or rollback
+	 * @param cause the exception that led to the rollback, if known at this level;
+	 * otherwise, the {@link DefaultTransactionStatus#getRollbackCause() rollback cause}
+	 * specified by the caller applies
+	 */
+	private void observeCompletion(
+			DefaultTransactionStatus status, boolean committed, long completionStartTime, Throwable cause) {
+
+		TransactionDefinition definition = status.getObservedDefinition();
+		TransactionObserver observer = this.transactionObserver;
+		if (definition == null || observer == null) {
+			return;
+		}
+		long now = System.nanoTime();
+		long duration = now - status.getObservedStartTime();
+		status.setObservationStart(null, 0);
+		try {
+			if (committed) {
+				observer.transactionCommitted(definition, status, now - completionStartTime, duration);
+			}
+			else {
+				observer.transactionRolledBack(definition, status, now - completionStartTime, duration,
+						(cause != null ? cause : status.getRollbackCause()));
+			}
+		}
+		catch (Throwable ex) {
+			logger.error("TransactionObserver threw exception on transaction completion", ex);
+		}
+	}
+
 	/**
 	 * Clean up after completion, clearing synchronization if necessary,
 	 * and invoking doCleanupAfterCompletion.
@@ -1002,6 +1137,8 @@ public abstract class AbstractPlatformTransactionManager implements PlatformTran
 	 */
 	private void cleanupAfterCompletion(DefaultTransactionStatus status) {
 		status.setCompleted();
+		// Any observed transaction not reported yet did not complete regularly
+		observeCompletion(status, false, System.nanoTime(), null);
 		if (status.isNewSynchronization()) {
 			TransactionSynchronizationManager.clear();
 		}
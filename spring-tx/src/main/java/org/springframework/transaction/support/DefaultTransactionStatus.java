@@ -18,6 +18,7 @@ package org.springframework.transaction.support;
 
 import org.springframework.transaction.NestedTransactionNotSupportedException;
 import org.springframework.transaction.SavepointManager;
+import org.springframework.transaction.TransactionDefinition;
 
 /**
  * Default implementation of the {@link org.springframework.transaction.TransactionStatus}
@@ -60,6 +61,12 @@ public class DefaultTransactionStatus extends AbstractTransactionStatus {
 
 	private final Object suspendedResources;
 
+	private TransactionDefinition observedDefinition;
+
+	private long observedStartTime;
+
+	private Throwable rollbackCause;
+
 
 	/**
 	 * Create a new DefaultTransactionStatus instance.
@@ -139,6 +146,47 @@ public class DefaultTransactionStatus extends AbstractTransactionStatus {
 		return this.suspendedResources;
 	}
 
+	/**
+	 * Set the exception that a subsequent rollback of this transaction is caused by,
+	 * e.g. an application exception thrown within the transaction. Only used for
+	 * reporting the rollback to a {@link TransactionObserver}.
+	 * @see AbstractPlatformTransactionManager#setTransactionObserver
+	 */
+	public void setRollbackCause(Throwable rollbackCause) {
+		this.rollbackCause = rollbackCause;
+	}
+
+	/**
+	 * Return the exception that a rollback of this transaction is caused by, if known.
+	 */
+	public Throwable getRollbackCause() {
+		return this.rollbackCause;
+	}
+
+	/**
+	 * Record the definition and start time of this transaction,
+	 * for reporting its completion to a {@link TransactionObserver}.
+	 */
+	void setObservationStart(TransactionDefinition definition, long startTime) {
+		this.observedDefinition = definition;
+		this.observedStartTime = startTime;
+	}
+
+	/**
+	 * Return the definition of this transaction if it is being observed,
+	 * or {@code null} otherwise.
+	 */
+	TransactionDefinition getObservedDefinition() {
+		return this.observedDefinition;
+	}
+
+	/**
+	 * Return the start time of this transaction if it is being observed.
+	 */
+	long getObservedStartTime() {
+		return this.observedStartTime;
+	}
+
 
 	//---------------------------------------------------------------------
 	// Enable functionality through underlying transaction object
@@ -0,0 +1,88 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import javax.management.ObjectName;
+
+import org.springframework.jmx.export.MBeanExportOperations;
+import org.springframework.jmx.support.ObjectNameManager;
+import org.springframework.util.Assert;
+
+/**
+ * Extension of {@link MetricsTransactionObserver} which registers the
+ * {@link TransactionStatistics} for each transaction name as a separate MBean
+ * with the given {@link #setExporter "exporter"}, as soon as a transaction with
+ * that name has begun. Requires Spring's JMX support, i.e. spring-context,
+ * as opposed to the plain {@link MetricsTransactionObserver}.
+ *
+ * <pre>
+ * &lt;bean id="transactionMetrics" class="org.springframework.transaction.support.MBeanExportingMetricsTransactionObserver"&gt;
+ *   &lt;property name="exporter" ref="exporter"/&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * @since 3.2.13
+ * @see org.springframework.jmx.export.MBeanExporter
+ */
+public class MBeanExportingMetricsTransactionObserver extends MetricsTransactionObserver {
+
+	/** Default prefix for the ObjectNames of per-transaction statistics MBeans */
+	public static final String DEFAULT_OBJECT_NAME_PREFIX = "org.springframework.transaction:type=TransactionStatistics";
+
+
+	private MBeanExportOperations exporter;
+
+	private String objectNamePrefix = DEFAULT_OBJECT_NAME_PREFIX;
+
+
+	/**
+	 * Set the exporter to register the {@link TransactionStatistics} for each
+	 * transaction name with. Required.
+	 * @see #setObjectNamePrefix
+	 */
+	public void setExporter(MBeanExportOperations exporter) {
+		this.exporter = exporter;
+	}
+
+	/**
+	 * Set the prefix for the ObjectNames of the per-transaction statistics MBeans,
+	 * to be completed with a "name" key holding the quoted transaction name.
+	 * Default is {@link #DEFAULT_OBJECT_NAME_PREFIX}.
+	 */
+	public void setObjectNamePrefix(String objectNamePrefix) {
+		Assert.hasText(objectNamePrefix, "'objectNamePrefix' must not be empty");
+		this.objectNamePrefix = objectNamePrefix;
+	}
+
+	@Override
+	public void afterPropertiesSet() {
+		Assert.notNull(this.exporter, "Property 'exporter' is required");
+		super.afterPropertiesSet();
+	}
+
+
+	@Override
+	protected void onStatisticsCreated(TransactionStatistics stats) {
+		try {
+			this.exporter.registerManagedResource(stats,
+					ObjectNameManager.getInstance(this.objectNamePrefix + ",name=" + ObjectName.quote(stats.getName())));
+		}
+		catch (Exception ex) {
+			logger.warn("Could not register statistics for transaction [" + stats.getName() + "] as MBean", ex);
+		}
+	}
+
+}
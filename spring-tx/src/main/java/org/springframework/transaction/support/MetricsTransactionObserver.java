@@ -0,0 +1,548 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.util.Assert;
+
+/**
+ * {@link TransactionObserver} that gathers transaction metrics per transaction name:
+ * counts, average begin (resource acquisition), commit and rollback times, and a
+ * histogram of transaction durations. Also keeps track of in-flight transactions,
+ * suspensions, resumptions and rollback causes.
+ *
+ * <p>If a {@link #setLongTransactionThreshold "longTransactionThreshold"} is set,
+ * a watchdog thread periodically logs a warning for every transaction that has been
+ * open for longer than the threshold, including the stack trace of where the
+ * transaction began.
+ *
+ * <p>All accessors are plain public methods, so that an instance can be exposed
+ * through {@link org.springframework.jmx.export.MBeanExporter} as-is. The statistics
+ * per transaction name are available through {@link #getTransactionStatistics(String)};
+ * use {@link MBeanExportingMetricsTransactionObserver} for registering them as
+ * separate MBeans on first use, exposing every metric as a JMX attribute.
+ *
+ * <pre>
+ * &lt;bean id="transactionMetrics" class="org.springframework.transaction.support.MetricsTransactionObserver"&gt;
+ *   &lt;property name="longTransactionThreshold" value="30000"/&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean id="transactionManager" class="org.springframework.jdbc.datasource.DataSourceTransactionManager"&gt;
+ *   &lt;property name="dataSource" ref="dataSource"/&gt;
+ *   &lt;property name="transactionObserver" ref="transactionMetrics"/&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean id="exporter" class="org.springframework.jmx.export.MBeanExporter"&gt;
+ *   &lt;property name="beans"&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key="myapp:name=transactionMetrics" value-ref="transactionMetrics"/&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * All times exposed by this class are in milliseconds.
+ *
+ * @since 3.2.13
+ * @see AbstractPlatformTransactionManager#setTransactionObserver
+ */
+public class MetricsTransactionObserver implements TransactionObserver, InitializingBean, DisposableBean {
+
+	/** Name under which transactions without a name get recorded */
+	public static final String UNNAMED_TRANSACTION = "(unnamed)";
+
+	/** Cause under which rollbacks without a known cause get recorded */
+	public static final String UNKNOWN_ROLLBACK_CAUSE = "(requested)";
+
+	private static final long[] DEFAULT_DURATION_BUCKETS =
+			new long[] {1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private volatile long[] durationBuckets = DEFAULT_DURATION_BUCKETS;
+
+	private long longTransactionThreshold = 0;
+
+	private long watchdogInterval = 5000;
+
+	private final Map<String, TransactionStatistics> statistics = new ConcurrentHashMap<String, TransactionStatistics>(64);
+
+	private final Map<TransactionStatus, InFlightTransaction> inFlightTransactions =
+			new ConcurrentHashMap<TransactionStatus, InFlightTransaction>(64);
+
+	private final AtomicInteger inFlightCount = new AtomicInteger();
+
+	private final AtomicLong beginFailureCount = new AtomicLong();
+
+	private final AtomicLong suspendCount = new AtomicLong();
+
+	private final AtomicLong resumeCount = new AtomicLong();
+
+	private final Map<String, AtomicLong> rollbackCauses = new ConcurrentHashMap<String, AtomicLong>(16);
+
+	private Timer watchdog;
+
+
+	/**
+	 * Set the upper bounds (in milliseconds) of the buckets of the
+	 * duration histograms, in ascending order. An additional bucket
+	 * collects all longer transactions.
+	 * <p>Default is 1, 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000.
+	 * Can only be set before the first transaction got recorded.
+	 */
+	public void setDurationBuckets(long... durationBuckets) {
+		Assert.isTrue(durationBuckets != null && durationBuckets.length > 0, "At least one duration bucket required");
+		for (int i = 1; i < durationBuckets.length; i++) {
+			Assert.isTrue(durationBuckets[i] > durationBuckets[i - 1], "Duration buckets must be ascending");
+		}
+		synchronized (this.statistics) {
+			Assert.state(this.statistics.isEmpty(),
+					"Duration buckets cannot be changed once transactions have been recorded");
+			this.durationBuckets = durationBuckets.clone();
+		}
+	}
+
+	/**
+	 * Return the upper bounds (in milliseconds) of the duration histogram buckets.
+	 * @see TransactionStatistics#getDurationHistogram()
+	 */
+	public long[] getDurationBuckets() {
+		return this.durationBuckets.clone();
+	}
+
+	/**
+	 * Set the time (in milliseconds) after which an open transaction gets
+	 * reported by the watchdog. Default is 0, i.e. no long transaction detection.
+	 * <p>Where a transaction began is only captured if this is set.
+	 */
+	public void setLongTransactionThreshold(long longTransactionThreshold) {
+		this.longTransactionThreshold = longTransactionThreshold;
+	}
+
+	/**
+	 * Set the interval (in milliseconds) in which the watchdog checks for long
+	 * transactions. Default is 5000.
+	 */
+	public void setWatchdogInterval(long watchdogInterval) {
+		Assert.isTrue(watchdogInterval > 0, "'watchdogInterval' must be greater than 0");
+		this.watchdogInterval = watchdogInterval;
+	}
+
+	public void afterPropertiesSet() {
+		if (this.longTransactionThreshold > 0) {
+			this.watchdog = new Timer("TransactionWatchdog", true);
+			this.watchdog.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					checkLongTransactions();
+				}
+			}, this.watchdogInterval, this.watchdogInterval);
+		}
+	}
+
+	public void destroy() {
+		if (this.watchdog != null) {
+			this.watchdog.cancel();
+			this.watchdog = null;
+		}
+	}
+
+
+	//---------------------------------------------------------------------
+	// Implementation of TransactionObserver interface
+	//---------------------------------------------------------------------
+
+	public void transactionBegun(TransactionDefinition definition, TransactionStatus status, long beginTime) {
+		TransactionStatistics stats = getStatistics(definition);
+		stats.beginCount.incrementAndGet();
+		stats.totalBeginTime.addAndGet(beginTime);
+		this.inFlightCount.incrementAndGet();
+		if (this.longTransactionThreshold > 0) {
+			this.inFlightTransactions.put(status, new InFlightTransaction(getName(definition)));
+		}
+	}
+
+	public void transactionBeginFailed(TransactionDefinition definition, Throwable ex, long beginTime) {
+		this.beginFailureCount.incrementAndGet();
+	}
+
+	public void transactionSuspended() {
+		this.suspendCount.incrementAndGet();
+	}
+
+	public void transactionResumed() {
+		this.resumeCount.incrementAndGet();
+	}
+
+	public void transactionCommitted(TransactionDefinition definition, TransactionStatus status,
+			long commitTime, long duration) {
+
+		TransactionStatistics stats = getStatistics(definition);
+		stats.commitCount.incrementAndGet();
+		stats.totalCommitTime.addAndGet(commitTime);
+		recordCompletion(stats, status, duration);
+	}
+
+	public void transactionRolledBack(TransactionDefinition definition, TransactionStatus status,
+			long rollbackTime, long duration, Throwable cause) {
+
+		TransactionStatistics stats = getStatistics(definition);
+		stats.rollbackCount.incrementAndGet();
+		stats.totalRollbackTime.addAndGet(rollbackTime);
+		String causeName = (cause != null ? cause.getClass().getName() : UNKNOWN_ROLLBACK_CAUSE);
+		AtomicLong causeCount = this.rollbackCauses.get(causeName);
+		if (causeCount == null) {
+			synchronized (this.rollbackCauses) {
+				causeCount = this.rollbackCauses.get(causeName);
+				if (causeCount == null) {
+					causeCount = new AtomicLong();
+					this.rollbackCauses.put(causeName, causeCount);
+				}
+			}
+		}
+		causeCount.incrementAndGet();
+		recordCompletion(stats, status, duration);
+	}
+
+	private void recordCompletion(TransactionStatistics stats, TransactionStatus status, long duration) {
+		this.inFlightCount.decrementAndGet();
+		this.inFlightTransactions.remove(status);
+		stats.totalDuration.addAndGet(duration);
+		long durationMillis = TimeUnit.NANOSECONDS.toMillis(duration);
+		int bucket = 0;
+		while (bucket < stats.buckets.length && durationMillis > stats.buckets[bucket]) {
+			bucket++;
+		}
+		stats.histogram.incrementAndGet(bucket);
+	}
+
+	private TransactionStatistics getStatistics(TransactionDefinition definition) {
+		String name = getName(definition);
+		TransactionStatistics stats = this.statistics.get(name);
+		if (stats == null) {
+			synchronized (this.statistics) {
+				stats = this.statistics.get(name);
+				if (stats == null) {
+					stats = new TransactionStatistics(name, this.durationBuckets);
+					this.statistics.put(name, stats);
+					onStatisticsCreated(stats);
+				}
+			}
+		}
+		return stats;
+	}
+
+	/**
+	 * Template method invoked when the statistics for a new transaction name
+	 * have been created, before the first transaction with that name gets recorded.
+	 * <p>The default implementation is empty. Can be overridden in subclasses,
+	 * e.g. for registering the statistics as MBean.
+	 * @param stats the statistics for the new transaction name
+	 * @see MBeanExportingMetricsTransactionObserver
+	 */
+	protected void onStatisticsCreated(TransactionStatistics stats) {
+	}
+
+	private String getName(TransactionDefinition definition) {
+		String name = definition.getName();
+		return (name != null ? name : UNNAMED_TRANSACTION);
+	}
+
+
+	//---------------------------------------------------------------------
+	// Metrics accessors
+	//---------------------------------------------------------------------
+
+	/**
+	 * Return the names of all transactions recorded so far.
+	 */
+	public String[] getTransactionNames() {
+		return this.statistics.keySet().toArray(new String[this.statistics.size()]);
+	}
+
+	/**
+	 * Return the number of transactions currently open.
+	 */
+	public int getInFlightCount() {
+		return this.inFlightCount.get();
+	}
+
+	/**
+	 * Return the number of transactions that failed to begin.
+	 */
+	public long getBeginFailureCount() {
+		return this.beginFailureCount.get();
+	}
+
+	/**
+	 * Return the number of transaction suspensions.
+	 */
+	public long getSuspendCount() {
+		return this.suspendCount.get();
+	}
+
+	/**
+	 * Return the number of transaction resumptions.
+	 */
+	public long getResumeCount() {
+		return this.resumeCount.get();
+	}
+
+	/**
+	 * Return the rollback causes recorded so far, as "exceptionClassName=count"
+	 * entries. Rollbacks requested by the caller count as {@link #UNKNOWN_ROLLBACK_CAUSE}.
+	 */
+	public String[] getRollbackCauses() {
+		List<String> causes = new ArrayList<String>(this.rollbackCauses.size());
+		for (Map.Entry<String, AtomicLong> entry : this.rollbackCauses.entrySet()) {
+			causes.add(entry.getKey() + "=" + entry.getValue().get());
+		}
+		return causes.toArray(new String[causes.size()]);
+	}
+
+	/**
+	 * Return the statistics for transactions with the given name.
+	 * @param transactionName the transaction name
+	 * @return the statistics, or {@code null} if no such transaction has begun so far
+	 */
+	public TransactionStatistics getTransactionStatistics(String transactionName) {
+		return this.statistics.get(transactionName);
+	}
+
+	/**
+	 * Return a description of all transactions that have been open for longer
+	 * than the {@link #setLongTransactionThreshold long transaction threshold}.
+	 */
+	public String[] getLongTransactions() {
+		List<String> result = new ArrayList<String>();
+		if (this.longTransactionThreshold > 0) {
+			long now = System.currentTimeMillis();
+			for (InFlightTransaction transaction : this.inFlightTransactions.values()) {
+				if (now - transaction.startTime > this.longTransactionThreshold) {
+					result.add(transaction.getDescription(now));
+				}
+			}
+		}
+		return result.toArray(new String[result.size()]);
+	}
+
+	/**
+	 * Log a warning for every transaction that has been open for longer than the
+	 * {@link #setLongTransactionThreshold long transaction threshold}, once per
+	 * transaction. Invoked periodically by the watchdog.
+	 */
+	public void checkLongTransactions() {
+		if (this.longTransactionThreshold <= 0) {
+			return;
+		}
+		long now = System.currentTimeMillis();
+		for (InFlightTransaction transaction : this.inFlightTransactions.values()) {
+			if (!transaction.reported && now - transaction.startTime > this.longTransactionThreshold) {
+				transaction.reported = true;
+				logger.warn(transaction.getDescription(now), transaction.beginLocation);
+			}
+		}
+	}
+
+	/**
+	 * Reset all statistics. In-flight transactions remain tracked.
+	 */
+	public void reset() {
+		for (TransactionStatistics stats : this.statistics.values()) {
+			stats.reset();
+		}
+		this.rollbackCauses.clear();
+		this.beginFailureCount.set(0);
+		this.suspendCount.set(0);
+		this.resumeCount.set(0);
+	}
+
+	private static double average(long totalNanos, long count) {
+		return (count > 0 ? (double) totalNanos / count / 1000000 : 0);
+	}
+
+
+	/**
+	 * Statistics for all transactions with a specific name. Exposes its
+	 * metrics as bean properties, i.e. as attributes when registered as MBean.
+	 * Serializable for returning it to remote JMX clients.
+	 */
+	public static class TransactionStatistics implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		private final String name;
+
+		private final long[] buckets;
+
+		private final AtomicLongArray histogram;
+
+		private final AtomicLong beginCount = new AtomicLong();
+
+		private final AtomicLong commitCount = new AtomicLong();
+
+		private final AtomicLong rollbackCount = new AtomicLong();
+
+		private final AtomicLong totalBeginTime = new AtomicLong();
+
+		private final AtomicLong totalCommitTime = new AtomicLong();
+
+		private final AtomicLong totalRollbackTime = new AtomicLong();
+
+		private final AtomicLong totalDuration = new AtomicLong();
+
+		TransactionStatistics(String name, long[] buckets) {
+			this.name = name;
+			this.buckets = buckets;
+			this.histogram = new AtomicLongArray(buckets.length + 1);
+		}
+
+		/**
+		 * Return the name of the transactions.
+		 */
+		public String getName() {
+			return this.name;
+		}
+
+		/**
+		 * Return the number of transactions that have begun.
+		 */
+		public long getBeginCount() {
+			return this.beginCount.get();
+		}
+
+		/**
+		 * Return the number of transactions that have committed.
+		 */
+		public long getCommitCount() {
+			return this.commitCount.get();
+		}
+
+		/**
+		 * Return the number of transactions that have rolled back.
+		 */
+		public long getRollbackCount() {
+			return this.rollbackCount.get();
+		}
+
+		/**
+		 * Return the average time spent beginning a transaction,
+		 * which includes acquiring the underlying resource (e.g. a JDBC Connection).
+		 */
+		public double getAverageBeginTime() {
+			return average(this.totalBeginTime.get(), this.beginCount.get());
+		}
+
+		/**
+		 * Return the average commit time.
+		 */
+		public double getAverageCommitTime() {
+			return average(this.totalCommitTime.get(), this.commitCount.get());
+		}
+
+		/**
+		 * Return the average rollback time.
+		 */
+		public double getAverageRollbackTime() {
+			return average(this.totalRollbackTime.get(), this.rollbackCount.get());
+		}
+
+		/**
+		 * Return the average duration of completed transactions.
+		 */
+		public double getAverageDuration() {
+			return average(this.totalDuration.get(), this.commitCount.get() + this.rollbackCount.get());
+		}
+
+		/**
+		 * Return the upper bounds (in milliseconds) of the duration histogram buckets.
+		 */
+		public long[] getDurationBuckets() {
+			return this.buckets.clone();
+		}
+
+		/**
+		 * Return the duration histogram: one count per {@link #getDurationBuckets() bucket},
+		 * plus a final count for all transactions that took longer than the largest bucket.
+		 */
+		public long[] getDurationHistogram() {
+			long[] result = new long[this.histogram.length()];
+			for (int i = 0; i < result.length; i++) {
+				result[i] = this.histogram.get(i);
+			}
+			return result;
+		}
+
+		void reset() {
+			for (int i = 0; i < this.histogram.length(); i++) {
+				this.histogram.set(i, 0);
+			}
+			this.beginCount.set(0);
+			this.commitCount.set(0);
+			this.rollbackCount.set(0);
+			this.totalBeginTime.set(0);
+			this.totalCommitTime.set(0);
+			this.totalRollbackTime.set(0);
+			this.totalDuration.set(0);
+		}
+	}
+
+
+	/**
+	 * An open transaction, along with the location where it began.
+	 */
+	private static class InFlightTransaction {
+
+		private final String name;
+
+		private final String threadName = Thread.currentThread().getName();
+
+		private final long startTime = System.currentTimeMillis();
+
+		private final Throwable beginLocation = new Throwable("Transaction began here");
+
+		private volatile boolean reported;
+
+		public InFlightTransaction(String name) {
+			this.name = name;
+		}
+
+		public String getDescription(long now) {
+			return "Transaction [" + this.name + "] on thread [" + this.threadName + "] has been open for " +
+					(now - this.startTime) + " ms";
+		}
+	}
+
+}
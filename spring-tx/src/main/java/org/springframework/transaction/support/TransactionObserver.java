@@ -0,0 +1,93 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+
+/**
+ * Callback interface for observing the lifecycle of the transactions
+ * that an {@link AbstractPlatformTransactionManager} begins and completes,
+ * e.g. for gathering metrics. Only actual new transactions get reported;
+ * participation in existing transactions and savepoints does not.
+ *
+ * <p>All times are in nanoseconds, as measured through {@link System#nanoTime()}.
+ * Callbacks are invoked on the thread that drives the transaction; exceptions
+ * thrown by an observer get logged but do not affect the transaction.
+ *
+ * @since 3.2.13
+ * @see AbstractPlatformTransactionManager#setTransactionObserver
+ * @see MetricsTransactionObserver
+ */
+public interface TransactionObserver {
+
+	/**
+	 * Invoked after a new transaction has begun.
+	 * @param definition the definition of the transaction
+	 * @param status the status of the transaction, identifying it until completion
+	 * @param beginTime the time spent beginning the transaction,
+	 * including the acquisition of the underlying resource (e.g. a JDBC Connection)
+	 */
+	void transactionBegun(TransactionDefinition definition, TransactionStatus status, long beginTime);
+
+	/**
+	 * Invoked after a new transaction failed to begin.
+	 * @param definition the definition of the transaction
+	 * @param ex the exception thrown on begin
+	 * @param beginTime the time spent on the attempt
+	 */
+	void transactionBeginFailed(TransactionDefinition definition, Throwable ex, long beginTime);
+
+	/**
+	 * Invoked after an existing transaction has been suspended.
+	 */
+	void transactionSuspended();
+
+	/**
+	 * Invoked after a suspended transaction has been resumed.
+	 */
+	void transactionResumed();
+
+	/**
+	 * Invoked after a transaction has been committed.
+	 * @param definition the definition of the transaction
+	 * @param status the status of the transaction, as passed to
+	 * {@link #transactionBegun}
+	 * @param commitTime the time spent in the actual commit
+	 * @param duration the time since the transaction began
+	 */
+	void transactionCommitted(TransactionDefinition definition, TransactionStatus status,
+			long commitTime, long duration);
+
+	/**
+	 * Invoked after a transaction has been rolled back, or when an attempt to
+	 * complete the transaction failed.
+	 * @param definition the definition of the transaction
+	 * @param status the status of the transaction, as passed to
+	 * {@link #transactionBegun}
+	 * @param rollbackTime the time spent in the actual rollback
+	 * @param duration the time since the transaction began
+	 * @param cause the exception that led to the rollback: either a failure at the
+	 * transaction manager level (e.g. on commit), or the application exception
+	 * specified through {@link DefaultTransactionStatus#setRollbackCause} (as done by
+	 * {@link org.springframework.transaction.interceptor.TransactionInterceptor} and
+	 * {@link TransactionTemplate}); {@code null} for a plain rollback request
+	 */
+	void transactionRolledBack(TransactionDefinition definition, TransactionStatus status,
+			long rollbackTime, long duration, Throwable cause);
+
+}
@@ -158,6 +158,9 @@ public class TransactionTemplate extends DefaultTransactionDefinition
 	 */
 	private void rollbackOnException(TransactionStatus status, Throwable ex) throws TransactionException {
 		logger.debug("Initiating transaction rollback on application exception", ex);
+		if (status instanceof DefaultTransactionStatus) {
+			((DefaultTransactionStatus) status).setRollbackCause(ex);
+		}
 		try {
 			this.transactionManager.rollback(status);
 		}
@@ -0,0 +1,293 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.transaction.support;
+
+import java.util.Arrays;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerFactory;
+import javax.management.ObjectName;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.jmx.export.MBeanExporter;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.util.SerializationTestUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link MetricsTransactionObserver} as well as the
+ * {@link TransactionObserver} callbacks in {@link AbstractPlatformTransactionManager}.
+ *
+ * @since 3.2.13
+ */
+public class MetricsTransactionObserverTests {
+
+	private final MetricsTransactionObserver observer = new MetricsTransactionObserver();
+
+	private final ObservedTransactionManager tm = new ObservedTransactionManager();
+
+
+	@Before
+	public void setUp() {
+		this.tm.setTransactionObserver(this.observer);
+	}
+
+	@Test
+	public void commit() {
+		TransactionStatus status = this.tm.getTransaction(definition("tx"));
+		assertEquals(1, this.observer.getInFlightCount());
+		this.tm.commit(status);
+
+		assertEquals(0, this.observer.getInFlightCount());
+		assertArrayEquals(new String[] {"tx"}, this.observer.getTransactionNames());
+		MetricsTransactionObserver.TransactionStatistics stats = this.observer.getTransactionStatistics("tx");
+		assertEquals("tx", stats.getName());
+		assertEquals(1, stats.getBeginCount());
+		assertEquals(1, stats.getCommitCount());
+		assertEquals(0, stats.getRollbackCount());
+		assertTrue(stats.getAverageDuration() >= 0);
+		assertEquals(1, sum(stats.getDurationHistogram()));
+		assertEquals(this.observer.getDurationBuckets().length + 1, stats.getDurationHistogram().length);
+	}
+
+	@Test
+	public void rollback() {
+		this.tm.rollback(this.tm.getTransaction(null));
+
+		assertEquals(0, this.observer.getInFlightCount());
+		assertEquals(1, this.observer.getTransactionStatistics(
+				MetricsTransactionObserver.UNNAMED_TRANSACTION).getRollbackCount());
+		assertArrayEquals(new String[] {MetricsTransactionObserver.UNKNOWN_ROLLBACK_CAUSE + "=1"},
+				this.observer.getRollbackCauses());
+	}
+
+	@Test
+	public void rollbackWithCause() {
+		TransactionStatus status = this.tm.getTransaction(definition("tx"));
+		((DefaultTransactionStatus) status).setRollbackCause(new IllegalArgumentException());
+		this.tm.rollback(status);
+
+		assertEquals(1, this.observer.getTransactionStatistics("tx").getRollbackCount());
+		assertArrayEquals(new String[] {IllegalArgumentException.class.getName() + "=1"},
+				this.observer.getRollbackCauses());
+	}
+
+	@Test
+	public void rollbackCauseFromTransactionTemplate() {
+		TransactionTemplate template = new TransactionTemplate(this.tm);
+		template.setName("tx");
+		try {
+			template.execute(new TransactionCallbackWithoutResult() {
+				@Override
+				protected void doInTransactionWithoutResult(TransactionStatus status) {
+					throw new UnsupportedOperationException();
+				}
+			});
+			fail("Should have thrown UnsupportedOperationException");
+		}
+		catch (UnsupportedOperationException ex) {
+			// expected
+		}
+		assertArrayEquals(new String[] {UnsupportedOperationException.class.getName() + "=1"},
+				this.observer.getRollbackCauses());
+	}
+
+	@Test
+	public void commitFailure() {
+		this.tm.failOnCommit = true;
+		TransactionStatus status = this.tm.getTransaction(definition("tx"));
+		try {
+			this.tm.commit(status);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		assertEquals(0, this.observer.getInFlightCount());
+		assertEquals(1, this.observer.getTransactionStatistics("tx").getRollbackCount());
+		assertArrayEquals(new String[] {IllegalStateException.class.getName() + "=1"},
+				this.observer.getRollbackCauses());
+	}
+
+	@Test
+	public void beginFailure() {
+		this.tm.failOnBegin = true;
+		try {
+			this.tm.getTransaction(definition("tx"));
+			fail("Should have thrown CannotCreateTransactionException");
+		}
+		catch (CannotCreateTransactionException ex) {
+			// expected
+		}
+		assertEquals(1, this.observer.getBeginFailureCount());
+		assertEquals(0, this.observer.getInFlightCount());
+	}
+
+	@Test
+	public void participatingTransactionNotObserved() {
+		TransactionStatus outer = this.tm.getTransaction(definition("outer"));
+		this.tm.existingTransaction = true;
+		this.tm.commit(this.tm.getTransaction(definition("inner")));
+		assertNull(this.observer.getTransactionStatistics("inner"));
+		assertEquals(1, this.observer.getInFlightCount());
+		this.tm.existingTransaction = false;
+		this.tm.commit(outer);
+		assertEquals(1, this.observer.getTransactionStatistics("outer").getCommitCount());
+	}
+
+	@Test
+	public void suspendAndResume() {
+		this.tm.existingTransaction = true;
+		DefaultTransactionDefinition definition = definition("new");
+		definition.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+		TransactionStatus status = this.tm.getTransaction(definition);
+		assertEquals(1, this.observer.getSuspendCount());
+		this.tm.commit(status);
+		assertEquals(1, this.observer.getResumeCount());
+		assertEquals(1, this.observer.getTransactionStatistics("new").getCommitCount());
+	}
+
+	@Test
+	public void longTransactions() throws Exception {
+		this.observer.setLongTransactionThreshold(1);
+		TransactionStatus status = this.tm.getTransaction(definition("long"));
+		Thread.sleep(20);
+		assertEquals(1, this.observer.getLongTransactions().length);
+		assertTrue(this.observer.getLongTransactions()[0].startsWith("Transaction [long]"));
+		this.observer.checkLongTransactions();
+		this.tm.commit(status);
+		assertEquals(0, this.observer.getLongTransactions().length);
+	}
+
+
+	@Test
+	public void durationBucketsFixedOnceRecorded() {
+		this.observer.setDurationBuckets(10, 100);
+		this.tm.commit(this.tm.getTransaction(definition("tx")));
+		assertEquals(3, this.observer.getTransactionStatistics("tx").getDurationHistogram().length);
+		try {
+			this.observer.setDurationBuckets(1000);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+
+		this.observer.reset();
+		assertEquals(0, this.observer.getTransactionStatistics("tx").getCommitCount());
+		assertTrue(Arrays.equals(new long[] {10, 100}, this.observer.getTransactionStatistics("tx").getDurationBuckets()));
+	}
+
+	@Test
+	public void transactionStatisticsExportedAsMBeans() throws Exception {
+		MBeanServer server = MBeanServerFactory.newMBeanServer();
+		MBeanExporter exporter = new MBeanExporter();
+		exporter.setServer(server);
+		MBeanExportingMetricsTransactionObserver observer = new MBeanExportingMetricsTransactionObserver();
+		observer.setExporter(exporter);
+		observer.setObjectNamePrefix("test:type=TransactionStatistics");
+		observer.afterPropertiesSet();
+		this.tm.setTransactionObserver(observer);
+
+		this.tm.commit(this.tm.getTransaction(definition("tx")));
+		this.tm.commit(this.tm.getTransaction(definition("tx")));
+		ObjectName objectName = new ObjectName("test:type=TransactionStatistics,name=" + ObjectName.quote("tx"));
+		assertEquals(2L, server.getAttribute(objectName, "CommitCount"));
+		assertEquals(0L, server.getAttribute(objectName, "RollbackCount"));
+		assertTrue((Double) server.getAttribute(objectName, "AverageDuration") >= 0);
+	}
+
+	@Test
+	public void transactionStatisticsSerializable() throws Exception {
+		this.tm.commit(this.tm.getTransaction(definition("tx")));
+		MetricsTransactionObserver.TransactionStatistics stats = (MetricsTransactionObserver.TransactionStatistics)
+				SerializationTestUtils.serializeAndDeserialize(this.observer.getTransactionStatistics("tx"));
+		assertEquals("tx", stats.getName());
+		assertEquals(1, stats.getCommitCount());
+	}
+
+	private static DefaultTransactionDefinition definition(String name) {
+		DefaultTransactionDefinition definition = new DefaultTransactionDefinition();
+		definition.setName(name);
+		return definition;
+	}
+
+	private static long sum(long[] values) {
+		long sum = 0;
+		for (long value : values) {
+			sum += value;
+		}
+		return sum;
+	}
+
+
+	@SuppressWarnings("serial")
+	private static class ObservedTransactionManager extends AbstractPlatformTransactionManager {
+
+		private boolean existingTransaction;
+
+		private boolean failOnBegin;
+
+		private boolean failOnCommit;
+
+		@Override
+		protected Object doGetTransaction() {
+			return new Object();
+		}
+
+		@Override
+		protected boolean isExistingTransaction(Object transaction) {
+			return this.existingTransaction;
+		}
+
+		@Override
+		protected void doBegin(Object transaction, TransactionDefinition definition) {
+			if (this.failOnBegin) {
+				throw new CannotCreateTransactionException("Cannot create transaction");
+			}
+		}
+
+		@Override
+		protected Object doSuspend(Object transaction) {
+			return transaction;
+		}
+
+		@Override
+		protected void doResume(Object transaction, Object suspendedResources) {
+		}
+
+		@Override
+		protected void doCommit(DefaultTransactionStatus status) {
+			if (this.failOnCommit) {
+				throw new IllegalStateException("Commit failed");
+			}
+		}
+
+		@Override
+		protected void doRollback(DefaultTransactionStatus status) {
+		}
+
+		@Override
+		protected void doSetRollbackOnly(DefaultTransactionStatus status) {
+		}
+	}
+
+}
@@ -0,0 +1,209 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.io.IOException;
+import java.net.URI;
+
+import org.apache.http.client.HttpClient;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.Configurable;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.impl.nio.client.CloseableHttpAsyncClient;
+import org.apache.http.impl.nio.client.HttpAsyncClients;
+import org.apache.http.protocol.BasicHttpContext;
+import org.apache.http.protocol.HttpContext;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.Assert;
+
+/**
+ * Asynchronous extension of the {@link HttpComponentsClientHttpRequestFactory}. Uses
+ * <a href="http://hc.apache.org/httpcomponents-asyncclient-dev/">Apache HttpComponents
+ * HttpAsyncClient 4.0</a> to create requests. Requires HttpAsyncClient 4.0 or higher,
+ * along with HttpClient 4.3 and HttpCore NIO 4.3 or higher.
+ *
+ * <p>Requests are executed on the client's I/O reactor threads, so a small, fixed
+ * number of threads serves any number of concurrent exchanges.
+ *
+ * <p>{@linkplain #setConnectTimeout Connect} and {@linkplain #setReadTimeout read}
+ * timeouts apply to both the synchronous and the asynchronous client. For the latter,
+ * they are merged into the client's default request configuration, if it exposes one.
+ *
+ * @since 3.2.13
+ * @see org.apache.http.nio.client.HttpAsyncClient
+ */
+public class HttpComponentsAsyncClientHttpRequestFactory extends HttpComponentsClientHttpRequestFactory
+		implements AsyncClientHttpRequestFactory, InitializingBean {
+
+	private CloseableHttpAsyncClient httpAsyncClient;
+
+	// Initialized after the superclass constructor has run, so that its
+	// default read timeout only applies to the synchronous HttpClient
+	private int asyncConnectTimeout = -1;
+
+	private int asyncReadTimeout = -1;
+
+
+	/**
+	 * Create a new instance of the {@code HttpComponentsAsyncClientHttpRequestFactory}
+	 * with a default {@link CloseableHttpAsyncClient} and {@link HttpClient}.
+	 */
+	public HttpComponentsAsyncClientHttpRequestFactory() {
+		this(HttpAsyncClients.createSystem());
+	}
+
+	/**
+	 * Create a new instance of the {@code HttpComponentsAsyncClientHttpRequestFactory}
+	 * with the given {@link CloseableHttpAsyncClient} instance and a default {@link HttpClient}.
+	 * @param httpAsyncClient the HttpAsyncClient instance to use for this request factory
+	 */
+	public HttpComponentsAsyncClientHttpRequestFactory(CloseableHttpAsyncClient httpAsyncClient) {
+		super();
+		Assert.notNull(httpAsyncClient, "'httpAsyncClient' must not be null");
+		this.httpAsyncClient = httpAsyncClient;
+	}
+
+	/**
+	 * Create a new instance of the {@code HttpComponentsAsyncClientHttpRequestFactory}
+	 * with the given {@link HttpClient} and {@link CloseableHttpAsyncClient} instances.
+	 * @param httpClient the HttpClient instance to use for this request factory
+	 * @param httpAsyncClient the HttpAsyncClient instance to use for this request factory
+	 */
+	public HttpComponentsAsyncClientHttpRequestFactory(HttpClient httpClient,
+			CloseableHttpAsyncClient httpAsyncClient) {
+
+		super(httpClient);
+		Assert.notNull(httpAsyncClient, "'httpAsyncClient' must not be null");
+		this.httpAsyncClient = httpAsyncClient;
+	}
+
+
+	/**
+	 * Set the {@code HttpAsyncClient} used for
+	 * {@linkplain #createAsyncRequest(URI, HttpMethod) asynchronous execution}.
+	 */
+	public void setHttpAsyncClient(CloseableHttpAsyncClient httpAsyncClient) {
+		this.httpAsyncClient = httpAsyncClient;
+	}
+
+	/**
+	 * Return the {@code HttpAsyncClient} used for
+	 * {@linkplain #createAsyncRequest(URI, HttpMethod) asynchronous execution}.
+	 */
+	public CloseableHttpAsyncClient getHttpAsyncClient() {
+		return this.httpAsyncClient;
+	}
+
+	/**
+	 * Set the connection timeout for the underlying HttpClient and HttpAsyncClient.
+	 * A timeout value of 0 specifies an infinite timeout.
+	 * @param timeout the timeout value in milliseconds
+	 */
+	@Override
+	public void setConnectTimeout(int timeout) {
+		super.setConnectTimeout(timeout);
+		this.asyncConnectTimeout = timeout;
+	}
+
+	/**
+	 * Set the socket read timeout for the underlying HttpClient and HttpAsyncClient.
+	 * A timeout value of 0 specifies an infinite timeout.
+	 * @param timeout the timeout value in milliseconds
+	 */
+	@Override
+	public void setReadTimeout(int timeout) {
+		super.setReadTimeout(timeout);
+		this.asyncReadTimeout = timeout;
+	}
+
+	public void afterPropertiesSet() {
+		startAsyncClient();
+	}
+
+	private void startAsyncClient() {
+		CloseableHttpAsyncClient asyncClient = getHttpAsyncClient();
+		if (!asyncClient.isRunning()) {
+			synchronized (asyncClient) {
+				if (!asyncClient.isRunning()) {
+					asyncClient.start();
+				}
+			}
+		}
+	}
+
+	public AsyncClientHttpRequest createAsyncRequest(URI uri, HttpMethod httpMethod) throws IOException {
+		startAsyncClient();
+		HttpUriRequest httpRequest = createHttpUriRequest(httpMethod, uri);
+		postProcessHttpRequest(httpRequest);
+		HttpContext context = createHttpContext(httpMethod, uri);
+		if (context == null) {
+			context = new BasicHttpContext();
+		}
+		if (context.getAttribute(HttpClientContext.REQUEST_CONFIG) == null &&
+				!(httpRequest instanceof Configurable && ((Configurable) httpRequest).getConfig() != null)) {
+			RequestConfig config = createAsyncRequestConfig();
+			if (config != null) {
+				context.setAttribute(HttpClientContext.REQUEST_CONFIG, config);
+			}
+		}
+		return new HttpComponentsAsyncClientHttpRequest(getHttpAsyncClient(), httpRequest, context);
+	}
+
+	/**
+	 * Create the request configuration for asynchronous requests, applying the
+	 * configured timeouts on top of the HttpAsyncClient's default configuration.
+	 * @return the request configuration, or {@code null} if no timeouts have been set
+	 */
+	private RequestConfig createAsyncRequestConfig() {
+		if (this.asyncConnectTimeout < 0 && this.asyncReadTimeout < 0) {
+			return null;
+		}
+		CloseableHttpAsyncClient asyncClient = getHttpAsyncClient();
+		RequestConfig clientConfig = (asyncClient instanceof Configurable ? ((Configurable) asyncClient).getConfig() : null);
+		RequestConfig.Builder builder = (clientConfig != null ? RequestConfig.copy(clientConfig) : RequestConfig.custom());
+		if (this.asyncConnectTimeout >= 0) {
+			builder.setConnectTimeout(this.asyncConnectTimeout);
+		}
+		if (this.asyncReadTimeout >= 0) {
+			builder.setSocketTimeout(this.asyncReadTimeout);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * Shutdown hook that closes the underlying HttpClient's connection pool, as well as
+	 * the HttpAsyncClient and its I/O reactor.
+	 */
+	@Override
+	public void destroy() {
+		try {
+			super.destroy();
+		}
+		finally {
+			try {
+				getHttpAsyncClient().close();
+			}
+			catch (IOException ex) {
+				// ignore
+			}
+		}
+	}
+
+}
@@ -16,9 +16,12 @@
 
 package org.springframework.http.converter.json;
 
+import java.io.Closeable;
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
+import java.util.Iterator;
 import java.util.List;
 
 import org.springframework.http.HttpInputMessage;
@@ -29,14 +32,22 @@ import org.springframework.http.converter.GenericHttpMessageConverter;
 import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.http.converter.HttpMessageNotWritableException;
 import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
 
 import com.fasterxml.jackson.core.JsonEncoding;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.TreeNode;
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.ContainerSerializer;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import com.fasterxml.jackson.databind.ser.SerializerFactory;
 
 /**
  * Implementation of {@link org.springframework.http.converter.HttpMessageConverter HttpMessageConverter}
@@ -47,6 +58,14 @@ import com.fasterxml.jackson.databind.SerializationFeature;
  * <p>By default, this converter supports {@code application/json}. This can be overridden by setting the
  * {@link #setSupportedMediaTypes(List) supportedMediaTypes} property.
  *
+ * <p>An {@link Iterator}, or an {@link Iterable} of one of the configured
+ * {@link #setStreamingTypes streamingTypes}, is written as a JSON array one element at a time,
+ * flushing the response every {@link #setStreamingFlushSize streamingFlushSize} elements.
+ * This allows for returning large result sets, e.g. backed by an open database cursor, without
+ * holding them in memory. Such a source is closed after writing if it implements {@link Closeable}.
+ * Tree nodes, and types that Jackson does not serialize as an array anyway (e.g. because of a
+ * custom serializer), are always written as a single value.
+ *
  * @author Arjen Poutsma
  * @author Keith Donald
  * @author Rossen Stoyanchev
@@ -58,6 +77,10 @@ public class MappingJackson2HttpMessageConverter extends AbstractHttpMessageConv
 
 	public static final Charset DEFAULT_CHARSET = Charset.forName("UTF-8");
 
+	// ObjectMapper.getSerializerFactory() is only available on Jackson 2.2+
+	private static final Method getSerializerFactoryMethod =
+			ClassUtils.getMethodIfAvailable(ObjectMapper.class, "getSerializerFactory");
+
 
 	private ObjectMapper objectMapper = new ObjectMapper();
 
@@ -65,6 +88,10 @@ public class MappingJackson2HttpMessageConverter extends AbstractHttpMessageConv
 
 	private Boolean prettyPrint;
 
+	private int streamingFlushSize = 100;
+
+	private Class<?>[] streamingTypes = new Class<?>[0];
+
 
 	/**
 	 * Construct a new {@code MappingJackson2HttpMessageConverter}.
@@ -136,6 +163,32 @@ public class MappingJackson2HttpMessageConverter extends AbstractHttpMessageConv
 		configurePrettyPrint();
 	}
 
+	/**
+	 * Set the {@link Iterable} types to write element by element, in addition to
+	 * any {@link Iterator}. Default is none, i.e. an Iterable is written as a single
+	 * value through the {@code ObjectMapper}.
+	 * <p>An Iterable is only streamed if the {@code ObjectMapper} would serialize it
+	 * as an array anyway, so types with a custom serializer are not affected.
+	 * @since 3.2.13
+	 * @see #setStreamingFlushSize
+	 */
+	public void setStreamingTypes(Class<?>... streamingTypes) {
+		Assert.notNull(streamingTypes, "'streamingTypes' must not be null");
+		this.streamingTypes = streamingTypes;
+	}
+
+	/**
+	 * Set the number of elements after which the response is flushed when writing
+	 * an {@link Iterator} or an Iterable of one of the {@link #setStreamingTypes
+	 * streamingTypes} element by element. Default is 100.
+	 * <p>Set this to 0 to flush only once all elements have been written.
+	 * @since 3.2.13
+	 */
+	public void setStreamingFlushSize(int streamingFlushSize) {
+		Assert.isTrue(streamingFlushSize >= 0, "'streamingFlushSize' must not be negative");
+		this.streamingFlushSize = streamingFlushSize;
+	}
+
 
 	@Override
 	public boolean canRead(Class<?> clazz, MediaType mediaType) {
@@ -201,13 +254,100 @@ public class MappingJackson2HttpMessageConverter extends AbstractHttpMessageConv
 			if (this.jsonPrefix != null) {
 				jsonGenerator.writeRaw(this.jsonPrefix);
 			}
-			this.objectMapper.writeValue(jsonGenerator, object);
+			if (isStreamable(object)) {
+				writeElements(object, jsonGenerator);
+			}
+			else {
+				this.objectMapper.writeValue(jsonGenerator, object);
+			}
 		}
 		catch (JsonProcessingException ex) {
 			throw new HttpMessageNotWritableException("Could not write JSON: " + ex.getMessage(), ex);
 		}
 	}
 
+	/**
+	 * Determine whether the given value is to be written element by element:
+	 * an Iterator, or an Iterable of one of the configured streaming types,
+	 * which Jackson would serialize as an array as well.
+	 */
+	private boolean isStreamable(Object object) throws JsonProcessingException {
+		if (object instanceof TreeNode) {
+			return false;
+		}
+		if (!(object instanceof Iterator)) {
+			if (!(object instanceof Iterable) || !isStreamingType(object.getClass())) {
+				return false;
+			}
+		}
+		return hasContainerSerializer(object.getClass());
+	}
+
+	private boolean isStreamingType(Class<?> clazz) {
+		for (Class<?> streamingType : this.streamingTypes) {
+			if (streamingType.isAssignableFrom(clazz)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Check whether the serializer that the {@code ObjectMapper} uses for the given
+	 * type writes it as an array. On Jackson versions before 2.2, which do not expose
+	 * the serializer factory, the configured streaming types are trusted as they are.
+	 */
+	private boolean hasContainerSerializer(Class<?> clazz) throws JsonProcessingException {
+		if (getSerializerFactoryMethod == null ||
+				!(this.objectMapper.getSerializerProvider() instanceof DefaultSerializerProvider)) {
+			return true;
+		}
+		SerializerFactory serializerFactory =
+				(SerializerFactory) ReflectionUtils.invokeMethod(getSerializerFactoryMethod, this.objectMapper);
+		SerializerProvider provider = ((DefaultSerializerProvider) this.objectMapper.getSerializerProvider())
+				.createInstance(this.objectMapper.getSerializationConfig(), serializerFactory);
+		return (provider.findValueSerializer(clazz, null) instanceof ContainerSerializer);
+	}
+
+	/**
+	 * Write the elements of the given Iterator or Iterable as a JSON array, one at a
+	 * time, and close the source afterwards if it is {@link Closeable}.
+	 */
+	private void writeElements(Object source, JsonGenerator jsonGenerator) throws IOException {
+		Iterator<?> iterator = (source instanceof Iterator ? (Iterator<?>) source : ((Iterable<?>) source).iterator());
+		try {
+			// Flushing is controlled by the element count here rather than per value
+			ObjectWriter writer = this.objectMapper.writer().without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+			jsonGenerator.writeStartArray();
+			int count = 0;
+			while (iterator.hasNext()) {
+				writer.writeValue(jsonGenerator, iterator.next());
+				if (this.streamingFlushSize > 0 && ++count % this.streamingFlushSize == 0) {
+					jsonGenerator.flush();
+				}
+			}
+			jsonGenerator.writeEndArray();
+			jsonGenerator.flush();
+		}
+		finally {
+			closeIfNecessary(iterator);
+			if (iterator != source) {
+				closeIfNecessary(source);
+			}
+		}
+	}
+
+	private void closeIfNecessary(Object source) {
+		if (source instanceof Closeable) {
+			try {
+				((Closeable) source).close();
+			}
+			catch (IOException ex) {
+				logger.debug("Could not close streamed JSON source", ex);
+			}
+		}
+	}
+
 	/**
 	 * Return the Jackson {@link JavaType} for the specified type and context class.
 	 * <p>The default implementation returns {@link ObjectMapper#constructType(java.lang.reflect.Type)}
@@ -17,7 +17,10 @@
 package org.springframework.web.accept;
 
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springframework.http.MediaType;
 import org.springframework.util.StringUtils;
@@ -27,13 +30,43 @@ import org.springframework.web.context.request.NativeWebRequest;
 /**
  * A ContentNegotiationStrategy that parses the 'Accept' header of the request.
  *
+ * <p>Since the set of distinct 'Accept' headers seen by an application tends to
+ * be small, parsed and sorted media types are cached per header value, up to
+ * {@link #CACHE_LIMIT} entries with the least recently used entries evicted first.
+ * The returned lists are therefore unmodifiable.
+ *
  * @author Rossen Stoyanchev
  * @since 3.2
  */
 public class HeaderContentNegotiationStrategy implements ContentNegotiationStrategy {
 
+	/** Maximum number of cached 'Accept' header values: 256 */
+	public static final int CACHE_LIMIT = 256;
+
 	private static final String ACCEPT_HEADER = "Accept";
 
+
+	/** Fast access cache for parsed media types, without a global lock */
+	private final Map<String, List<MediaType>> mediaTypesAccessCache =
+			new ConcurrentHashMap<String, List<MediaType>>(CACHE_LIMIT);
+
+	/** Map from header value to parsed media types, synchronized when adding entries */
+	@SuppressWarnings("serial")
+	private final Map<String, List<MediaType>> mediaTypesCreationCache =
+			new LinkedHashMap<String, List<MediaType>>(CACHE_LIMIT, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, List<MediaType>> eldest) {
+					if (size() > CACHE_LIMIT) {
+						mediaTypesAccessCache.remove(eldest.getKey());
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+			};
+
+
 	/**
 	 * {@inheritDoc}
 	 * @throws HttpMediaTypeNotAcceptableException if the 'Accept' header cannot be parsed.
@@ -42,8 +75,16 @@ public class HeaderContentNegotiationStrategy implements ContentNegotiationStrat
 		String acceptHeader = webRequest.getHeader(ACCEPT_HEADER);
 		try {
 			if (StringUtils.hasText(acceptHeader)) {
-				List<MediaType> mediaTypes = MediaType.parseMediaTypes(acceptHeader);
-				MediaType.sortBySpecificityAndQuality(mediaTypes);
+				List<MediaType> mediaTypes = this.mediaTypesAccessCache.get(acceptHeader);
+				if (mediaTypes == null) {
+					mediaTypes = MediaType.parseMediaTypes(acceptHeader);
+					MediaType.sortBySpecificityAndQuality(mediaTypes);
+					mediaTypes = Collections.unmodifiableList(mediaTypes);
+					synchronized (this.mediaTypesCreationCache) {
+						this.mediaTypesAccessCache.put(acceptHeader, mediaTypes);
+						this.mediaTypesCreationCache.put(acceptHeader, mediaTypes);
+					}
+				}
 				return mediaTypes;
 			}
 		}
@@ -566,6 +566,40 @@ public class RestTemplate extends InterceptingHttpAccessor implements RestOperat
 		getErrorHandler().handleError(response);
 	}
 
+	/**
+	 * Return a {@code RequestCallback} that sets the request {@code Accept} header
+	 * based on the given response type, cross-checked against the configured
+	 * message converters. Shared with {@link AsyncRestTemplate}.
+	 */
+	RequestCallback acceptHeaderRequestCallback(Type responseType) {
+		return new AcceptHeaderRequestCallback(responseType);
+	}
+
+	/**
+	 * Return a {@code RequestCallback} implementation that writes the given object
+	 * to the request stream, and prepares the {@code Accept} header for the given
+	 * response type (may be {@code null}). Shared with {@link AsyncRestTemplate}.
+	 */
+	RequestCallback httpEntityCallback(Object requestBody, Type responseType) {
+		return new HttpEntityRequestCallback(requestBody, responseType);
+	}
+
+	/**
+	 * Return a {@code ResponseExtractor} that prepares a {@link ResponseEntity}.
+	 * Shared with {@link AsyncRestTemplate}.
+	 */
+	<T> ResponseExtractor<ResponseEntity<T>> responseEntityExtractor(Type responseType) {
+		return new ResponseEntityResponseExtractor<T>(responseType);
+	}
+
+	/**
+	 * Return a response extractor for {@link HttpHeaders}.
+	 * Shared with {@link AsyncRestTemplate}.
+	 */
+	ResponseExtractor<HttpHeaders> headersExtractor() {
+		return this.headersExtractor;
+	}
+
 
 	/**
 	 * Request callback implementation that prepares the request's accept headers.
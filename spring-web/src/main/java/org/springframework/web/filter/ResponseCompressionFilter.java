@@ -0,0 +1,762 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * {@link javax.servlet.Filter} that compresses response content on the fly with
+ * "gzip" or "deflate" content coding, depending on the {@code Accept-Encoding}
+ * header of the request.
+ *
+ * <p>Content is written through a wrapped {@link ServletOutputStream} rather than
+ * buffered as a whole. Only the first {@link #setMinCompressSize "minCompressSize"}
+ * bytes are held back: once that many bytes have been written, or the response is
+ * flushed, the response is compressed if its content type matches one of the
+ * {@link #setCompressibleContentTypes compressible content types} and it does not
+ * specify a {@code Content-Encoding} of its own. Smaller responses, and responses
+ * with a {@code Content-Length} below the threshold, are passed through unchanged.
+ * Flushing the response writes out the content compressed so far (on Java 7 and
+ * higher through a sync flush of the Deflater), so streamed responses keep flowing.
+ *
+ * <p>{@link Deflater} instances are pooled, since each one holds native memory
+ * that is only released when it is {@linkplain Deflater#end() ended}.
+ *
+ * <p>The filter supports async requests: the response is completed in the last
+ * asynchronously dispatched thread, and the Deflater in use is released if the
+ * async request times out or fails. It may be combined with a
+ * {@link ShallowEtagHeaderFilter}; mapped before this filter, the ETag is calculated
+ * over the compressed content, and mapped after it, the Content-Length set by the
+ * ETag filter is used to skip compression of small responses.
+ *
+ * @since 3.2.13
+ */
+public class ResponseCompressionFilter extends OncePerRequestFilter {
+
+	private static final String HEADER_ACCEPT_ENCODING = "Accept-Encoding";
+
+	private static final String HEADER_CONTENT_ENCODING = "Content-Encoding";
+
+	private static final String HEADER_CONTENT_LENGTH = "Content-Length";
+
+	private static final String HEADER_VARY = "Vary";
+
+	private static final String GZIP = "gzip";
+
+	private static final String DEFLATE = "deflate";
+
+	private static final int DEFLATE_BUFFER_SIZE = 8192;
+
+	/** Gzip member header: magic number, "deflate" method, no flags, no mtime, unknown OS */
+	private static final byte[] GZIP_HEADER = new byte[] {0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+	/** Deflater.SYNC_FLUSH on Java 7+ */
+	private static final int SYNC_FLUSH = 2;
+
+	/** Deflater.deflate(byte[], int, int, int) on Java 7+ */
+	private static final Method syncFlushMethod = ClassUtils.getMethodIfAvailable(
+			Deflater.class, "deflate", byte[].class, int.class, int.class, int.class);
+
+	private static final String[] DEFAULT_COMPRESSIBLE_CONTENT_TYPES = new String[] {
+			"text/html", "text/plain", "text/css", "text/xml", "text/javascript", "application/javascript",
+			"application/json", "application/xml", "application/*+json", "application/*+xml"};
+
+
+	private List<MediaType> compressibleContentTypes = parseMediaTypes(DEFAULT_COMPRESSIBLE_CONTENT_TYPES);
+
+	private int minCompressSize = 1024;
+
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private final DeflaterPool gzipDeflaters = new DeflaterPool(true);
+
+	private final DeflaterPool zlibDeflaters = new DeflaterPool(false);
+
+
+	/**
+	 * Set the content types of responses to compress. Wildcards such as
+	 * {@code text/*} or {@code application/*+xml} may be used.
+	 * <p>Default are common textual types such as {@code text/html},
+	 * {@code text/css}, {@code application/javascript} and {@code application/json}.
+	 * Note that {@code text/event-stream} is not included by default, so that
+	 * Server-Sent Events reach clients without delay.
+	 */
+	public void setCompressibleContentTypes(String... contentTypes) {
+		Assert.notNull(contentTypes, "'contentTypes' must not be null");
+		this.compressibleContentTypes = parseMediaTypes(contentTypes);
+	}
+
+	private static List<MediaType> parseMediaTypes(String[] contentTypes) {
+		List<MediaType> result = new ArrayList<MediaType>(contentTypes.length);
+		for (String contentType : contentTypes) {
+			result.add(MediaType.parseMediaType(contentType));
+		}
+		return result;
+	}
+
+	/**
+	 * Set the minimum number of bytes a response must have to get compressed.
+	 * This many bytes are buffered before deciding whether to compress.
+	 * <p>Default is 1024.
+	 */
+	public void setMinCompressSize(int minCompressSize) {
+		Assert.isTrue(minCompressSize >= 0, "'minCompressSize' must not be negative");
+		this.minCompressSize = minCompressSize;
+	}
+
+	/**
+	 * Set the compression level to use, from 0 to 9.
+	 * <p>Default is {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		Assert.isTrue(compressionLevel == Deflater.DEFAULT_COMPRESSION ||
+				(compressionLevel >= Deflater.NO_COMPRESSION && compressionLevel <= Deflater.BEST_COMPRESSION),
+				"Invalid compression level: " + compressionLevel);
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Set the maximum number of idle {@link Deflater} instances to keep for reuse,
+	 * per content coding. Further instances are released after use.
+	 * <p>Default is twice the number of available processors.
+	 */
+	public void setMaxPooledDeflaters(int maxPooledDeflaters) {
+		this.gzipDeflaters.setMaxSize(maxPooledDeflaters);
+		this.zlibDeflaters.setMaxSize(maxPooledDeflaters);
+	}
+
+
+	/**
+	 * The default value is "false" so that the filter may complete the
+	 * compressed response in the last asynchronously dispatched thread.
+	 */
+	@Override
+	protected boolean shouldNotFilterAsyncDispatch() {
+		return false;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+			throws ServletException, IOException {
+
+		HttpServletResponse responseToUse = response;
+		if (!isAsyncDispatch(request)) {
+			String contentCoding = getContentCoding(request);
+			if (contentCoding != null) {
+				responseToUse = new CompressingResponseWrapper(response, contentCoding);
+			}
+		}
+
+		boolean success = false;
+		try {
+			filterChain.doFilter(request, responseToUse);
+			success = true;
+		}
+		finally {
+			CompressingResponseWrapper responseWrapper =
+					WebUtils.getNativeResponse(responseToUse, CompressingResponseWrapper.class);
+			if (responseWrapper != null) {
+				if (isAsyncStarted(request)) {
+					request.getAsyncContext().addListener(new DeflaterReleasingListener(responseWrapper));
+				}
+				else if (success) {
+					responseWrapper.finishResponse();
+				}
+				else {
+					responseWrapper.release();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Determine the content coding to use for the given request, from its
+	 * {@code Accept-Encoding} header.
+	 * @return "gzip", "deflate", or {@code null} to not compress the response
+	 */
+	protected String getContentCoding(HttpServletRequest request) {
+		String header = request.getHeader(HEADER_ACCEPT_ENCODING);
+		if (!StringUtils.hasText(header)) {
+			return null;
+		}
+		boolean deflate = false;
+		for (String token : StringUtils.tokenizeToStringArray(header, ",")) {
+			int paramIndex = token.indexOf(';');
+			String coding = (paramIndex != -1 ? token.substring(0, paramIndex).trim() : token);
+			if (paramIndex != -1 && isZeroQuality(token.substring(paramIndex + 1))) {
+				continue;
+			}
+			if (GZIP.equalsIgnoreCase(coding) || "x-gzip".equalsIgnoreCase(coding)) {
+				return GZIP;
+			}
+			if (DEFLATE.equalsIgnoreCase(coding)) {
+				deflate = true;
+			}
+		}
+		return (deflate ? DEFLATE : null);
+	}
+
+	private static boolean isZeroQuality(String params) {
+		for (String param : StringUtils.tokenizeToStringArray(params, ";")) {
+			if (param.startsWith("q=")) {
+				try {
+					return (Double.parseDouble(param.substring(2)) == 0);
+				}
+				catch (NumberFormatException ex) {
+					return false;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Whether a response with the given content type should be compressed.
+	 * @param contentType the content type of the response, possibly {@code null}
+	 */
+	protected boolean isCompressibleContentType(String contentType) {
+		if (contentType == null) {
+			return false;
+		}
+		MediaType mediaType;
+		try {
+			mediaType = MediaType.parseMediaType(contentType);
+		}
+		catch (IllegalArgumentException ex) {
+			return false;
+		}
+		for (MediaType compressibleType : this.compressibleContentTypes) {
+			if (compressibleType.includes(mediaType)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Release pooled {@link Deflater} instances.
+	 */
+	@Override
+	public void destroy() {
+		this.gzipDeflaters.clear();
+		this.zlibDeflaters.clear();
+	}
+
+
+	/**
+	 * Bounded pool of Deflater instances for one content coding.
+	 */
+	private class DeflaterPool {
+
+		private final boolean nowrap;
+
+		private final Queue<Deflater> deflaters = new ConcurrentLinkedQueue<Deflater>();
+
+		private final AtomicInteger size = new AtomicInteger();
+
+		private volatile int maxSize = Runtime.getRuntime().availableProcessors() * 2;
+
+		public DeflaterPool(boolean nowrap) {
+			this.nowrap = nowrap;
+		}
+
+		public void setMaxSize(int maxSize) {
+			this.maxSize = maxSize;
+		}
+
+		public Deflater borrow() {
+			Deflater deflater = this.deflaters.poll();
+			if (deflater != null) {
+				this.size.decrementAndGet();
+				return deflater;
+			}
+			return new Deflater(compressionLevel, this.nowrap);
+		}
+
+		public void release(Deflater deflater) {
+			if (this.size.incrementAndGet() <= this.maxSize) {
+				deflater.reset();
+				this.deflaters.offer(deflater);
+			}
+			else {
+				this.size.decrementAndGet();
+				deflater.end();
+			}
+		}
+
+		public void clear() {
+			Deflater deflater;
+			while ((deflater = this.deflaters.poll()) != null) {
+				this.size.decrementAndGet();
+				deflater.end();
+			}
+		}
+	}
+
+
+	/**
+	 * {@link HttpServletResponseWrapper} that holds back the first bytes written
+	 * until it is known whether to compress, and compresses further content
+	 * as it is written.
+	 */
+	private class CompressingResponseWrapper extends HttpServletResponseWrapper {
+
+		private final String contentCoding;
+
+		private final CompressingServletOutputStream outputStream = new CompressingServletOutputStream();
+
+		private PrintWriter writer;
+
+		private long contentLength = -1;
+
+		public CompressingResponseWrapper(HttpServletResponse response, String contentCoding) {
+			super(response);
+			this.contentCoding = contentCoding;
+		}
+
+		@Override
+		public void setContentLength(int len) {
+			setContentLengthLong(len);
+		}
+
+		// Servlet 3.1 variant: not annotated with @Override for compatibility with Servlet 3.0
+		public void setContentLengthLong(long len) {
+			this.contentLength = len;
+			Boolean compress = this.outputStream.compress;
+			if (compress == null) {
+				if (len < minCompressSize) {
+					this.outputStream.decide(false);
+				}
+			}
+			else if (!compress) {
+				applyContentLength(len);
+			}
+		}
+
+		private void applyContentLength(long len) {
+			if (len <= Integer.MAX_VALUE) {
+				super.setContentLength((int) len);
+			}
+			else {
+				super.setHeader(HEADER_CONTENT_LENGTH, Long.toString(len));
+			}
+		}
+
+		private void setContentLengthHeader(String value) {
+			try {
+				setContentLengthLong(Long.parseLong(value.trim()));
+			}
+			catch (NumberFormatException ex) {
+				// cannot rely on an invalid length, and it would not match compressed content either
+				if (logger.isDebugEnabled()) {
+					logger.debug("Ignoring invalid Content-Length header value [" + value + "]");
+				}
+			}
+		}
+
+		@Override
+		public void sendError(int sc) throws IOException {
+			this.outputStream.passThrough();
+			super.sendError(sc);
+		}
+
+		@Override
+		public void sendError(int sc, String msg) throws IOException {
+			this.outputStream.passThrough();
+			super.sendError(sc, msg);
+		}
+
+		@Override
+		public void sendRedirect(String location) throws IOException {
+			this.outputStream.passThrough();
+			super.sendRedirect(location);
+		}
+
+		@Override
+		public void setHeader(String name, String value) {
+			if (HEADER_CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthHeader(value);
+			}
+			else {
+				super.setHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addHeader(String name, String value) {
+			if (HEADER_CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLengthHeader(value);
+			}
+			else {
+				super.addHeader(name, value);
+			}
+		}
+
+		@Override
+		public void setIntHeader(String name, int value) {
+			if (HEADER_CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLength(value);
+			}
+			else {
+				super.setIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public void addIntHeader(String name, int value) {
+			if (HEADER_CONTENT_LENGTH.equalsIgnoreCase(name)) {
+				setContentLength(value);
+			}
+			else {
+				super.addIntHeader(name, value);
+			}
+		}
+
+		@Override
+		public ServletOutputStream getOutputStream() {
+			return this.outputStream;
+		}
+
+		@Override
+		public PrintWriter getWriter() throws IOException {
+			if (this.writer == null) {
+				String characterEncoding = getCharacterEncoding();
+				this.writer = new PrintWriter(new OutputStreamWriter(this.outputStream,
+						characterEncoding != null ? characterEncoding : WebUtils.DEFAULT_CHARACTER_ENCODING));
+			}
+			return this.writer;
+		}
+
+		@Override
+		public void flushBuffer() throws IOException {
+			if (this.writer != null) {
+				this.writer.flush();
+			}
+			this.outputStream.flush();
+		}
+
+		@Override
+		public void reset() {
+			this.outputStream.resetBuffer();
+			super.reset();
+		}
+
+		@Override
+		public void resetBuffer() {
+			this.outputStream.resetBuffer();
+			super.resetBuffer();
+		}
+
+		/**
+		 * Write any remaining content and complete the compressed stream.
+		 */
+		public void finishResponse() throws IOException {
+			if (this.writer != null) {
+				// pass on pending characters without committing the response ahead of finish()
+				this.outputStream.finishing = true;
+				this.writer.flush();
+			}
+			this.outputStream.finish();
+		}
+
+		/**
+		 * Return the Deflater in use, if any, without completing the response.
+		 */
+		public void release() {
+			this.outputStream.releaseDeflater();
+		}
+
+		/**
+		 * Return the Deflater in use, if any, once the response can no longer be
+		 * completed, e.g. after an async timeout or error. Content written from then
+		 * on cannot be compressed, so this also ends a response that is being compressed.
+		 */
+		public void abort() {
+			this.outputStream.abort();
+		}
+
+		private OutputStream getRawOutputStream() throws IOException {
+			return getResponse().getOutputStream();
+		}
+
+
+		private class CompressingServletOutputStream extends ServletOutputStream {
+
+			private byte[] buffer = new byte[minCompressSize];
+
+			private int count;
+
+			private Boolean compress;
+
+			private DeflaterPool pool;
+
+			private Deflater deflater;
+
+			private CRC32 crc;
+
+			private byte[] deflateBuffer;
+
+			private boolean finishing;
+
+			private boolean finished;
+
+			@Override
+			public void write(int b) throws IOException {
+				write(new byte[] {(byte) b}, 0, 1);
+			}
+
+			@Override
+			public synchronized void write(byte[] b, int off, int len) throws IOException {
+				Assert.state(!this.finished, "Response already completed");
+				if (this.compress == null) {
+					if (this.count + len <= this.buffer.length) {
+						System.arraycopy(b, off, this.buffer, this.count, len);
+						this.count += len;
+						return;
+					}
+					decide(isCompressible());
+				}
+				writeBuffered();
+				writeContent(b, off, len);
+			}
+
+			@Override
+			public synchronized void flush() throws IOException {
+				if (this.finished || this.finishing) {
+					return;
+				}
+				// flushing commits the response, so the headers have to be final by now
+				decide(isCompressible());
+				writeBuffered();
+				if (this.compress) {
+					syncFlush();
+				}
+				getRawOutputStream().flush();
+			}
+
+			/**
+			 * Write out all content given to the Deflater so far, if supported
+			 * by the JDK (Java 7 or higher).
+			 */
+			private void syncFlush() throws IOException {
+				if (syncFlushMethod == null) {
+					return;
+				}
+				writeGzipHeaderIfNecessary();
+				int length;
+				do {
+					length = (Integer) ReflectionUtils.invokeMethod(syncFlushMethod, this.deflater,
+							this.deflateBuffer, 0, this.deflateBuffer.length, SYNC_FLUSH);
+					getRawOutputStream().write(this.deflateBuffer, 0, length);
+				}
+				while (length == this.deflateBuffer.length);
+			}
+
+			public synchronized void finish() throws IOException {
+				if (this.finished) {
+					return;
+				}
+				try {
+					if (this.compress == null) {
+						decide(this.count > 0 && this.count >= minCompressSize && isCompressible());
+					}
+					writeBuffered();
+					if (this.deflater != null) {
+						this.deflater.finish();
+						while (!this.deflater.finished()) {
+							writeDeflated();
+						}
+						if (this.crc != null) {
+							writeGzipTrailer();
+						}
+					}
+					getRawOutputStream().flush();
+				}
+				finally {
+					this.finished = true;
+					releaseDeflater();
+				}
+			}
+
+			private boolean isCompressible() {
+				return (!containsHeader(HEADER_CONTENT_ENCODING) && isCompressibleContentType(getContentType()));
+			}
+
+			/**
+			 * Decide whether to compress the response, before any content is written.
+			 */
+			public void decide(boolean compress) {
+				if (this.compress != null) {
+					return;
+				}
+				this.compress = compress;
+				HttpServletResponse response = (HttpServletResponse) getResponse();
+				if (compress) {
+					response.setHeader(HEADER_CONTENT_ENCODING, contentCoding);
+					response.addHeader(HEADER_VARY, HEADER_ACCEPT_ENCODING);
+					this.pool = (GZIP.equals(contentCoding) ? gzipDeflaters : zlibDeflaters);
+					this.deflater = this.pool.borrow();
+					this.deflateBuffer = new byte[DEFLATE_BUFFER_SIZE];
+				}
+				else if (contentLength >= 0) {
+					applyContentLength(contentLength);
+				}
+			}
+
+			private void writeBuffered() throws IOException {
+				if (this.buffer != null) {
+					byte[] content = this.buffer;
+					this.buffer = null;
+					if (this.count > 0) {
+						writeContent(content, 0, this.count);
+					}
+				}
+			}
+
+			private void writeContent(byte[] b, int off, int len) throws IOException {
+				if (!this.compress) {
+					getRawOutputStream().write(b, off, len);
+					return;
+				}
+				writeGzipHeaderIfNecessary();
+				if (this.crc != null) {
+					this.crc.update(b, off, len);
+				}
+				this.deflater.setInput(b, off, len);
+				while (!this.deflater.needsInput()) {
+					writeDeflated();
+				}
+			}
+
+			private void writeGzipHeaderIfNecessary() throws IOException {
+				if (this.crc == null && GZIP.equals(contentCoding)) {
+					getRawOutputStream().write(GZIP_HEADER);
+					this.crc = new CRC32();
+				}
+			}
+
+			private void writeDeflated() throws IOException {
+				int length = this.deflater.deflate(this.deflateBuffer);
+				if (length > 0) {
+					getRawOutputStream().write(this.deflateBuffer, 0, length);
+				}
+			}
+
+			private void writeGzipTrailer() throws IOException {
+				byte[] trailer = new byte[8];
+				writeInt((int) this.crc.getValue(), trailer, 0);
+				writeInt((int) this.deflater.getBytesRead(), trailer, 4);
+				getRawOutputStream().write(trailer);
+			}
+
+			private void writeInt(int value, byte[] bytes, int offset) {
+				bytes[offset] = (byte) (value & 0xff);
+				bytes[offset + 1] = (byte) ((value >> 8) & 0xff);
+				bytes[offset + 2] = (byte) ((value >> 16) & 0xff);
+				bytes[offset + 3] = (byte) ((value >> 24) & 0xff);
+			}
+
+			public void resetBuffer() {
+				Assert.state(this.compress == null, "Response content already written");
+				this.count = 0;
+			}
+
+			/**
+			 * Drop content held back so far and write any further content as is.
+			 */
+			public void passThrough() {
+				if (this.compress == null) {
+					this.compress = false;
+					this.buffer = null;
+					this.count = 0;
+				}
+			}
+
+			public synchronized void abort() {
+				if (this.deflater != null) {
+					this.finished = true;
+					releaseDeflater();
+				}
+			}
+
+			public synchronized void releaseDeflater() {
+				if (this.deflater != null) {
+					this.pool.release(this.deflater);
+					this.deflater = null;
+				}
+			}
+		}
+	}
+
+
+	/**
+	 * Releases the Deflater of an async request that times out or fails, since
+	 * the response may then never be completed by a further dispatch. A separate
+	 * class so that Servlet 3.0 API types are only loaded for async requests.
+	 */
+	private static class DeflaterReleasingListener implements AsyncListener {
+
+		private final CompressingResponseWrapper responseWrapper;
+
+		public DeflaterReleasingListener(CompressingResponseWrapper responseWrapper) {
+			this.responseWrapper = responseWrapper;
+		}
+
+		public void onStartAsync(AsyncEvent event) {
+			event.getAsyncContext().addListener(this);
+		}
+
+		public void onTimeout(AsyncEvent event) {
+			this.responseWrapper.abort();
+		}
+
+		public void onError(AsyncEvent event) {
+			this.responseWrapper.abort();
+		}
+
+		public void onComplete(AsyncEvent event) {
+			this.responseWrapper.release();
+		}
+	}
+
+}
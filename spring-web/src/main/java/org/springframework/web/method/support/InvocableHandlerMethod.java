@@ -210,9 +210,8 @@ public class InvocableHandlerMethod extends HandlerMethod {
 	 * Invoke the handler method with the given argument values.
 	 */
 	private Object invoke(Object... args) throws Exception {
-		ReflectionUtils.makeAccessible(getBridgedMethod());
 		try {
-			return getBridgedMethod().invoke(getBean(), args);
+			return invokeBridgedMethod(args);
 		}
 		catch (IllegalArgumentException ex) {
 			assertTargetBean(getBridgedMethod(), getBean(), args);
@@ -237,6 +236,19 @@ public class InvocableHandlerMethod extends HandlerMethod {
 		}
 	}
 
+	/**
+	 * Call the bridged method on the handler instance with the given argument values.
+	 * <p>The default implementation uses reflection. Subclasses may override this to
+	 * call the method through a generated invoker instead.
+	 * @param args the resolved argument values
+	 * @return the raw value returned by the invoked method
+	 * @since 3.2.13
+	 */
+	protected Object invokeBridgedMethod(Object[] args) throws IllegalAccessException, InvocationTargetException {
+		ReflectionUtils.makeAccessible(getBridgedMethod());
+		return getBridgedMethod().invoke(getBean(), args);
+	}
+
 	/**
 	 * Assert that the target bean class is an instance of the class where the given
 	 * method is declared. In some cases the actual controller instance at request-
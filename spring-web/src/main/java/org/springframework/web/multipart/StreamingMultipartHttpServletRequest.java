@@ -0,0 +1,48 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart;
+
+import java.util.Iterator;
+
+/**
+ * Extension of {@link MultipartHttpServletRequest} for a multipart request
+ * whose parts are read from the request body on demand instead of being
+ * parsed and stored before the handler is invoked.
+ *
+ * <p>Form fields that precede the first file part are exposed as request
+ * parameters, so that they can be bound like any other parameter. All
+ * remaining parts, starting with the first file, are available through
+ * {@link #getPartIterator()}. Files are not available through
+ * {@link #getFile} or {@link #getFileMap}.
+ *
+ * @since 3.2.13
+ * @see StreamingPart
+ * @see org.springframework.web.multipart.commons.CommonsMultipartResolver#setStreaming
+ */
+public interface StreamingMultipartHttpServletRequest extends MultipartHttpServletRequest {
+
+	/**
+	 * Return an iterator over the parts of the request that follow the form
+	 * fields exposed as request parameters, in the order they are received.
+	 * <p>Advancing the iterator skips any unread content of the previous part.
+	 * Parse errors are raised as {@link MultipartException} from the iterator.
+	 * @return the part iterator
+	 * @throws IllegalStateException if the iterator has already been obtained
+	 */
+	Iterator<StreamingPart> getPartIterator();
+
+}
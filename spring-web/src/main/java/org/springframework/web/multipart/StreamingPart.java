@@ -0,0 +1,74 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.springframework.http.HttpHeaders;
+
+/**
+ * A part of a multipart request that is read directly from the request body
+ * as it arrives, rather than being stored in memory or on disk first.
+ *
+ * <p>The content of a part can only be read once, and only until the next
+ * part is requested from the iterator that returned it.
+ *
+ * @since 3.2.13
+ * @see StreamingMultipartHttpServletRequest#getPartIterator()
+ */
+public interface StreamingPart {
+
+	/**
+	 * Return the name of the parameter in the multipart form.
+	 */
+	String getName();
+
+	/**
+	 * Return the original filename in the client's filesystem.
+	 * @return the original filename, or {@code null} for a form field
+	 */
+	String getOriginalFilename();
+
+	/**
+	 * Return the content type of the part.
+	 * @return the content type, or {@code null} if not defined
+	 */
+	String getContentType();
+
+	/**
+	 * Return whether the part is a simple form field rather than a file.
+	 */
+	boolean isFormField();
+
+	/**
+	 * Return the headers of the part.
+	 * @return the headers (never {@code null})
+	 */
+	HttpHeaders getHeaders();
+
+	/**
+	 * Return an InputStream to read the contents of the part from.
+	 * <p>Can only be called once, and the stream must be consumed before
+	 * advancing to the next part.
+	 * @return the contents of the part
+	 * @throws IOException in case of access errors, including an exceeded
+	 * upload size limit
+	 */
+	InputStream getInputStream() throws IOException;
+
+}
@@ -16,16 +16,19 @@
 
 package org.springframework.web.multipart.commons;
 
+import java.io.IOException;
 import java.util.List;
 import javax.servlet.ServletContext;
 import javax.servlet.http.HttpServletRequest;
 
 import org.apache.commons.fileupload.FileItem;
 import org.apache.commons.fileupload.FileItemFactory;
+import org.apache.commons.fileupload.FileItemIterator;
 import org.apache.commons.fileupload.FileUpload;
 import org.apache.commons.fileupload.FileUploadBase;
 import org.apache.commons.fileupload.FileUploadException;
 import org.apache.commons.fileupload.servlet.ServletFileUpload;
+import org.apache.commons.fileupload.servlet.ServletRequestContext;
 
 import org.springframework.util.Assert;
 import org.springframework.web.context.ServletContextAware;
@@ -33,6 +36,7 @@ import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
 import org.springframework.web.multipart.support.DefaultMultipartHttpServletRequest;
 import org.springframework.web.util.WebUtils;
 
@@ -55,6 +59,7 @@ import org.springframework.web.util.WebUtils;
  * @since 29.09.2003
  * @see #CommonsMultipartResolver(ServletContext)
  * @see #setResolveLazily
+ * @see #setStreaming
  * @see org.springframework.web.portlet.multipart.CommonsPortletMultipartResolver
  * @see org.apache.commons.fileupload.servlet.ServletFileUpload
  * @see org.apache.commons.fileupload.disk.DiskFileItemFactory
@@ -64,6 +69,8 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 
 	private boolean resolveLazily = false;
 
+	private boolean streaming = false;
+
 
 	/**
 	 * Constructor for use as bean. Determines the servlet container's
@@ -100,6 +107,24 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 		this.resolveLazily = resolveLazily;
 	}
 
+	/**
+	 * Set whether to read multipart requests as a stream of parts instead of
+	 * parsing and storing all parts before the handler is invoked.
+	 * <p>Default is "false". Switch this to "true" to resolve multipart requests
+	 * to a {@link StreamingMultipartHttpServletRequest}: form fields that precede
+	 * the first file part are exposed as request parameters, while all further
+	 * parts are read from the request body as the handler iterates over them,
+	 * without being spooled to memory or to the temporary directory.
+	 * <p>The "maxUploadSize" limit still applies; the "maxInMemorySize" setting
+	 * does not. With "resolveLazily" switched off, the leading form fields are
+	 * read at the time of the {@link #resolveMultipart} call.
+	 * @since 3.2.13
+	 * @see StreamingMultipartHttpServletRequest#getPartIterator()
+	 */
+	public void setStreaming(boolean streaming) {
+		this.streaming = streaming;
+	}
+
 	/**
 	 * Initialize the underlying {@code org.apache.commons.fileupload.servlet.ServletFileUpload}
 	 * instance. Can be overridden to use a custom subclass, e.g. for testing purposes.
@@ -124,7 +149,14 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 
 	public MultipartHttpServletRequest resolveMultipart(final HttpServletRequest request) throws MultipartException {
 		Assert.notNull(request, "Request must not be null");
-		if (this.resolveLazily) {
+		if (this.streaming) {
+			StreamingMultipartHttpServletRequest multipartRequest = resolveStreamingMultipart(request);
+			if (!this.resolveLazily) {
+				multipartRequest.getMultiFileMap();
+			}
+			return multipartRequest;
+		}
+		else if (this.resolveLazily) {
 			return new DefaultMultipartHttpServletRequest(request) {
 				@Override
 				protected void initializeMultipart() {
@@ -164,6 +196,36 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 		}
 	}
 
+	/**
+	 * Create a {@link StreamingMultipartHttpServletRequest} for the given request,
+	 * using the Commons FileUpload streaming API.
+	 * @param request the request to resolve
+	 * @return the streaming multipart request
+	 * @throws MultipartException if the multipart request could not be opened
+	 * @since 3.2.13
+	 * @see #setStreaming
+	 */
+	protected StreamingMultipartHttpServletRequest resolveStreamingMultipart(HttpServletRequest request)
+			throws MultipartException {
+
+		String encoding = determineEncoding(request);
+		FileUpload fileUpload = prepareFileUpload(encoding);
+		try {
+			FileItemIterator itemIterator = fileUpload.getItemIterator(new ServletRequestContext(request));
+			return new CommonsStreamingMultipartHttpServletRequest(
+					request, itemIterator, fileUpload.getSizeMax(), encoding, this);
+		}
+		catch (FileUploadBase.SizeLimitExceededException ex) {
+			throw new MaxUploadSizeExceededException(fileUpload.getSizeMax(), ex);
+		}
+		catch (FileUploadException ex) {
+			throw new MultipartException("Could not parse multipart servlet request", ex);
+		}
+		catch (IOException ex) {
+			throw new MultipartException("Could not read multipart servlet request", ex);
+		}
+	}
+
 	/**
 	 * Determine the encoding for the given request.
 	 * Can be overridden in subclasses.
@@ -183,7 +245,7 @@ public class CommonsMultipartResolver extends CommonsFileUploadSupport
 	}
 
 	public void cleanupMultipart(MultipartHttpServletRequest request) {
-		if (request != null) {
+		if (request != null && !(request instanceof StreamingMultipartHttpServletRequest)) {
 			try {
 				cleanupFileItems(request.getMultiFileMap());
 			}
@@ -0,0 +1,262 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.multipart.commons;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.fileupload.FileItemHeaders;
+import org.apache.commons.fileupload.FileItemIterator;
+import org.apache.commons.fileupload.FileItemStream;
+import org.apache.commons.fileupload.FileUploadBase;
+import org.apache.commons.fileupload.FileUploadException;
+import org.apache.commons.fileupload.util.Streams;
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.Assert;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
+import org.springframework.web.multipart.StreamingPart;
+import org.springframework.web.multipart.support.DefaultMultipartHttpServletRequest;
+
+/**
+ * {@link StreamingMultipartHttpServletRequest} implementation on top of the
+ * Commons FileUpload streaming API.
+ *
+ * <p>Reads the form fields that precede the first file part on first access
+ * to the multipart parameters or the part iterator, and leaves the remaining
+ * parts in the request body until they are requested.
+ *
+ * @since 3.2.13
+ * @see CommonsMultipartResolver#setStreaming
+ */
+class CommonsStreamingMultipartHttpServletRequest extends DefaultMultipartHttpServletRequest
+		implements StreamingMultipartHttpServletRequest {
+
+	private static final Log logger = LogFactory.getLog(CommonsStreamingMultipartHttpServletRequest.class);
+
+	private final FileItemIterator itemIterator;
+
+	private final long sizeMax;
+
+	private final String encoding;
+
+	private final CommonsFileUploadSupport fileUploadSupport;
+
+	private FileItemStream pendingItem;
+
+	private boolean partIteratorObtained;
+
+
+	/**
+	 * Create a new CommonsStreamingMultipartHttpServletRequest.
+	 * @param request the servlet request to wrap
+	 * @param itemIterator the iterator over the parts of the request body
+	 * @param sizeMax the maximum allowed size of the request, or -1 for no limit
+	 * @param encoding the encoding to use for form fields without a charset
+	 * @param fileUploadSupport the support instance to determine part encodings with
+	 */
+	public CommonsStreamingMultipartHttpServletRequest(HttpServletRequest request, FileItemIterator itemIterator,
+			long sizeMax, String encoding, CommonsFileUploadSupport fileUploadSupport) {
+
+		super(request);
+		this.itemIterator = itemIterator;
+		this.sizeMax = sizeMax;
+		this.encoding = encoding;
+		this.fileUploadSupport = fileUploadSupport;
+	}
+
+
+	@Override
+	protected void initializeMultipart() {
+		Map<String, String[]> multipartParameters = new LinkedHashMap<String, String[]>();
+		Map<String, String> multipartParameterContentTypes = new LinkedHashMap<String, String>();
+		try {
+			while (this.itemIterator.hasNext()) {
+				FileItemStream item = this.itemIterator.next();
+				if (!item.isFormField()) {
+					this.pendingItem = item;
+					break;
+				}
+				String value = readFormField(item);
+				String[] curParam = multipartParameters.get(item.getFieldName());
+				multipartParameters.put(item.getFieldName(), (curParam != null ?
+						StringUtils.addStringToArray(curParam, value) : new String[] {value}));
+				multipartParameterContentTypes.put(item.getFieldName(), item.getContentType());
+			}
+		}
+		catch (FileUploadException ex) {
+			throw handleParseFailure(ex);
+		}
+		catch (IOException ex) {
+			throw handleParseFailure(ex);
+		}
+		setMultipartFiles(new LinkedMultiValueMap<String, MultipartFile>());
+		setMultipartParameters(multipartParameters);
+		setMultipartParameterContentTypes(multipartParameterContentTypes);
+	}
+
+	public Iterator<StreamingPart> getPartIterator() {
+		// Read the form fields that precede the first file part
+		getMultipartFiles();
+		Assert.state(!this.partIteratorObtained, "The part iterator has already been obtained");
+		this.partIteratorObtained = true;
+		return new PartIterator();
+	}
+
+	private String readFormField(FileItemStream item) throws IOException {
+		String partEncoding = this.fileUploadSupport.determineEncoding(item.getContentType(), this.encoding);
+		InputStream inputStream = item.openStream();
+		if (partEncoding != null) {
+			try {
+				return Streams.asString(inputStream, partEncoding);
+			}
+			catch (UnsupportedEncodingException ex) {
+				if (logger.isWarnEnabled()) {
+					logger.warn("Could not decode multipart item '" + item.getFieldName() +
+							"' with encoding '" + partEncoding + "': using platform default");
+				}
+			}
+		}
+		return Streams.asString(inputStream);
+	}
+
+	private MultipartException handleParseFailure(Exception ex) {
+		Throwable cause = (ex instanceof FileUploadBase.FileUploadIOException ? ex.getCause() : ex);
+		if (cause instanceof FileUploadBase.SizeLimitExceededException) {
+			return new MaxUploadSizeExceededException(this.sizeMax, cause);
+		}
+		return new MultipartException("Could not parse multipart servlet request", ex);
+	}
+
+
+	/**
+	 * Iterator over the remaining parts of the request body.
+	 */
+	private class PartIterator implements Iterator<StreamingPart> {
+
+		public boolean hasNext() {
+			if (pendingItem != null) {
+				return true;
+			}
+			try {
+				return itemIterator.hasNext();
+			}
+			catch (FileUploadException ex) {
+				throw handleParseFailure(ex);
+			}
+			catch (IOException ex) {
+				throw handleParseFailure(ex);
+			}
+		}
+
+		public StreamingPart next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			FileItemStream item = pendingItem;
+			pendingItem = null;
+			if (item == null) {
+				try {
+					item = itemIterator.next();
+				}
+				catch (FileUploadException ex) {
+					throw handleParseFailure(ex);
+				}
+				catch (IOException ex) {
+					throw handleParseFailure(ex);
+				}
+			}
+			return new CommonsStreamingPart(item);
+		}
+
+		public void remove() {
+			throw new UnsupportedOperationException("Parts cannot be removed");
+		}
+	}
+
+
+	/**
+	 * {@link StreamingPart} adapter for a Commons FileUpload {@link FileItemStream}.
+	 */
+	private static class CommonsStreamingPart implements StreamingPart {
+
+		private final FileItemStream item;
+
+		public CommonsStreamingPart(FileItemStream item) {
+			this.item = item;
+		}
+
+		public String getName() {
+			return this.item.getFieldName();
+		}
+
+		public String getOriginalFilename() {
+			return this.item.getName();
+		}
+
+		public String getContentType() {
+			return this.item.getContentType();
+		}
+
+		public boolean isFormField() {
+			return this.item.isFormField();
+		}
+
+		public HttpHeaders getHeaders() {
+			HttpHeaders headers = new HttpHeaders();
+			FileItemHeaders itemHeaders = this.item.getHeaders();
+			if (itemHeaders != null) {
+				Iterator<String> headerNames = itemHeaders.getHeaderNames();
+				while (headerNames.hasNext()) {
+					String headerName = headerNames.next();
+					Iterator<String> headerValues = itemHeaders.getHeaders(headerName);
+					while (headerValues.hasNext()) {
+						headers.add(headerName, headerValues.next());
+					}
+				}
+			}
+			else if (this.item.getContentType() != null) {
+				headers.add("Content-Type", this.item.getContentType());
+			}
+			return headers;
+		}
+
+		public InputStream getInputStream() throws IOException {
+			return this.item.openStream();
+		}
+
+		@Override
+		public String toString() {
+			return "StreamingPart [" + getName() + "]" +
+					(getOriginalFilename() != null ? " with original filename [" + getOriginalFilename() + "]" : "");
+		}
+	}
+
+}
@@ -29,6 +29,7 @@ import org.apache.commons.logging.LogFactory;
 
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
+import org.springframework.util.ObjectUtils;
 import org.springframework.util.StringUtils;
 
 /**
@@ -54,6 +55,12 @@ public class UrlPathHelper {
 	 */
 	private static final String WEBSPHERE_URI_ATTRIBUTE = "com.ibm.websphere.servlet.uri_non_decoded";
 
+	/**
+	 * Name of the request attribute that holds the lookup path resolved
+	 * through {@link #resolveLookupPath}.
+	 */
+	private static final String LOOKUP_PATH_ATTRIBUTE = UrlPathHelper.class.getName() + ".LOOKUP_PATH";
+
 	private static final Log logger = LogFactory.getLog(UrlPathHelper.class);
 
 	static volatile Boolean websphereComplianceFlag;
@@ -160,6 +167,33 @@ public class UrlPathHelper {
 		}
 	}
 
+	/**
+	 * Variant of {@link #getLookupPathForRequest} that keeps the resolved lookup
+	 * path in a request attribute, so that further calls for the same request
+	 * (typically from several handler mappings and interceptor checks) do not
+	 * have to decode the request URI and compute the servlet path again.
+	 * <p>The cached path is shared with other UrlPathHelper instances of the
+	 * same class and settings, and is recomputed whenever the request URI,
+	 * context path, servlet path or path info have changed, e.g. for a
+	 * forward or an include.
+	 * @param request current HTTP request
+	 * @return the lookup path
+	 * @since 3.2.13
+	 * @see #getLookupPathForRequest
+	 */
+	public String resolveLookupPath(HttpServletRequest request) {
+		Object cached = request.getAttribute(LOOKUP_PATH_ATTRIBUTE);
+		if (cached instanceof ResolvedLookupPath) {
+			ResolvedLookupPath resolved = (ResolvedLookupPath) cached;
+			if (resolved.matches(this, request)) {
+				return resolved.getLookupPath();
+			}
+		}
+		String lookupPath = getLookupPathForRequest(request);
+		request.setAttribute(LOOKUP_PATH_ATTRIBUTE, new ResolvedLookupPath(this, request, lookupPath));
+		return lookupPath;
+	}
+
 	/**
 	 * Return the path within the servlet mapping for the given request,
 	 * i.e. the part of the request's URL beyond the part that called the servlet,
@@ -557,4 +591,80 @@ public class UrlPathHelper {
 		return !websphereComplianceFlag;
 	}
 
+
+	/**
+	 * A lookup path together with the helper settings and raw request values
+	 * it was computed from.
+	 */
+	private static class ResolvedLookupPath {
+
+		private final Class<?> helperClass;
+
+		private final boolean alwaysUseFullPath;
+
+		private final boolean urlDecode;
+
+		private final boolean removeSemicolonContent;
+
+		private final String defaultEncoding;
+
+		private final String requestUri;
+
+		private final String contextPath;
+
+		private final String servletPath;
+
+		private final String pathInfo;
+
+		private final String characterEncoding;
+
+		private final String lookupPath;
+
+		public ResolvedLookupPath(UrlPathHelper helper, HttpServletRequest request, String lookupPath) {
+			this.helperClass = helper.getClass();
+			this.alwaysUseFullPath = helper.alwaysUseFullPath;
+			this.urlDecode = helper.urlDecode;
+			this.removeSemicolonContent = helper.removeSemicolonContent;
+			this.defaultEncoding = helper.defaultEncoding;
+			this.requestUri = getRawRequestUri(request);
+			this.contextPath = getRawContextPath(request);
+			this.servletPath = getRawServletPath(request);
+			this.pathInfo = request.getPathInfo();
+			this.characterEncoding = request.getCharacterEncoding();
+			this.lookupPath = lookupPath;
+		}
+
+		public String getLookupPath() {
+			return this.lookupPath;
+		}
+
+		public boolean matches(UrlPathHelper helper, HttpServletRequest request) {
+			return (this.helperClass == helper.getClass() &&
+					this.alwaysUseFullPath == helper.alwaysUseFullPath &&
+					this.urlDecode == helper.urlDecode &&
+					this.removeSemicolonContent == helper.removeSemicolonContent &&
+					ObjectUtils.nullSafeEquals(this.defaultEncoding, helper.defaultEncoding) &&
+					ObjectUtils.nullSafeEquals(this.requestUri, getRawRequestUri(request)) &&
+					ObjectUtils.nullSafeEquals(this.contextPath, getRawContextPath(request)) &&
+					ObjectUtils.nullSafeEquals(this.servletPath, getRawServletPath(request)) &&
+					ObjectUtils.nullSafeEquals(this.pathInfo, request.getPathInfo()) &&
+					ObjectUtils.nullSafeEquals(this.characterEncoding, request.getCharacterEncoding()));
+		}
+
+		private static String getRawRequestUri(HttpServletRequest request) {
+			String uri = (String) request.getAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE);
+			return (uri != null ? uri : request.getRequestURI());
+		}
+
+		private static String getRawContextPath(HttpServletRequest request) {
+			String contextPath = (String) request.getAttribute(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE);
+			return (contextPath != null ? contextPath : request.getContextPath());
+		}
+
+		private static String getRawServletPath(HttpServletRequest request) {
+			String servletPath = (String) request.getAttribute(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE);
+			return (servletPath != null ? servletPath : request.getServletPath());
+		}
+	}
+
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.http.client;
+
+import java.net.URI;
+
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.protocol.HttpClientContext;
+import org.apache.http.protocol.HttpContext;
+import org.junit.Test;
+
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.http.HttpMethod;
+
+import static org.junit.Assert.*;
+
+public class HttpComponentsAsyncClientHttpRequestFactoryTests extends AbstractAsyncHttpRequestFactoryTestCase {
+
+	@Override
+	protected AsyncClientHttpRequestFactory createRequestFactory() {
+		return new HttpComponentsAsyncClientHttpRequestFactory();
+	}
+
+	@Override
+	@Test
+	public void httpMethods() throws Exception {
+		super.httpMethods();
+		assertHttpMethod("patch", HttpMethod.PATCH);
+	}
+
+	@Test
+	public void timeoutsAppliedToAsyncClient() throws Exception {
+		HttpComponentsAsyncClientHttpRequestFactory requestFactory = new HttpComponentsAsyncClientHttpRequestFactory();
+		try {
+			// the default read timeout only applies to the synchronous client
+			assertNull(getRequestConfig(requestFactory));
+
+			requestFactory.setConnectTimeout(1234);
+			requestFactory.setReadTimeout(4321);
+			RequestConfig config = getRequestConfig(requestFactory);
+			assertEquals(1234, config.getConnectTimeout());
+			assertEquals(4321, config.getSocketTimeout());
+		}
+		finally {
+			requestFactory.destroy();
+		}
+	}
+
+	private RequestConfig getRequestConfig(HttpComponentsAsyncClientHttpRequestFactory requestFactory) throws Exception {
+		AsyncClientHttpRequest request = requestFactory.createAsyncRequest(new URI(baseUrl + "/echo"), HttpMethod.GET);
+		HttpContext context = (HttpContext) new DirectFieldAccessor(request).getPropertyValue("httpContext");
+		return (RequestConfig) context.getAttribute(HttpClientContext.REQUEST_CONFIG);
+	}
+
+}
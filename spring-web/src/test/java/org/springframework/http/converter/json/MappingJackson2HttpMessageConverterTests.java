@@ -16,10 +16,13 @@
 
 package org.springframework.http.converter.json;
 
+import java.io.Closeable;
 import java.io.IOException;
 import java.lang.reflect.Type;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
 import java.util.List;
 
 import org.junit.Test;
@@ -28,8 +31,13 @@ import org.springframework.http.MediaType;
 import org.springframework.http.MockHttpInputMessage;
 import org.springframework.http.MockHttpOutputMessage;
 
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 
 import static org.junit.Assert.*;
 
@@ -131,6 +139,95 @@ public class MappingJackson2HttpMessageConverterTests extends AbstractMappingJac
 		assertEquals(")]}',\"foo\"", outputMessage.getBodyAsString(Charset.forName("UTF-8")));
 	}
 
+	@Test
+	public void writeIterator() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		getConverter().setStreamingFlushSize(2);
+		getConverter().writeInternal(Arrays.asList("a", "b", "c").iterator(), outputMessage);
+
+		assertEquals("[\"a\",\"b\",\"c\"]", outputMessage.getBodyAsString(Charset.forName("UTF-8")));
+	}
+
+	@Test
+	public void writeCloseableIterable() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		CloseableIterable iterable = new CloseableIterable(Arrays.asList(1, 2));
+		getConverter().setStreamingTypes(CloseableIterable.class);
+		getConverter().writeInternal(iterable, outputMessage);
+
+		assertEquals("[1,2]", outputMessage.getBodyAsString(Charset.forName("UTF-8")));
+		assertTrue(iterable.closed);
+	}
+
+	@Test
+	public void writeIterableNotStreamedByDefault() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		CloseableIterable iterable = new CloseableIterable(Arrays.asList(1, 2));
+		getConverter().writeInternal(iterable, outputMessage);
+
+		assertEquals("[1,2]", outputMessage.getBodyAsString(Charset.forName("UTF-8")));
+		assertFalse(iterable.closed);
+	}
+
+	@Test
+	public void writeObjectNode() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		ObjectNode node = new ObjectMapper().createObjectNode();
+		node.put("name", "value");
+		getConverter().setStreamingTypes(Iterable.class);
+		getConverter().writeInternal(node, outputMessage);
+
+		assertEquals("{\"name\":\"value\"}", outputMessage.getBodyAsString(Charset.forName("UTF-8")));
+	}
+
+	@Test
+	public void writeIterableWithCustomSerializer() throws Exception {
+		MockHttpOutputMessage outputMessage = new MockHttpOutputMessage();
+		getConverter().setStreamingTypes(Iterable.class);
+		getConverter().writeInternal(new CustomSerializedIterable(), outputMessage);
+
+		assertEquals("\"custom\"", outputMessage.getBodyAsString(Charset.forName("UTF-8")));
+	}
+
+
+	private static class CloseableIterable implements Iterable<Integer>, Closeable {
+
+		private final List<Integer> values;
+
+		private boolean closed;
+
+		public CloseableIterable(List<Integer> values) {
+			this.values = values;
+		}
+
+		public Iterator<Integer> iterator() {
+			return this.values.iterator();
+		}
+
+		public void close() {
+			this.closed = true;
+		}
+	}
+
+
+	@JsonSerialize(using = CustomIterableSerializer.class)
+	private static class CustomSerializedIterable implements Iterable<Integer> {
+
+		public Iterator<Integer> iterator() {
+			return Arrays.asList(1, 2).iterator();
+		}
+	}
+
+
+	public static class CustomIterableSerializer extends JsonSerializer<CustomSerializedIterable> {
+
+		@Override
+		public void serialize(CustomSerializedIterable value, JsonGenerator generator, SerializerProvider provider)
+				throws IOException {
+			generator.writeString("custom");
+		}
+	}
+
 
 	public static class PrettyPrintBean {
 
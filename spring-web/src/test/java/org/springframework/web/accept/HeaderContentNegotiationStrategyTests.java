@@ -16,6 +16,7 @@
 package org.springframework.web.accept;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
 
 import java.util.List;
 
@@ -59,6 +60,23 @@ public class HeaderContentNegotiationStrategyTests {
 		assertEquals("text/plain;q=0.5", mediaTypes.get(3).toString());
 	}
 
+	@Test
+	public void resolveMediaTypesCached() throws Exception {
+		this.servletRequest.addHeader("Accept", "text/plain; q=0.5, text/html");
+		List<MediaType> mediaTypes = this.strategy.resolveMediaTypes(this.webRequest);
+
+		MockHttpServletRequest otherRequest = new MockHttpServletRequest();
+		otherRequest.addHeader("Accept", "text/plain; q=0.5, text/html");
+		assertSame(mediaTypes, this.strategy.resolveMediaTypes(new ServletWebRequest(otherRequest)));
+		assertEquals("text/html", mediaTypes.get(0).toString());
+	}
+
+	@Test(expected=UnsupportedOperationException.class)
+	public void resolveMediaTypesUnmodifiable() throws Exception {
+		this.servletRequest.addHeader("Accept", "text/html");
+		this.strategy.resolveMediaTypes(this.webRequest).add(MediaType.TEXT_PLAIN);
+	}
+
 	@Test(expected=HttpMediaTypeNotAcceptableException.class)
 	public void resolveMediaTypesParseError() throws Exception {
 		this.servletRequest.addHeader("Accept", "textplain; q=0.5");
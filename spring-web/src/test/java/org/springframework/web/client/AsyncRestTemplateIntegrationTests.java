@@ -0,0 +1,256 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.net.URI;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsAsyncClientHttpRequestFactory;
+import org.springframework.util.concurrent.ListenableFuture;
+import org.springframework.util.concurrent.ListenableFutureCallback;
+
+public class AsyncRestTemplateIntegrationTests extends AbstractJettyServerTestCase {
+
+	private HttpComponentsAsyncClientHttpRequestFactory requestFactory;
+
+	private AsyncRestTemplate template;
+
+	@Before
+	public void createTemplate() {
+		requestFactory = new HttpComponentsAsyncClientHttpRequestFactory();
+		requestFactory.afterPropertiesSet();
+		template = new AsyncRestTemplate(requestFactory);
+	}
+
+	@After
+	public void destroyRequestFactory() {
+		requestFactory.destroy();
+	}
+
+	@Test
+	public void getEntity() throws ExecutionException, InterruptedException {
+		Future<ResponseEntity<String>> futureEntity =
+				template.getForEntity(baseUrl + "/{method}", String.class, "get");
+		ResponseEntity<String> entity = futureEntity.get();
+		assertEquals("Invalid content", helloWorld, entity.getBody());
+		assertFalse("No headers", entity.getHeaders().isEmpty());
+		assertEquals("Invalid content-type", contentType, entity.getHeaders().getContentType());
+		assertEquals("Invalid status code", HttpStatus.OK, entity.getStatusCode());
+	}
+
+	@Test
+	public void getEntityCallback() throws InterruptedException {
+		ListenableFuture<ResponseEntity<String>> futureEntity =
+				template.getForEntity(baseUrl + "/{method}", String.class, "get");
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicReference<ResponseEntity<String>> result = new AtomicReference<ResponseEntity<String>>();
+		futureEntity.addCallback(new ListenableFutureCallback<ResponseEntity<String>>() {
+			@Override
+			public void onSuccess(ResponseEntity<String> entity) {
+				result.set(entity);
+				latch.countDown();
+			}
+			@Override
+			public void onFailure(Throwable ex) {
+				latch.countDown();
+			}
+		});
+		assertTrue("Callback not invoked", latch.await(5, TimeUnit.SECONDS));
+		assertNotNull("No entity", result.get());
+		assertEquals("Invalid content", helloWorld, result.get().getBody());
+		assertEquals("Invalid status code", HttpStatus.OK, result.get().getStatusCode());
+	}
+
+	@Test
+	public void getNoResponse() throws ExecutionException, InterruptedException {
+		Future<ResponseEntity<String>> futureEntity = template.getForEntity(baseUrl + "/get/nothing", String.class);
+		ResponseEntity<String> entity = futureEntity.get();
+		assertNull("Invalid content", entity.getBody());
+	}
+
+	@Test
+	public void getNoContent() throws ExecutionException, InterruptedException {
+		Future<ResponseEntity<String>> responseFuture =
+				template.getForEntity(baseUrl + "/status/nocontent", String.class);
+		ResponseEntity<String> entity = responseFuture.get();
+		assertEquals("Invalid response code", HttpStatus.NO_CONTENT, entity.getStatusCode());
+		assertNull("Invalid content", entity.getBody());
+	}
+
+	@Test
+	public void fanOut() throws Exception {
+		List<ListenableFuture<ResponseEntity<String>>> futures =
+				new ArrayList<ListenableFuture<ResponseEntity<String>>>();
+		for (int i = 0; i < 20; i++) {
+			futures.add(template.getForEntity(baseUrl + "/get", String.class));
+		}
+		for (ListenableFuture<ResponseEntity<String>> future : futures) {
+			assertEquals("Invalid content", helloWorld, future.get(5, TimeUnit.SECONDS).getBody());
+		}
+	}
+
+	@Test
+	public void headForHeaders() throws ExecutionException, InterruptedException {
+		Future<HttpHeaders> headersFuture = template.headForHeaders(baseUrl + "/get");
+		HttpHeaders headers = headersFuture.get();
+		assertTrue("No Content-Type header", headers.containsKey("Content-Type"));
+	}
+
+	@Test
+	public void postForLocation() throws Exception {
+		HttpHeaders entityHeaders = new HttpHeaders();
+		entityHeaders.setContentType(new MediaType("text", "plain", Charset.forName("ISO-8859-15")));
+		HttpEntity<String> entity = new HttpEntity<String>(helloWorld, entityHeaders);
+		Future<URI> locationFuture = template.postForLocation(baseUrl + "/{method}", entity, "post");
+		URI location = locationFuture.get();
+		assertEquals("Invalid location", new URI(baseUrl + "/post/1"), location);
+	}
+
+	@Test
+	public void postForEntity() throws ExecutionException, InterruptedException {
+		HttpEntity<String> requestEntity = new HttpEntity<String>(helloWorld);
+		Future<ResponseEntity<String>> responseEntityFuture =
+				template.postForEntity(baseUrl + "/{method}", requestEntity, String.class, "post");
+		ResponseEntity<String> responseEntity = responseEntityFuture.get();
+		assertEquals("Invalid content", helloWorld, responseEntity.getBody());
+	}
+
+	@Test
+	public void put() throws ExecutionException, InterruptedException {
+		HttpEntity<String> requestEntity = new HttpEntity<String>(helloWorld);
+		Future<?> responseEntityFuture = template.put(baseUrl + "/{method}", requestEntity, "status/nocontent");
+		responseEntityFuture.get();
+	}
+
+	@Test
+	public void delete() throws Exception {
+		Future<?> deletedFuture = template.delete(new URI(baseUrl + "/status/nocontent"));
+		deletedFuture.get();
+	}
+
+	@Test
+	public void notFound() throws InterruptedException {
+		try {
+			Future<?> future = template.execute(baseUrl + "/status/notfound", HttpMethod.GET, null, null);
+			future.get();
+			fail("HttpClientErrorException expected");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof HttpClientErrorException);
+			HttpClientErrorException cause = (HttpClientErrorException) ex.getCause();
+			assertEquals(HttpStatus.NOT_FOUND, cause.getStatusCode());
+			assertNotNull(cause.getStatusText());
+			assertNotNull(cause.getResponseBodyAsString());
+		}
+	}
+
+	@Test
+	public void notFoundCallback() throws InterruptedException {
+		ListenableFuture<?> future = template.execute(baseUrl + "/status/notfound", HttpMethod.GET, null, null);
+		final CountDownLatch latch = new CountDownLatch(1);
+		final AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		future.addCallback(new ListenableFutureCallback<Object>() {
+			@Override
+			public void onSuccess(Object result) {
+				latch.countDown();
+			}
+			@Override
+			public void onFailure(Throwable ex) {
+				failure.set(ex);
+				latch.countDown();
+			}
+		});
+		assertTrue("Callback not invoked", latch.await(5, TimeUnit.SECONDS));
+		assertTrue(failure.get() instanceof HttpClientErrorException);
+		assertEquals(HttpStatus.NOT_FOUND, ((HttpClientErrorException) failure.get()).getStatusCode());
+	}
+
+	@Test
+	public void serverError() throws InterruptedException {
+		try {
+			Future<Void> future = template.execute(baseUrl + "/status/server", HttpMethod.GET, null, null);
+			future.get();
+			fail("HttpServerErrorException expected");
+		}
+		catch (ExecutionException ex) {
+			assertTrue(ex.getCause() instanceof HttpServerErrorException);
+			HttpServerErrorException cause = (HttpServerErrorException) ex.getCause();
+			assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, cause.getStatusCode());
+			assertNotNull(cause.getStatusText());
+			assertNotNull(cause.getResponseBodyAsString());
+		}
+	}
+
+	@Test
+	public void optionsForAllow() throws Exception {
+		Future<Set<HttpMethod>> allowedFuture = template.optionsForAllow(new URI(baseUrl + "/get"));
+		Set<HttpMethod> allowed = allowedFuture.get();
+		assertEquals("Invalid response",
+				EnumSet.of(HttpMethod.GET, HttpMethod.OPTIONS, HttpMethod.HEAD, HttpMethod.TRACE), allowed);
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	public void exchangeGet() throws Exception {
+		HttpHeaders requestHeaders = new HttpHeaders();
+		requestHeaders.set("MyHeader", "MyValue");
+		HttpEntity<?> requestEntity = new HttpEntity(requestHeaders);
+		Future<ResponseEntity<String>> responseFuture =
+				template.exchange(baseUrl + "/{method}", HttpMethod.GET, requestEntity, String.class, "get");
+		ResponseEntity<String> response = responseFuture.get();
+		assertEquals("Invalid content", helloWorld, response.getBody());
+	}
+
+	@Test
+	public void exchangePost() throws Exception {
+		HttpHeaders requestHeaders = new HttpHeaders();
+		requestHeaders.set("MyHeader", "MyValue");
+		requestHeaders.setContentType(MediaType.TEXT_PLAIN);
+		HttpEntity<String> requestEntity = new HttpEntity<String>(helloWorld, requestHeaders);
+		Future<ResponseEntity<Void>> resultFuture =
+				template.exchange(baseUrl + "/{method}", HttpMethod.POST, requestEntity, Void.class, "post");
+		ResponseEntity<Void> result = resultFuture.get();
+		assertEquals("Invalid location", new URI(baseUrl + "/post/1"), result.getHeaders().getLocation());
+		assertFalse(result.hasBody());
+	}
+
+}
@@ -0,0 +1,370 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.filter;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Queue;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.mock.web.test.MockAsyncContext;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ResponseCompressionFilter}.
+ */
+public class ResponseCompressionFilterTests {
+
+	private static final String CONTENT;
+
+	static {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 500; i++) {
+			sb.append("<p>Hello World ").append(i).append("</p>");
+		}
+		CONTENT = sb.toString();
+	}
+
+
+	private ResponseCompressionFilter filter;
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletResponse response;
+
+
+	@Before
+	public void setUp() {
+		this.filter = new ResponseCompressionFilter();
+		this.request = new MockHttpServletRequest("GET", "/hotels");
+		this.request.addHeader("Accept-Encoding", "gzip, deflate");
+		this.response = new MockHttpServletResponse();
+	}
+
+
+	@Test
+	public void gzip() throws Exception {
+		this.filter.doFilter(this.request, this.response, new ContentFilterChain("text/html", CONTENT));
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", this.response.getHeader("Vary"));
+		assertNull(this.response.getHeader("Content-Length"));
+		assertTrue(this.response.getContentAsByteArray().length < CONTENT.length());
+		assertEquals(CONTENT, inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void gzipWithWriter() throws Exception {
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				response.setContentType("application/json");
+				response.getWriter().write(CONTENT);
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void deflate() throws Exception {
+		this.request = new MockHttpServletRequest("GET", "/hotels");
+		this.request.addHeader("Accept-Encoding", "gzip;q=0, deflate");
+		this.filter.doFilter(this.request, this.response, new ContentFilterChain("text/css", CONTENT));
+
+		assertEquals("deflate", this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, inflate(new InflaterInputStream(content())));
+	}
+
+	@Test
+	public void noAcceptEncoding() throws Exception {
+		this.request = new MockHttpServletRequest("GET", "/hotels");
+		this.filter.doFilter(this.request, this.response, new ContentFilterChain("text/html", CONTENT));
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, this.response.getContentAsString());
+	}
+
+	@Test
+	public void belowMinCompressSize() throws Exception {
+		this.filter.doFilter(this.request, this.response, new ContentFilterChain("text/html", "Hello World"));
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals("Hello World", this.response.getContentAsString());
+	}
+
+	@Test
+	public void contentLengthBelowMinCompressSize() throws Exception {
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				response.setContentType("text/html");
+				response.setContentLength(11);
+				response.getOutputStream().write("Hello World".getBytes("UTF-8"));
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(11, this.response.getContentLength());
+		assertEquals("Hello World", this.response.getContentAsString());
+	}
+
+	@Test
+	public void nonCompressibleContentType() throws Exception {
+		this.filter.doFilter(this.request, this.response, new ContentFilterChain("image/png", CONTENT));
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, this.response.getContentAsString());
+	}
+
+	@Test
+	public void customCompressibleContentTypes() throws Exception {
+		this.filter.setCompressibleContentTypes("text/*");
+		this.filter.doFilter(this.request, this.response, new ContentFilterChain("text/csv", CONTENT));
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void existingContentEncoding() throws Exception {
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				((HttpServletResponse) response).setHeader("Content-Encoding", "identity");
+				new ContentFilterChain("text/html", CONTENT).doFilter(request, response);
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertEquals("identity", this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, this.response.getContentAsString());
+	}
+
+	@Test
+	public void flush() throws Exception {
+		final MockHttpServletResponse rawResponse = this.response;
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				response.setContentType("text/plain");
+				response.getOutputStream().write("Hello".getBytes("UTF-8"));
+				response.flushBuffer();
+				assertEquals("gzip", rawResponse.getHeader("Content-Encoding"));
+				assertTrue(rawResponse.getContentAsByteArray().length > 0);
+				response.getOutputStream().write(" World".getBytes("UTF-8"));
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertEquals("Hello World", inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void flushBeforeContent() throws Exception {
+		final MockHttpServletResponse rawResponse = this.response;
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				response.setContentType("text/plain");
+				response.flushBuffer();
+				assertTrue(rawResponse.isCommitted());
+				assertEquals("gzip", rawResponse.getHeader("Content-Encoding"));
+				response.getOutputStream().write("Hello World".getBytes("UTF-8"));
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertEquals("Hello World", inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void flushBeforeContentWithNonCompressibleContentType() throws Exception {
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				response.setContentType("image/png");
+				response.flushBuffer();
+				response.getOutputStream().write(CONTENT.getBytes("UTF-8"));
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(CONTENT, this.response.getContentAsString());
+	}
+
+	@Test
+	public void contentLengthLongBelowMinCompressSize() throws Exception {
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				response.setContentType("text/html");
+				// Servlet 3.1 method, invoked reflectively to compile against Servlet 3.0
+				Method method = ReflectionUtils.findMethod(response.getClass(), "setContentLengthLong", long.class);
+				ReflectionUtils.makeAccessible(method);
+				ReflectionUtils.invokeMethod(method, response, 11L);
+				response.getOutputStream().write("Hello World".getBytes("UTF-8"));
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertNull(this.response.getHeader("Content-Encoding"));
+		assertEquals(11, this.response.getContentLength());
+		assertEquals("Hello World", this.response.getContentAsString());
+	}
+
+	@Test
+	public void invalidContentLengthHeader() throws Exception {
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				((HttpServletResponse) response).setHeader("Content-Length", "invalid");
+				new ContentFilterChain("text/html", CONTENT).doFilter(request, response);
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertNull(this.response.getHeader("Content-Length"));
+		assertEquals(CONTENT, inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void deflaterReleasedOnAsyncTimeout() throws Exception {
+		this.filter.setMaxPooledDeflaters(1);
+		this.request.setAsyncSupported(true);
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+				new ContentFilterChain("text/html", CONTENT).doFilter(request, response);
+				WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+				asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(
+						(HttpServletRequest) request, (HttpServletResponse) response));
+				try {
+					asyncManager.startDeferredResultProcessing(new DeferredResult<String>());
+				}
+				catch (Exception ex) {
+					throw new IllegalStateException(ex);
+				}
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+		assertEquals(0, getPooledDeflaterCount());
+
+		MockAsyncContext asyncContext = (MockAsyncContext) this.request.getAsyncContext();
+		for (AsyncListener listener : asyncContext.getListeners()) {
+			listener.onTimeout(new AsyncEvent(asyncContext));
+		}
+		assertEquals(1, getPooledDeflaterCount());
+	}
+
+	@Test
+	public void withShallowEtagHeaderFilter() throws Exception {
+		final ShallowEtagHeaderFilter etagFilter = new ShallowEtagHeaderFilter();
+		FilterChain filterChain = new FilterChain() {
+			@Override
+			public void doFilter(ServletRequest request, ServletResponse response) throws IOException, ServletException {
+				etagFilter.doFilter(request, response, new ContentFilterChain("text/html", CONTENT));
+			}
+		};
+		this.filter.doFilter(this.request, this.response, filterChain);
+
+		assertNotNull(this.response.getHeader("ETag"));
+		assertEquals("gzip", this.response.getHeader("Content-Encoding"));
+		assertNull(this.response.getHeader("Content-Length"));
+		assertEquals(CONTENT, inflate(new GZIPInputStream(content())));
+	}
+
+	@Test
+	public void reuseDeflater() throws Exception {
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			this.filter.doFilter(this.request, response, new ContentFilterChain("text/html", CONTENT));
+			GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()));
+			assertEquals(CONTENT, inflate(in));
+		}
+		this.filter.destroy();
+	}
+
+
+	private int getPooledDeflaterCount() {
+		Object pool = getField(this.filter, "gzipDeflaters");
+		return ((Queue<?>) getField(pool, "deflaters")).size();
+	}
+
+	private static Object getField(Object target, String name) {
+		Field field = ReflectionUtils.findField(target.getClass(), name);
+		ReflectionUtils.makeAccessible(field);
+		return ReflectionUtils.getField(field, target);
+	}
+
+	private InputStream content() {
+		return new ByteArrayInputStream(this.response.getContentAsByteArray());
+	}
+
+	private static String inflate(InputStream in) throws IOException {
+		return new String(FileCopyUtils.copyToByteArray(in), "UTF-8");
+	}
+
+
+	private static class ContentFilterChain implements FilterChain {
+
+		private final String contentType;
+
+		private final String content;
+
+		public ContentFilterChain(String contentType, String content) {
+			this.contentType = contentType;
+			this.content = content;
+		}
+
+		@Override
+		public void doFilter(ServletRequest request, ServletResponse response) throws IOException {
+			response.setContentType(this.contentType);
+			FileCopyUtils.copy(this.content.getBytes("UTF-8"), response.getOutputStream());
+		}
+	}
+
+}
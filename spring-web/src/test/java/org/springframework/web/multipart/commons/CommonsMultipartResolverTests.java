@@ -20,6 +20,7 @@ import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.util.ArrayList;
@@ -50,12 +51,16 @@ import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.mock.web.test.MockServletContext;
 import org.springframework.mock.web.test.PassThroughFilterChain;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.bind.ServletRequestDataBinder;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
+import org.springframework.web.multipart.StreamingPart;
 import org.springframework.web.multipart.support.ByteArrayMultipartFileEditor;
 import org.springframework.web.multipart.support.MultipartFilter;
 import org.springframework.web.multipart.support.StringMultipartFileEditor;
@@ -359,6 +364,98 @@ public class CommonsMultipartResolverTests {
 	}
 
 
+	@Test
+	public void withStreaming() throws Exception {
+		CommonsMultipartResolver resolver = new CommonsMultipartResolver(new MockServletContext());
+		resolver.setStreaming(true);
+
+		MockHttpServletRequest originalRequest = createStreamingRequest();
+		MultipartHttpServletRequest request = resolver.resolveMultipart(originalRequest);
+		assertTrue(request instanceof StreamingMultipartHttpServletRequest);
+		assertEquals("value1", request.getParameter("field1"));
+		assertNull(request.getParameter("field2"));
+		assertTrue(request.getFileMap().isEmpty());
+
+		Iterator<StreamingPart> parts = ((StreamingMultipartHttpServletRequest) request).getPartIterator();
+		assertTrue(parts.hasNext());
+		StreamingPart part = parts.next();
+		assertEquals("file1", part.getName());
+		assertEquals("file1.txt", part.getOriginalFilename());
+		assertEquals("text/plain", part.getContentType());
+		assertEquals("text/plain", part.getHeaders().getFirst("Content-Type"));
+		assertFalse(part.isFormField());
+		assertEquals("content1", FileCopyUtils.copyToString(new InputStreamReader(part.getInputStream(), "UTF-8")));
+
+		assertTrue(parts.hasNext());
+		part = parts.next();
+		assertEquals("field2", part.getName());
+		assertNull(part.getOriginalFilename());
+		assertTrue(part.isFormField());
+		assertEquals("value2", FileCopyUtils.copyToString(new InputStreamReader(part.getInputStream(), "UTF-8")));
+		assertFalse(parts.hasNext());
+
+		resolver.cleanupMultipart(request);
+	}
+
+	@Test
+	public void withStreamingAndSkippedContent() throws Exception {
+		CommonsMultipartResolver resolver = new CommonsMultipartResolver(new MockServletContext());
+		resolver.setStreaming(true);
+		resolver.setResolveLazily(true);
+
+		MultipartHttpServletRequest request = resolver.resolveMultipart(createStreamingRequest());
+		Iterator<StreamingPart> parts = ((StreamingMultipartHttpServletRequest) request).getPartIterator();
+		assertEquals("file1", parts.next().getName());
+		assertEquals("field2", parts.next().getName());
+		assertFalse(parts.hasNext());
+		assertEquals("value1", request.getParameter("field1"));
+	}
+
+	@Test
+	public void withStreamingAndCustomFileUpload() throws Exception {
+		CommonsMultipartResolver resolver = new CommonsMultipartResolver(new MockServletContext()) {
+			@Override
+			protected FileUpload newFileUpload(FileItemFactory fileItemFactory) {
+				return new FileUpload(fileItemFactory);
+			}
+		};
+		resolver.setStreaming(true);
+
+		MultipartHttpServletRequest request = resolver.resolveMultipart(createStreamingRequest());
+		assertEquals("value1", request.getParameter("field1"));
+		Iterator<StreamingPart> parts = ((StreamingMultipartHttpServletRequest) request).getPartIterator();
+		assertEquals("file1", parts.next().getName());
+		assertEquals("field2", parts.next().getName());
+		assertFalse(parts.hasNext());
+	}
+
+	@Test(expected = MaxUploadSizeExceededException.class)
+	public void withStreamingAndMaxUploadSize() throws Exception {
+		CommonsMultipartResolver resolver = new CommonsMultipartResolver(new MockServletContext());
+		resolver.setStreaming(true);
+		resolver.setMaxUploadSize(10);
+		resolver.resolveMultipart(createStreamingRequest());
+	}
+
+	private MockHttpServletRequest createStreamingRequest() throws UnsupportedEncodingException {
+		String body = "--boundary\r\n" +
+				"Content-Disposition: form-data; name=\"field1\"\r\n\r\n" +
+				"value1\r\n" +
+				"--boundary\r\n" +
+				"Content-Disposition: form-data; name=\"file1\"; filename=\"file1.txt\"\r\n" +
+				"Content-Type: text/plain\r\n\r\n" +
+				"content1\r\n" +
+				"--boundary\r\n" +
+				"Content-Disposition: form-data; name=\"field2\"\r\n\r\n" +
+				"value2\r\n" +
+				"--boundary--\r\n";
+		MockHttpServletRequest request = new MockHttpServletRequest("POST", "/upload");
+		request.setContentType("multipart/form-data; boundary=boundary");
+		request.setContent(body.getBytes("UTF-8"));
+		return request;
+	}
+
+
 	public static class MockCommonsMultipartResolver extends CommonsMultipartResolver {
 
 		private boolean empty;
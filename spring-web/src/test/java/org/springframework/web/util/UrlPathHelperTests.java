@@ -54,6 +54,37 @@ public class UrlPathHelperTests {
 		assertEquals("Incorrect path returned", "/welcome.html", helper.getPathWithinApplication(request));
 	}
 
+	@Test
+	public void resolveLookupPath() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+
+		assertEquals("/welcome.html", helper.resolveLookupPath(request));
+		assertEquals("/welcome.html", new UrlPathHelper().resolveLookupPath(request));
+
+		UrlPathHelper fullPathHelper = new UrlPathHelper();
+		fullPathHelper.setAlwaysUseFullPath(true);
+		assertEquals("/main/welcome.html", fullPathHelper.resolveLookupPath(request));
+
+		request.setRequestURI("/petclinic/main/owners.html");
+		assertEquals("/main/owners.html", fullPathHelper.resolveLookupPath(request));
+		assertEquals("/owners.html", helper.resolveLookupPath(request));
+	}
+
+	@Test
+	public void resolveLookupPathWithinInclude() {
+		request.setContextPath("/petclinic");
+		request.setServletPath("/main");
+		request.setRequestURI("/petclinic/main/welcome.html");
+		assertEquals("/welcome.html", helper.resolveLookupPath(request));
+
+		request.setAttribute(WebUtils.INCLUDE_CONTEXT_PATH_ATTRIBUTE, "/petclinic");
+		request.setAttribute(WebUtils.INCLUDE_SERVLET_PATH_ATTRIBUTE, "/main");
+		request.setAttribute(WebUtils.INCLUDE_REQUEST_URI_ATTRIBUTE, "/petclinic/main/footer.html");
+		assertEquals("/footer.html", helper.resolveLookupPath(request));
+	}
+
 	@Test
 	public void getPathWithinApplicationForRootWithNoLeadingSlash() {
 		request.setContextPath("/petclinic");
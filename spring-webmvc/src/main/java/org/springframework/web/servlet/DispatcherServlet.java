@@ -55,6 +55,7 @@ import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.multipart.MultipartException;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.support.RequestMetrics;
 import org.springframework.web.util.NestedServletException;
 import org.springframework.web.util.WebUtils;
 
@@ -186,6 +187,12 @@ public class DispatcherServlet extends FrameworkServlet {
 	 */
 	public static final String FLASH_MAP_MANAGER_BEAN_NAME = "flashMapManager";
 
+	/**
+	 * Well-known name for the RequestMetrics object in the bean factory for this namespace.
+	 * @since 3.2.13
+	 */
+	public static final String REQUEST_METRICS_BEAN_NAME = "requestMetrics";
+
 	/**
 	 * Request attribute to hold the current web application context.
 	 * Otherwise only the global web app context is obtainable by tags etc.
@@ -301,6 +308,12 @@ public class DispatcherServlet extends FrameworkServlet {
 	/** List of ViewResolvers used by this servlet */
 	private List<ViewResolver> viewResolvers;
 
+	/** RequestMetrics set explicitly for this servlet */
+	private RequestMetrics configuredRequestMetrics;
+
+	/** RequestMetrics used by this servlet */
+	private RequestMetrics requestMetrics;
+
 	/**
 	 * Create a new {@code DispatcherServlet} that will create its own internal web
 	 * application context based on defaults and values provided through servlet
@@ -421,6 +434,19 @@ public class DispatcherServlet extends FrameworkServlet {
 		this.cleanupAfterInclude = cleanupAfterInclude;
 	}
 
+	/**
+	 * Set the {@link RequestMetrics} to record the requests processed by this
+	 * servlet with.
+	 * <p>Default is to use a bean named "requestMetrics" in this servlet's context,
+	 * if any, and to record no metrics otherwise.
+	 * @since 3.2.13
+	 * @see #REQUEST_METRICS_BEAN_NAME
+	 */
+	public void setRequestMetrics(RequestMetrics requestMetrics) {
+		this.configuredRequestMetrics = requestMetrics;
+		this.requestMetrics = requestMetrics;
+	}
+
 	/**
 	 * This implementation calls {@link #initStrategies}.
 	 */
@@ -443,6 +469,7 @@ public class DispatcherServlet extends FrameworkServlet {
 		initRequestToViewNameTranslator(context);
 		initViewResolvers(context);
 		initFlashMapManager(context);
+		initRequestMetrics(context);
 	}
 
 	/**
@@ -711,6 +738,32 @@ public class DispatcherServlet extends FrameworkServlet {
 		}
 	}
 
+	/**
+	 * Initialize the RequestMetrics used by this class, unless set explicitly.
+	 * <p>If no bean is defined with the given name in the BeanFactory for this namespace,
+	 * no request metrics are recorded.
+	 */
+	private void initRequestMetrics(ApplicationContext context) {
+		if (this.configuredRequestMetrics != null) {
+			this.requestMetrics = this.configuredRequestMetrics;
+			return;
+		}
+		try {
+			this.requestMetrics = context.getBean(REQUEST_METRICS_BEAN_NAME, RequestMetrics.class);
+			if (logger.isDebugEnabled()) {
+				logger.debug("Using RequestMetrics [" + this.requestMetrics + "]");
+			}
+		}
+		catch (NoSuchBeanDefinitionException ex) {
+			// Default is no request metrics.
+			this.requestMetrics = null;
+			if (logger.isDebugEnabled()) {
+				logger.debug("Unable to locate RequestMetrics with name '" + REQUEST_METRICS_BEAN_NAME +
+						"': no request metrics recorded");
+			}
+		}
+	}
+
 	/**
 	 * Return this servlet's ThemeSource, if any; else return {@code null}.
 	 * <p>Default is to return the WebApplicationContext as ThemeSource,
@@ -847,10 +900,23 @@ public class DispatcherServlet extends FrameworkServlet {
 		request.setAttribute(OUTPUT_FLASH_MAP_ATTRIBUTE, new FlashMap());
 		request.setAttribute(FLASH_MAP_MANAGER_ATTRIBUTE, this.flashMapManager);
 
+		boolean recordMetrics = (this.requestMetrics != null && this.requestMetrics.requestStarted(request));
+		Throwable failure = null;
 		try {
 			doDispatch(request, response);
 		}
+		catch (Exception ex) {
+			failure = ex;
+			throw ex;
+		}
+		catch (Error err) {
+			failure = err;
+			throw err;
+		}
 		finally {
+			if (recordMetrics) {
+				this.requestMetrics.requestCompleted(request, failure);
+			}
 			if (WebAsyncUtils.getAsyncManager(request).isConcurrentHandlingStarted()) {
 				return;
 			}
@@ -893,6 +959,9 @@ public class DispatcherServlet extends FrameworkServlet {
 					noHandlerFound(processedRequest, response);
 					return;
 				}
+				if (this.requestMetrics != null) {
+					this.requestMetrics.handlerSelected(processedRequest, mappedHandler.getHandler());
+				}
 
 				// Determine handler adapter for the current request.
 				HandlerAdapter ha = getHandlerAdapter(mappedHandler.getHandler());
@@ -929,6 +998,9 @@ public class DispatcherServlet extends FrameworkServlet {
 			}
 			catch (Exception ex) {
 				dispatchException = ex;
+				if (this.requestMetrics != null) {
+					this.requestMetrics.handlerFailed(processedRequest, ex);
+				}
 			}
 			processDispatchResult(processedRequest, response, mappedHandler, mv, dispatchException);
 		}
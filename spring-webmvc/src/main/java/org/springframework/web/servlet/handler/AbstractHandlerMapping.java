@@ -71,6 +71,8 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 
 	private final List<MappedInterceptor> mappedInterceptors = new ArrayList<MappedInterceptor>();
 
+	private volatile MappedInterceptorIndex mappedInterceptorIndex;
+
 
 	/**
 	 * Specify the order value for this HandlerMapping bean.
@@ -159,6 +161,7 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 	public void setPathMatcher(PathMatcher pathMatcher) {
 		Assert.notNull(pathMatcher, "PathMatcher must not be null");
 		this.pathMatcher = pathMatcher;
+		this.mappedInterceptorIndex = null;
 	}
 
 	/**
@@ -194,6 +197,7 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 		extendInterceptors(this.interceptors);
 		detectMappedInterceptors(this.mappedInterceptors);
 		initInterceptors();
+		this.mappedInterceptorIndex = null;
 	}
 
 	/**
@@ -346,14 +350,30 @@ public abstract class AbstractHandlerMapping extends WebApplicationObjectSupport
 				(HandlerExecutionChain) handler : new HandlerExecutionChain(handler));
 		chain.addInterceptors(getAdaptedInterceptors());
 
-		String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
-		for (MappedInterceptor mappedInterceptor : this.mappedInterceptors) {
-			if (mappedInterceptor.matches(lookupPath, this.pathMatcher)) {
-				chain.addInterceptor(mappedInterceptor.getInterceptor());
+		if (!this.mappedInterceptors.isEmpty()) {
+			String lookupPath = this.urlPathHelper.resolveLookupPath(request);
+			for (MappedInterceptor mappedInterceptor : getMappedInterceptorCandidates(lookupPath)) {
+				if (mappedInterceptor.matches(lookupPath, this.pathMatcher)) {
+					chain.addInterceptor(mappedInterceptor.getInterceptor());
+				}
 			}
 		}
 
 		return chain;
 	}
 
+	/**
+	 * Return the {@link MappedInterceptor}s that may apply to the given lookup path,
+	 * narrowed down through an index by first path segment when the default
+	 * {@link AntPathMatcher} is in use, or all mapped interceptors otherwise.
+	 */
+	private List<MappedInterceptor> getMappedInterceptorCandidates(String lookupPath) {
+		MappedInterceptorIndex index = this.mappedInterceptorIndex;
+		if (index == null) {
+			index = new MappedInterceptorIndex(this.mappedInterceptors, this.pathMatcher);
+			this.mappedInterceptorIndex = index;
+		}
+		return index.getCandidates(lookupPath);
+	}
+
 }
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * Index of {@link MappedInterceptor}s by the first, literal path segment of
+ * their include patterns. Narrows down the interceptors that can possibly
+ * apply to a lookup path, so that only those have to be matched against it.
+ *
+ * <p>The index is only built for a plain {@link AntPathMatcher} with "/" as
+ * path separator. For any other {@link PathMatcher} all interceptors are
+ * returned as candidates.
+ *
+ * <p>Interceptors without include patterns, or with an include pattern that
+ * starts with a wildcard or a URI variable, are candidates for every path.
+ * Candidates are returned in registration order, and the final decision is
+ * still made by {@link MappedInterceptor#matches}.
+ *
+ * @since 3.2.13
+ * @see AbstractHandlerMapping#getHandlerExecutionChain
+ */
+class MappedInterceptorIndex {
+
+	private static final String PATH_SEPARATOR = "/";
+
+
+	private final List<MappedInterceptor> allInterceptors;
+
+	private final boolean enabled;
+
+	private final MappedInterceptor[] interceptors;
+
+	private final Map<String, int[]> indexedPositions;
+
+	private final int[] unindexedPositions;
+
+
+	/**
+	 * Create an index for the given interceptors.
+	 * @param mappedInterceptors the interceptors, in registration order
+	 * @param pathMatcher the PathMatcher the interceptors are matched with
+	 */
+	public MappedInterceptorIndex(List<MappedInterceptor> mappedInterceptors, PathMatcher pathMatcher) {
+		this.allInterceptors = new ArrayList<MappedInterceptor>(mappedInterceptors);
+		this.enabled = supports(pathMatcher);
+		this.interceptors = mappedInterceptors.toArray(new MappedInterceptor[mappedInterceptors.size()]);
+		Map<String, List<Integer>> indexed = new HashMap<String, List<Integer>>();
+		List<Integer> unindexed = new ArrayList<Integer>();
+		for (int i = 0; i < this.interceptors.length; i++) {
+			Set<String> segments = (this.enabled ? getFirstSegments(this.interceptors[i].getPathPatterns()) : null);
+			if (segments == null) {
+				unindexed.add(i);
+				continue;
+			}
+			for (String segment : segments) {
+				List<Integer> positions = indexed.get(segment);
+				if (positions == null) {
+					positions = new ArrayList<Integer>();
+					indexed.put(segment, positions);
+				}
+				positions.add(i);
+			}
+		}
+		this.indexedPositions = new HashMap<String, int[]>(indexed.size());
+		for (Map.Entry<String, List<Integer>> entry : indexed.entrySet()) {
+			this.indexedPositions.put(entry.getKey(), toArray(entry.getValue()));
+		}
+		this.unindexedPositions = toArray(unindexed);
+	}
+
+
+	/**
+	 * Return the interceptors that may apply to the given lookup path,
+	 * in registration order.
+	 * @param lookupPath the lookup path of the current request
+	 */
+	public List<MappedInterceptor> getCandidates(String lookupPath) {
+		if (!this.enabled) {
+			return this.allInterceptors;
+		}
+		String segment = getFirstSegment(lookupPath);
+		int[] indexed = (segment != null ? this.indexedPositions.get(segment) : null);
+		int[] unindexed = this.unindexedPositions;
+		if (indexed == null && unindexed.length == 0) {
+			return Collections.emptyList();
+		}
+		List<MappedInterceptor> candidates = new ArrayList<MappedInterceptor>();
+		int i = 0;
+		int j = 0;
+		int indexedCount = (indexed != null ? indexed.length : 0);
+		while (i < indexedCount || j < unindexed.length) {
+			if (j == unindexed.length || (i < indexedCount && indexed[i] < unindexed[j])) {
+				candidates.add(this.interceptors[indexed[i++]]);
+			}
+			else {
+				candidates.add(this.interceptors[unindexed[j++]]);
+			}
+		}
+		return candidates;
+	}
+
+
+	/**
+	 * Whether the index can be used with the given PathMatcher, i.e. whether it
+	 * is a plain {@link AntPathMatcher} that uses "/" as path separator.
+	 */
+	private static boolean supports(PathMatcher pathMatcher) {
+		// With "/" as separator "/*" can only match a single path segment
+		return (pathMatcher.getClass() == AntPathMatcher.class && !pathMatcher.match("/*", "/a/b"));
+	}
+
+	/**
+	 * Return the literal first segments of the given include patterns,
+	 * or {@code null} if the patterns may match any path.
+	 */
+	private static Set<String> getFirstSegments(String[] patterns) {
+		if (patterns == null) {
+			return null;
+		}
+		Set<String> segments = new LinkedHashSet<String>();
+		for (String pattern : patterns) {
+			String[] tokens = StringUtils.tokenizeToStringArray(pattern, PATH_SEPARATOR, true, true);
+			if (tokens.length == 0 || isWildcardSegment(tokens[0])) {
+				return null;
+			}
+			segments.add(tokens[0]);
+		}
+		return segments;
+	}
+
+	private static boolean isWildcardSegment(String segment) {
+		return (segment.indexOf('*') != -1 || segment.indexOf('?') != -1 || segment.indexOf('{') != -1);
+	}
+
+	/**
+	 * Return the first non-empty, trimmed segment of the given path, consistent
+	 * with the tokenization applied by {@link AntPathMatcher}, or {@code null}.
+	 */
+	private static String getFirstSegment(String path) {
+		int start = 0;
+		while (start < path.length()) {
+			int end = path.indexOf(PATH_SEPARATOR, start);
+			if (end == -1) {
+				end = path.length();
+			}
+			String segment = path.substring(start, end).trim();
+			if (segment.length() > 0) {
+				return segment;
+			}
+			start = end + 1;
+		}
+		return null;
+	}
+
+	private static int[] toArray(List<Integer> list) {
+		int[] array = new int[list.size()];
+		for (int i = 0; i < array.length; i++) {
+			array[i] = list.get(i);
+		}
+		return array;
+	}
+
+}
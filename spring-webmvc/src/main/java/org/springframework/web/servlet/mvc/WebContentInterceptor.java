@@ -140,7 +140,7 @@ public class WebContentInterceptor extends WebContentGenerator implements Handle
 	public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler)
 		throws ServletException {
 
-		String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
+		String lookupPath = this.urlPathHelper.resolveLookupPath(request);
 		if (logger.isDebugEnabled()) {
 			logger.debug("Looking up cache seconds for [" + lookupPath + "]");
 		}
@@ -19,9 +19,12 @@ package org.springframework.web.servlet.mvc.method.annotation;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -32,6 +35,7 @@ import org.springframework.http.converter.HttpMessageConverter;
 import org.springframework.http.server.ServletServerHttpRequest;
 import org.springframework.http.server.ServletServerHttpResponse;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.ObjectUtils;
 import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.accept.ContentNegotiationManager;
 import org.springframework.web.context.request.NativeWebRequest;
@@ -43,6 +47,13 @@ import org.springframework.web.servlet.HandlerMapping;
  * Extends {@link AbstractMessageConverterMethodArgumentResolver} with the ability to handle
  * method return values by writing to the response with {@link HttpMessageConverter}s.
  *
+ * <p>The outcome of content negotiation, i.e. the selected media type and message
+ * converter, is memoized per combination of acceptable media types, return value
+ * class and producible media types of the request mapping, so that repeated
+ * requests from the same kind of client only need a single lookup. The memo is
+ * bounded to {@link #NEGOTIATION_CACHE_LIMIT} entries, evicting the least
+ * recently used ones first.
+ *
  * @author Arjen Poutsma
  * @author Rossen Stoyanchev
  * @since 3.1
@@ -50,10 +61,33 @@ import org.springframework.web.servlet.HandlerMapping;
 public abstract class AbstractMessageConverterMethodProcessor extends AbstractMessageConverterMethodArgumentResolver
 		implements HandlerMethodReturnValueHandler {
 
+	/** Maximum number of memoized content negotiation results: 256 */
+	public static final int NEGOTIATION_CACHE_LIMIT = 256;
+
 	private static final MediaType MEDIA_TYPE_APPLICATION = new MediaType("application");
 
 	private final ContentNegotiationManager contentNegotiationManager;
 
+	/** Fast access cache for negotiation results, without a global lock */
+	private final Map<NegotiationKey, NegotiationResult> negotiationAccessCache =
+			new ConcurrentHashMap<NegotiationKey, NegotiationResult>(NEGOTIATION_CACHE_LIMIT);
+
+	/** Map from negotiation key to result, synchronized when adding entries */
+	@SuppressWarnings("serial")
+	private final Map<NegotiationKey, NegotiationResult> negotiationCreationCache =
+			new LinkedHashMap<NegotiationKey, NegotiationResult>(NEGOTIATION_CACHE_LIMIT, 0.75f, true) {
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<NegotiationKey, NegotiationResult> eldest) {
+					if (size() > NEGOTIATION_CACHE_LIMIT) {
+						negotiationAccessCache.remove(eldest.getKey());
+						return true;
+					}
+					else {
+						return false;
+					}
+				}
+			};
+
 
 	protected AbstractMessageConverterMethodProcessor(List<HttpMessageConverter<?>> messageConverters) {
 		this(messageConverters, null);
@@ -107,6 +141,32 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		Class<?> returnValueClass = returnValue.getClass();
 		HttpServletRequest servletRequest = inputMessage.getServletRequest();
 		List<MediaType> requestedMediaTypes = getAcceptableMediaTypes(servletRequest);
+		NegotiationKey key = new NegotiationKey(requestedMediaTypes, returnValueClass,
+				servletRequest.getAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE));
+		NegotiationResult result = this.negotiationAccessCache.get(key);
+		if (result == null) {
+			result = negotiate(servletRequest, requestedMediaTypes, returnValueClass);
+			synchronized (this.negotiationCreationCache) {
+				this.negotiationAccessCache.put(key, result);
+				this.negotiationCreationCache.put(key, result);
+			}
+		}
+
+		((HttpMessageConverter<T>) result.messageConverter).write(returnValue, result.mediaType, outputMessage);
+		if (logger.isDebugEnabled()) {
+			logger.debug("Written [" + returnValue + "] as \"" + result.mediaType + "\" using [" +
+					result.messageConverter + "]");
+		}
+	}
+
+	/**
+	 * Select the media type and the message converter to write a return value
+	 * of the given class with.
+	 * @throws HttpMediaTypeNotAcceptableException if no suitable combination was found
+	 */
+	private NegotiationResult negotiate(HttpServletRequest servletRequest, List<MediaType> requestedMediaTypes,
+			Class<?> returnValueClass) throws HttpMediaTypeNotAcceptableException {
+
 		List<MediaType> producibleMediaTypes = getProducibleMediaTypes(servletRequest, returnValueClass);
 
 		Set<MediaType> compatibleMediaTypes = new LinkedHashSet<MediaType>();
@@ -140,12 +200,7 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 			selectedMediaType = selectedMediaType.removeQualityValue();
 			for (HttpMessageConverter<?> messageConverter : this.messageConverters) {
 				if (messageConverter.canWrite(returnValueClass, selectedMediaType)) {
-					((HttpMessageConverter<T>) messageConverter).write(returnValue, selectedMediaType, outputMessage);
-					if (logger.isDebugEnabled()) {
-						logger.debug("Written [" + returnValue + "] as \"" + selectedMediaType + "\" using [" +
-								messageConverter + "]");
-					}
-					return;
+					return new NegotiationResult(selectedMediaType, messageConverter);
 				}
 			}
 		}
@@ -194,4 +249,61 @@ public abstract class AbstractMessageConverterMethodProcessor extends AbstractMe
 		return (MediaType.SPECIFICITY_COMPARATOR.compare(acceptType, produceTypeToUse) <= 0 ? acceptType : produceTypeToUse);
 	}
 
+
+	/**
+	 * Key for memoized content negotiation results.
+	 */
+	private static final class NegotiationKey {
+
+		private final List<MediaType> requestedMediaTypes;
+
+		private final Class<?> returnValueClass;
+
+		private final Object producibleMediaTypes;
+
+		public NegotiationKey(List<MediaType> requestedMediaTypes, Class<?> returnValueClass,
+				Object producibleMediaTypes) {
+
+			this.requestedMediaTypes = requestedMediaTypes;
+			this.returnValueClass = returnValueClass;
+			this.producibleMediaTypes = producibleMediaTypes;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof NegotiationKey)) {
+				return false;
+			}
+			NegotiationKey otherKey = (NegotiationKey) other;
+			return (this.returnValueClass == otherKey.returnValueClass &&
+					this.requestedMediaTypes.equals(otherKey.requestedMediaTypes) &&
+					ObjectUtils.nullSafeEquals(this.producibleMediaTypes, otherKey.producibleMediaTypes));
+		}
+
+		@Override
+		public int hashCode() {
+			return (this.returnValueClass.hashCode() * 29 + this.requestedMediaTypes.hashCode()) * 29 +
+					ObjectUtils.nullSafeHashCode(this.producibleMediaTypes);
+		}
+	}
+
+
+	/**
+	 * Memoized content negotiation result: the media type and the converter to write with.
+	 */
+	private static final class NegotiationResult {
+
+		private final MediaType mediaType;
+
+		private final HttpMessageConverter<?> messageConverter;
+
+		public NegotiationResult(MediaType mediaType, HttpMessageConverter<?> messageConverter) {
+			this.mediaType = mediaType;
+			this.messageConverter = messageConverter;
+		}
+	}
+
 }
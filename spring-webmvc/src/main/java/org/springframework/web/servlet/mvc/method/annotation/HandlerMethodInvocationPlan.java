@@ -0,0 +1,185 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Proxy;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.cglib.reflect.FastClass;
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.method.annotation.SessionAttributesHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandlerComposite;
+
+/**
+ * Per-{@link org.springframework.web.method.HandlerMethod} information computed
+ * once by {@link RequestMappingHandlerAdapter} and reused for every request
+ * mapped to that method: which processing steps apply, the return value
+ * handlers selected for it, and optionally a generated invoker for the
+ * method itself.
+ *
+ * @since 3.2.13
+ */
+final class HandlerMethodInvocationPlan {
+
+	private static final Log logger = LogFactory.getLog(HandlerMethodInvocationPlan.class);
+
+	private final SessionAttributesHandler sessionAttributesHandler;
+
+	private final Set<Method> initBinderMethods;
+
+	private final Set<Method> modelAttributeMethods;
+
+	private final WebDataBinderFactory sharedBinderFactory;
+
+	private final boolean modelInitRequired;
+
+	private final Class<?> invokerTargetClass;
+
+	private final FastClass fastClass;
+
+	private final int fastMethodIndex;
+
+	private final Map<Class<?>, HandlerMethodReturnValueHandler> returnValueHandlerCache =
+			new ConcurrentHashMap<Class<?>, HandlerMethodReturnValueHandler>(4);
+
+
+	/**
+	 * Create a new plan.
+	 * @param sessionAttributesHandler the handler for the controller's session attributes
+	 * @param initBinderMethods the controller's own {@code @InitBinder} methods
+	 * @param modelAttributeMethods the controller's own {@code @ModelAttribute} methods
+	 * @param sharedBinderFactory a binder factory that may be shared across requests,
+	 * or {@code null} if {@code @InitBinder} methods apply and a factory must be
+	 * created per request
+	 * @param modelInitRequired whether the model needs to be initialized through a
+	 * {@link org.springframework.web.method.annotation.ModelFactory} before invocation
+	 * @param invokerTargetClass the class of the handler instance to generate an
+	 * invoker for, or {@code null} to always invoke the method through reflection
+	 * @param method the (bridged) handler method
+	 */
+	public HandlerMethodInvocationPlan(SessionAttributesHandler sessionAttributesHandler,
+			Set<Method> initBinderMethods, Set<Method> modelAttributeMethods,
+			WebDataBinderFactory sharedBinderFactory, boolean modelInitRequired,
+			Class<?> invokerTargetClass, Method method) {
+
+		this.sessionAttributesHandler = sessionAttributesHandler;
+		this.initBinderMethods = initBinderMethods;
+		this.modelAttributeMethods = modelAttributeMethods;
+		this.sharedBinderFactory = sharedBinderFactory;
+		this.modelInitRequired = modelInitRequired;
+		FastClass fastClass = (invokerTargetClass != null ? createFastClass(invokerTargetClass, method) : null);
+		this.fastClass = fastClass;
+		this.fastMethodIndex = (fastClass != null ?
+				fastClass.getIndex(method.getName(), method.getParameterTypes()) : -1);
+		this.invokerTargetClass = (this.fastMethodIndex >= 0 ? invokerTargetClass : null);
+	}
+
+	private static FastClass createFastClass(Class<?> targetClass, Method method) {
+		if (!Modifier.isPublic(targetClass.getModifiers()) || !Modifier.isPublic(method.getModifiers()) ||
+				!method.getDeclaringClass().isAssignableFrom(targetClass) ||
+				targetClass.getClassLoader() == null || Proxy.isProxyClass(targetClass)) {
+			return null;
+		}
+		try {
+			return FastClass.create(targetClass);
+		}
+		catch (Throwable ex) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Could not generate invoker class for [" + targetClass.getName() +
+						"] - falling back to reflection", ex);
+			}
+			return null;
+		}
+	}
+
+
+	public SessionAttributesHandler getSessionAttributesHandler() {
+		return this.sessionAttributesHandler;
+	}
+
+	public Set<Method> getInitBinderMethods() {
+		return this.initBinderMethods;
+	}
+
+	public Set<Method> getModelAttributeMethods() {
+		return this.modelAttributeMethods;
+	}
+
+	/**
+	 * Return the binder factory to share across requests, or {@code null}
+	 * if a binder factory needs to be created for each request.
+	 */
+	public WebDataBinderFactory getSharedBinderFactory() {
+		return this.sharedBinderFactory;
+	}
+
+	/**
+	 * Whether {@code @ModelAttribute} methods or session attributes need to
+	 * be applied to the model before the handler method is invoked.
+	 */
+	public boolean isModelInitRequired() {
+		return this.modelInitRequired;
+	}
+
+	/**
+	 * Whether the given handler instance can be called through the generated invoker.
+	 */
+	public boolean hasInvokerFor(Object bean) {
+		return (this.invokerTargetClass != null && bean.getClass() == this.invokerTargetClass);
+	}
+
+	/**
+	 * Call the handler method on the given instance through the generated invoker.
+	 * Only to be called if {@link #hasInvokerFor} returned {@code true}.
+	 */
+	public Object invoke(Object bean, Object[] args) throws InvocationTargetException {
+		return this.fastClass.invoke(this.fastMethodIndex, bean, args);
+	}
+
+	/**
+	 * Return the handler for the given return type from the given composite,
+	 * remembering the choice per actual return value type.
+	 * @return the handler, or {@code null} if none of the handlers supports it
+	 */
+	public HandlerMethodReturnValueHandler getReturnValueHandler(MethodParameter returnType,
+			HandlerMethodReturnValueHandlerComposite returnValueHandlers) {
+
+		Class<?> returnValueType = returnType.getParameterType();
+		HandlerMethodReturnValueHandler result = this.returnValueHandlerCache.get(returnValueType);
+		if (result == null) {
+			for (HandlerMethodReturnValueHandler handler : returnValueHandlers.getHandlers()) {
+				if (handler.supportsReturnType(returnType)) {
+					result = handler;
+					this.returnValueHandlerCache.put(returnValueType, result);
+					break;
+				}
+			}
+		}
+		return result;
+	}
+
+}
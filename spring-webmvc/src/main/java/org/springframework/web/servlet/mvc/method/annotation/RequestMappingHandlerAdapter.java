@@ -35,6 +35,7 @@ import org.springframework.beans.factory.BeanFactory;
 import org.springframework.beans.factory.BeanFactoryAware;
 import org.springframework.beans.factory.InitializingBean;
 import org.springframework.beans.factory.config.ConfigurableBeanFactory;
+import org.springframework.core.BridgeMethodResolver;
 import org.springframework.core.LocalVariableTableParameterNameDiscoverer;
 import org.springframework.core.OrderComparator;
 import org.springframework.core.ParameterNameDiscoverer;
@@ -151,6 +152,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 
 	private ParameterNameDiscoverer parameterNameDiscoverer = new LocalVariableTableParameterNameDiscoverer();
 
+	private boolean fastInvocation = false;
+
 	private ConfigurableBeanFactory beanFactory;
 
 
@@ -167,6 +170,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	private final Map<ControllerAdviceBean, Set<Method>> modelAttributeAdviceCache =
 			new LinkedHashMap<ControllerAdviceBean, Set<Method>>();
 
+	private final Map<InvocationPlanKey, HandlerMethodInvocationPlan> invocationPlanCache =
+			new ConcurrentHashMap<InvocationPlanKey, HandlerMethodInvocationPlan>(64);
+
 
 	public RequestMappingHandlerAdapter() {
 		StringHttpMessageConverter stringHttpMessageConverter = new StringHttpMessageConverter();
@@ -456,6 +462,28 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		this.parameterNameDiscoverer = parameterNameDiscoverer;
 	}
 
+	/**
+	 * Set whether {@code @RequestMapping} methods should be called through
+	 * generated invoker classes (CGLIB {@code FastClass}) instead of through
+	 * reflection. Default is "false".
+	 * <p>Invokers are generated once per handler method and controller class.
+	 * Non-public controller classes or methods and JDK dynamic proxies are
+	 * always called through reflection.
+	 * @since 3.2.13
+	 */
+	public void setFastInvocation(boolean fastInvocation) {
+		this.fastInvocation = fastInvocation;
+	}
+
+	/**
+	 * Return whether {@code @RequestMapping} methods are called through
+	 * generated invoker classes instead of through reflection.
+	 * @since 3.2.13
+	 */
+	public boolean isFastInvocation() {
+		return this.fastInvocation;
+	}
+
 	/**
 	 * A {@link ConfigurableBeanFactory} is expected for resolving expressions
 	 * in method argument default values.
@@ -522,6 +550,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		resolvers.add(new ErrorsMethodArgumentResolver());
 		resolvers.add(new SessionStatusMethodArgumentResolver());
 		resolvers.add(new UriComponentsBuilderMethodArgumentResolver());
+		resolvers.add(new StreamingPartMethodArgumentResolver());
 
 		// Custom arguments
 		if (getCustomArgumentResolvers() != null) {
@@ -581,6 +610,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		handlers.add(new CallableMethodReturnValueHandler());
 		handlers.add(new DeferredResultMethodReturnValueHandler());
 		handlers.add(new AsyncTaskMethodReturnValueHandler(this.beanFactory));
+		handlers.add(new ResponseBodyEmitterReturnValueHandler(getMessageConverters()));
 
 		// Annotation-based return value types
 		handlers.add(new ModelAttributeMethodProcessor(false));
@@ -649,7 +679,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	protected final ModelAndView handleInternal(HttpServletRequest request,
 			HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
 
-		if (getSessionAttributesHandler(handlerMethod).hasSessionAttributes()) {
+		HandlerMethodInvocationPlan plan = getInvocationPlan(handlerMethod);
+
+		if (plan.getSessionAttributesHandler().hasSessionAttributes()) {
 			// Always prevent caching in case of session attribute management.
 			checkAndPrepare(request, response, this.cacheSecondsForSessionAttributeHandlers, true);
 		}
@@ -664,12 +696,12 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			if (session != null) {
 				Object mutex = WebUtils.getSessionMutex(session);
 				synchronized (mutex) {
-					return invokeHandleMethod(request, response, handlerMethod);
+					return invokeHandleMethod(request, response, handlerMethod, plan);
 				}
 			}
 		}
 
-		return invokeHandleMethod(request, response, handlerMethod);
+		return invokeHandleMethod(request, response, handlerMethod, plan);
 	}
 
 	/**
@@ -702,22 +734,68 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return sessionAttrHandler;
 	}
 
+	/**
+	 * Return the {@link HandlerMethodInvocationPlan} for the given handler method,
+	 * computing it on first use.
+	 */
+	private HandlerMethodInvocationPlan getInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		InvocationPlanKey key = new InvocationPlanKey(handlerMethod.getBeanType(), handlerMethod.getMethod());
+		HandlerMethodInvocationPlan plan = this.invocationPlanCache.get(key);
+		if (plan == null) {
+			plan = createInvocationPlan(handlerMethod);
+			this.invocationPlanCache.put(key, plan);
+		}
+		return plan;
+	}
+
+	private HandlerMethodInvocationPlan createInvocationPlan(HandlerMethod handlerMethod) throws Exception {
+		Class<?> handlerType = handlerMethod.getBeanType();
+		SessionAttributesHandler sessionAttrHandler = getSessionAttributesHandler(handlerMethod);
+		Set<Method> binderMethods = this.initBinderCache.get(handlerType);
+		if (binderMethods == null) {
+			binderMethods = HandlerMethodSelector.selectMethods(handlerType, INIT_BINDER_METHODS);
+			this.initBinderCache.put(handlerType, binderMethods);
+		}
+		Set<Method> attrMethods = this.modelAttributeCache.get(handlerType);
+		if (attrMethods == null) {
+			attrMethods = HandlerMethodSelector.selectMethods(handlerType, MODEL_ATTRIBUTE_METHODS);
+			this.modelAttributeCache.put(handlerType, attrMethods);
+		}
+		// Without any @InitBinder methods a binder factory holds no per-request state
+		WebDataBinderFactory sharedBinderFactory = null;
+		if (binderMethods.isEmpty() && this.initBinderAdviceCache.isEmpty()) {
+			sharedBinderFactory = createDataBinderFactory(Collections.<InvocableHandlerMethod>emptyList());
+		}
+		boolean modelInitRequired = (!attrMethods.isEmpty() || !this.modelAttributeAdviceCache.isEmpty() ||
+				sessionAttrHandler.hasSessionAttributes());
+		Class<?> invokerTargetClass = (this.fastInvocation ? handlerMethod.getBean().getClass() : null);
+		return new HandlerMethodInvocationPlan(sessionAttrHandler, binderMethods, attrMethods,
+				sharedBinderFactory, modelInitRequired, invokerTargetClass, BridgeMethodResolver.findBridgedMethod(handlerMethod.getMethod()));
+	}
+
 	/**
 	 * Invoke the {@link RequestMapping} handler method preparing a {@link ModelAndView}
 	 * if view resolution is required.
 	 */
-	private ModelAndView invokeHandleMethod(HttpServletRequest request,
-			HttpServletResponse response, HandlerMethod handlerMethod) throws Exception {
+	private ModelAndView invokeHandleMethod(HttpServletRequest request, HttpServletResponse response,
+			HandlerMethod handlerMethod, HandlerMethodInvocationPlan plan) throws Exception {
 
 		ServletWebRequest webRequest = new ServletWebRequest(request, response);
 
-		WebDataBinderFactory binderFactory = getDataBinderFactory(handlerMethod);
-		ModelFactory modelFactory = getModelFactory(handlerMethod, binderFactory);
-		ServletInvocableHandlerMethod requestMappingMethod = createRequestMappingMethod(handlerMethod, binderFactory);
+		WebDataBinderFactory binderFactory = plan.getSharedBinderFactory();
+		if (binderFactory == null) {
+			binderFactory = getDataBinderFactory(handlerMethod, plan);
+		}
+		ServletInvocableHandlerMethod requestMappingMethod =
+				createRequestMappingMethod(handlerMethod, binderFactory, plan);
 
 		ModelAndViewContainer mavContainer = new ModelAndViewContainer();
 		mavContainer.addAllAttributes(RequestContextUtils.getInputFlashMap(request));
-		modelFactory.initModel(webRequest, mavContainer, requestMappingMethod);
+		ModelFactory modelFactory = null;
+		if (plan.isModelInitRequired()) {
+			modelFactory = getModelFactory(handlerMethod, binderFactory, plan);
+			modelFactory.initModel(webRequest, mavContainer, requestMappingMethod);
+		}
 		mavContainer.setIgnoreDefaultModelOnRedirect(this.ignoreDefaultModelOnRedirect);
 
 		AsyncWebRequest asyncWebRequest = WebAsyncUtils.createAsyncWebRequest(request, response);
@@ -746,11 +824,15 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 			return null;
 		}
 
+		if (modelFactory == null && !mavContainer.isRequestHandled()) {
+			// No model initialization was needed, but binding results may still have to be added
+			modelFactory = new ModelFactory(null, binderFactory, plan.getSessionAttributesHandler());
+		}
 		return getModelAndView(mavContainer, modelFactory, webRequest);
 	}
 
-	private ServletInvocableHandlerMethod createRequestMappingMethod(
-			HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
+	private ServletInvocableHandlerMethod createRequestMappingMethod(HandlerMethod handlerMethod,
+			WebDataBinderFactory binderFactory, HandlerMethodInvocationPlan plan) {
 
 		ServletInvocableHandlerMethod requestMethod;
 		requestMethod = new ServletInvocableHandlerMethod(handlerMethod);
@@ -758,17 +840,13 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		requestMethod.setHandlerMethodReturnValueHandlers(this.returnValueHandlers);
 		requestMethod.setDataBinderFactory(binderFactory);
 		requestMethod.setParameterNameDiscoverer(this.parameterNameDiscoverer);
+		requestMethod.setInvocationPlan(plan);
 		return requestMethod;
 	}
 
-	private ModelFactory getModelFactory(HandlerMethod handlerMethod, WebDataBinderFactory binderFactory) {
-		SessionAttributesHandler sessionAttrHandler = getSessionAttributesHandler(handlerMethod);
-		Class<?> handlerType = handlerMethod.getBeanType();
-		Set<Method> methods = this.modelAttributeCache.get(handlerType);
-		if (methods == null) {
-			methods = HandlerMethodSelector.selectMethods(handlerType, MODEL_ATTRIBUTE_METHODS);
-			this.modelAttributeCache.put(handlerType, methods);
-		}
+	private ModelFactory getModelFactory(HandlerMethod handlerMethod, WebDataBinderFactory binderFactory,
+			HandlerMethodInvocationPlan plan) {
+
 		List<InvocableHandlerMethod> attrMethods = new ArrayList<InvocableHandlerMethod>();
 		// Global methods first
 		for (Entry<ControllerAdviceBean, Set<Method>> entry : this.modelAttributeAdviceCache.entrySet()) {
@@ -777,11 +855,11 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 				attrMethods.add(createModelAttributeMethod(binderFactory, bean, method));
 			}
 		}
-		for (Method method : methods) {
+		for (Method method : plan.getModelAttributeMethods()) {
 			Object bean = handlerMethod.getBean();
 			attrMethods.add(createModelAttributeMethod(binderFactory, bean, method));
 		}
-		return new ModelFactory(attrMethods, binderFactory, sessionAttrHandler);
+		return new ModelFactory(attrMethods, binderFactory, plan.getSessionAttributesHandler());
 	}
 
 	private InvocableHandlerMethod createModelAttributeMethod(WebDataBinderFactory factory, Object bean, Method method) {
@@ -792,13 +870,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		return attrMethod;
 	}
 
-	private WebDataBinderFactory getDataBinderFactory(HandlerMethod handlerMethod) throws Exception {
-		Class<?> handlerType = handlerMethod.getBeanType();
-		Set<Method> methods = this.initBinderCache.get(handlerType);
-		if (methods == null) {
-			methods = HandlerMethodSelector.selectMethods(handlerType, INIT_BINDER_METHODS);
-			this.initBinderCache.put(handlerType, methods);
-		}
+	private WebDataBinderFactory getDataBinderFactory(HandlerMethod handlerMethod, HandlerMethodInvocationPlan plan)
+			throws Exception {
+
 		List<InvocableHandlerMethod> initBinderMethods = new ArrayList<InvocableHandlerMethod>();
 		// Global methods first
 		for (Entry<ControllerAdviceBean, Set<Method>> entry : this.initBinderAdviceCache .entrySet()) {
@@ -807,7 +881,7 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 				initBinderMethods.add(createInitBinderMethod(bean, method));
 			}
 		}
-		for (Method method : methods) {
+		for (Method method : plan.getInitBinderMethods()) {
 			Object bean = handlerMethod.getBean();
 			initBinderMethods.add(createInitBinderMethod(bean, method));
 		}
@@ -826,6 +900,8 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	 * Template method to create a new ServletRequestDataBinderFactory instance.
 	 * <p>The default implementation creates a ServletRequestDataBinderFactory.
 	 * This can be overridden for custom ServletRequestDataBinder subclasses.
+	 * <p>If no {@code @InitBinder} methods apply to a handler, the factory is
+	 * created once and shared across all requests for that handler.
 	 * @param binderMethods {@code @InitBinder} methods
 	 * @return the ServletRequestDataBinderFactory instance to use
 	 * @throws Exception in case of invalid state or arguments
@@ -839,7 +915,9 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 	private ModelAndView getModelAndView(ModelAndViewContainer mavContainer,
 			ModelFactory modelFactory, NativeWebRequest webRequest) throws Exception {
 
-		modelFactory.updateModel(webRequest, mavContainer);
+		if (modelFactory != null) {
+			modelFactory.updateModel(webRequest, mavContainer);
+		}
 		if (mavContainer.isRequestHandled()) {
 			return null;
 		}
@@ -878,4 +956,38 @@ public class RequestMappingHandlerAdapter extends AbstractHandlerMethodAdapter
 		}
 	};
 
+
+	/**
+	 * Cache key for invocation plans: the controller type along with the handler
+	 * method, since the same method may be mapped for several controller types.
+	 */
+	private static class InvocationPlanKey {
+
+		private final Class<?> handlerType;
+
+		private final Method method;
+
+		public InvocationPlanKey(Class<?> handlerType, Method method) {
+			this.handlerType = handlerType;
+			this.method = method;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof InvocationPlanKey)) {
+				return false;
+			}
+			InvocationPlanKey otherKey = (InvocationPlanKey) other;
+			return (this.handlerType == otherKey.handlerType && this.method.equals(otherKey.method));
+		}
+
+		@Override
+		public int hashCode() {
+			return this.handlerType.hashCode() * 29 + this.method.hashCode();
+		}
+	}
+
 }
@@ -0,0 +1,315 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.util.Assert;
+
+/**
+ * A controller method return value type for asynchronous request processing
+ * where one or more objects are written to the response over time.
+ *
+ * <p>While {@link org.springframework.web.context.request.async.DeferredResult}
+ * produces a single result, a {@code ResponseBodyEmitter} can be used to send
+ * multiple objects, each written with a compatible
+ * {@link org.springframework.http.converter.HttpMessageConverter} and flushed
+ * right away. No servlet container thread is held in the meantime.
+ *
+ * <p>Example usage:
+ * <pre class="code">
+ * &#064;RequestMapping(value="/stream", method=RequestMethod.GET)
+ * public ResponseBodyEmitter handle() {
+ * 	ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+ * 	// Pass the emitter to another component...
+ * 	return emitter;
+ * }
+ *
+ * // in another thread
+ * emitter.send(foo1);
+ *
+ * // and again
+ * emitter.send(foo2);
+ *
+ * // and done
+ * emitter.complete();
+ * </pre>
+ *
+ * <p>Objects sent before the emitter is initialized by its
+ * {@link ResponseBodyEmitterReturnValueHandler}, i.e. before the controller
+ * method has returned, are buffered and written once the response is ready.
+ *
+ * @since 3.2.13
+ * @see SseEmitter
+ * @see ResponseBodyEmitterReturnValueHandler
+ */
+public class ResponseBodyEmitter {
+
+	private final Long timeout;
+
+	private Handler handler;
+
+	private final List<DataWithMediaType> earlySendAttempts = new ArrayList<DataWithMediaType>(8);
+
+	private boolean complete;
+
+	private Throwable failure;
+
+	private Runnable timeoutCallback;
+
+	private Runnable completionCallback;
+
+
+	/**
+	 * Create a new ResponseBodyEmitter instance.
+	 * <p>By default the async request timeout configured in the MVC Java Config
+	 * or the MVC namespace applies, or otherwise the servlet container's default.
+	 */
+	public ResponseBodyEmitter() {
+		this.timeout = null;
+	}
+
+	/**
+	 * Create a ResponseBodyEmitter with a custom timeout value.
+	 * @param timeout timeout value in milliseconds
+	 */
+	public ResponseBodyEmitter(Long timeout) {
+		this.timeout = timeout;
+	}
+
+
+	/**
+	 * Return the configured timeout value, if any.
+	 */
+	public Long getTimeout() {
+		return this.timeout;
+	}
+
+	/**
+	 * Invoked by the return value handler once the response is ready: sends
+	 * buffered objects and applies a completion requested in the meantime.
+	 */
+	synchronized void initialize(Handler handler) {
+		this.handler = handler;
+		try {
+			for (DataWithMediaType sendAttempt : this.earlySendAttempts) {
+				sendInternal(sendAttempt.getData(), sendAttempt.getMediaType());
+			}
+		}
+		catch (Throwable ex) {
+			// Already completed with the error by sendInternal
+		}
+		finally {
+			this.earlySendAttempts.clear();
+		}
+		if (this.complete) {
+			if (this.failure != null) {
+				this.handler.completeWithError(this.failure);
+			}
+			else {
+				this.handler.complete();
+			}
+		}
+		else {
+			this.handler.onTimeout(new Runnable() {
+				public void run() {
+					handleTimeout();
+				}
+			});
+			this.handler.onCompletion(new Runnable() {
+				public void run() {
+					handleCompletion();
+				}
+			});
+		}
+	}
+
+	/**
+	 * Invoked before the response is committed, allowing subclasses to add
+	 * headers such as the content type.
+	 */
+	protected void extendResponse(ServerHttpResponse outputMessage) {
+	}
+
+	/**
+	 * Write the given object to the response.
+	 * <p>If any exception occurs a dispatch is made back to the app server
+	 * where Spring MVC will pass the exception through its exception handling
+	 * mechanism.
+	 * @param object the object to write
+	 * @throws IOException raised when an I/O error occurs
+	 * @throws java.lang.IllegalStateException wraps any other errors
+	 */
+	public void send(Object object) throws IOException {
+		send(object, null);
+	}
+
+	/**
+	 * Write the given object to the response also using a MediaType hint.
+	 * @param object the object to write
+	 * @param mediaType a MediaType hint for selecting an HttpMessageConverter
+	 * @throws IOException raised when an I/O error occurs
+	 * @throws java.lang.IllegalStateException wraps any other errors
+	 */
+	public synchronized void send(Object object, MediaType mediaType) throws IOException {
+		Assert.state(!this.complete, "ResponseBodyEmitter is already set complete");
+		sendInternal(object, mediaType);
+	}
+
+	private void sendInternal(Object object, MediaType mediaType) throws IOException {
+		if (object == null) {
+			return;
+		}
+		if (this.handler == null) {
+			this.earlySendAttempts.add(new DataWithMediaType(object, mediaType));
+			return;
+		}
+		try {
+			this.handler.send(object, mediaType);
+		}
+		catch (IOException ex) {
+			completeWithError(ex);
+			throw ex;
+		}
+		catch (Throwable ex) {
+			completeWithError(ex);
+			throw new IllegalStateException("Failed to send " + object, ex);
+		}
+	}
+
+	/**
+	 * Complete request processing.
+	 * <p>A dispatch is made into the app server where Spring MVC completes
+	 * asynchronous request processing.
+	 */
+	public synchronized void complete() {
+		if (this.complete) {
+			return;
+		}
+		this.complete = true;
+		if (this.handler != null) {
+			this.handler.complete();
+		}
+	}
+
+	/**
+	 * Complete request processing with an error.
+	 * <p>A dispatch is made into the app server where Spring MVC will pass the
+	 * exception through its exception handling mechanism.
+	 */
+	public synchronized void completeWithError(Throwable ex) {
+		if (this.complete) {
+			return;
+		}
+		this.complete = true;
+		this.failure = ex;
+		if (this.handler != null) {
+			this.handler.completeWithError(ex);
+		}
+	}
+
+	/**
+	 * Register code to invoke when the async request times out. This method is
+	 * called from a container thread when an async request times out. The
+	 * stream is completed afterwards unless the callback completes it itself.
+	 */
+	public synchronized void onTimeout(Runnable callback) {
+		this.timeoutCallback = callback;
+	}
+
+	/**
+	 * Register code to invoke when the async request completes. This method is
+	 * called from a container thread when an async request completed for any
+	 * reason including timeout and network error. This method is useful for
+	 * detecting that a {@code ResponseBodyEmitter} instance is no longer usable.
+	 */
+	public synchronized void onCompletion(Runnable callback) {
+		this.completionCallback = callback;
+	}
+
+	private void handleTimeout() {
+		Runnable callback;
+		synchronized (this) {
+			callback = this.timeoutCallback;
+		}
+		if (callback != null) {
+			callback.run();
+		}
+		complete();
+	}
+
+	private void handleCompletion() {
+		Runnable callback;
+		synchronized (this) {
+			this.complete = true;
+			callback = this.completionCallback;
+		}
+		if (callback != null) {
+			callback.run();
+		}
+	}
+
+
+	/**
+	 * Contract to handle the sending of event data, the completion of event
+	 * sending, and the registration of callbacks to be invoked in case of
+	 * timeout, error, and completion for any reason (including from the
+	 * container side).
+	 */
+	interface Handler {
+
+		void send(Object data, MediaType mediaType) throws IOException;
+
+		void complete();
+
+		void completeWithError(Throwable failure);
+
+		void onTimeout(Runnable callback);
+
+		void onCompletion(Runnable callback);
+	}
+
+
+	/**
+	 * A simple holder of data to be written along with a MediaType hint for
+	 * selecting a message converter to write with.
+	 */
+	public static class DataWithMediaType {
+
+		private final Object data;
+
+		private final MediaType mediaType;
+
+		public DataWithMediaType(Object data, MediaType mediaType) {
+			this.data = data;
+			this.mediaType = mediaType;
+		}
+
+		public Object getData() {
+			return this.data;
+		}
+
+		public MediaType getMediaType() {
+			return this.mediaType;
+		}
+	}
+
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.util.Assert;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.HandlerMethodReturnValueHandler;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Handles return values of type {@link ResponseBodyEmitter} (including the
+ * {@link SseEmitter} sub-class).
+ *
+ * <p>The response headers are committed right away and asynchronous processing
+ * is started through the {@link org.springframework.web.context.request.async.WebAsyncManager}
+ * with an internal {@link DeferredResult}. Completion, errors and timeouts of
+ * the emitter therefore go through the same lifecycle as for a DeferredResult.
+ * Each object sent is written with the first of the configured
+ * {@link HttpMessageConverter}s that can write it, and flushed immediately.
+ *
+ * @since 3.2.13
+ */
+public class ResponseBodyEmitterReturnValueHandler implements HandlerMethodReturnValueHandler {
+
+	private final List<HttpMessageConverter<?>> messageConverters;
+
+
+	public ResponseBodyEmitterReturnValueHandler(List<HttpMessageConverter<?>> messageConverters) {
+		Assert.notEmpty(messageConverters, "'messageConverters' must not be empty");
+		this.messageConverters = messageConverters;
+	}
+
+
+	public boolean supportsReturnType(MethodParameter returnType) {
+		return ResponseBodyEmitter.class.isAssignableFrom(returnType.getParameterType());
+	}
+
+	public void handleReturnValue(Object returnValue, MethodParameter returnType,
+			ModelAndViewContainer mavContainer, NativeWebRequest webRequest) throws Exception {
+
+		mavContainer.setRequestHandled(true);
+		if (returnValue == null) {
+			return;
+		}
+
+		HttpServletResponse response = webRequest.getNativeResponse(HttpServletResponse.class);
+		ServerHttpResponse outputMessage = new ServletServerHttpResponse(response);
+
+		ResponseBodyEmitter emitter = (ResponseBodyEmitter) returnValue;
+		emitter.extendResponse(outputMessage);
+
+		// Commit the response
+		outputMessage.getBody().flush();
+
+		DeferredResult<Object> deferredResult = (emitter.getTimeout() != null ?
+				new DeferredResult<Object>(emitter.getTimeout()) : new DeferredResult<Object>());
+		WebAsyncUtils.getAsyncManager(webRequest).startDeferredResultProcessing(deferredResult, mavContainer);
+
+		emitter.initialize(new HttpMessageConvertingHandler(outputMessage, deferredResult));
+	}
+
+
+	/**
+	 * ResponseBodyEmitter.Handler that writes with HttpMessageConverters and
+	 * completes through the DeferredResult.
+	 */
+	private class HttpMessageConvertingHandler implements ResponseBodyEmitter.Handler {
+
+		private final ServerHttpResponse outputMessage;
+
+		private final DeferredResult<Object> deferredResult;
+
+		public HttpMessageConvertingHandler(ServerHttpResponse outputMessage, DeferredResult<Object> deferredResult) {
+			this.outputMessage = outputMessage;
+			this.deferredResult = deferredResult;
+		}
+
+		public void send(Object data, MediaType mediaType) throws IOException {
+			sendInternal(data, mediaType);
+		}
+
+		@SuppressWarnings("unchecked")
+		private <T> void sendInternal(T data, MediaType mediaType) throws IOException {
+			for (HttpMessageConverter<?> converter : messageConverters) {
+				if (converter.canWrite(data.getClass(), mediaType)) {
+					((HttpMessageConverter<T>) converter).write(data, mediaType, new StreamingOutputMessage(this.outputMessage));
+					this.outputMessage.getBody().flush();
+					return;
+				}
+			}
+			throw new IllegalArgumentException("No suitable converter for " + data.getClass());
+		}
+
+		public void complete() {
+			this.deferredResult.setResult(null);
+		}
+
+		public void completeWithError(Throwable failure) {
+			this.deferredResult.setErrorResult(failure);
+		}
+
+		public void onTimeout(Runnable callback) {
+			this.deferredResult.onTimeout(callback);
+		}
+
+		public void onCompletion(Runnable callback) {
+			this.deferredResult.onCompletion(callback);
+		}
+	}
+
+
+	/**
+	 * HttpOutputMessage for writing a single object to an already committed
+	 * response: headers set by message converters are not applied.
+	 */
+	private static class StreamingOutputMessage implements HttpOutputMessage {
+
+		private final ServerHttpResponse delegate;
+
+		private final HttpHeaders headers = new HttpHeaders();
+
+		public StreamingOutputMessage(ServerHttpResponse delegate) {
+			this.delegate = delegate;
+		}
+
+		public HttpHeaders getHeaders() {
+			return this.headers;
+		}
+
+		public OutputStream getBody() throws IOException {
+			return this.delegate.getBody();
+		}
+	}
+
+}
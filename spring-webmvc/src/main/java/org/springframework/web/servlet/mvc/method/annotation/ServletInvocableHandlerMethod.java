@@ -18,9 +18,11 @@ package org.springframework.web.servlet.mvc.method.annotation;
 
 import java.io.IOException;
 import java.lang.annotation.Annotation;
+import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.concurrent.Callable;
 
+import org.springframework.core.MethodParameter;
 import org.springframework.http.HttpStatus;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.StringUtils;
@@ -57,6 +59,8 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 
 	private HandlerMethodReturnValueHandlerComposite returnValueHandlers;
 
+	private HandlerMethodInvocationPlan invocationPlan;
+
 
 	/**
 	 * Creates an instance from the given handler and method.
@@ -90,6 +94,14 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 		this.returnValueHandlers = returnValueHandlers;
 	}
 
+	/**
+	 * Set the precomputed plan to take the generated invoker and
+	 * the return value handler selection from.
+	 */
+	void setInvocationPlan(HandlerMethodInvocationPlan invocationPlan) {
+		this.invocationPlan = invocationPlan;
+	}
+
 	/**
 	 * Invokes the method and handles the return value through a registered
 	 * {@link HandlerMethodReturnValueHandler}.
@@ -119,7 +131,15 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 		mavContainer.setRequestHandled(false);
 
 		try {
-			this.returnValueHandlers.handleReturnValue(returnValue, getReturnValueType(returnValue), mavContainer, webRequest);
+			MethodParameter returnType = getReturnValueType(returnValue);
+			HandlerMethodReturnValueHandler handler = (this.invocationPlan != null ?
+					this.invocationPlan.getReturnValueHandler(returnType, this.returnValueHandlers) : null);
+			if (handler != null) {
+				handler.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+			}
+			else {
+				this.returnValueHandlers.handleReturnValue(returnValue, returnType, mavContainer, webRequest);
+			}
 		}
 		catch (Exception ex) {
 			if (logger.isTraceEnabled()) {
@@ -129,6 +149,18 @@ public class ServletInvocableHandlerMethod extends InvocableHandlerMethod {
 		}
 	}
 
+	/**
+	 * Call the method through the generated invoker of the invocation plan, if any.
+	 */
+	@Override
+	protected Object invokeBridgedMethod(Object[] args) throws IllegalAccessException, InvocationTargetException {
+		Object bean = getBean();
+		if (this.invocationPlan != null && this.invocationPlan.hasInvokerFor(bean)) {
+			return this.invocationPlan.invoke(bean, args);
+		}
+		return super.invokeBridgedMethod(args);
+	}
+
 	/**
 	 * Set the response status according to the {@link ResponseStatus} annotation.
 	 */
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.util.Iterator;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
+import org.springframework.web.multipart.StreamingPart;
+import org.springframework.web.util.WebUtils;
+
+/**
+ * Resolves method arguments of type {@code Iterator<StreamingPart>} to the
+ * part iterator of the current {@link StreamingMultipartHttpServletRequest},
+ * allowing a handler to process the parts of a multipart request as they
+ * arrive.
+ *
+ * <p>Requires a multipart resolver in streaming mode, e.g. a
+ * {@link org.springframework.web.multipart.commons.CommonsMultipartResolver}
+ * with {@code streaming} switched on.
+ *
+ * @since 3.2.13
+ * @see StreamingMultipartHttpServletRequest#getPartIterator()
+ */
+public class StreamingPartMethodArgumentResolver implements HandlerMethodArgumentResolver {
+
+	public boolean supportsParameter(MethodParameter parameter) {
+		if (!Iterator.class.equals(parameter.getParameterType())) {
+			return false;
+		}
+		Type genericType = parameter.getGenericParameterType();
+		if (genericType instanceof ParameterizedType) {
+			Type[] typeArguments = ((ParameterizedType) genericType).getActualTypeArguments();
+			return (typeArguments.length == 1 && StreamingPart.class.equals(typeArguments[0]));
+		}
+		return false;
+	}
+
+	public Object resolveArgument(
+			MethodParameter parameter, ModelAndViewContainer mavContainer,
+			NativeWebRequest webRequest, WebDataBinderFactory binderFactory)
+			throws Exception {
+
+		HttpServletRequest servletRequest = webRequest.getNativeRequest(HttpServletRequest.class);
+		StreamingMultipartHttpServletRequest multipartRequest =
+				WebUtils.getNativeRequest(servletRequest, StreamingMultipartHttpServletRequest.class);
+		if (multipartRequest == null) {
+			throw new MultipartException("The current request is not a streaming multipart request: " +
+					"is a MultipartResolver in streaming mode configured?");
+		}
+		return multipartRequest.getPartIterator();
+	}
+
+}
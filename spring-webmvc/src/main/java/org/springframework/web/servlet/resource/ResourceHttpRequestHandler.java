@@ -16,14 +16,26 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
 import java.net.URLDecoder;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import javax.activation.FileTypeMap;
 import javax.activation.MimetypesFileTypeMap;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequestWrapper;
+import javax.servlet.ServletResponseWrapper;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
@@ -38,6 +50,7 @@ import org.springframework.http.MediaType;
 import org.springframework.util.Assert;
 import org.springframework.util.ClassUtils;
 import org.springframework.util.CollectionUtils;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.ResourceUtils;
 import org.springframework.util.StreamUtils;
 import org.springframework.util.StringUtils;
@@ -68,6 +81,22 @@ import org.springframework.web.servlet.support.WebContentGenerator;
  * is used in the URL  mapping pattern that selects this handler. Such patterns can be easily parameterized
  * using Spring EL. See the reference manual for further examples of this approach.
  *
+ * <p>Byte range requests are supported for {@code GET} requests with a single range, honoring
+ * an {@code If-Range} precondition; requests for multiple ranges receive the full content.
+ *
+ * <p>A number of further optimizations can be switched on, avoiding the need for a separate
+ * web server in front of the application for serving static content:
+ * <ul>
+ * <li>{@linkplain #setCacheResources "cacheResources"}: cache resolved resources along with their
+ * media type, and keep the content and an {@code ETag} for small resources in memory
+ * <li>{@linkplain #setUseGzipVariants "useGzipVariants"}: serve a precompressed {@code .gz} sibling
+ * of a resource to clients that accept gzip encoding
+ * <li>{@linkplain #setUseFingerprints "useFingerprints"}: serve resources requested through a
+ * content-hash fingerprinted URL (see {@link #getFingerprintedPath}) with far-future cache headers
+ * <li>{@linkplain #setUseContainerTransfer "useContainerTransfer"}: hand large file-based resources
+ * to the container for zero-copy transfer where supported (Tomcat's {@code sendfile})
+ * </ul>
+ *
  * <p>Rather than being directly configured as a bean, this handler will typically be configured
  * through use of the {@code <mvc:resources/>} XML configuration element.
  *
@@ -83,8 +112,57 @@ public class ResourceHttpRequestHandler extends WebContentGenerator implements H
 	private static final boolean jafPresent =
 			ClassUtils.isPresent("javax.activation.FileTypeMap", ResourceHttpRequestHandler.class.getClassLoader());
 
+	private static final String TOMCAT_SENDFILE_SUPPORT_ATTRIBUTE = "org.apache.tomcat.sendfile.support";
+
+	private static final String TOMCAT_SENDFILE_FILENAME_ATTRIBUTE = "org.apache.tomcat.sendfile.filename";
+
+	private static final String TOMCAT_SENDFILE_START_ATTRIBUTE = "org.apache.tomcat.sendfile.start";
+
+	private static final String TOMCAT_SENDFILE_END_ATTRIBUTE = "org.apache.tomcat.sendfile.end";
+
+	/** Minimum number of bytes for which transfer is delegated to the container */
+	private static final int SENDFILE_MIN_SIZE = 48 * 1024;
+
+	/** Cache period for fingerprinted resources: one year */
+	private static final int FINGERPRINT_CACHE_SECONDS = 365 * 24 * 60 * 60;
+
+	/** Pattern for a path with a fingerprint, i.e. "path-hash.extension" */
+	private static final Pattern FINGERPRINT_PATTERN = Pattern.compile("^(.+)-([0-9a-f]{32})(\\.[^./]+)?$");
+
+	/** Maximum number of entries in the resource cache: 1024 */
+	private static final int CACHE_LIMIT = 1024;
+
+	/** Marker for an unsatisfiable range */
+	private static final long[] UNSATISFIABLE_RANGE = new long[0];
+
+	private static final int BUFFER_SIZE = 8192;
+
+
 	private List<Resource> locations;
 
+	private boolean cacheResources = false;
+
+	private int cacheMaxFileSize = 64 * 1024;
+
+	private long cacheMaxSize = 10 * 1024 * 1024;
+
+	private boolean useGzipVariants = false;
+
+	private boolean useFingerprints = false;
+
+	private boolean useContainerTransfer = false;
+
+	/** Fast access cache for resolved resources, returning already cached entries without a global lock */
+	private final Map<String, ResourceEntry> resourceAccessCache =
+			new ConcurrentHashMap<String, ResourceEntry>(CACHE_LIMIT);
+
+	/** Map from request path to resolved resource, synchronized when adding entries */
+	private final Map<String, ResourceEntry> resourceCreationCache =
+			new LinkedHashMap<String, ResourceEntry>(CACHE_LIMIT);
+
+	/** Number of content bytes held by the resource cache, guarded by the creation cache */
+	private long cachedBytes;
+
 
 	public ResourceHttpRequestHandler() {
 		super(METHOD_GET, METHOD_HEAD);
@@ -99,6 +177,111 @@ public class ResourceHttpRequestHandler extends WebContentGenerator implements H
 		this.locations = locations;
 	}
 
+	/**
+	 * Set whether to cache resolved resources, avoiding the lookup in the configured
+	 * locations for each request. The content of resources up to the
+	 * {@linkplain #setCacheMaxFileSize maximum file size} is kept in memory as well,
+	 * along with an {@code ETag} derived from it, up to the
+	 * {@linkplain #setCacheMaxSize maximum size} of the cache overall.
+	 * <p>Default is "false". Only switch this on if resources do not change while the
+	 * application is running, or call {@link #clearCache()} after changing them.
+	 * Note that {@link #setHeaders} will not be called for cached resources.
+	 */
+	public void setCacheResources(boolean cacheResources) {
+		this.cacheResources = cacheResources;
+	}
+
+	/**
+	 * Return whether to cache resolved resources and the content of small resources.
+	 */
+	public boolean isCacheResources() {
+		return this.cacheResources;
+	}
+
+	/**
+	 * Set the maximum size in bytes of resources whose content is kept in memory
+	 * when {@linkplain #setCacheResources caching} resources. Default is 64 KB.
+	 */
+	public void setCacheMaxFileSize(int cacheMaxFileSize) {
+		this.cacheMaxFileSize = cacheMaxFileSize;
+	}
+
+	/**
+	 * Set the maximum number of content bytes kept in memory when
+	 * {@linkplain #setCacheResources caching} resources, evicting the oldest
+	 * entries first. Default is 10 MB.
+	 */
+	public void setCacheMaxSize(long cacheMaxSize) {
+		this.cacheMaxSize = cacheMaxSize;
+	}
+
+	/**
+	 * Set whether to serve a precompressed variant of a resource, i.e. a sibling
+	 * with the same name plus a {@code .gz} suffix, to clients that accept gzip
+	 * encoding. Range requests are always served from the original resource.
+	 * <p>Default is "false".
+	 */
+	public void setUseGzipVariants(boolean useGzipVariants) {
+		this.useGzipVariants = useGzipVariants;
+	}
+
+	/**
+	 * Return whether to serve precompressed {@code .gz} variants of resources.
+	 */
+	public boolean isUseGzipVariants() {
+		return this.useGzipVariants;
+	}
+
+	/**
+	 * Set whether to accept fingerprinted paths as built by {@link #getFingerprintedPath},
+	 * serving the resource with a cache period of one year if the fingerprint matches
+	 * the current content of the resource.
+	 * <p>Default is "false". Fingerprints are computed from the content of a resource,
+	 * so this is best combined with {@linkplain #setCacheResources caching} resources.
+	 */
+	public void setUseFingerprints(boolean useFingerprints) {
+		this.useFingerprints = useFingerprints;
+	}
+
+	/**
+	 * Return whether to accept fingerprinted resource paths.
+	 */
+	public boolean isUseFingerprints() {
+		return this.useFingerprints;
+	}
+
+	/**
+	 * Set whether to hand the transfer of large file-based resources to the container,
+	 * if it supports zero-copy transfer: currently through Tomcat's {@code sendfile}
+	 * request attributes.
+	 * <p>Default is "false". Note that the container writes the file to the connection
+	 * directly, bypassing any response wrapper; container transfer is therefore only
+	 * used if neither the request nor the response has been wrapped, e.g. by a Filter
+	 * such as {@link org.springframework.web.filter.ShallowEtagHeaderFilter}.
+	 */
+	public void setUseContainerTransfer(boolean useContainerTransfer) {
+		this.useContainerTransfer = useContainerTransfer;
+	}
+
+	/**
+	 * Return whether to hand the transfer of large file-based resources to the container.
+	 */
+	public boolean isUseContainerTransfer() {
+		return this.useContainerTransfer;
+	}
+
+	/**
+	 * Clear the resource cache, e.g. after resources have been changed.
+	 * @see #setCacheResources
+	 */
+	public void clearCache() {
+		synchronized (this.resourceCreationCache) {
+			this.resourceAccessCache.clear();
+			this.resourceCreationCache.clear();
+			this.cachedBytes = 0;
+		}
+	}
+
 	public void afterPropertiesSet() throws Exception {
 		if (logger.isWarnEnabled() && CollectionUtils.isEmpty(this.locations)) {
 			logger.warn("Locations list is empty. No resources will be served");
@@ -123,39 +306,325 @@ public class ResourceHttpRequestHandler extends WebContentGenerator implements H
 		checkAndPrepare(request, response, true);
 
 		// check whether a matching resource exists
-		Resource resource = getResource(request);
-		if (resource == null) {
+		String path = (String) request.getAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE);
+		ResourceEntry entry = null;
+		boolean fingerprinted = false;
+		if (this.useFingerprints && path != null) {
+			Matcher matcher = FINGERPRINT_PATTERN.matcher(path);
+			if (matcher.matches()) {
+				entry = getResourceEntry(matcher.group(1) + (matcher.group(3) != null ? matcher.group(3) : ""), null);
+				fingerprinted = (entry != null && matcher.group(2).equals(entry.getContentHash()));
+				if (!fingerprinted) {
+					entry = null;
+				}
+			}
+		}
+		if (entry == null) {
+			entry = getResourceEntry(path, request);
+		}
+		if (entry == null) {
 			logger.debug("No matching resource found - returning 404");
 			response.sendError(HttpServletResponse.SC_NOT_FOUND);
 			return;
 		}
 
 		// check the resource's media type
-		MediaType mediaType = getMediaType(resource);
+		MediaType mediaType = entry.mediaType;
 		if (mediaType != null) {
 			if (logger.isDebugEnabled()) {
-				logger.debug("Determined media type '" + mediaType + "' for " + resource);
+				logger.debug("Determined media type '" + mediaType + "' for " + entry.resource);
 			}
 		}
 		else {
 			if (logger.isDebugEnabled()) {
-				logger.debug("No media type found for " + resource + " - not sending a content-type header");
+				logger.debug("No media type found for " + entry.resource + " - not sending a content-type header");
 			}
 		}
 
 		// header phase
-		if (new ServletWebRequest(request, response).checkNotModified(resource.lastModified())) {
+		if (fingerprinted) {
+			cacheForSeconds(response, FINGERPRINT_CACHE_SECONDS);
+		}
+		String range = (METHOD_GET.equals(request.getMethod()) ? request.getHeader("Range") : null);
+		ResourceEntry entryToServe = entry;
+		if (this.useGzipVariants) {
+			ResourceEntry gzipVariant = getGzipVariant(entry);
+			if (gzipVariant != null) {
+				// applies to a 304 response as well
+				response.addHeader("Vary", "Accept-Encoding");
+				if (range == null && acceptsGzip(request)) {
+					entryToServe = gzipVariant;
+				}
+			}
+		}
+		// the gzip variant has an ETag of its own, derived from its content
+		if (checkNotModified(request, response, entryToServe)) {
 			logger.debug("Resource not modified - returning 304");
 			return;
 		}
-		setHeaders(response, resource, mediaType);
+		if (entryToServe != entry) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Serving gzip variant " + entryToServe.resource);
+			}
+			response.setHeader("Content-Encoding", "gzip");
+		}
+		if (this.cacheResources) {
+			if (entryToServe.contentLength > Integer.MAX_VALUE) {
+				throw new IOException("Resource content too long (beyond Integer.MAX_VALUE): " + entryToServe.resource);
+			}
+			response.setContentLength((int) entryToServe.contentLength);
+			if (mediaType != null) {
+				response.setContentType(mediaType.toString());
+			}
+		}
+		else {
+			setHeaders(response, entryToServe.resource, mediaType);
+		}
+		response.setHeader("Accept-Ranges", "bytes");
+
+		long start = 0;
+		long count = entryToServe.contentLength;
+		if (range != null && count >= 0 && isRangeApplicable(request, entry)) {
+			long[] byteRange = parseRange(range, count);
+			if (byteRange == UNSATISFIABLE_RANGE) {
+				logger.debug("Range not satisfiable - returning 416");
+				response.setHeader("Content-Range", "bytes */" + count);
+				response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+				return;
+			}
+			else if (byteRange != null) {
+				response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+				response.setHeader("Content-Range", "bytes " + byteRange[0] + "-" + byteRange[1] + "/" + count);
+				start = byteRange[0];
+				count = byteRange[1] - byteRange[0] + 1;
+				response.setContentLength((int) count);
+			}
+		}
 
 		// content phase
 		if (METHOD_HEAD.equals(request.getMethod())) {
 			logger.trace("HEAD request - skipping content");
 			return;
 		}
-		writeContent(response, resource);
+		if (entryToServe.content != null) {
+			response.getOutputStream().write(entryToServe.content, (int) start, (int) count);
+		}
+		else if (!transferByContainer(request, response, entryToServe.resource, start, count)) {
+			if (start == 0 && count == entryToServe.contentLength) {
+				writeContent(response, entryToServe.resource);
+			}
+			else {
+				writeContent(response.getOutputStream(), entryToServe.resource, start, count);
+			}
+		}
+	}
+
+	/**
+	 * Return a fingerprinted variant of the given resource path, i.e. the path with a
+	 * hash of the resource's content appended to its file name (before the extension),
+	 * to be used in URLs for resources served with {@link #setUseFingerprints "useFingerprints"}.
+	 * @param path the resource path relative to the configured locations, e.g. "/css/main.css"
+	 * @return the fingerprinted path, e.g. "/css/main-e36d2e05253c6c7085a91522ce43a0b4.css",
+	 * or {@code null} if no matching resource was found
+	 * @throws IOException if the resource content could not be read
+	 */
+	public String getFingerprintedPath(String path) throws IOException {
+		ResourceEntry entry = getResourceEntry(path, null);
+		if (entry == null) {
+			return null;
+		}
+		String extension = StringUtils.getFilenameExtension(path);
+		if (extension == null) {
+			return path + "-" + entry.getContentHash();
+		}
+		return path.substring(0, path.length() - extension.length() - 1) + "-" + entry.getContentHash() + "." + extension;
+	}
+
+	/**
+	 * Obtain the resource entry for the given path, from the cache if available.
+	 * @param path the path within the handler mapping
+	 * @param request the current request, to resolve the resource through {@link #getResource},
+	 * or {@code null} to resolve the given path directly
+	 */
+	private ResourceEntry getResourceEntry(String path, HttpServletRequest request) throws IOException {
+		if (this.cacheResources && path != null) {
+			ResourceEntry entry = this.resourceAccessCache.get(path);
+			if (entry != null) {
+				return entry;
+			}
+		}
+		Resource resource = (request != null ? getResource(request) : getResource(path));
+		if (resource == null) {
+			return null;
+		}
+		ResourceEntry entry = new ResourceEntry(resource, getMediaType(resource));
+		if (this.cacheResources) {
+			loadContentIfSmall(entry);
+			if (this.useGzipVariants) {
+				ResourceEntry gzipVariant = getGzipVariant(entry);
+				if (gzipVariant != null) {
+					loadContentIfSmall(gzipVariant);
+				}
+			}
+			synchronized (this.resourceCreationCache) {
+				ResourceEntry previous = this.resourceCreationCache.put(path, entry);
+				if (previous != null) {
+					this.cachedBytes -= previous.getCachedBytes();
+				}
+				this.resourceAccessCache.put(path, entry);
+				this.cachedBytes += entry.getCachedBytes();
+				Iterator<Map.Entry<String, ResourceEntry>> it = this.resourceCreationCache.entrySet().iterator();
+				while ((this.cachedBytes > this.cacheMaxSize || this.resourceCreationCache.size() > CACHE_LIMIT) &&
+						it.hasNext()) {
+					Map.Entry<String, ResourceEntry> eldest = it.next();
+					if (eldest.getValue() != entry) {
+						it.remove();
+						this.resourceAccessCache.remove(eldest.getKey());
+						this.cachedBytes -= eldest.getValue().getCachedBytes();
+					}
+				}
+			}
+		}
+		return entry;
+	}
+
+	private void loadContentIfSmall(ResourceEntry entry) throws IOException {
+		if (entry.contentLength >= 0 && entry.contentLength <= this.cacheMaxFileSize) {
+			entry.loadContent();
+		}
+	}
+
+	/**
+	 * Return the precompressed variant of the given resource, if any.
+	 */
+	private ResourceEntry getGzipVariant(ResourceEntry entry) {
+		if (!entry.gzipVariantResolved) {
+			try {
+				Resource gzipped = entry.resource.createRelative(entry.resource.getFilename() + ".gz");
+				if (gzipped.exists() && gzipped.isReadable()) {
+					entry.gzipVariant = new ResourceEntry(gzipped, entry.mediaType);
+				}
+			}
+			catch (IOException ex) {
+				logger.debug("Failed to resolve gzip variant of " + entry.resource, ex);
+			}
+			entry.gzipVariantResolved = true;
+		}
+		return entry.gzipVariant;
+	}
+
+	private boolean acceptsGzip(HttpServletRequest request) {
+		String acceptEncoding = request.getHeader("Accept-Encoding");
+		return (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip"));
+	}
+
+	/**
+	 * Check the {@code If-None-Match} and {@code If-Modified-Since} preconditions,
+	 * with the former taking precedence if the resource has an ETag.
+	 */
+	private boolean checkNotModified(HttpServletRequest request, HttpServletResponse response, ResourceEntry entry) {
+		ServletWebRequest webRequest = new ServletWebRequest(request, response);
+		String etag = entry.getETag();
+		if (etag == null) {
+			return webRequest.checkNotModified(entry.lastModified);
+		}
+		if (webRequest.checkNotModified(etag)) {
+			return true;
+		}
+		if (request.getHeader("If-None-Match") == null) {
+			return webRequest.checkNotModified(entry.lastModified);
+		}
+		if (entry.lastModified >= 0) {
+			response.setDateHeader("Last-Modified", entry.lastModified);
+		}
+		return false;
+	}
+
+	/**
+	 * Check the {@code If-Range} precondition: a range is only served if the
+	 * given ETag or date matches the current version of the resource.
+	 */
+	private boolean isRangeApplicable(HttpServletRequest request, ResourceEntry entry) {
+		String ifRange = request.getHeader("If-Range");
+		if (ifRange == null) {
+			return true;
+		}
+		if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+			return ifRange.equals(entry.getETag());
+		}
+		try {
+			return (entry.lastModified >= 0 && request.getDateHeader("If-Range") == entry.lastModified / 1000 * 1000);
+		}
+		catch (IllegalArgumentException ex) {
+			return false;
+		}
+	}
+
+	/**
+	 * Parse the given {@code Range} header for a resource of the given length.
+	 * @return the first and last byte position of the range, {@link #UNSATISFIABLE_RANGE}
+	 * if not satisfiable, or {@code null} if the header is to be ignored
+	 */
+	private long[] parseRange(String range, long length) {
+		if (!range.startsWith("bytes=")) {
+			return null;
+		}
+		String spec = range.substring(6).trim();
+		int dashIndex = spec.indexOf('-');
+		if (dashIndex == -1 || spec.indexOf(',') != -1) {
+			// multiple ranges: serving the full content is permitted as well
+			return null;
+		}
+		try {
+			if (dashIndex == 0) {
+				long suffixLength = Long.parseLong(spec.substring(1).trim());
+				if (suffixLength <= 0 || length == 0) {
+					return UNSATISFIABLE_RANGE;
+				}
+				return new long[] {Math.max(0, length - suffixLength), length - 1};
+			}
+			long start = Long.parseLong(spec.substring(0, dashIndex).trim());
+			String endSpec = spec.substring(dashIndex + 1).trim();
+			long end = (endSpec.length() > 0 ? Long.parseLong(endSpec) : Long.MAX_VALUE);
+			if (end < start) {
+				return null;
+			}
+			if (start >= length) {
+				return UNSATISFIABLE_RANGE;
+			}
+			return new long[] {start, Math.min(end, length - 1)};
+		}
+		catch (NumberFormatException ex) {
+			return null;
+		}
+	}
+
+	/**
+	 * Hand the transfer of the given part of a file-based resource to the container,
+	 * if enabled and supported: currently through Tomcat's {@code sendfile} request attributes.
+	 * @return whether the container is going to transfer the content
+	 * @see #setUseContainerTransfer
+	 */
+	private boolean transferByContainer(HttpServletRequest request, HttpServletResponse response,
+			Resource resource, long start, long count) {
+
+		if (!this.useContainerTransfer || count < SENDFILE_MIN_SIZE ||
+				request instanceof ServletRequestWrapper || response instanceof ServletResponseWrapper ||
+				!Boolean.TRUE.equals(request.getAttribute(TOMCAT_SENDFILE_SUPPORT_ATTRIBUTE))) {
+			return false;
+		}
+		File file;
+		try {
+			file = resource.getFile();
+		}
+		catch (IOException ex) {
+			// not available in the file system
+			return false;
+		}
+		request.setAttribute(TOMCAT_SENDFILE_FILENAME_ATTRIBUTE, file.getAbsolutePath());
+		request.setAttribute(TOMCAT_SENDFILE_START_ATTRIBUTE, start);
+		request.setAttribute(TOMCAT_SENDFILE_END_ATTRIBUTE, start + count);
+		return true;
 	}
 
 	protected Resource getResource(HttpServletRequest request) {
@@ -164,6 +633,10 @@ public class ResourceHttpRequestHandler extends WebContentGenerator implements H
 			throw new IllegalStateException("Required request attribute '" +
 					HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE + "' is not set");
 		}
+		return getResource(path);
+	}
+
+	private Resource getResource(String path) {
 		path = processPath(path);
 		if (!StringUtils.hasText(path) || isInvalidPath(path)) {
 			if (logger.isDebugEnabled()) {
@@ -393,6 +866,126 @@ public class ResourceHttpRequestHandler extends WebContentGenerator implements H
 		}
 	}
 
+	/**
+	 * Write the given range of the resource's content to the given stream.
+	 */
+	private void writeContent(OutputStream out, Resource resource, long start, long count) throws IOException {
+		InputStream in = resource.getInputStream();
+		try {
+			long skipped = 0;
+			while (skipped < start) {
+				long n = in.skip(start - skipped);
+				if (n <= 0) {
+					throw new IOException("Resource content shorter than expected: " + resource);
+				}
+				skipped += n;
+			}
+			byte[] buffer = new byte[BUFFER_SIZE];
+			long remaining = count;
+			while (remaining > 0) {
+				int bytesRead = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+				if (bytesRead == -1) {
+					throw new IOException("Resource content shorter than expected: " + resource);
+				}
+				out.write(buffer, 0, bytesRead);
+				remaining -= bytesRead;
+			}
+			out.flush();
+		}
+		finally {
+			try {
+				in.close();
+			}
+			catch (IOException ex) {
+			}
+		}
+	}
+
+
+	/**
+	 * A resolved resource along with its media type and metadata,
+	 * possibly holding its content in memory.
+	 */
+	private static class ResourceEntry {
+
+		private final Resource resource;
+
+		private final MediaType mediaType;
+
+		private final long lastModified;
+
+		private final long contentLength;
+
+		private byte[] content;
+
+		private volatile String contentHash;
+
+		private volatile ResourceEntry gzipVariant;
+
+		private volatile boolean gzipVariantResolved;
+
+		public ResourceEntry(Resource resource, MediaType mediaType) throws IOException {
+			this.resource = resource;
+			this.mediaType = mediaType;
+			this.lastModified = resource.lastModified();
+			this.contentLength = resource.contentLength();
+		}
+
+		public void loadContent() throws IOException {
+			this.content = StreamUtils.copyToByteArray(this.resource.getInputStream());
+			this.contentHash = DigestUtils.md5DigestAsHex(this.content);
+		}
+
+		/**
+		 * Return the MD5 hash of the resource's content, computing it if necessary.
+		 */
+		public String getContentHash() throws IOException {
+			if (this.contentHash == null) {
+				MessageDigest digest;
+				try {
+					digest = MessageDigest.getInstance("MD5");
+				}
+				catch (NoSuchAlgorithmException ex) {
+					throw new IllegalStateException("Could not find MessageDigest with algorithm \"MD5\"", ex);
+				}
+				InputStream in = this.resource.getInputStream();
+				try {
+					byte[] buffer = new byte[BUFFER_SIZE];
+					int bytesRead;
+					while ((bytesRead = in.read(buffer)) != -1) {
+						digest.update(buffer, 0, bytesRead);
+					}
+				}
+				finally {
+					in.close();
+				}
+				StringBuilder builder = new StringBuilder(32);
+				for (byte b : digest.digest()) {
+					builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+				}
+				this.contentHash = builder.toString();
+			}
+			return this.contentHash;
+		}
+
+		/**
+		 * Return the ETag for the resource, if its content hash is known.
+		 */
+		public String getETag() {
+			String hash = this.contentHash;
+			return (hash != null ? "\"" + hash + "\"" : null);
+		}
+
+		public long getCachedBytes() {
+			long bytes = (this.content != null ? this.content.length : 0);
+			ResourceEntry variant = this.gzipVariant;
+			if (variant != null && variant.content != null) {
+				bytes += variant.content.length;
+			}
+			return bytes;
+		}
+	}
+
 
 	/**
 	 * Inner class to avoid hard-coded JAF dependency.
@@ -0,0 +1,155 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.support;
+
+import java.io.Serializable;
+
+/**
+ * Snapshot of the metrics gathered by {@link RequestMetrics} for one endpoint,
+ * i.e. one combination of matched mapping pattern and handler.
+ *
+ * <p>All values are cumulative since the endpoint was first recorded.
+ * All times are in milliseconds. Serializable for returning snapshots
+ * to remote JMX clients.
+ *
+ * @since 3.2.13
+ * @see RequestMetrics#getMetrics()
+ * @see RequestMetricsReporter
+ */
+public class EndpointMetrics implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+
+	private final String name;
+
+	private final String pattern;
+
+	private final String handler;
+
+	private final long requestCount;
+
+	private final long errorCount;
+
+	private final long inFlightCount;
+
+	private final double averageTime;
+
+	private final long[] durationBuckets;
+
+	private final long[] durationHistogram;
+
+
+	/**
+	 * Create a new EndpointMetrics snapshot.
+	 * @param name the name of the endpoint
+	 * @param pattern the matched mapping pattern
+	 * @param handler a description of the handler
+	 * @param requestCount the number of completed requests
+	 * @param errorCount the number of completed requests that failed
+	 * @param inFlightCount the number of requests currently being processed
+	 * @param averageTime the average duration of completed requests
+	 * @param durationBuckets the upper bounds of the histogram buckets
+	 * @param durationHistogram the request count per bucket, plus one final count
+	 * for requests that took longer than the largest bucket
+	 */
+	public EndpointMetrics(String name, String pattern, String handler, long requestCount, long errorCount,
+			long inFlightCount, double averageTime, long[] durationBuckets, long[] durationHistogram) {
+
+		this.name = name;
+		this.pattern = pattern;
+		this.handler = handler;
+		this.requestCount = requestCount;
+		this.errorCount = errorCount;
+		this.inFlightCount = inFlightCount;
+		this.averageTime = averageTime;
+		this.durationBuckets = durationBuckets;
+		this.durationHistogram = durationHistogram;
+	}
+
+
+	/**
+	 * Return the name of the endpoint, combining pattern and handler.
+	 */
+	public String getName() {
+		return this.name;
+	}
+
+	/**
+	 * Return the matched mapping pattern, or {@link RequestMetrics#UNMAPPED_PATTERN}.
+	 */
+	public String getPattern() {
+		return this.pattern;
+	}
+
+	/**
+	 * Return a description of the handler, or {@link RequestMetrics#NO_HANDLER}.
+	 */
+	public String getHandler() {
+		return this.handler;
+	}
+
+	/**
+	 * Return the number of completed requests.
+	 */
+	public long getRequestCount() {
+		return this.requestCount;
+	}
+
+	/**
+	 * Return the number of completed requests that failed.
+	 */
+	public long getErrorCount() {
+		return this.errorCount;
+	}
+
+	/**
+	 * Return the number of requests currently being processed.
+	 */
+	public long getInFlightCount() {
+		return this.inFlightCount;
+	}
+
+	/**
+	 * Return the average duration of completed requests.
+	 */
+	public double getAverageTime() {
+		return this.averageTime;
+	}
+
+	/**
+	 * Return the upper bounds of the duration histogram buckets.
+	 */
+	public long[] getDurationBuckets() {
+		return this.durationBuckets.clone();
+	}
+
+	/**
+	 * Return the duration histogram: one count per bucket, plus a final count
+	 * for requests that took longer than the largest bucket.
+	 */
+	public long[] getDurationHistogram() {
+		return this.durationHistogram.clone();
+	}
+
+	@Override
+	public String toString() {
+		return this.name + ": requests=" + this.requestCount + ", errors=" + this.errorCount +
+				", inFlight=" + this.inFlightCount + ", averageTime=" + this.averageTime + "ms";
+	}
+
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.support;
+
+import java.util.List;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+/**
+ * {@link RequestMetricsReporter} that logs one line per endpoint at info level.
+ *
+ * @since 3.2.13
+ */
+public class LoggingRequestMetricsReporter implements RequestMetricsReporter {
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+
+	public void report(List<EndpointMetrics> metrics) {
+		if (logger.isInfoEnabled()) {
+			for (EndpointMetrics endpointMetrics : metrics) {
+				logger.info(endpointMetrics);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,567 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.servlet.AsyncEvent;
+import javax.servlet.AsyncListener;
+import javax.servlet.http.HttpServletRequest;
+
+import org.apache.commons.logging.Log;
+import org.apache.commons.logging.LogFactory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ObjectUtils;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Gathers request metrics for a {@link org.springframework.web.servlet.DispatcherServlet}
+ * per endpoint, i.e. per combination of the matched mapping pattern (see
+ * {@link HandlerMapping#BEST_MATCHING_PATTERN_ATTRIBUTE}) and the handler: request
+ * and error counts, in-flight requests, average duration and a duration histogram.
+ *
+ * <p>The duration of an asynchronous request covers the time until the async
+ * processing completes, not just the initial dispatch. A request counts as an
+ * error if handler processing raised an exception, even if the exception has
+ * been resolved to an error view, or if async processing timed out or failed.
+ *
+ * <p>Counters are striped across threads, so recording does not contend on a
+ * single memory location under load. Configured {@link RequestMetricsReporter}s
+ * are invoked at a fixed interval. All accessors are plain public methods, so
+ * that an instance can be exposed through
+ * {@link org.springframework.jmx.export.MBeanExporter} as-is:
+ *
+ * <pre>
+ * &lt;bean id="requestMetrics" class="org.springframework.web.servlet.support.RequestMetrics"&gt;
+ *   &lt;property name="reporters"&gt;
+ *     &lt;bean class="org.springframework.web.servlet.support.LoggingRequestMetricsReporter"/&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;
+ *
+ * &lt;bean class="org.springframework.jmx.export.MBeanExporter"&gt;
+ *   &lt;property name="beans"&gt;
+ *     &lt;map&gt;
+ *       &lt;entry key="myapp:name=requestMetrics" value-ref="requestMetrics"/&gt;
+ *     &lt;/map&gt;
+ *   &lt;/property&gt;
+ * &lt;/bean&gt;</pre>
+ *
+ * A bean named "requestMetrics" in the DispatcherServlet's context is picked up
+ * automatically. All times exposed by this class are in milliseconds.
+ *
+ * @since 3.2.13
+ * @see org.springframework.web.servlet.DispatcherServlet#setRequestMetrics
+ * @see EndpointMetrics
+ */
+public class RequestMetrics implements InitializingBean, DisposableBean {
+
+	/** Pattern under which requests without a matched pattern get recorded */
+	public static final String UNMAPPED_PATTERN = "(unmapped)";
+
+	/** Handler description under which requests without a handler get recorded */
+	public static final String NO_HANDLER = "(none)";
+
+	private static final String RECORDING_ATTRIBUTE = RequestMetrics.class.getName() + ".RECORDING";
+
+	private static final long[] DEFAULT_DURATION_BUCKETS =
+			new long[] {5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000};
+
+	private static final int REQUESTS = 0;
+
+	private static final int ERRORS = 1;
+
+	private static final int IN_FLIGHT = 2;
+
+	private static final int TOTAL_TIME = 3;
+
+	private static final int FIRST_BUCKET = 4;
+
+
+	protected final Log logger = LogFactory.getLog(getClass());
+
+	private volatile long[] durationBuckets = DEFAULT_DURATION_BUCKETS;
+
+	private List<RequestMetricsReporter> reporters = Collections.emptyList();
+
+	private long reportInterval = 60000;
+
+	private final Map<EndpointKey, EndpointStatistics> statistics =
+			new ConcurrentHashMap<EndpointKey, EndpointStatistics>(64);
+
+	private final Map<String, EndpointStatistics> statisticsByName =
+			new ConcurrentHashMap<String, EndpointStatistics>(64);
+
+	private final StripedCounters inFlightCounter = new StripedCounters(1);
+
+	private Timer reportTimer;
+
+
+	/**
+	 * Set the upper bounds (in milliseconds) of the buckets of the
+	 * duration histograms, in ascending order. An additional bucket
+	 * collects all longer requests.
+	 * <p>Default is 5, 10, 25, 50, 100, 250, 500, 1000, 2500, 5000, 10000.
+	 * <p>The buckets can only be changed before the first request is recorded.
+	 * @throws IllegalStateException if requests have been recorded already
+	 */
+	public void setDurationBuckets(long... durationBuckets) {
+		Assert.isTrue(durationBuckets != null && durationBuckets.length > 0, "At least one duration bucket required");
+		for (int i = 1; i < durationBuckets.length; i++) {
+			Assert.isTrue(durationBuckets[i] > durationBuckets[i - 1], "Duration buckets must be ascending");
+		}
+		synchronized (this.statistics) {
+			Assert.state(this.statistics.isEmpty(), "Duration buckets cannot be changed once requests have been recorded");
+			this.durationBuckets = durationBuckets.clone();
+		}
+	}
+
+	/**
+	 * Return the upper bounds (in milliseconds) of the duration histogram buckets.
+	 * @see #getDurationHistogram(String)
+	 */
+	public long[] getDurationBuckets() {
+		return this.durationBuckets.clone();
+	}
+
+	/**
+	 * Set the reporters to publish the gathered metrics to.
+	 * @see #setReportInterval
+	 */
+	public void setReporters(List<RequestMetricsReporter> reporters) {
+		Assert.notNull(reporters, "Reporters must not be null");
+		this.reporters = new ArrayList<RequestMetricsReporter>(reporters);
+	}
+
+	/**
+	 * Set the interval (in milliseconds) in which the reporters are invoked.
+	 * Default is 60000.
+	 */
+	public void setReportInterval(long reportInterval) {
+		Assert.isTrue(reportInterval > 0, "'reportInterval' must be greater than 0");
+		this.reportInterval = reportInterval;
+	}
+
+	public void afterPropertiesSet() {
+		if (!this.reporters.isEmpty()) {
+			this.reportTimer = new Timer("RequestMetricsReporter", true);
+			this.reportTimer.schedule(new TimerTask() {
+				@Override
+				public void run() {
+					report();
+				}
+			}, this.reportInterval, this.reportInterval);
+		}
+	}
+
+	public void destroy() {
+		if (this.reportTimer != null) {
+			this.reportTimer.cancel();
+			this.reportTimer = null;
+			report();
+		}
+	}
+
+
+	//---------------------------------------------------------------------
+	// Recording callbacks, invoked by DispatcherServlet
+	//---------------------------------------------------------------------
+
+	/**
+	 * Start recording the given request, unless it is already being recorded.
+	 * @param request current HTTP request
+	 * @return {@code true} if the request is a new request or the async dispatch
+	 * of a recorded request, and {@code false} for a nested dispatch such as an
+	 * include or a forward of a recorded request
+	 */
+	public boolean requestStarted(HttpServletRequest request) {
+		if (request.getAttribute(RECORDING_ATTRIBUTE) != null) {
+			return WebAsyncUtils.getAsyncManager(request).hasConcurrentResult();
+		}
+		request.setAttribute(RECORDING_ATTRIBUTE, new RequestRecording());
+		this.inFlightCounter.increment(0);
+		return true;
+	}
+
+	/**
+	 * Record the handler selected for the given request. Must be invoked after
+	 * handler mapping, so that the matched pattern is available. Subsequent
+	 * invocations for the same request are ignored.
+	 * @param request current HTTP request
+	 * @param handler the selected handler
+	 */
+	public void handlerSelected(HttpServletRequest request, Object handler) {
+		RequestRecording recording = (RequestRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+		if (recording == null || recording.endpoint != null) {
+			return;
+		}
+		String pattern = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+		EndpointStatistics stats = getStatistics(pattern, handler);
+		stats.counters.increment(IN_FLIGHT);
+		recording.endpoint = stats;
+	}
+
+	/**
+	 * Mark the given request as failed, e.g. when the handler raised an exception
+	 * that was resolved by a {@link org.springframework.web.servlet.HandlerExceptionResolver}.
+	 * @param request current HTTP request
+	 * @param ex the exception raised
+	 */
+	public void handlerFailed(HttpServletRequest request, Throwable ex) {
+		RequestRecording recording = (RequestRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+		if (recording != null) {
+			recording.failed = true;
+		}
+	}
+
+	/**
+	 * Complete the recording of the given request, or defer completion until the
+	 * end of async processing if concurrent handling has been started.
+	 * @param request current HTTP request
+	 * @param failure the exception that processing failed with, if any
+	 */
+	public void requestCompleted(HttpServletRequest request, Throwable failure) {
+		RequestRecording recording = (RequestRecording) request.getAttribute(RECORDING_ATTRIBUTE);
+		if (recording == null) {
+			return;
+		}
+		if (failure != null) {
+			recording.failed = true;
+		}
+		if (WebAsyncUtils.getAsyncManager(request).isConcurrentHandlingStarted()) {
+			request.getAsyncContext().addListener(new AsyncCompletionListener(recording));
+			return;
+		}
+		request.removeAttribute(RECORDING_ATTRIBUTE);
+		complete(recording);
+	}
+
+	private void complete(RequestRecording recording) {
+		if (!recording.completed.compareAndSet(false, true)) {
+			return;
+		}
+		long duration = System.nanoTime() - recording.startTime;
+		this.inFlightCounter.decrement(0);
+		EndpointStatistics stats = recording.endpoint;
+		if (stats != null) {
+			stats.counters.decrement(IN_FLIGHT);
+		}
+		else {
+			stats = getStatistics(null, null);
+		}
+		StripedCounters counters = stats.counters;
+		counters.increment(REQUESTS);
+		if (recording.failed) {
+			counters.increment(ERRORS);
+		}
+		counters.add(TOTAL_TIME, duration);
+		long durationMillis = TimeUnit.NANOSECONDS.toMillis(duration);
+		int bucket = 0;
+		while (bucket < stats.buckets.length && durationMillis > stats.buckets[bucket]) {
+			bucket++;
+		}
+		counters.increment(FIRST_BUCKET + bucket);
+	}
+
+	private EndpointStatistics getStatistics(String pattern, Object handler) {
+		EndpointKey key = new EndpointKey(pattern, getHandlerKey(handler));
+		EndpointStatistics stats = this.statistics.get(key);
+		if (stats == null) {
+			synchronized (this.statistics) {
+				stats = this.statistics.get(key);
+				if (stats == null) {
+					String patternToUse = (pattern != null ? pattern : UNMAPPED_PATTERN);
+					String handlerToUse = (handler != null ? getHandlerDescription(handler) : NO_HANDLER);
+					stats = new EndpointStatistics(patternToUse, handlerToUse, this.durationBuckets);
+					this.statistics.put(key, stats);
+					this.statisticsByName.put(stats.name, stats);
+				}
+			}
+		}
+		return stats;
+	}
+
+	private Object getHandlerKey(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			// New HandlerMethod instances are created per request, the Method is stable
+			return ((HandlerMethod) handler).getMethod();
+		}
+		return (handler != null ? handler.getClass() : null);
+	}
+
+	/**
+	 * Return a description of the given handler for use in endpoint names.
+	 * <p>The default implementation returns "SimpleClassName#methodName" for
+	 * a {@link HandlerMethod} and the short class name for any other handler.
+	 * Handlers are distinguished by method respectively by class in any case.
+	 * @param handler the handler (never {@code null})
+	 */
+	protected String getHandlerDescription(Object handler) {
+		if (handler instanceof HandlerMethod) {
+			HandlerMethod handlerMethod = (HandlerMethod) handler;
+			return ClassUtils.getShortName(handlerMethod.getBeanType()) + "#" + handlerMethod.getMethod().getName();
+		}
+		return ClassUtils.getShortName(handler.getClass());
+	}
+
+
+	//---------------------------------------------------------------------
+	// Metrics accessors
+	//---------------------------------------------------------------------
+
+	/**
+	 * Return the names of all endpoints recorded so far, in the form
+	 * "pattern [handler]".
+	 */
+	public String[] getEndpointNames() {
+		return this.statisticsByName.keySet().toArray(new String[this.statisticsByName.size()]);
+	}
+
+	/**
+	 * Return the number of requests currently being processed, across all endpoints.
+	 */
+	public long getInFlightCount() {
+		return this.inFlightCounter.sum(0);
+	}
+
+	/**
+	 * Return the number of completed requests, across all endpoints.
+	 */
+	public long getTotalRequestCount() {
+		long count = 0;
+		for (EndpointStatistics stats : this.statistics.values()) {
+			count += stats.counters.sum(REQUESTS);
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of completed requests that failed, across all endpoints.
+	 */
+	public long getTotalErrorCount() {
+		long count = 0;
+		for (EndpointStatistics stats : this.statistics.values()) {
+			count += stats.counters.sum(ERRORS);
+		}
+		return count;
+	}
+
+	/**
+	 * Return the number of completed requests for the given endpoint.
+	 */
+	public long getRequestCount(String endpointName) {
+		EndpointStatistics stats = this.statisticsByName.get(endpointName);
+		return (stats != null ? stats.counters.sum(REQUESTS) : 0);
+	}
+
+	/**
+	 * Return the number of completed requests for the given endpoint that failed.
+	 */
+	public long getErrorCount(String endpointName) {
+		EndpointStatistics stats = this.statisticsByName.get(endpointName);
+		return (stats != null ? stats.counters.sum(ERRORS) : 0);
+	}
+
+	/**
+	 * Return the number of requests for the given endpoint currently being processed.
+	 */
+	public long getInFlightCount(String endpointName) {
+		EndpointStatistics stats = this.statisticsByName.get(endpointName);
+		return (stats != null ? stats.counters.sum(IN_FLIGHT) : 0);
+	}
+
+	/**
+	 * Return the average duration of completed requests for the given endpoint.
+	 */
+	public double getAverageTime(String endpointName) {
+		EndpointStatistics stats = this.statisticsByName.get(endpointName);
+		return (stats != null ? stats.getAverageTime() : 0);
+	}
+
+	/**
+	 * Return the duration histogram of the given endpoint: one count per
+	 * {@link #getDurationBuckets() bucket}, plus a final count for all
+	 * requests that took longer than the largest bucket.
+	 */
+	public long[] getDurationHistogram(String endpointName) {
+		EndpointStatistics stats = this.statisticsByName.get(endpointName);
+		return (stats != null ? stats.getHistogram() : new long[this.durationBuckets.length + 1]);
+	}
+
+	/**
+	 * Return a snapshot of the metrics of all endpoints recorded so far,
+	 * as a serializable List that can be returned to remote JMX clients.
+	 */
+	public List<EndpointMetrics> getMetrics() {
+		List<EndpointMetrics> result = new ArrayList<EndpointMetrics>(this.statistics.size());
+		for (EndpointStatistics stats : this.statistics.values()) {
+			result.add(new EndpointMetrics(stats.name, stats.pattern, stats.handler,
+					stats.counters.sum(REQUESTS), stats.counters.sum(ERRORS), stats.counters.sum(IN_FLIGHT),
+					stats.getAverageTime(), stats.buckets.clone(), stats.getHistogram()));
+		}
+		return result;
+	}
+
+	/**
+	 * Publish a snapshot of the current metrics to all configured reporters.
+	 * Invoked periodically once initialized, but can also be invoked directly.
+	 * @see #setReporters
+	 */
+	public void report() {
+		if (this.reporters.isEmpty()) {
+			return;
+		}
+		List<EndpointMetrics> metrics = Collections.unmodifiableList(getMetrics());
+		for (RequestMetricsReporter reporter : this.reporters) {
+			try {
+				reporter.report(metrics);
+			}
+			catch (Throwable ex) {
+				logger.warn("RequestMetricsReporter [" + reporter + "] failed", ex);
+			}
+		}
+	}
+
+
+	/**
+	 * The statistics of a single endpoint.
+	 */
+	private static class EndpointStatistics {
+
+		private final String name;
+
+		private final String pattern;
+
+		private final String handler;
+
+		private final long[] buckets;
+
+		private final StripedCounters counters;
+
+		public EndpointStatistics(String pattern, String handler, long[] buckets) {
+			this.name = pattern + " [" + handler + "]";
+			this.pattern = pattern;
+			this.handler = handler;
+			this.buckets = buckets;
+			this.counters = new StripedCounters(FIRST_BUCKET + buckets.length + 1);
+		}
+
+		public double getAverageTime() {
+			long count = this.counters.sum(REQUESTS);
+			return (count > 0 ? (double) TimeUnit.NANOSECONDS.toMicros(this.counters.sum(TOTAL_TIME)) / count / 1000 : 0);
+		}
+
+		public long[] getHistogram() {
+			long[] histogram = new long[this.buckets.length + 1];
+			for (int i = 0; i < histogram.length; i++) {
+				histogram[i] = this.counters.sum(FIRST_BUCKET + i);
+			}
+			return histogram;
+		}
+	}
+
+
+	/**
+	 * Key of an endpoint: the matched pattern plus the handler method or class.
+	 */
+	private static class EndpointKey {
+
+		private final String pattern;
+
+		private final Object handlerKey;
+
+		public EndpointKey(String pattern, Object handlerKey) {
+			this.pattern = pattern;
+			this.handlerKey = handlerKey;
+		}
+
+		@Override
+		public boolean equals(Object other) {
+			if (this == other) {
+				return true;
+			}
+			if (!(other instanceof EndpointKey)) {
+				return false;
+			}
+			EndpointKey otherKey = (EndpointKey) other;
+			return (ObjectUtils.nullSafeEquals(this.pattern, otherKey.pattern) &&
+					ObjectUtils.nullSafeEquals(this.handlerKey, otherKey.handlerKey));
+		}
+
+		@Override
+		public int hashCode() {
+			return ObjectUtils.nullSafeHashCode(this.pattern) * 29 + ObjectUtils.nullSafeHashCode(this.handlerKey);
+		}
+	}
+
+
+	/**
+	 * The state of a request being recorded, kept as a request attribute.
+	 */
+	private static class RequestRecording {
+
+		private final long startTime = System.nanoTime();
+
+		private final AtomicBoolean completed = new AtomicBoolean();
+
+		private volatile EndpointStatistics endpoint;
+
+		private volatile boolean failed;
+	}
+
+
+	/**
+	 * Completes a recording at the end of async processing. Kept in a separate
+	 * class so that Servlet 3.0 API types are only loaded for async requests.
+	 */
+	private class AsyncCompletionListener implements AsyncListener {
+
+		private final RequestRecording recording;
+
+		public AsyncCompletionListener(RequestRecording recording) {
+			this.recording = recording;
+		}
+
+		public void onStartAsync(AsyncEvent event) {
+		}
+
+		public void onTimeout(AsyncEvent event) {
+			this.recording.failed = true;
+		}
+
+		public void onError(AsyncEvent event) {
+			this.recording.failed = true;
+		}
+
+		public void onComplete(AsyncEvent event) {
+			complete(this.recording);
+		}
+	}
+
+}
@@ -0,0 +1,40 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.support;
+
+import java.util.List;
+
+/**
+ * Callback interface for publishing the metrics gathered by {@link RequestMetrics},
+ * e.g. to a log or to an external monitoring system.
+ *
+ * <p>Reporters are invoked from the reporting thread of {@link RequestMetrics}
+ * at the configured interval, and once more on shutdown.
+ *
+ * @since 3.2.13
+ * @see RequestMetrics#setReporters
+ * @see RequestMetrics#setReportInterval
+ */
+public interface RequestMetricsReporter {
+
+	/**
+	 * Report the given metrics.
+	 * @param metrics the cumulative metrics of all endpoints recorded so far
+	 */
+	void report(List<EndpointMetrics> metrics);
+
+}
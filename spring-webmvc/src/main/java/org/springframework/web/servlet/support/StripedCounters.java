@@ -0,0 +1,127 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.support;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A fixed number of long counters, each striped across several rows so that
+ * concurrent updates from different threads mostly hit different cache lines.
+ * A thread always updates the row selected by its id; reads sum up all rows.
+ *
+ * <p>Sums are not atomic snapshots across counters, which is acceptable for
+ * metrics but not for exact accounting.
+ *
+ * @since 3.2.13
+ */
+class StripedCounters {
+
+	/** Number of longs in a 64 byte cache line */
+	private static final int LONGS_PER_CACHE_LINE = 8;
+
+	private static final int DEFAULT_STRIPES = stripesFor(Runtime.getRuntime().availableProcessors());
+
+
+	private final int counterCount;
+
+	private final int rowWidth;
+
+	private final int stripeMask;
+
+	private final AtomicLongArray cells;
+
+
+	/**
+	 * Create counters with a number of stripes derived from the number of processors.
+	 * @param counterCount the number of counters
+	 */
+	public StripedCounters(int counterCount) {
+		this(counterCount, DEFAULT_STRIPES);
+	}
+
+	/**
+	 * Create counters with the given number of stripes.
+	 * @param counterCount the number of counters
+	 * @param stripes the number of stripes, rounded up to a power of two
+	 */
+	public StripedCounters(int counterCount, int stripes) {
+		this.counterCount = counterCount;
+		// Round each row up to whole cache lines, plus one line between rows
+		this.rowWidth = ((counterCount + LONGS_PER_CACHE_LINE - 1) / LONGS_PER_CACHE_LINE + 1) * LONGS_PER_CACHE_LINE;
+		int stripeCount = stripesFor(stripes);
+		this.stripeMask = stripeCount - 1;
+		this.cells = new AtomicLongArray(stripeCount * this.rowWidth);
+	}
+
+
+	/**
+	 * Return the number of counters.
+	 */
+	public int getCounterCount() {
+		return this.counterCount;
+	}
+
+	/**
+	 * Add the given value to the given counter.
+	 */
+	public void add(int counter, long delta) {
+		this.cells.addAndGet(rowOffset() + counter, delta);
+	}
+
+	/**
+	 * Increment the given counter by one.
+	 */
+	public void increment(int counter) {
+		add(counter, 1);
+	}
+
+	/**
+	 * Decrement the given counter by one.
+	 */
+	public void decrement(int counter) {
+		add(counter, -1);
+	}
+
+	/**
+	 * Return the current value of the given counter.
+	 */
+	public long sum(int counter) {
+		long sum = 0;
+		for (int offset = counter; offset < this.cells.length(); offset += this.rowWidth) {
+			sum += this.cells.get(offset);
+		}
+		return sum;
+	}
+
+	private int rowOffset() {
+		long id = Thread.currentThread().getId();
+		int hash = (int) (id ^ (id >>> 32));
+		hash ^= (hash >>> 16);
+		hash *= 0x85ebca6b;
+		hash ^= (hash >>> 13);
+		return (hash & this.stripeMask) * this.rowWidth;
+	}
+
+	private static int stripesFor(int parallelism) {
+		int stripes = 1;
+		while (stripes < parallelism && stripes < 64) {
+			stripes <<= 1;
+		}
+		return stripes;
+	}
+
+}
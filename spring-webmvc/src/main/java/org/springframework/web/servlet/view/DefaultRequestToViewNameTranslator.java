@@ -172,7 +172,7 @@ public class DefaultRequestToViewNameTranslator implements RequestToViewNameTran
 	 * @see #transformPath
 	 */
 	public String getViewName(HttpServletRequest request) {
-		String lookupPath = this.urlPathHelper.getLookupPathForRequest(request);
+		String lookupPath = this.urlPathHelper.resolveLookupPath(request);
 		return (this.prefix + transformPath(lookupPath) + this.suffix);
 	}
 
@@ -18,6 +18,8 @@ package org.springframework.web.servlet;
 
 import java.io.IOException;
 import java.util.Locale;
+import java.util.Map;
+import javax.servlet.DispatcherType;
 import javax.servlet.Servlet;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -28,6 +30,7 @@ import javax.servlet.http.HttpServletResponse;
 
 import junit.framework.TestCase;
 
+import org.springframework.beans.BeansException;
 import org.springframework.beans.MutablePropertyValues;
 import org.springframework.beans.PropertyValue;
 import org.springframework.context.ApplicationContextInitializer;
@@ -47,17 +50,23 @@ import org.springframework.web.context.ContextLoader;
 import org.springframework.web.context.ServletConfigAwareBean;
 import org.springframework.web.context.ServletContextAwareBean;
 import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.request.async.DeferredResult;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
 import org.springframework.web.context.support.StandardServletEnvironment;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartHttpServletRequest;
 import org.springframework.web.multipart.MultipartResolver;
+import org.springframework.web.servlet.handler.BeanNameUrlHandlerMapping;
 import org.springframework.web.servlet.handler.SimpleMappingExceptionResolver;
 import org.springframework.web.servlet.handler.SimpleUrlHandlerMapping;
 import org.springframework.web.servlet.mvc.BaseCommandController;
 import org.springframework.web.servlet.mvc.Controller;
 import org.springframework.web.servlet.support.RequestContext;
 import org.springframework.web.servlet.support.RequestContextUtils;
+import org.springframework.web.servlet.support.RequestMetrics;
 import org.springframework.web.servlet.theme.AbstractThemeResolver;
 import org.springframework.web.servlet.view.InternalResourceViewResolver;
 import org.springframework.web.util.WebUtils;
@@ -924,6 +933,140 @@ public class DispatcherServletTests extends TestCase {
 		assertEquals("true", servletConfig.getServletContext().getAttribute("otherInitialized"));
 	}
 
+	public void testRequestMetricsBeanDetected() throws Exception {
+		DispatcherServlet servlet = new DispatcherServlet();
+		servlet.setContextClass(MetricsWebApplicationContext.class);
+		servlet.init(new MockServletConfig(getServletContext(), "metrics"));
+		RequestMetrics metrics = servlet.getWebApplicationContext().getBean("requestMetrics", RequestMetrics.class);
+
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/ok.do");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		servlet.service(request, response);
+
+		assertEquals("ok", response.getContentAsString());
+		assertEquals(1, metrics.getTotalRequestCount());
+		assertEquals(0, metrics.getTotalErrorCount());
+		assertEquals(0, metrics.getInFlightCount());
+		assertEquals(1, metrics.getEndpointNames().length);
+	}
+
+	public void testRequestMetricsWithRenderingFailure() throws Exception {
+		DispatcherServlet servlet = new DispatcherServlet();
+		servlet.setContextClass(MetricsWebApplicationContext.class);
+		servlet.init(new MockServletConfig(getServletContext(), "metrics"));
+		RequestMetrics metrics = servlet.getWebApplicationContext().getBean("requestMetrics", RequestMetrics.class);
+
+		// the View fails after the handler has completed successfully
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/failingView.do");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		try {
+			servlet.service(request, response);
+			fail("Should have thrown ServletException");
+		}
+		catch (ServletException ex) {
+			assertTrue(ex.getRootCause() instanceof IllegalStateException);
+		}
+
+		assertEquals(1, metrics.getTotalRequestCount());
+		assertEquals(1, metrics.getTotalErrorCount());
+		assertEquals(0, metrics.getInFlightCount());
+	}
+
+	public void testRequestMetricsWithAsyncDispatch() throws Exception {
+		DispatcherServlet servlet = new DispatcherServlet();
+		servlet.setContextClass(MetricsWebApplicationContext.class);
+		servlet.init(new MockServletConfig(getServletContext(), "metrics"));
+		RequestMetrics metrics = servlet.getWebApplicationContext().getBean("requestMetrics", RequestMetrics.class);
+
+		MockHttpServletRequest request = new MockHttpServletRequest(getServletContext(), "GET", "/async.do");
+		request.setAsyncSupported(true);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		servlet.service(request, response);
+
+		assertTrue(request.isAsyncStarted());
+		assertEquals(0, metrics.getTotalRequestCount());
+		assertEquals(1, metrics.getInFlightCount());
+
+		@SuppressWarnings("unchecked")
+		DeferredResult<String> deferredResult = (DeferredResult<String>) request.getAttribute("deferredResult");
+		deferredResult.setResult("async");
+		request.setAsyncStarted(false);
+		request.setDispatcherType(DispatcherType.ASYNC);
+		servlet.service(request, response);
+
+		assertEquals("async", response.getContentAsString());
+		assertEquals(1, metrics.getTotalRequestCount());
+		assertEquals(0, metrics.getTotalErrorCount());
+		assertEquals(0, metrics.getInFlightCount());
+
+		// completion of the async request must not count it twice
+		request.getAsyncContext().complete();
+		assertEquals(1, metrics.getTotalRequestCount());
+		assertEquals(1, metrics.getEndpointNames().length);
+	}
+
+
+	public static class MetricsWebApplicationContext extends StaticWebApplicationContext {
+
+		@Override
+		public void refresh() throws BeansException {
+			registerSingleton(DispatcherServlet.REQUEST_METRICS_BEAN_NAME, RequestMetrics.class);
+			registerSingleton("handlerMapping", BeanNameUrlHandlerMapping.class);
+			registerSingleton("/ok.do", OkController.class);
+			registerSingleton("/failingView.do", FailingViewController.class);
+			registerSingleton("/async.do", AsyncController.class);
+			super.refresh();
+		}
+	}
+
+
+	public static class OkController implements Controller {
+
+		@Override
+		public ModelAndView handleRequest(HttpServletRequest request, HttpServletResponse response) throws Exception {
+			response.getWriter().write("ok");
+			return null;
+		}
+	}
+
+
+	public static class FailingViewController implements Controller {
+
+		@Override
+		public ModelAndView handleRequest(HttpServletRequest request, HttpServletResponse response) {
+			return new ModelAndView(new View() {
+				@Override
+				public String getContentType() {
+					return null;
+				}
+				@Override
+				public void render(Map<String, ?> model, HttpServletRequest request, HttpServletResponse response) {
+					throw new IllegalStateException("Rendering failed");
+				}
+			});
+		}
+	}
+
+
+	public static class AsyncController implements Controller {
+
+		@Override
+		public ModelAndView handleRequest(HttpServletRequest request, HttpServletResponse response) throws Exception {
+			WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(request);
+			if (asyncManager.hasConcurrentResult()) {
+				Object result = asyncManager.getConcurrentResult();
+				asyncManager.clearConcurrentResult();
+				response.getWriter().write((String) result);
+				return null;
+			}
+			DeferredResult<String> deferredResult = new DeferredResult<String>();
+			request.setAttribute("deferredResult", deferredResult);
+			asyncManager.setAsyncWebRequest(new StandardServletAsyncWebRequest(request, response));
+			asyncManager.startDeferredResultProcessing(deferredResult);
+			return null;
+		}
+	}
+
 
 	public static class ControllerFromParent implements Controller {
 
@@ -0,0 +1,96 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.handler;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test fixture for {@link MappedInterceptorIndex} tests.
+ */
+public class MappedInterceptorIndexTests {
+
+	private final MappedInterceptor all = createMappedInterceptor(null);
+
+	private final MappedInterceptor foo = createMappedInterceptor("/foo/**");
+
+	private final MappedInterceptor bar = createMappedInterceptor("/bar/*", "/foo/bar");
+
+	private final MappedInterceptor wildcard = createMappedInterceptor("/*/baz");
+
+	private final MappedInterceptor variable = createMappedInterceptor("/{id}/**");
+
+	private final List<MappedInterceptor> interceptors = Arrays.asList(all, foo, bar, wildcard, variable);
+
+
+	@Test
+	public void candidates() {
+		MappedInterceptorIndex index = new MappedInterceptorIndex(this.interceptors, new AntPathMatcher());
+
+		assertEquals(Arrays.asList(all, foo, bar, wildcard, variable), index.getCandidates("/foo/bar"));
+		assertEquals(Arrays.asList(all, bar, wildcard, variable), index.getCandidates("/bar/baz"));
+		assertEquals(Arrays.asList(all, wildcard, variable), index.getCandidates("/baz"));
+		assertEquals(Arrays.asList(all, wildcard, variable), index.getCandidates("/"));
+		assertEquals(Arrays.asList(all, foo, bar, wildcard, variable), index.getCandidates("//foo"));
+	}
+
+	@Test
+	public void noUnindexedInterceptors() {
+		MappedInterceptorIndex index = new MappedInterceptorIndex(Arrays.asList(foo, bar), new AntPathMatcher());
+
+		assertEquals(Arrays.asList(foo, bar), index.getCandidates("/foo/bar"));
+		assertEquals(Arrays.asList(foo, bar), index.getCandidates("/foo"));
+		assertEquals(Arrays.asList(bar), index.getCandidates("/bar/baz"));
+		assertTrue(index.getCandidates("/baz").isEmpty());
+	}
+
+	@Test
+	public void sameResultAsMatchingAllInterceptors() {
+		PathMatcher pathMatcher = new AntPathMatcher();
+		MappedInterceptorIndex index = new MappedInterceptorIndex(this.interceptors, pathMatcher);
+
+		for (String path : new String[] {"/", "/foo", "/foo/", "/foo/bar", "/bar/x", "/x/baz", "/1/2", "foo", "/ foo/x"}) {
+			for (MappedInterceptor interceptor : this.interceptors) {
+				if (interceptor.matches(path, pathMatcher)) {
+					assertTrue(path, index.getCandidates(path).contains(interceptor));
+				}
+			}
+		}
+	}
+
+	@Test
+	public void customPathMatcher() {
+		AntPathMatcher pathMatcher = new AntPathMatcher();
+		pathMatcher.setPathSeparator(".");
+		MappedInterceptorIndex index = new MappedInterceptorIndex(this.interceptors, pathMatcher);
+
+		assertEquals(this.interceptors, index.getCandidates("/baz"));
+	}
+
+
+	private static MappedInterceptor createMappedInterceptor(String... includePatterns) {
+		return new MappedInterceptor(includePatterns, new HandlerInterceptorAdapter() {});
+	}
+
+}
@@ -16,6 +16,7 @@
 
 package org.springframework.web.servlet.mvc.method.annotation;
 
+import java.io.IOException;
 import java.lang.reflect.Method;
 import java.util.Arrays;
 
@@ -28,6 +29,7 @@ import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ModelAttribute;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import org.springframework.web.context.support.StaticWebApplicationContext;
 import org.springframework.web.method.HandlerMethod;
@@ -188,6 +190,58 @@ public class RequestMappingHandlerAdapterTests {
 	}
 
 
+	@Test
+	public void modelWithoutModelAttributeMethods() throws Exception {
+		this.handlerAdapter.afterPropertiesSet();
+
+		HandlerMethod handlerMethod = handlerMethod(new RedirectAttributeController(), "handle", Model.class);
+		ModelAndView mav = this.handlerAdapter.handle(this.request, this.response, handlerMethod);
+		assertEquals("redirect:/path", mav.getViewName());
+		assertEquals("someAttrValue", mav.getModel().get("someAttr"));
+
+		mav = this.handlerAdapter.handle(new MockHttpServletRequest(), new MockHttpServletResponse(), handlerMethod);
+		assertEquals("someAttrValue", mav.getModel().get("someAttr"));
+	}
+
+	@Test
+	public void fastInvocation() throws Exception {
+		this.handlerAdapter.setFastInvocation(true);
+		this.handlerAdapter.afterPropertiesSet();
+
+		HandlerMethod handlerMethod = handlerMethod(new PublicController(), "handle", String.class);
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.addParameter("name", "value" + i);
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			assertNull(this.handlerAdapter.handle(request, response, handlerMethod));
+			assertEquals("value" + i, response.getContentAsString());
+		}
+	}
+
+	@Test(expected = IOException.class)
+	public void fastInvocationWithException() throws Exception {
+		this.handlerAdapter.setFastInvocation(true);
+		this.handlerAdapter.afterPropertiesSet();
+
+		HandlerMethod handlerMethod = handlerMethod(new PublicController(), "handleWithException");
+		this.handlerAdapter.handle(this.request, this.response, handlerMethod);
+	}
+
+	@Test
+	public void fastInvocationWithNonPublicController() throws Exception {
+		this.webAppContext.registerSingleton("maa", ModelAttributeAdvice.class);
+		this.webAppContext.refresh();
+		this.handlerAdapter.setFastInvocation(true);
+		this.handlerAdapter.afterPropertiesSet();
+
+		HandlerMethod handlerMethod = handlerMethod(new SimpleController(), "handle");
+		ModelAndView mav = this.handlerAdapter.handle(this.request, this.response, handlerMethod);
+
+		assertEquals("lAttr1", mav.getModel().get("attr1"));
+		assertEquals("gAttr2", mav.getModel().get("attr2"));
+	}
+
+
 	private HandlerMethod handlerMethod(Object handler, String methodName, Class<?>... paramTypes) throws Exception {
 		Method method = handler.getClass().getDeclaredMethod(methodName, paramTypes);
 		return new InvocableHandlerMethod(handler, method);
@@ -233,6 +287,19 @@ public class RequestMappingHandlerAdapterTests {
 	}
 
 
+	public static class PublicController {
+
+		@ResponseBody
+		public String handle(String name) {
+			return name;
+		}
+
+		public void handleWithException() throws IOException {
+			throw new IOException();
+		}
+	}
+
+
 	@ControllerAdvice
 	private static class ModelAttributeAdvice {
 
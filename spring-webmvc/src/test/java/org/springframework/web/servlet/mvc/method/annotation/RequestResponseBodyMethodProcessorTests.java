@@ -22,6 +22,7 @@ import static org.junit.Assert.assertNotNull;
 import java.io.Serializable;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import org.junit.Before;
@@ -42,6 +43,7 @@ import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.support.WebDataBinderFactory;
 import org.springframework.web.context.request.NativeWebRequest;
 import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.servlet.HandlerMapping;
 import org.springframework.web.method.HandlerMethod;
 import org.springframework.web.method.support.ModelAndViewContainer;
 
@@ -232,6 +234,29 @@ public class RequestResponseBodyMethodProcessorTests {
 	}
 
 
+	@Test
+	public void handleReturnValueMemoizedNegotiation() throws Exception {
+		List<HttpMessageConverter<?>> converters = new ArrayList<HttpMessageConverter<?>>();
+		converters.add(new ByteArrayHttpMessageConverter());
+		converters.add(new StringHttpMessageConverter());
+		RequestResponseBodyMethodProcessor processor = new RequestResponseBodyMethodProcessor(converters);
+
+		this.servletRequest.addHeader("Accept", "text/*");
+		processor.writeWithMessageConverters("Foo", returnTypeString, webRequest);
+		assertEquals("text/plain;charset=ISO-8859-1", servletResponse.getHeader("Content-Type"));
+
+		MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+		processor.writeWithMessageConverters("Bar", returnTypeString, new ServletWebRequest(servletRequest, otherResponse));
+		assertEquals("text/plain;charset=ISO-8859-1", otherResponse.getHeader("Content-Type"));
+		assertEquals("Bar", otherResponse.getContentAsString());
+
+		otherResponse = new MockHttpServletResponse();
+		this.servletRequest.setAttribute(HandlerMapping.PRODUCIBLE_MEDIA_TYPES_ATTRIBUTE,
+				Collections.singleton(MediaType.TEXT_HTML));
+		processor.writeWithMessageConverters("Baz", returnTypeString, new ServletWebRequest(servletRequest, otherResponse));
+		assertEquals("text/html", otherResponse.getHeader("Content-Type"));
+	}
+
 	public String handle(
 			@RequestBody List<SimpleBean> list,
 			@RequestBody SimpleBean simpleBean,
@@ -0,0 +1,184 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.servlet.AsyncEvent;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import org.springframework.core.MethodParameter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.StringHttpMessageConverter;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for {@link ResponseBodyEmitterReturnValueHandler}.
+ */
+public class ResponseBodyEmitterReturnValueHandlerTests {
+
+	private static final AsyncEvent ASYNC_EVENT = null;
+
+	private ResponseBodyEmitterReturnValueHandler handler;
+
+	private MockHttpServletRequest request;
+
+	private MockHttpServletResponse response;
+
+	private NativeWebRequest webRequest;
+
+	private StandardServletAsyncWebRequest asyncWebRequest;
+
+	private ModelAndViewContainer mavContainer;
+
+
+	@Before
+	public void setUp() throws Exception {
+		List<HttpMessageConverter<?>> converters = new ArrayList<HttpMessageConverter<?>>();
+		converters.add(new StringHttpMessageConverter());
+		this.handler = new ResponseBodyEmitterReturnValueHandler(converters);
+
+		this.request = new MockHttpServletRequest("GET", "/stream");
+		this.request.setAsyncSupported(true);
+		this.response = new MockHttpServletResponse();
+		this.webRequest = new ServletWebRequest(this.request, this.response);
+		this.asyncWebRequest = new StandardServletAsyncWebRequest(this.request, this.response);
+		WebAsyncUtils.getAsyncManager(this.webRequest).setAsyncWebRequest(this.asyncWebRequest);
+		this.mavContainer = new ModelAndViewContainer();
+	}
+
+
+	@Test
+	public void supportsReturnType() throws Exception {
+		assertTrue(this.handler.supportsReturnType(returnType("handleEmitter")));
+		assertTrue(this.handler.supportsReturnType(returnType("handleSse")));
+		assertFalse(this.handler.supportsReturnType(returnType("handleString")));
+	}
+
+	@Test
+	public void responseBodyEmitter() throws Exception {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		this.handler.handleReturnValue(emitter, returnType("handleEmitter"), this.mavContainer, this.webRequest);
+
+		assertTrue(this.mavContainer.isRequestHandled());
+		assertTrue(this.request.isAsyncStarted());
+		assertTrue(this.response.isCommitted());
+		assertEquals("", this.response.getContentAsString());
+
+		emitter.send("foo");
+		emitter.send("bar");
+		assertEquals("foobar", this.response.getContentAsString());
+
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.webRequest);
+		assertFalse(asyncManager.hasConcurrentResult());
+		emitter.complete();
+		assertTrue(asyncManager.hasConcurrentResult());
+		assertNull(asyncManager.getConcurrentResult());
+	}
+
+	@Test
+	public void responseBodyEmitterWithEarlySend() throws Exception {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		emitter.send("foo");
+		emitter.complete();
+		this.handler.handleReturnValue(emitter, returnType("handleEmitter"), this.mavContainer, this.webRequest);
+
+		assertEquals("foo", this.response.getContentAsString());
+		assertTrue(WebAsyncUtils.getAsyncManager(this.webRequest).hasConcurrentResult());
+	}
+
+	@Test
+	public void responseBodyEmitterWithError() throws Exception {
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter();
+		this.handler.handleReturnValue(emitter, returnType("handleEmitter"), this.mavContainer, this.webRequest);
+
+		IllegalStateException ex = new IllegalStateException();
+		emitter.completeWithError(ex);
+		assertSame(ex, WebAsyncUtils.getAsyncManager(this.webRequest).getConcurrentResult());
+	}
+
+	@Test
+	public void responseBodyEmitterTimeout() throws Exception {
+		final List<String> callbacks = new ArrayList<String>();
+		ResponseBodyEmitter emitter = new ResponseBodyEmitter(1000L);
+		emitter.onTimeout(new Runnable() {
+			public void run() {
+				callbacks.add("timeout");
+			}
+		});
+		emitter.onCompletion(new Runnable() {
+			public void run() {
+				callbacks.add("completion");
+			}
+		});
+		this.handler.handleReturnValue(emitter, returnType("handleEmitter"), this.mavContainer, this.webRequest);
+
+		this.asyncWebRequest.onTimeout(ASYNC_EVENT);
+		assertTrue(WebAsyncUtils.getAsyncManager(this.webRequest).hasConcurrentResult());
+		assertEquals(200, this.response.getStatus());
+
+		this.asyncWebRequest.onComplete(ASYNC_EVENT);
+		assertEquals("[timeout, completion]", callbacks.toString());
+	}
+
+	@Test
+	public void sseEmitter() throws Exception {
+		SseEmitter emitter = new SseEmitter();
+		this.handler.handleReturnValue(emitter, returnType("handleSse"), this.mavContainer, this.webRequest);
+
+		assertEquals("text/event-stream;charset=UTF-8", this.response.getContentType());
+
+		emitter.send("foo");
+		emitter.send(SseEmitter.event().id("1").name("update").comment("c").data("bar"));
+		emitter.complete();
+
+		assertEquals("data:foo\n\nid:1\nevent:update\n:c\ndata:bar\n\n", this.response.getContentAsString());
+	}
+
+
+	private MethodParameter returnType(String methodName) throws NoSuchMethodException {
+		return new MethodParameter(getClass().getDeclaredMethod(methodName), -1);
+	}
+
+
+	@SuppressWarnings("unused")
+	private ResponseBodyEmitter handleEmitter() {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private SseEmitter handleSse() {
+		return null;
+	}
+
+	@SuppressWarnings("unused")
+	private String handleString() {
+		return null;
+	}
+
+}
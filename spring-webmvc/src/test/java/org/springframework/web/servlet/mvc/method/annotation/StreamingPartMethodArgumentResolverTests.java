@@ -0,0 +1,98 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.mvc.method.annotation;
+
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockMultipartHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import org.springframework.web.multipart.MultipartException;
+import org.springframework.web.multipart.StreamingMultipartHttpServletRequest;
+import org.springframework.web.multipart.StreamingPart;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test fixture with {@link StreamingPartMethodArgumentResolver}.
+ */
+public class StreamingPartMethodArgumentResolverTests {
+
+	private StreamingPartMethodArgumentResolver resolver;
+
+	private MethodParameter partsParam;
+
+	private MethodParameter stringsParam;
+
+	private MethodParameter rawParam;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.resolver = new StreamingPartMethodArgumentResolver();
+		Method method = getClass().getDeclaredMethod("handle", Iterator.class, Iterator.class, Iterator.class);
+		this.partsParam = new MethodParameter(method, 0);
+		this.stringsParam = new MethodParameter(method, 1);
+		this.rawParam = new MethodParameter(method, 2);
+	}
+
+	@Test
+	public void supportsParameter() {
+		assertTrue(this.resolver.supportsParameter(this.partsParam));
+		assertFalse(this.resolver.supportsParameter(this.stringsParam));
+		assertFalse(this.resolver.supportsParameter(this.rawParam));
+	}
+
+	@Test
+	public void resolveArgument() throws Exception {
+		StreamingRequest request = new StreamingRequest();
+		ServletWebRequest webRequest = new ServletWebRequest(request);
+
+		Object actual = this.resolver.resolveArgument(this.partsParam, new ModelAndViewContainer(), webRequest, null);
+		assertSame(request.partIterator, actual);
+	}
+
+	@Test(expected = MultipartException.class)
+	public void resolveArgumentWithoutStreamingRequest() throws Exception {
+		ServletWebRequest webRequest = new ServletWebRequest(new MockHttpServletRequest());
+		this.resolver.resolveArgument(this.partsParam, new ModelAndViewContainer(), webRequest, null);
+	}
+
+
+	@SuppressWarnings({"unused", "rawtypes"})
+	private void handle(Iterator<StreamingPart> parts, Iterator<String> strings, Iterator raw) {
+	}
+
+
+	private static class StreamingRequest extends MockMultipartHttpServletRequest
+			implements StreamingMultipartHttpServletRequest {
+
+		private final Iterator<StreamingPart> partIterator = Collections.<StreamingPart>emptyList().iterator();
+
+		@Override
+		public Iterator<StreamingPart> getPartIterator() {
+			return this.partIterator;
+		}
+	}
+
+}
@@ -16,20 +16,26 @@
 
 package org.springframework.web.servlet.resource;
 
+import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
 
 import org.junit.Before;
 import org.junit.Test;
 
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.mock.web.test.MockHttpServletRequest;
 import org.springframework.mock.web.test.MockHttpServletResponse;
 import org.springframework.mock.web.test.MockServletContext;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.FileCopyUtils;
 import org.springframework.web.HttpRequestMethodNotSupportedException;
 import org.springframework.web.servlet.HandlerMapping;
 
@@ -280,6 +286,254 @@ public class ResourceHttpRequestHandlerTests {
 	}
 
 
+	@Test
+	public void getResourceWithRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Range", "bytes=0-3");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		assertEquals("bytes 0-3/17", response.getHeader("Content-Range"));
+		assertEquals("bytes", response.getHeader("Accept-Ranges"));
+		assertEquals(4, response.getContentLength());
+		assertEquals("h1 {", response.getContentAsString());
+	}
+
+	@Test
+	public void getResourceWithSuffixRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Range", "bytes=-4");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		assertEquals("bytes 13-16/17", response.getHeader("Content-Range"));
+		assertEquals("d; }", response.getContentAsString());
+	}
+
+	@Test
+	public void getResourceWithUnsatisfiableRange() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Range", "bytes=17-");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE, response.getStatus());
+		assertEquals("bytes */17", response.getHeader("Content-Range"));
+	}
+
+	@Test
+	public void getResourceWithMultipleRanges() throws Exception {
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Range", "bytes=0-1,4-5");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		assertEquals("h1 { color:red; }", response.getContentAsString());
+	}
+
+	@Test
+	public void getCachedResource() throws Exception {
+		handler.setCacheResources(true);
+		String etag = "\"" + DigestUtils.md5DigestAsHex("h1 { color:red; }".getBytes("UTF-8")) + "\"";
+		for (int i = 0; i < 2; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest();
+			request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+			request.setMethod("GET");
+			MockHttpServletResponse response = new MockHttpServletResponse();
+			handler.handleRequest(request, response);
+			assertEquals("text/css", response.getContentType());
+			assertEquals(17, response.getContentLength());
+			assertEquals(etag, response.getHeader("ETag"));
+			assertTrue(response.containsHeader("Last-Modified"));
+			assertEquals("h1 { color:red; }", response.getContentAsString());
+		}
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("If-None-Match", etag);
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Range", "bytes=5-");
+		request.addHeader("If-Range", etag);
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_PARTIAL_CONTENT, response.getStatus());
+		assertEquals("color:red; }", response.getContentAsString());
+	}
+
+	@Test
+	public void getGzipVariant() throws Exception {
+		handler.setUseGzipVariants(true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Accept-Encoding", "gzip, deflate");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		byte[] gzipped = FileCopyUtils.copyToByteArray(new ClassPathResource("test/foo.css.gz", getClass()).getInputStream());
+		assertEquals("text/css", response.getContentType());
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", response.getHeader("Vary"));
+		assertEquals(gzipped.length, response.getContentLength());
+		assertArrayEquals(gzipped, response.getContentAsByteArray());
+
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertNull(response.getHeader("Content-Encoding"));
+		assertEquals("Accept-Encoding", response.getHeader("Vary"));
+		assertEquals("h1 { color:red; }", response.getContentAsString());
+	}
+
+	@Test
+	public void getGzipVariantWithOwnETag() throws Exception {
+		handler.setUseGzipVariants(true);
+		handler.setCacheResources(true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		String identityETag = response.getHeader("ETag");
+		assertNotNull(identityETag);
+
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Accept-Encoding", "gzip");
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		String gzipETag = response.getHeader("ETag");
+		assertNotNull(gzipETag);
+		assertFalse(identityETag.equals(gzipETag));
+
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Accept-Encoding", "gzip");
+		request.addHeader("If-None-Match", identityETag);
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		assertEquals("gzip", response.getHeader("Content-Encoding"));
+
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("Accept-Encoding", "gzip");
+		request.addHeader("If-None-Match", gzipETag);
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+		assertEquals("Accept-Encoding", response.getHeader("Vary"));
+		assertNull(response.getHeader("Content-Encoding"));
+	}
+
+	@Test
+	public void notModifiedWithGzipVariantHasVaryHeader() throws Exception {
+		handler.setUseGzipVariants(true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo.css");
+		request.addHeader("If-Modified-Since", new ClassPathResource("test/foo.css.gz", getClass()).getFile().lastModified());
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_NOT_MODIFIED, response.getStatus());
+		assertEquals("Accept-Encoding", response.getHeader("Vary"));
+	}
+
+	@Test
+	public void containerTransferNotUsedByDefault() throws Exception {
+		File dir = createLargeResourceDir();
+		handler.setLocations(Arrays.<Resource>asList(new FileSystemResource(dir.getAbsolutePath() + "/")));
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/large.css");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(64 * 1024, response.getContentAsByteArray().length);
+	}
+
+	@Test
+	public void containerTransfer() throws Exception {
+		File dir = createLargeResourceDir();
+		handler.setLocations(Arrays.<Resource>asList(new FileSystemResource(dir.getAbsolutePath() + "/")));
+		handler.setUseContainerTransfer(true);
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/large.css");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(new File(dir, "large.css").getAbsolutePath(),
+				request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(0, response.getContentAsByteArray().length);
+
+		// a wrapped response must see the content, e.g. for ShallowEtagHeaderFilter
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/large.css");
+		request.setAttribute("org.apache.tomcat.sendfile.support", Boolean.TRUE);
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, new HttpServletResponseWrapper(response));
+		assertNull(request.getAttribute("org.apache.tomcat.sendfile.filename"));
+		assertEquals(64 * 1024, response.getContentAsByteArray().length);
+	}
+
+	private File createLargeResourceDir() throws IOException {
+		File dir = File.createTempFile("resources", "");
+		dir.delete();
+		dir.mkdir();
+		dir.deleteOnExit();
+		File file = new File(dir, "large.css");
+		file.deleteOnExit();
+		FileCopyUtils.copy(new byte[64 * 1024], file);
+		return dir;
+	}
+
+	@Test
+	public void getFingerprintedResource() throws Exception {
+		handler.setUseFingerprints(true);
+		handler.setCacheResources(true);
+		String hash = DigestUtils.md5DigestAsHex("h1 { color:red; }".getBytes("UTF-8"));
+		assertEquals("/foo-" + hash + ".css", handler.getFingerprintedPath("/foo.css"));
+		assertNull(handler.getFingerprintedPath("/not-there.css"));
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE, "/foo-" + hash + ".css");
+		request.setMethod("GET");
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(HttpServletResponse.SC_OK, response.getStatus());
+		assertEquals("max-age=31536000", response.getHeader("Cache-Control"));
+		assertEquals("h1 { color:red; }", response.getContentAsString());
+
+		request = new MockHttpServletRequest();
+		request.setAttribute(HandlerMapping.PATH_WITHIN_HANDLER_MAPPING_ATTRIBUTE,
+				"/foo-" + hash.replace(hash.charAt(0), hash.charAt(0) == 'a' ? 'b' : 'a') + ".css");
+		request.setMethod("GET");
+		response = new MockHttpServletResponse();
+		handler.handleRequest(request, response);
+		assertEquals(404, response.getStatus());
+	}
+
 	private static class TestServletContext extends MockServletContext {
 
 		@Override
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2002-2014 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.springframework.web.servlet.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.mock.web.test.MockHttpServletRequest;
+import org.springframework.mock.web.test.MockHttpServletResponse;
+import org.springframework.util.SerializationTestUtils;
+import org.springframework.web.context.request.async.StandardServletAsyncWebRequest;
+import org.springframework.web.context.request.async.WebAsyncManager;
+import org.springframework.web.context.request.async.WebAsyncUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test fixture for {@link RequestMetrics}.
+ */
+public class RequestMetricsTests {
+
+	private static final String SHOW_ENDPOINT = "/users/{id} [RequestMetricsTests.TestController#show]";
+
+	private static final String UNMAPPED_ENDPOINT = RequestMetrics.UNMAPPED_PATTERN + " [" + RequestMetrics.NO_HANDLER + "]";
+
+	private RequestMetrics metrics;
+
+	private MockHttpServletRequest request;
+
+	private HandlerMethod handlerMethod;
+
+
+	@Before
+	public void setUp() throws Exception {
+		this.metrics = new RequestMetrics();
+		this.request = new MockHttpServletRequest("GET", "/users/1");
+		this.request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{id}");
+		this.handlerMethod = new HandlerMethod(new TestController(), "show");
+	}
+
+
+	@Test
+	public void recordRequest() {
+		assertTrue(this.metrics.requestStarted(this.request));
+		assertEquals(1, this.metrics.getInFlightCount());
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		assertEquals(1, this.metrics.getInFlightCount(SHOW_ENDPOINT));
+
+		this.metrics.requestCompleted(this.request, null);
+		assertEquals(0, this.metrics.getInFlightCount());
+		assertEquals(0, this.metrics.getInFlightCount(SHOW_ENDPOINT));
+		assertEquals(1, this.metrics.getRequestCount(SHOW_ENDPOINT));
+		assertEquals(0, this.metrics.getErrorCount(SHOW_ENDPOINT));
+		assertEquals(1, this.metrics.getTotalRequestCount());
+		assertArrayEquals(new String[] {SHOW_ENDPOINT}, this.metrics.getEndpointNames());
+
+		long histogramTotal = 0;
+		for (long count : this.metrics.getDurationHistogram(SHOW_ENDPOINT)) {
+			histogramTotal += count;
+		}
+		assertEquals(1, histogramTotal);
+	}
+
+	@Test
+	public void metricsSerializable() throws Exception {
+		this.metrics.requestStarted(this.request);
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		this.metrics.requestCompleted(this.request, null);
+
+		@SuppressWarnings("unchecked")
+		List<EndpointMetrics> metrics =
+				(List<EndpointMetrics>) SerializationTestUtils.serializeAndDeserialize(this.metrics.getMetrics());
+		assertEquals(1, metrics.size());
+		assertEquals(SHOW_ENDPOINT, metrics.get(0).getName());
+		assertEquals(1, metrics.get(0).getRequestCount());
+	}
+
+	@Test
+	public void durationBucketsFixedOnceRecorded() {
+		this.metrics.setDurationBuckets(10, 100);
+		this.metrics.requestStarted(this.request);
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		this.metrics.requestCompleted(this.request, null);
+		assertEquals(3, this.metrics.getDurationHistogram(SHOW_ENDPOINT).length);
+
+		try {
+			this.metrics.setDurationBuckets(1, 2, 3);
+			fail("Should have thrown IllegalStateException");
+		}
+		catch (IllegalStateException ex) {
+			// expected
+		}
+		assertEquals(1, this.metrics.getRequestCount(SHOW_ENDPOINT));
+		assertEquals(2, this.metrics.getDurationBuckets().length);
+	}
+
+	@Test
+	public void recordRequestsWithNewHandlerMethodInstances() {
+		for (int i = 0; i < 3; i++) {
+			MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/" + i);
+			request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{id}");
+			this.metrics.requestStarted(request);
+			this.metrics.handlerSelected(request, new HandlerMethod(new TestController(), this.handlerMethod.getMethod()));
+			this.metrics.requestCompleted(request, null);
+		}
+		assertEquals(1, this.metrics.getEndpointNames().length);
+		assertEquals(3, this.metrics.getRequestCount(SHOW_ENDPOINT));
+	}
+
+	@Test
+	public void recordErrors() {
+		this.metrics.requestStarted(this.request);
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		this.metrics.handlerFailed(this.request, new IllegalStateException());
+		this.metrics.requestCompleted(this.request, null);
+
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users/2");
+		request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/users/{id}");
+		this.metrics.requestStarted(request);
+		this.metrics.handlerSelected(request, this.handlerMethod);
+		this.metrics.requestCompleted(request, new IllegalStateException());
+
+		assertEquals(2, this.metrics.getRequestCount(SHOW_ENDPOINT));
+		assertEquals(2, this.metrics.getErrorCount(SHOW_ENDPOINT));
+		assertEquals(2, this.metrics.getTotalErrorCount());
+	}
+
+	@Test
+	public void recordUnmappedRequest() {
+		this.metrics.requestStarted(this.request);
+		this.metrics.requestCompleted(this.request, null);
+
+		assertEquals(1, this.metrics.getRequestCount(UNMAPPED_ENDPOINT));
+		assertEquals(0, this.metrics.getInFlightCount());
+	}
+
+	@Test
+	public void nestedDispatch() {
+		assertTrue(this.metrics.requestStarted(this.request));
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		assertFalse(this.metrics.requestStarted(this.request));
+		this.metrics.handlerSelected(this.request, new Object());
+		this.metrics.requestCompleted(this.request, null);
+
+		assertEquals(1, this.metrics.getEndpointNames().length);
+		assertEquals(1, this.metrics.getRequestCount(SHOW_ENDPOINT));
+	}
+
+	@Test
+	public void recordAsyncRequest() throws Exception {
+		this.request.setAsyncSupported(true);
+		StandardServletAsyncWebRequest asyncWebRequest =
+				new StandardServletAsyncWebRequest(this.request, new MockHttpServletResponse());
+		WebAsyncManager asyncManager = WebAsyncUtils.getAsyncManager(this.request);
+		asyncManager.setAsyncWebRequest(asyncWebRequest);
+
+		this.metrics.requestStarted(this.request);
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		asyncWebRequest.startAsync();
+		this.metrics.requestCompleted(this.request, null);
+
+		assertEquals(0, this.metrics.getRequestCount(SHOW_ENDPOINT));
+		assertEquals(1, this.metrics.getInFlightCount(SHOW_ENDPOINT));
+
+		this.request.getAsyncContext().complete();
+
+		assertEquals(1, this.metrics.getRequestCount(SHOW_ENDPOINT));
+		assertEquals(0, this.metrics.getInFlightCount(SHOW_ENDPOINT));
+		assertEquals(0, this.metrics.getInFlightCount());
+	}
+
+	@Test
+	public void report() {
+		final List<EndpointMetrics> reported = new ArrayList<EndpointMetrics>();
+		this.metrics.setReporters(Collections.<RequestMetricsReporter>singletonList(new RequestMetricsReporter() {
+			@Override
+			public void report(List<EndpointMetrics> metrics) {
+				reported.addAll(metrics);
+			}
+		}));
+
+		this.metrics.requestStarted(this.request);
+		this.metrics.handlerSelected(this.request, this.handlerMethod);
+		this.metrics.requestCompleted(this.request, null);
+		this.metrics.report();
+
+		assertEquals(1, reported.size());
+		EndpointMetrics endpointMetrics = reported.get(0);
+		assertEquals(SHOW_ENDPOINT, endpointMetrics.getName());
+		assertEquals("/users/{id}", endpointMetrics.getPattern());
+		assertEquals("RequestMetricsTests.TestController#show", endpointMetrics.getHandler());
+		assertEquals(1, endpointMetrics.getRequestCount());
+		assertEquals(this.metrics.getDurationBuckets().length + 1, endpointMetrics.getDurationHistogram().length);
+	}
+
+	@Test
+	public void stripedCounters() throws Exception {
+		final StripedCounters counters = new StripedCounters(2, 4);
+		Thread[] threads = new Thread[8];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread() {
+				@Override
+				public void run() {
+					for (int j = 0; j < 1000; j++) {
+						counters.increment(0);
+						counters.add(1, 2);
+					}
+				}
+			};
+			threads[i].start();
+		}
+		for (Thread thread : threads) {
+			thread.join();
+		}
+		assertEquals(8000, counters.sum(0));
+		assertEquals(16000, counters.sum(1));
+	}
+
+
+	public static class TestController {
+
+		public String show() {
+			return "user";
+		}
+	}
+
+}